@@ -0,0 +1,278 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.model.Category;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 類別索引快照
+ *
+ * 將整棵類別樹載入記憶體的不可變快照，包含 ID 到類別的映射、父類別到子類別的陣列，
+ * 以及每個類別從根節點開始的祖先路徑。快照建立後不再修改，類別變更時由
+ * {@link CategoryIndexManager} 整體替換，因此讀取端不需要任何鎖。
+ */
+public final class CategoryIndex {
+
+    private static final long[] NO_IDS = new long[0];
+
+    private static final CategoryIndex EMPTY = new CategoryIndex(Collections.emptyList(), 0L);
+
+    /**
+     * 類別節點
+     *
+     * 類別實體的不可變副本，只保留讀取端需要的欄位
+     */
+    public record Node(Long id, String name, String description, Long parentId, Boolean isActive,
+                       LocalDateTime updatedAt) {
+    }
+
+    // 類別ID到節點的映射
+    private final Map<Long, Node> nodes;
+
+    // 父類別ID到子類別ID陣列的映射，陣列依ID排序
+    private final Map<Long, long[]> children;
+
+    // 頂級類別ID陣列，依ID排序
+    private final long[] roots;
+
+    // 類別ID到祖先路徑的映射，路徑從頂級類別開始，以類別本身結尾
+    private final Map<Long, long[]> paths;
+
+    // 快照版本，每次重建遞增
+    private final long version;
+
+    private CategoryIndex(List<Category> categories, long version) {
+        this.version = version;
+
+        Map<Long, Node> nodeMap = new HashMap<>(categories.size() * 2);
+        for (Category category : categories) {
+            nodeMap.put(category.getId(), new Node(category.getId(), category.getName(),
+                    category.getDescription(), category.getParentId(), category.getIsActive(), category.getUpdatedAt()));
+        }
+
+        // 按ID排序後分組，使子類別陣列天然有序
+        List<Node> sorted = new ArrayList<>(nodeMap.values());
+        sorted.sort(Comparator.comparing(Node::id));
+
+        Map<Long, List<Long>> childLists = new HashMap<>();
+        List<Long> rootList = new ArrayList<>();
+        for (Node node : sorted) {
+            if (node.parentId() == null) {
+                rootList.add(node.id());
+            } else {
+                childLists.computeIfAbsent(node.parentId(), key -> new ArrayList<>()).add(node.id());
+            }
+        }
+
+        Map<Long, long[]> childMap = new HashMap<>(childLists.size() * 2);
+        childLists.forEach((parentId, ids) -> childMap.put(parentId, toArray(ids)));
+
+        this.nodes = Collections.unmodifiableMap(nodeMap);
+        this.children = Collections.unmodifiableMap(childMap);
+        this.roots = toArray(rootList);
+        this.paths = Collections.unmodifiableMap(buildPaths(nodeMap));
+    }
+
+    /**
+     * 從類別實體列表建立快照
+     *
+     * @param categories 所有類別實體
+     * @param version 快照版本
+     * @return 類別索引快照
+     */
+    public static CategoryIndex of(List<Category> categories, long version) {
+        return new CategoryIndex(categories, version);
+    }
+
+    /**
+     * 獲取空快照
+     *
+     * @return 不含任何類別的快照
+     */
+    public static CategoryIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 根據ID查找類別
+     *
+     * @param id 類別ID
+     * @return 包含類別節點的Optional對象，如果未找到則為空
+     */
+    public Optional<Node> find(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(nodes.get(id));
+    }
+
+    /**
+     * 根據ID獲取類別名稱
+     *
+     * @param id 類別ID
+     * @return 類別名稱，如果類別不存在則為 null
+     */
+    public String nameOf(Long id) {
+        Node node = id == null ? null : nodes.get(id);
+        return node == null ? null : node.name();
+    }
+
+    /**
+     * 檢查類別是否存在
+     *
+     * @param id 類別ID
+     * @return 類別存在時返回 true
+     */
+    public boolean contains(Long id) {
+        return id != null && nodes.containsKey(id);
+    }
+
+    /**
+     * 獲取頂級類別
+     *
+     * @return 依ID排序的頂級類別列表
+     */
+    public List<Node> roots() {
+        return toNodes(roots);
+    }
+
+    /**
+     * 獲取直接子類別
+     *
+     * @param parentId 父類別ID
+     * @return 依ID排序的子類別列表
+     */
+    public List<Node> children(Long parentId) {
+        return toNodes(parentId == null ? NO_IDS : children.getOrDefault(parentId, NO_IDS));
+    }
+
+    /**
+     * 獲取直接子類別的ID
+     *
+     * @param parentId 父類別ID
+     * @return 依ID排序的子類別ID陣列副本
+     */
+    public long[] childIds(Long parentId) {
+        return parentId == null ? NO_IDS : children.getOrDefault(parentId, NO_IDS).clone();
+    }
+
+    /**
+     * 獲取類別的祖先路徑
+     *
+     * @param id 類別ID
+     * @return 從頂級類別到類別本身的節點列表，類別不存在時為空列表
+     */
+    public List<Node> pathOf(Long id) {
+        return toNodes(id == null ? NO_IDS : paths.getOrDefault(id, NO_IDS));
+    }
+
+    /**
+     * 獲取所有類別
+     *
+     * @return 依ID排序的所有類別節點
+     */
+    public List<Node> all() {
+        List<Node> result = new ArrayList<>(nodes.values());
+        result.sort(Comparator.comparing(Node::id));
+        return result;
+    }
+
+    /**
+     * 根據名稱關鍵字搜尋類別（不區分大小寫）
+     *
+     * @param keyword 名稱關鍵字
+     * @return 依ID排序的符合條件的類別節點
+     */
+    public List<Node> searchByName(String keyword) {
+        String needle = keyword == null ? "" : keyword.toLowerCase(Locale.ROOT);
+        List<Node> result = new ArrayList<>();
+        for (Node node : all()) {
+            if (node.name() != null && node.name().toLowerCase(Locale.ROOT).contains(needle)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 獲取類別數量
+     *
+     * @return 快照中的類別數量
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 獲取快照版本
+     *
+     * @return 快照版本，每次重建遞增
+     */
+    public long version() {
+        return version;
+    }
+
+    private List<Node> toNodes(long[] ids) {
+        List<Node> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(nodes.get(id));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 計算每個類別的祖先路徑
+     *
+     * 沿父類別鏈向上追溯並重用已計算的路徑，每個類別只會被追溯一次。
+     * 資料中若存在循環引用，遇到已追溯過的類別即停止，避免無限迴圈。
+     */
+    private static Map<Long, long[]> buildPaths(Map<Long, Node> nodeMap) {
+        Map<Long, long[]> result = new HashMap<>(nodeMap.size() * 2);
+        for (Node node : nodeMap.values()) {
+            computePath(node, nodeMap, result);
+        }
+        return result;
+    }
+
+    private static long[] computePath(Node start, Map<Long, Node> nodeMap, Map<Long, long[]> computed) {
+        List<Long> chain = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        long[] prefix = NO_IDS;
+        Node current = start;
+        while (current != null && visited.add(current.id())) {
+            long[] known = computed.get(current.id());
+            if (known != null) {
+                prefix = known;
+                break;
+            }
+            chain.add(current.id());
+            current = current.parentId() == null ? null : nodeMap.get(current.parentId());
+        }
+
+        // chain 由下而上，依序補上各節點的路徑
+        long[] path = prefix;
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            long[] extended = Arrays.copyOf(path, path.length + 1);
+            extended[path.length] = chain.get(i);
+            computed.put(chain.get(i), extended);
+            path = extended;
+        }
+        return computed.get(start.id());
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+}
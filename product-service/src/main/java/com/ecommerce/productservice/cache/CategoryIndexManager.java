@@ -0,0 +1,83 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 類別索引管理器
+ * 
+ * 持有目前生效的 {@link CategoryIndex} 快照。讀取端只做一次 volatile 讀取，不需要加鎖；
+ * 類別變更的交易提交後，從資料庫重新載入所有類別並以新快照整體替換舊快照（copy-on-write）。
+ */
+@Component
+public class CategoryIndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryIndexManager.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // 目前生效的快照，尚未載入時為 null
+    private volatile CategoryIndex current;
+
+    // 快照版本計數，只在持有鎖時遞增
+    private long version;
+
+    /**
+     * 獲取目前生效的類別索引快照
+     * 
+     * 首次調用時如果快照尚未載入，會同步從資料庫載入
+     *
+     * @return 類別索引快照
+     */
+    public CategoryIndex current() {
+        CategoryIndex index = current;
+        return index != null ? index : rebuild();
+    }
+
+    /**
+     * 從資料庫重新載入所有類別並替換快照
+     * 
+     * 重建過程串行執行，確保後提交的變更不會被較早開始的重建覆蓋
+     *
+     * @return 新的類別索引快照
+     */
+    public synchronized CategoryIndex rebuild() {
+        CategoryIndex index = CategoryIndex.of(categoryRepository.findAll(), ++version);
+        current = index;
+        logger.debug("Category index rebuilt: version={}, size={}", index.version(), index.size());
+        return index;
+    }
+
+    /**
+     * 應用啟動完成後預先載入快照，避免第一個請求承擔載入成本
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 類別變更的交易提交後重建快照
+     * 
+     * 交易回滾時不會觸發；在交易之外發布的事件則立即處理。
+     * 排在其他監聽者之前執行，使依賴類別名稱的快取在清除後載入到新數據。
+     *
+     * @param event 類別變更事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+}
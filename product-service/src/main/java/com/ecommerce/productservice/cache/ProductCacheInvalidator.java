@@ -0,0 +1,53 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.config.CacheConfig;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 產品快取失效處理器
+ * 
+ * 快取中的產品DTO包含類別名稱，類別改名或刪除後需要重新組裝，
+ * 因此在類別變更的交易提交後清空整個產品快取。單一產品的清除由產品服務的寫入方法負責，
+ * 批量調整庫存無法以單一快取鍵清除，改在庫存變更的交易提交後逐一清除。
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * 類別變更的交易提交後清空產品快取
+     * 
+     * 在類別索引重建之後執行，清空後重新載入的產品即可取得新的類別名稱
+     *
+     * @param event 類別變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 庫存變更的交易提交後清除該產品的快取
+     *
+     * @param event 庫存變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        if (cache != null) {
+            cache.evict(event.getProductId());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.event.StockChangedEvent;
+import com.ecommerce.productservice.event.StockSyncedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 產品回應快取
+ *
+ * 存放已序列化的產品 JSON，熱門產品的讀取直接把位元組寫入回應，不再對規格與附加信息逐次序列化。
+ * 達到壓縮門檻的回應同時保留 gzip 壓縮後的位元組，支援 gzip 的客戶端不必在每次請求時重新壓縮。
+ *
+ * 項目以產品ID為鍵並記錄產生時的 ETag，讀取時 ETag 與產品目前的 ETag 不符即視為未命中，
+ * 寫入後即使清除事件尚未送達也不會返回舊的內容。產品、庫存與類別變更的交易提交後仍主動清除，
+ * 及早釋放不再使用的位元組。快取容量以位元組計算，由 product.response-cache.max-bytes 限制。
+ */
+@Component
+public class ProductResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${product.response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private Cache<Long, SerializedProduct> cache;
+
+    /**
+     * 已序列化的產品回應
+     *
+     * @param eTag 產生回應時產品的 ETag
+     * @param json JSON 位元組
+     * @param gzip gzip 壓縮後的 JSON 位元組，未達壓縮門檻時為 null
+     */
+    public record SerializedProduct(String eTag, byte[] json, byte[] gzip) {
+
+        /**
+         * gzip 壓縮表示的 ETag
+         *
+         * 不同內容編碼的表示不能共用強 ETag，在引號內加上 -gzip 後綴
+         *
+         * @return gzip 表示的 ETag
+         */
+        public String gzipETag() {
+            return gzipETagOf(eTag);
+        }
+
+        private int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    /**
+     * 建立快取並註冊命中率指標
+     */
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, SerializedProduct product) -> product.weight())
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "productResponses");
+        }
+    }
+
+    /**
+     * 獲取產品的已序列化回應
+     *
+     * @param id 產品ID
+     * @param eTag 產品目前的 ETag
+     * @return 已序列化的回應，不存在或 ETag 不符時返回 null
+     */
+    public SerializedProduct get(Long id, String eTag) {
+        SerializedProduct product = cache.getIfPresent(id);
+        if (product == null || !product.eTag().equals(eTag)) {
+            return null;
+        }
+        return product;
+    }
+
+    /**
+     * 序列化產品並寫入快取
+     *
+     * @param product 產品DTO
+     * @param eTag 產品的 ETag
+     * @return 已序列化的回應
+     */
+    public SerializedProduct put(ProductDTO product, String eTag) {
+        byte[] json = serialize(product);
+        SerializedProduct serialized = new SerializedProduct(eTag, json, json.length >= gzipMinBytes ? gzip(json) : null);
+        cache.put(product.getId(), serialized);
+        return serialized;
+    }
+
+    /**
+     * 序列化產品，不寫入快取
+     *
+     * 用於詳細信息缺失的降級結果，與快取中的回應使用相同的 ObjectMapper
+     *
+     * @param product 產品DTO
+     * @return JSON 位元組
+     */
+    public byte[] serialize(ProductDTO product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize product: " + product.getId(), e);
+        }
+    }
+
+    /**
+     * 清除產品的已序列化回應
+     *
+     * @param id 產品ID
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * 產品創建、更新或刪除的交易提交後清除
+     *
+     * @param event 產品變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId());
+    }
+
+    /**
+     * 庫存變更的交易提交後清除
+     *
+     * @param event 庫存變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        evict(event.getProductId());
+    }
+
+    /**
+     * 熱門庫存或預留庫存寫回資料庫後清除
+     *
+     * @param event 庫存同步事件
+     */
+    @EventListener
+    public void onStockSynced(StockSyncedEvent event) {
+        evict(event.getProductId());
+    }
+
+    /**
+     * 類別變更的交易提交後清空，回應中包含類別名稱
+     *
+     * @param event 類別變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 計算 gzip 表示的 ETag
+     *
+     * @param eTag 未壓縮表示的 ETag
+     * @return gzip 表示的 ETag
+     */
+    public static String gzipETagOf(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
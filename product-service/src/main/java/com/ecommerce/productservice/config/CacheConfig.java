@@ -0,0 +1,22 @@
+package com.ecommerce.productservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 快取配置類
+ * 
+ * 啟用宣告式快取，快取實現與容量由 application.yml 中的 spring.cache 配置決定。
+ * 快取攔截器的順序排在交易攔截器之外，確保寫入方法的快取清除發生在交易提交之後，
+ * 避免其他請求在提交前重新載入舊數據並寫回快取。
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    
+    /**
+     * 產品快取名稱，存放已組裝完成的產品DTO
+     */
+    public static final String PRODUCT_CACHE = "products";
+}
@@ -172,17 +172,17 @@ public class DatabaseInitializer implements CommandLineRunner {
         phone1Specs.put("網路", "5G連接");
         phone1Detail.setSpecifications(phone1Specs);
         
-        Map<String, String> phone1FeaturesMap = new HashMap<>();
-        phone1FeaturesMap.put("feature1", "防水防塵");
-        phone1FeaturesMap.put("feature2", "無線充電");
-        phone1FeaturesMap.put("feature3", "MagSafe");
-        phone1Detail.setFeatures(phone1FeaturesMap);
-        
-        Map<String, String> phone1TagsMap = new HashMap<>();
-        phone1TagsMap.put("tag1", "智能手機");
-        phone1TagsMap.put("tag2", "Apple");
-        phone1TagsMap.put("tag3", "iPhone");
-        phone1Detail.setTags(phone1TagsMap);
+        List<String> phone1Features = new ArrayList<>();
+        phone1Features.add("防水防塵");
+        phone1Features.add("無線充電");
+        phone1Features.add("MagSafe");
+        phone1Detail.setFeatures(phone1Features);
+        
+        List<String> phone1Tags = new ArrayList<>();
+        phone1Tags.add("智能手機");
+        phone1Tags.add("Apple");
+        phone1Tags.add("iPhone");
+        phone1Detail.setTags(phone1Tags);
         
         ProductDetail phone2Detail = new ProductDetail();
         phone2Detail.setProductId(phone2.getId());
@@ -202,17 +202,17 @@ public class DatabaseInitializer implements CommandLineRunner {
         phone2Specs.put("網路", "5G連接");
         phone2Detail.setSpecifications(phone2Specs);
         
-        Map<String, String> phone2FeaturesMap = new HashMap<>();
-        phone2FeaturesMap.put("feature1", "防水防塵");
-        phone2FeaturesMap.put("feature2", "無線充電");
-        phone2FeaturesMap.put("feature3", "反向無線充電");
-        phone2Detail.setFeatures(phone2FeaturesMap);
+        List<String> phone2Features = new ArrayList<>();
+        phone2Features.add("防水防塵");
+        phone2Features.add("無線充電");
+        phone2Features.add("反向無線充電");
+        phone2Detail.setFeatures(phone2Features);
         
-        Map<String, String> phone2TagsMap = new HashMap<>();
-        phone2TagsMap.put("tag1", "智能手機");
-        phone2TagsMap.put("tag2", "Samsung");
-        phone2TagsMap.put("tag3", "Galaxy");
-        phone2Detail.setTags(phone2TagsMap);
+        List<String> phone2Tags = new ArrayList<>();
+        phone2Tags.add("智能手機");
+        phone2Tags.add("Samsung");
+        phone2Tags.add("Galaxy");
+        phone2Detail.setTags(phone2Tags);
         
         // 保存手機產品詳情
         productDetailRepository.save(phone1Detail);
@@ -265,17 +265,17 @@ public class DatabaseInitializer implements CommandLineRunner {
         laptop1Specs.put("電池壽命", "最長20小時");
         laptop1Detail.setSpecifications(laptop1Specs);
         
-        Map<String, String> laptop1FeaturesMap = new HashMap<>();
-        laptop1FeaturesMap.put("feature1", "Touch Bar");
-        laptop1FeaturesMap.put("feature2", "Touch ID");
-        laptop1FeaturesMap.put("feature3", "背光鍵盤");
-        laptop1Detail.setFeatures(laptop1FeaturesMap);
+        List<String> laptop1Features = new ArrayList<>();
+        laptop1Features.add("Touch Bar");
+        laptop1Features.add("Touch ID");
+        laptop1Features.add("背光鍵盤");
+        laptop1Detail.setFeatures(laptop1Features);
         
-        Map<String, String> laptop1TagsMap = new HashMap<>();
-        laptop1TagsMap.put("tag1", "筆記型電腦");
-        laptop1TagsMap.put("tag2", "Apple");
-        laptop1TagsMap.put("tag3", "MacBook");
-        laptop1Detail.setTags(laptop1TagsMap);
+        List<String> laptop1Tags = new ArrayList<>();
+        laptop1Tags.add("筆記型電腦");
+        laptop1Tags.add("Apple");
+        laptop1Tags.add("MacBook");
+        laptop1Detail.setTags(laptop1Tags);
         
         ProductDetail laptop2Detail = new ProductDetail();
         laptop2Detail.setProductId(laptop2.getId());
@@ -294,17 +294,17 @@ public class DatabaseInitializer implements CommandLineRunner {
         laptop2Specs.put("電池壽命", "最長12小時");
         laptop2Detail.setSpecifications(laptop2Specs);
         
-        Map<String, String> laptop2FeaturesMap = new HashMap<>();
-        laptop2FeaturesMap.put("feature1", "指紋識別");
-        laptop2FeaturesMap.put("feature2", "背光鍵盤");
-        laptop2FeaturesMap.put("feature3", "Thunderbolt 4");
-        laptop2Detail.setFeatures(laptop2FeaturesMap);
-        
-        Map<String, String> laptop2TagsMap = new HashMap<>();
-        laptop2TagsMap.put("tag1", "筆記型電腦");
-        laptop2TagsMap.put("tag2", "Dell");
-        laptop2TagsMap.put("tag3", "XPS");
-        laptop2Detail.setTags(laptop2TagsMap);
+        List<String> laptop2Features = new ArrayList<>();
+        laptop2Features.add("指紋識別");
+        laptop2Features.add("背光鍵盤");
+        laptop2Features.add("Thunderbolt 4");
+        laptop2Detail.setFeatures(laptop2Features);
+        
+        List<String> laptop2Tags = new ArrayList<>();
+        laptop2Tags.add("筆記型電腦");
+        laptop2Tags.add("Dell");
+        laptop2Tags.add("XPS");
+        laptop2Detail.setTags(laptop2Tags);
         
         // 保存筆記型電腦產品詳情
         productDetailRepository.save(laptop1Detail);
@@ -0,0 +1,67 @@
+package com.ecommerce.productservice.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 產品查詢執行器
+ * 
+ * 用於並行發出 MySQL 與 MongoDB 查詢的專用執行緒池，與 Web 請求執行緒及應用程式預設的任務執行器隔離。
+ * 刻意不以 Executor 類型註冊為 Bean，以免取代 Spring Boot 自動配置的 applicationTaskExecutor。
+ * 佇列滿時由調用者執行緒直接執行查詢，在高負載下退化為串行查詢而不是拒絕請求。
+ */
+@Component
+public class ProductLookupExecutor {
+
+    @Value("${product.lookup.pool-size:16}")
+    private int poolSize;
+
+    @Value("${product.lookup.queue-capacity:256}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 初始化執行緒池
+     */
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-lookup-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 非同步執行查詢並設定期限
+     * 
+     * 超過期限時返回的 Future 以 {@link java.util.concurrent.TimeoutException} 異常完成；
+     * 底層查詢不會被中斷，由各資料庫驅動自身的逾時設定回收連線。
+     *
+     * @param query 查詢操作
+     * @param timeoutMillis 期限（毫秒）
+     * @return 查詢結果的 Future
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> query, long timeoutMillis) {
+        return CompletableFuture.supplyAsync(query, executor)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 關閉執行緒池
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.productservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 排程配置類
+ * 
+ * 啟用 @Scheduled 定時任務，例如熱門度的定期衰減與快照保存。
+ * 排程執行緒池的大小由 spring.task.scheduling.pool.size 設定，
+ * 發件箱轉送、讀取模型刷新、保留到期與寫回等任務各自執行，不會互相等待。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
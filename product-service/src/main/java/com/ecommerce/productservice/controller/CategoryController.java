@@ -16,11 +16,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * 產品類別控制器
@@ -199,19 +199,26 @@ public class CategoryController {
     /**
      * 獲取類別樹
      * 
+     * 直接返回預先序列化的 JSON，類別未變更時不重新構建或序列化。
+     * 回應帶有由內容計算的 ETag，請求的 If-None-Match 相符時返回 304 且不含回應主體。
+     * 
      * @return 類別樹結構和HTTP狀態碼
      */
-    @GetMapping("/tree")
+    @GetMapping(value = "/tree", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "獲取類別樹", description = "獲取完整的類別樹結構")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "成功獲取類別樹", 
-                     content = @Content(schema = @Schema(implementation = List.class)))
+                     content = @Content(schema = @Schema(implementation = List.class))),
+        @ApiResponse(responseCode = "304", description = "類別樹未變更")
     })
-    public ResponseEntity<List<Map<String, Object>>> getCategoryTree() {
-        // 調用服務層獲取類別樹
-        List<Map<String, Object>> categoryTree = categoryService.getCategoryTree();
-        // 返回類別樹
-        return ResponseEntity.ok(categoryTree);
+    public ResponseEntity<byte[]> getCategoryTree() {
+        // 調用服務層獲取已序列化的類別樹，JSON 與 ETag 取自同一版本
+        CategoryService.SerializedTree categoryTree = categoryService.getSerializedCategoryTree();
+        // 返回類別樹，If-None-Match 相符時由框架改為返回 304
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(categoryTree.eTag())
+                .body(categoryTree.json());
     }
     
     /**
@@ -1,9 +1,27 @@
 package com.ecommerce.productservice.controller;
 
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.cache.ProductResponseCache.SerializedProduct;
+import com.ecommerce.productservice.dto.AvailabilityDTO;
+import com.ecommerce.productservice.dto.CursorPage;
+import com.ecommerce.productservice.dto.FacetedPage;
 import com.ecommerce.productservice.dto.ProductCreateRequest;
+import com.ecommerce.productservice.dto.ProductCursor;
 import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductFieldSet;
+import com.ecommerce.productservice.dto.ProductFilter;
 import com.ecommerce.productservice.dto.ProductUpdateRequest;
+import com.ecommerce.productservice.dto.ProductViewRebuildReport;
+import com.ecommerce.productservice.dto.StockBatchRequest;
+import com.ecommerce.productservice.dto.StockBatchResult;
+import com.ecommerce.productservice.dto.StockDTO;
+import com.ecommerce.productservice.exception.StockBatchException;
+import com.ecommerce.productservice.popularity.PopularityTracker;
+import com.ecommerce.productservice.service.ProductExportService;
 import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.productservice.service.ReservationService;
+import com.ecommerce.productservice.stock.HotStockManager;
+import com.ecommerce.productservice.view.ProductViewProjector;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,12 +35,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 產品控制器
@@ -39,6 +62,30 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    // 注入產品目錄匯出服務
+    @Autowired
+    private ProductExportService productExportService;
+    
+    // 注入熱門度追蹤器，統計產品瀏覽次數
+    @Autowired
+    private PopularityTracker popularityTracker;
+    
+    // 注入庫存保留服務，查詢扣除保留後的可售數量
+    @Autowired
+    private ReservationService reservationService;
+    
+    // 注入熱門產品庫存管理器，啟用或停用庫存分槽
+    @Autowired
+    private HotStockManager hotStockManager;
+    
+    // 注入產品讀取模型投影器，重建讀取模型
+    @Autowired
+    private ProductViewProjector productViewProjector;
+    
+    // 注入產品回應快取，熱門產品直接寫入已序列化的回應
+    @Autowired
+    private ProductResponseCache productResponseCache;
+    
     /**
      * 創建產品
      * 
@@ -90,29 +137,144 @@ public class ProductController {
     /**
      * 根據ID獲取產品
      * 
+     * 回應帶有強 ETag。先只查詢產品的版本，If-None-Match 相符時直接返回 304，
+     * 不組裝產品、不查詢產品詳情也不序列化回應。回應快取中有相同版本的產品時直接寫入已序列化的位元組，
+     * 客戶端支援 gzip 時寫入預先壓縮的位元組。詳情缺失的降級結果不帶 ETag，也不寫入回應快取。
+     * 
      * @param id 產品ID
-     * @return 產品DTO和HTTP狀態碼
+     * @param ifNoneMatch 客戶端快取的 ETag
+     * @param acceptEncoding 客戶端接受的內容編碼
+     * @return 產品JSON和HTTP狀態碼
      */
     @GetMapping("/{id}")
     @Operation(summary = "獲取產品", description = "根據ID獲取產品詳細信息")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "成功獲取產品", 
                      content = @Content(schema = @Schema(implementation = ProductDTO.class))),
+        @ApiResponse(responseCode = "304", description = "產品未變更"),
         @ApiResponse(responseCode = "404", description = "產品不存在")
     })
-    public ResponseEntity<ProductDTO> getProductById(
-            @Parameter(description = "產品ID", required = true) @PathVariable Long id) {
-        // 調用服務層獲取產品
+    public ResponseEntity<byte[]> getProductById(
+            @Parameter(description = "產品ID", required = true) @PathVariable Long id,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // 先比對產品版本，再查詢回應快取
+        Optional<String> current = productService.getProductETag(id);
+        if (current.isPresent()) {
+            String eTag = current.get();
+            if (ifNoneMatch != null) {
+                String matched = matchesAny(ifNoneMatch, eTag) ? eTag
+                        : matchesAny(ifNoneMatch, ProductResponseCache.gzipETagOf(eTag)) ? ProductResponseCache.gzipETagOf(eTag)
+                        : null;
+                if (matched != null) {
+                    popularityTracker.recordView(id);
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(matched).build();
+                }
+            }
+            SerializedProduct cached = productResponseCache.get(id, eTag);
+            if (cached != null) {
+                popularityTracker.recordView(id);
+                return serializedResponse(cached, acceptEncoding);
+            }
+        }
+        
+        // 調用服務層獲取產品，產品存在時記錄一次瀏覽
         return productService.getProductById(id)
-                .map(ResponseEntity::ok)
+                .map(product -> {
+                    popularityTracker.recordView(id);
+                    if (product.isDegraded()) {
+                        return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(productResponseCache.serialize(product));
+                    }
+                    SerializedProduct serialized = productResponseCache.put(product, productService.getProductETag(product));
+                    return serializedResponse(serialized, acceptEncoding);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * 以已序列化的產品建立回應
+     * 
+     * 客戶端接受 gzip 且有預先壓縮的位元組時返回壓縮表示，ETag 使用壓縮表示的 ETag
+     * 
+     * @param serialized 已序列化的產品
+     * @param acceptEncoding 客戶端接受的內容編碼
+     * @return 產品JSON回應
+     */
+    private static ResponseEntity<byte[]> serializedResponse(SerializedProduct serialized, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (serialized.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.eTag(serialized.gzipETag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(serialized.gzip());
+        }
+        return response.eTag(serialized.eTag()).body(serialized.json());
+    }
+    
+    /**
+     * 檢查 Accept-Encoding 是否接受 gzip
+     * 
+     * @param acceptEncoding Accept-Encoding 標頭
+     * @return 接受 gzip 且品質值不為 0 時返回 true
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 檢查 If-None-Match 是否包含指定的 ETag
+     * 
+     * 依 If-None-Match 的弱比較規則，忽略 W/ 前綴；* 符合任何存在的資源
+     * 
+     * @param ifNoneMatch If-None-Match 標頭
+     * @param eTag 目前的 ETag
+     * @return 包含時返回 true
+     */
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * 獲取所有產品（分頁）
      * 
      * @param page 頁碼（從0開始）
      * @param size 每頁大小
+     * @param cursor 分頁游標，提供時改用游標分頁並返回 {@link CursorPage}
+     * @param view 檢視模式（full或summary）
+     * @param fields 以逗號分隔的摘要欄位
      * @param sort 排序欄位
      * @param direction 排序方向（asc或desc）
      * @return 分頁的產品列表和HTTP狀態碼
@@ -123,14 +285,27 @@ public class ProductController {
         @ApiResponse(responseCode = "200", description = "成功獲取產品列表", 
                      content = @Content(schema = @Schema(implementation = Page.class)))
     })
-    public ResponseEntity<Page<ProductDTO>> getAllProducts(
+    public ResponseEntity<?> getAllProducts(
             @Parameter(description = "頁碼（從0開始）") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "排序欄位") @RequestParam(defaultValue = "id") String sort,
-            @Parameter(description = "排序方向（asc或desc）") @RequestParam(defaultValue = "asc") String direction) {
+            @Parameter(description = "排序方向（asc或desc）") @RequestParam(defaultValue = "asc") String direction,
+            @Parameter(description = "分頁游標，提供時改用游標分頁（第一頁傳空值），不計算總筆數") @RequestParam(required = false) String cursor,
+            @Parameter(description = "檢視模式（full或summary），summary 只返回摘要欄位，不查詢產品詳情") @RequestParam(required = false) String view,
+            @Parameter(description = "以逗號分隔的摘要欄位，例如 id,name,price,imageUrl，隱含 view=summary") @RequestParam(required = false) String fields) {
+        ProductFieldSet fieldSet = ProductFieldSet.parse(view, fields);
+        // 游標分頁模式
+        if (cursor != null) {
+            ProductCursor position = ProductCursor.resolve(cursor, sort, direction);
+            return ResponseEntity.ok(scroll(new ProductFilter(), position, size, fieldSet));
+        }
         // 創建分頁和排序參數
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, sortDirection, sort);
+        // 摘要檢視
+        if (fieldSet != null) {
+            return ResponseEntity.ok(productService.getProductSummaries(new ProductFilter(), pageable, fieldSet));
+        }
         // 調用服務層獲取產品列表
         Page<ProductDTO> products = productService.getAllProducts(pageable);
         // 返回產品列表
@@ -165,20 +340,29 @@ public class ProductController {
      * @param name 產品名稱關鍵字
      * @param page 頁碼（從0開始）
      * @param size 每頁大小
+     * @param view 檢視模式（full或summary）
+     * @param fields 以逗號分隔的摘要欄位
      * @return 分頁的產品列表和HTTP狀態碼
      */
     @GetMapping("/search")
-    @Operation(summary = "搜尋產品", description = "根據名稱關鍵字搜尋產品")
+    @Operation(summary = "搜尋產品", description = "根據名稱關鍵字搜尋產品，結果依相關度排序，支援中文")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "成功獲取產品列表", 
                      content = @Content(schema = @Schema(implementation = Page.class)))
     })
-    public ResponseEntity<Page<ProductDTO>> searchProductsByName(
+    public ResponseEntity<?> searchProductsByName(
             @Parameter(description = "產品名稱關鍵字", required = true) @RequestParam String name,
             @Parameter(description = "頁碼（從0開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "檢視模式（full或summary），summary 只返回摘要欄位，不查詢產品詳情") @RequestParam(required = false) String view,
+            @Parameter(description = "以逗號分隔的摘要欄位，例如 id,name,price,imageUrl，隱含 view=summary") @RequestParam(required = false) String fields) {
+        ProductFieldSet fieldSet = ProductFieldSet.parse(view, fields);
         // 創建分頁參數
         Pageable pageable = PageRequest.of(page, size);
+        // 摘要檢視
+        if (fieldSet != null) {
+            return ResponseEntity.ok(productService.searchProductSummaries(name, pageable, fieldSet));
+        }
         // 調用服務層搜尋產品
         Page<ProductDTO> products = productService.searchProductsByName(name, pageable);
         // 返回產品列表
@@ -191,6 +375,9 @@ public class ProductController {
      * @param categoryId 類別ID
      * @param page 頁碼（從0開始）
      * @param size 每頁大小
+     * @param cursor 分頁游標，提供時改用游標分頁並返回 {@link CursorPage}
+     * @param view 檢視模式（full或summary）
+     * @param fields 以逗號分隔的摘要欄位
      * @return 分頁的產品列表和HTTP狀態碼
      */
     @GetMapping("/category/{categoryId}")
@@ -200,12 +387,26 @@ public class ProductController {
                      content = @Content(schema = @Schema(implementation = Page.class))),
         @ApiResponse(responseCode = "404", description = "類別不存在")
     })
-    public ResponseEntity<Page<ProductDTO>> getProductsByCategory(
+    public ResponseEntity<?> getProductsByCategory(
             @Parameter(description = "類別ID", required = true) @PathVariable Long categoryId,
             @Parameter(description = "頁碼（從0開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "分頁游標，提供時改用游標分頁（第一頁傳空值），不計算總筆數") @RequestParam(required = false) String cursor,
+            @Parameter(description = "檢視模式（full或summary），summary 只返回摘要欄位，不查詢產品詳情") @RequestParam(required = false) String view,
+            @Parameter(description = "以逗號分隔的摘要欄位，例如 id,name,price,imageUrl，隱含 view=summary") @RequestParam(required = false) String fields) {
+        ProductFieldSet fieldSet = ProductFieldSet.parse(view, fields);
+        ProductFilter filter = new ProductFilter();
+        filter.setCategoryId(categoryId);
+        // 游標分頁模式
+        if (cursor != null) {
+            return ResponseEntity.ok(scroll(filter, ProductCursor.resolve(cursor, "id", "asc"), size, fieldSet));
+        }
         // 創建分頁參數
         Pageable pageable = PageRequest.of(page, size);
+        // 摘要檢視
+        if (fieldSet != null) {
+            return ResponseEntity.ok(productService.getProductSummaries(filter, pageable, fieldSet));
+        }
         // 調用服務層獲取產品列表
         Page<ProductDTO> products = productService.getProductsByCategory(categoryId, pageable);
         // 返回產品列表
@@ -219,6 +420,9 @@ public class ProductController {
      * @param maxPrice 最高價格
      * @param page 頁碼（從0開始）
      * @param size 每頁大小
+     * @param cursor 分頁游標，提供時改用游標分頁並返回 {@link CursorPage}
+     * @param view 檢視模式（full或summary）
+     * @param fields 以逗號分隔的摘要欄位
      * @return 分頁的產品列表和HTTP狀態碼
      */
     @GetMapping("/price-range")
@@ -227,11 +431,15 @@ public class ProductController {
         @ApiResponse(responseCode = "200", description = "成功獲取產品列表", 
                      content = @Content(schema = @Schema(implementation = Page.class)))
     })
-    public ResponseEntity<Page<ProductDTO>> getProductsByPriceRange(
+    public ResponseEntity<?> getProductsByPriceRange(
             @Parameter(description = "最低價格") @RequestParam(required = false) BigDecimal minPrice,
             @Parameter(description = "最高價格") @RequestParam(required = false) BigDecimal maxPrice,
             @Parameter(description = "頁碼（從0開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "分頁游標，提供時改用游標分頁（第一頁傳空值），不計算總筆數") @RequestParam(required = false) String cursor,
+            @Parameter(description = "檢視模式（full或summary），summary 只返回摘要欄位，不查詢產品詳情") @RequestParam(required = false) String view,
+            @Parameter(description = "以逗號分隔的摘要欄位，例如 id,name,price,imageUrl，隱含 view=summary") @RequestParam(required = false) String fields) {
+        ProductFieldSet fieldSet = ProductFieldSet.parse(view, fields);
         // 如果最低價格為空，設置為0
         if (minPrice == null) {
             minPrice = BigDecimal.ZERO;
@@ -240,8 +448,19 @@ public class ProductController {
         if (maxPrice == null) {
             maxPrice = new BigDecimal("999999999");
         }
+        ProductFilter filter = new ProductFilter();
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+        // 游標分頁模式
+        if (cursor != null) {
+            return ResponseEntity.ok(scroll(filter, ProductCursor.resolve(cursor, "id", "asc"), size, fieldSet));
+        }
         // 創建分頁參數
         Pageable pageable = PageRequest.of(page, size);
+        // 摘要檢視
+        if (fieldSet != null) {
+            return ResponseEntity.ok(productService.getProductSummaries(filter, pageable, fieldSet));
+        }
         // 調用服務層獲取產品列表
         Page<ProductDTO> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
         // 返回產品列表
@@ -254,6 +473,9 @@ public class ProductController {
      * @param brand 品牌名稱
      * @param page 頁碼（從0開始）
      * @param size 每頁大小
+     * @param cursor 分頁游標，提供時改用游標分頁並返回 {@link CursorPage}
+     * @param view 檢視模式（full或summary）
+     * @param fields 以逗號分隔的摘要欄位
      * @return 分頁的產品列表和HTTP狀態碼
      */
     @GetMapping("/brand/{brand}")
@@ -262,12 +484,26 @@ public class ProductController {
         @ApiResponse(responseCode = "200", description = "成功獲取產品列表", 
                      content = @Content(schema = @Schema(implementation = Page.class)))
     })
-    public ResponseEntity<Page<ProductDTO>> getProductsByBrand(
+    public ResponseEntity<?> getProductsByBrand(
             @Parameter(description = "品牌名稱", required = true) @PathVariable String brand,
             @Parameter(description = "頁碼（從0開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "分頁游標，提供時改用游標分頁（第一頁傳空值），不計算總筆數") @RequestParam(required = false) String cursor,
+            @Parameter(description = "檢視模式（full或summary），summary 只返回摘要欄位，不查詢產品詳情") @RequestParam(required = false) String view,
+            @Parameter(description = "以逗號分隔的摘要欄位，例如 id,name,price,imageUrl，隱含 view=summary") @RequestParam(required = false) String fields) {
+        ProductFieldSet fieldSet = ProductFieldSet.parse(view, fields);
+        ProductFilter filter = new ProductFilter();
+        filter.setBrand(brand);
+        // 游標分頁模式
+        if (cursor != null) {
+            return ResponseEntity.ok(scroll(filter, ProductCursor.resolve(cursor, "id", "asc"), size, fieldSet));
+        }
         // 創建分頁參數
         Pageable pageable = PageRequest.of(page, size);
+        // 摘要檢視
+        if (fieldSet != null) {
+            return ResponseEntity.ok(productService.getProductSummaries(filter, pageable, fieldSet));
+        }
         // 調用服務層獲取產品列表
         Page<ProductDTO> products = productService.getProductsByBrand(brand, pageable);
         // 返回產品列表
@@ -281,7 +517,7 @@ public class ProductController {
      * @return 熱門產品列表和HTTP狀態碼
      */
     @GetMapping("/top")
-    @Operation(summary = "獲取熱門產品", description = "獲取指定數量的熱門產品")
+    @Operation(summary = "獲取熱門產品", description = "獲取指定數量的熱門產品，依近期瀏覽次數與售出數量排名")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "成功獲取熱門產品列表", 
                      content = @Content(schema = @Schema(implementation = List.class)))
@@ -294,6 +530,46 @@ public class ProductController {
         return ResponseEntity.ok(topProducts);
     }
     
+    /**
+     * 匯出完整產品目錄
+     * 
+     * 回應在背景執行緒中邊讀邊寫，不會將整個目錄載入記憶體。
+     * 
+     * @return 以 NDJSON 格式串流的產品DTO和HTTP狀態碼
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "匯出產品目錄", description = "以 NDJSON 串流所有產品，包含詳情與類別名稱，依產品ID排序")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "開始匯出")
+    })
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        // 調用服務層將產品寫入回應
+        StreamingResponseBody body = productExportService::exportProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("products.ndjson").build().toString())
+                .body(body);
+    }
+    
+    /**
+     * 重建產品讀取模型
+     * 
+     * 從產品表與產品詳情重新寫入所有讀取模型文檔，重建期間暫停套用產品變更。
+     * 
+     * @return 重建報告和HTTP狀態碼
+     */
+    @PostMapping("/view:rebuild")
+    @Operation(summary = "重建產品讀取模型", description = "以所有產品重新寫入 product_view 讀取模型，並移除已刪除產品的文檔")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "重建完成", 
+                     content = @Content(schema = @Schema(implementation = ProductViewRebuildReport.class)))
+    })
+    public ResponseEntity<ProductViewRebuildReport> rebuildProductView() {
+        // 調用讀取模型投影器重建讀取模型
+        return ResponseEntity.ok(productViewProjector.rebuild());
+    }
+    
     /**
      * 根據多個條件過濾產品
      * 
@@ -304,24 +580,47 @@ public class ProductController {
      * @param brand 品牌名稱
      * @param page 頁碼（從0開始）
      * @param size 每頁大小
+     * @param cursor 分頁游標，提供時改用游標分頁並返回 {@link CursorPage}
+     * @param view 檢視模式（full或summary）
+     * @param fields 以逗號分隔的摘要欄位
+     * @param facets 是否返回分面計數，為 true 時返回 {@link FacetedPage}
      * @return 分頁的產品列表和HTTP狀態碼
      */
     @GetMapping("/filter")
-    @Operation(summary = "過濾產品", description = "根據多個條件過濾產品")
+    @Operation(summary = "過濾產品", description = "根據多個條件過濾產品，可同時返回分面計數")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "成功獲取產品列表", 
                      content = @Content(schema = @Schema(implementation = Page.class)))
     })
-    public ResponseEntity<Page<ProductDTO>> filterProducts(
+    public ResponseEntity<?> filterProducts(
             @Parameter(description = "產品名稱關鍵字") @RequestParam(required = false) String name,
             @Parameter(description = "類別ID") @RequestParam(required = false) Long categoryId,
             @Parameter(description = "最低價格") @RequestParam(required = false) BigDecimal minPrice,
             @Parameter(description = "最高價格") @RequestParam(required = false) BigDecimal maxPrice,
             @Parameter(description = "品牌名稱") @RequestParam(required = false) String brand,
             @Parameter(description = "頁碼（從0開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "分頁游標，提供時改用游標分頁（第一頁傳空值），不計算總筆數") @RequestParam(required = false) String cursor,
+            @Parameter(description = "檢視模式（full或summary），summary 只返回摘要欄位，不查詢產品詳情") @RequestParam(required = false) String view,
+            @Parameter(description = "以逗號分隔的摘要欄位，例如 id,name,price,imageUrl，隱含 view=summary") @RequestParam(required = false) String fields,
+            @Parameter(description = "是否返回品牌、類別與價格區間的分面計數，只適用於完整檢視的分頁查詢") @RequestParam(defaultValue = "false") boolean facets) {
+        ProductFieldSet fieldSet = ProductFieldSet.parse(view, fields);
+        // 與分頁查詢一樣只返回上架中的產品
+        ProductFilter filter = new ProductFilter(name, categoryId, minPrice, maxPrice, brand, true);
+        // 游標分頁模式
+        if (cursor != null) {
+            return ResponseEntity.ok(scroll(filter, ProductCursor.resolve(cursor, "id", "asc"), size, fieldSet));
+        }
         // 創建分頁參數
         Pageable pageable = PageRequest.of(page, size);
+        // 摘要檢視
+        if (fieldSet != null) {
+            return ResponseEntity.ok(productService.getProductSummaries(filter, pageable, fieldSet));
+        }
+        // 帶分面計數
+        if (facets) {
+            return ResponseEntity.ok(productService.filterProductsWithFacets(filter, pageable));
+        }
         // 調用服務層過濾產品
         Page<ProductDTO> products = productService.filterProducts(name, categoryId, minPrice, maxPrice, brand, pageable);
         // 返回產品列表
@@ -333,22 +632,131 @@ public class ProductController {
      * 
      * @param id 產品ID
      * @param quantity 要增加或減少的數量（正數增加，負數減少）
-     * @return 更新後的產品DTO和HTTP狀態碼
+     * @return 更新後的庫存和HTTP狀態碼
      */
     @PatchMapping("/{id}/stock")
-    @Operation(summary = "更新產品庫存", description = "增加或減少產品庫存")
+    @Operation(summary = "更新產品庫存", description = "增加或減少產品庫存，庫存不足時不做任何修改")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "庫存更新成功", 
-                     content = @Content(schema = @Schema(implementation = ProductDTO.class))),
+                     content = @Content(schema = @Schema(implementation = StockDTO.class))),
         @ApiResponse(responseCode = "400", description = "請求參數無效"),
-        @ApiResponse(responseCode = "404", description = "產品不存在")
+        @ApiResponse(responseCode = "404", description = "產品不存在"),
+        @ApiResponse(responseCode = "409", description = "庫存不足")
     })
-    public ResponseEntity<ProductDTO> updateProductStock(
+    public ResponseEntity<StockDTO> updateProductStock(
             @Parameter(description = "產品ID", required = true) @PathVariable Long id,
             @Parameter(description = "要增加或減少的數量（正數增加，負數減少）", required = true) @RequestParam Integer quantity) {
         // 調用服務層更新產品庫存
-        ProductDTO updatedProduct = productService.updateProductStock(id, quantity);
-        // 返回更新後的產品數據
-        return ResponseEntity.ok(updatedProduct);
+        StockDTO stock = productService.updateProductStock(id, quantity);
+        // 返回更新後的庫存
+        return ResponseEntity.ok(stock);
+    }
+    
+    /**
+     * 批量調整多個產品的庫存
+     * 
+     * @param request 批量調整庫存請求
+     * @return 每一行的調整結果和HTTP狀態碼
+     */
+    @PatchMapping("/stock:batch")
+    @Operation(summary = "批量調整產品庫存", 
+               description = "在同一個交易中依產品ID順序調整多個產品的庫存，任一行庫存不足或產品不存在時全部不套用")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "全部調整成功", 
+                     content = @Content(schema = @Schema(implementation = StockBatchResult.class))),
+        @ApiResponse(responseCode = "400", description = "請求參數無效"),
+        @ApiResponse(responseCode = "409", description = "有行無法套用，整批未調整", 
+                     content = @Content(schema = @Schema(implementation = StockBatchResult.class)))
+    })
+    public ResponseEntity<StockBatchResult> adjustProductStocks(@Valid @RequestBody StockBatchRequest request) {
+        // 調用服務層批量調整庫存
+        return ResponseEntity.ok(productService.adjustStocks(request.getAdjustments()));
+    }
+    
+    /**
+     * 批量調整庫存失敗時返回每一行的結果
+     * 
+     * @param e 批量調整庫存失敗異常
+     * @return 每一行的調整結果和HTTP狀態碼
+     */
+    @ExceptionHandler(StockBatchException.class)
+    public ResponseEntity<StockBatchResult> handleStockBatchException(StockBatchException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getResult());
+    }
+    
+    /**
+     * 啟用產品的熱門模式
+     * 
+     * @param id 產品ID
+     * @param slots 庫存分槽數量
+     * @return 產品的總庫存和HTTP狀態碼
+     */
+    @PutMapping("/{id}/stock/slots")
+    @Operation(summary = "啟用熱門模式", 
+               description = "將產品庫存分散到多個分槽，併發的庫存更新鎖定不同的行；已啟用時調整分槽數量")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "啟用成功", 
+                     content = @Content(schema = @Schema(implementation = StockDTO.class))),
+        @ApiResponse(responseCode = "404", description = "產品不存在")
+    })
+    public ResponseEntity<StockDTO> enableHotStock(
+            @Parameter(description = "產品ID", required = true) @PathVariable Long id,
+            @Parameter(description = "庫存分槽數量") @RequestParam(defaultValue = "8") int slots) {
+        // 調用熱門產品庫存管理器啟用熱門模式
+        return ResponseEntity.ok(new StockDTO(id, hotStockManager.enable(id, slots)));
+    }
+    
+    /**
+     * 停用產品的熱門模式
+     * 
+     * @param id 產品ID
+     * @return 產品的總庫存和HTTP狀態碼
+     */
+    @DeleteMapping("/{id}/stock/slots")
+    @Operation(summary = "停用熱門模式", description = "將所有分槽的庫存合併回產品")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "停用成功", 
+                     content = @Content(schema = @Schema(implementation = StockDTO.class))),
+        @ApiResponse(responseCode = "404", description = "產品未啟用熱門模式")
+    })
+    public ResponseEntity<StockDTO> disableHotStock(
+            @Parameter(description = "產品ID", required = true) @PathVariable Long id) {
+        // 調用熱門產品庫存管理器停用熱門模式
+        return ResponseEntity.ok(new StockDTO(id, hotStockManager.disable(id)));
+    }
+    
+    /**
+     * 獲取產品的可售數量
+     * 
+     * @param id 產品ID
+     * @return 產品的庫存、保留中的數量與可售數量和HTTP狀態碼
+     */
+    @GetMapping("/{id}/availability")
+    @Operation(summary = "獲取產品可售數量", description = "返回扣除保留中與已確認數量後的可售數量，從記憶體中的保留帳本查詢")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "查詢成功", 
+                     content = @Content(schema = @Schema(implementation = AvailabilityDTO.class))),
+        @ApiResponse(responseCode = "404", description = "產品不存在")
+    })
+    public ResponseEntity<AvailabilityDTO> getProductAvailability(
+            @Parameter(description = "產品ID", required = true) @PathVariable Long id) {
+        // 調用庫存保留服務查詢可售數量
+        return ResponseEntity.ok(reservationService.getAvailability(id));
+    }
+    
+    /**
+     * 以游標分頁查詢，依檢視模式返回完整產品或產品摘要
+     * 
+     * @param filter 產品過濾條件
+     * @param cursor 產品分頁游標
+     * @param size 每頁大小
+     * @param fieldSet 請求的摘要欄位，完整檢視時為 null
+     * @return 游標分頁結果
+     */
+    private CursorPage<?> scroll(ProductFilter filter, ProductCursor cursor, int size, ProductFieldSet fieldSet) {
+        if (fieldSet == null) {
+            return productService.scrollProducts(filter, cursor, size);
+        }
+        return productService.scrollProductSummaries(filter, cursor, size, fieldSet);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.ProductImportReport;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.importer.ImportFormat;
+import com.ecommerce.productservice.service.ProductImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+/**
+ * 產品匯入控制器
+ * 
+ * 處理供應商目錄的批量匯入請求。請求內容以串流方式讀取，不會整個載入記憶體，
+ * 被拒絕的列可在匯入後下載。
+ */
+@RestController
+@RequestMapping("/api/products/import")
+@Tag(name = "產品匯入", description = "從 NDJSON 或 CSV 批量匯入產品的API")
+public class ProductImportController {
+    
+    // 注入產品匯入服務
+    @Autowired
+    private ProductImportService productImportService;
+    
+    /**
+     * 批量匯入產品
+     * 
+     * @param contentType 請求的內容類型，決定匯入格式
+     * @param body 請求內容的輸入流
+     * @return 匯入報告和HTTP狀態碼
+     */
+    @PostMapping(consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    @Operation(summary = "批量匯入產品", 
+               description = "以 application/x-ndjson 或 text/csv 上傳產品，逐列驗證並分批寫入；被拒絕的列不影響其他列")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "匯入完成", 
+                     content = @Content(schema = @Schema(implementation = ProductImportReport.class))),
+        @ApiResponse(responseCode = "400", description = "檔案格式無法處理"),
+        @ApiResponse(responseCode = "415", description = "不支援的內容類型")
+    })
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        // 調用服務層匯入產品
+        return ResponseEntity.ok(productImportService.importProducts(body, ImportFormat.of(contentType)));
+    }
+    
+    /**
+     * 下載匯入的被拒絕的列
+     * 
+     * @param importId 匯入ID
+     * @return 被拒絕的列檔案和HTTP狀態碼
+     */
+    @GetMapping(value = "/{importId}/rejects", produces = ImportFormat.NDJSON_VALUE)
+    @Operation(summary = "下載被拒絕的列", description = "以 NDJSON 返回每個被拒絕的列的行號、原因與原始內容")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "下載成功"),
+        @ApiResponse(responseCode = "404", description = "匯入不存在或沒有被拒絕的列")
+    })
+    public ResponseEntity<Resource> getRejects(
+            @Parameter(description = "匯入ID", required = true) @PathVariable String importId) {
+        // 調用服務層查詢被拒絕的列檔案
+        return productImportService.findRejects(importId)
+                .map(path -> ResponseEntity.ok().<Resource>body(new FileSystemResource(path)))
+                .orElseThrow(() -> new ResourceNotFoundException("Rejected rows not found for import: " + importId));
+    }
+}
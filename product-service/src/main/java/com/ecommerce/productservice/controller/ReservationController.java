@@ -0,0 +1,95 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.ReservationDTO;
+import com.ecommerce.productservice.dto.ReservationRequest;
+import com.ecommerce.productservice.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 庫存保留控制器
+ * 
+ * 處理結帳期間的庫存保留請求：在付款前保留庫存，付款成功後確認，付款失敗或取消時釋放。
+ * 保留在到期前未確認會自動釋放。
+ */
+@RestController
+@RequestMapping("/api/reservations")
+@Tag(name = "庫存保留", description = "結帳期間保留、確認與釋放產品庫存的API")
+public class ReservationController {
+    
+    // 注入庫存保留服務
+    @Autowired
+    private ReservationService reservationService;
+    
+    /**
+     * 保留產品庫存
+     * 
+     * @param request 庫存保留請求
+     * @return 庫存保留和HTTP狀態碼
+     */
+    @PostMapping
+    @Operation(summary = "保留產品庫存", description = "在付款期間保留產品庫存，到期前未確認即自動釋放")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "保留成功", 
+                     content = @Content(schema = @Schema(implementation = ReservationDTO.class))),
+        @ApiResponse(responseCode = "400", description = "請求參數無效"),
+        @ApiResponse(responseCode = "404", description = "產品不存在"),
+        @ApiResponse(responseCode = "409", description = "可售數量不足")
+    })
+    public ResponseEntity<ReservationDTO> reserve(@Valid @RequestBody ReservationRequest request) {
+        // 調用服務層保留庫存
+        ReservationDTO reservation = reservationService.reserve(
+                request.getProductId(), request.getQuantity(), request.getTtlSeconds());
+        // 返回創建成功的狀態碼和庫存保留
+        return new ResponseEntity<>(reservation, HttpStatus.CREATED);
+    }
+    
+    /**
+     * 確認庫存保留
+     * 
+     * @param id 保留ID
+     * @return 已確認的庫存保留和HTTP狀態碼
+     */
+    @PostMapping("/{id}/confirm")
+    @Operation(summary = "確認庫存保留", description = "付款成功後確認保留，扣減產品庫存")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "確認成功", 
+                     content = @Content(schema = @Schema(implementation = ReservationDTO.class))),
+        @ApiResponse(responseCode = "404", description = "保留不存在或已到期")
+    })
+    public ResponseEntity<ReservationDTO> confirm(
+            @Parameter(description = "保留ID", required = true) @PathVariable String id) {
+        // 調用服務層確認保留
+        return ResponseEntity.ok(reservationService.confirm(id));
+    }
+    
+    /**
+     * 釋放庫存保留
+     * 
+     * @param id 保留ID
+     * @return HTTP狀態碼
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "釋放庫存保留", description = "付款失敗或取消時釋放保留的庫存")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "釋放成功"),
+        @ApiResponse(responseCode = "404", description = "保留不存在或已到期")
+    })
+    public ResponseEntity<Void> release(
+            @Parameter(description = "保留ID", required = true) @PathVariable String id) {
+        // 調用服務層釋放保留
+        reservationService.release(id);
+        // 返回釋放成功的狀態碼
+        return ResponseEntity.noContent().build();
+    }
+}
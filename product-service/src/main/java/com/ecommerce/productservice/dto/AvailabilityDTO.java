@@ -0,0 +1,19 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 產品可售數量數據傳輸對象
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDTO {
+    
+    private Long productId;  // 產品ID
+    private long stock;      // 扣除已確認保留後的庫存
+    private long reserved;   // 保留中的數量
+    private long available;  // 可售數量
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游標分頁結果
+ * 
+ * 游標分頁的單頁結果，不包含總筆數與總頁數，因此查詢時不需要執行 COUNT。
+ * 將 nextCursor 作為下一次請求的 cursor 參數即可取得下一頁。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> content = new ArrayList<>();  // 本頁數據
+    private String nextCursor;                    // 下一頁游標，沒有下一頁時為 null
+    private boolean hasNext;                      // 是否還有下一頁
+    private int size;                             // 請求的每頁大小
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分面計數
+ * 
+ * 分面中的一個值及符合其他篩選條件的產品數量
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacetCount {
+    
+    private String value;  // 分面值，例如品牌名稱、類別ID或價格區間
+    private String label;  // 顯示名稱，例如類別名稱，與分面值相同時為 null
+    private long count;    // 產品數量
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 帶分面計數的分頁結果
+ * 
+ * 在分頁數據之外附帶品牌、類別與價格區間的產品數量，前端不需要再為每個分面另外發出查詢。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedPage<T> {
+    
+    private List<T> content = new ArrayList<>();  // 本頁數據
+    private long totalElements;                   // 符合條件的總筆數
+    private int totalPages;                       // 總頁數
+    private int number;                           // 目前頁碼（從0開始）
+    private int size;                             // 每頁大小
+    private ProductFacets facets;                 // 分面計數，分面索引尚未建立時為 null
+}
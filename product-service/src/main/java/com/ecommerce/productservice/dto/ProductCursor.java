@@ -0,0 +1,189 @@
+package com.ecommerce.productservice.dto;
+
+import com.ecommerce.productservice.exception.InvalidCursorException;
+import com.ecommerce.productservice.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * 產品分頁游標
+ * 
+ * 記錄上一頁最後一筆產品的 (排序欄位值, ID)，下一頁從該位置之後開始查詢（keyset 分頁），
+ * 查詢成本與頁數無關。對客戶端而言游標是不透明的 Base64URL 字串。
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+    
+    /**
+     * 支援游標分頁的排序欄位
+     * 
+     * 排序欄位必須非空，並以產品ID作為次要排序鍵保證順序唯一
+     */
+    public enum SortKey {
+        ID("id"),
+        NAME("name"),
+        PRICE("price");
+        
+        private final String property;
+        
+        SortKey(String property) {
+            this.property = property;
+        }
+        
+        public String getProperty() {
+            return property;
+        }
+        
+        /**
+         * 根據排序欄位名稱獲取排序鍵
+         * 
+         * @param property 排序欄位名稱
+         * @return 排序鍵
+         */
+        public static SortKey fromProperty(String property) {
+            for (SortKey key : values()) {
+                if (key.property.equals(property)) {
+                    return key;
+                }
+            }
+            throw new InvalidCursorException("Cursor pagination does not support sorting by: " + property);
+        }
+        
+        /**
+         * 取出產品在此排序欄位上的值
+         * 
+         * @param product 產品實體
+         * @return 排序欄位值的字串形式，ID 排序時為 null
+         */
+        String valueOf(Product product) {
+            switch (this) {
+                case NAME:
+                    return product.getName();
+                case PRICE:
+                    return product.getPrice().toPlainString();
+                default:
+                    return null;
+            }
+        }
+    }
+    
+    // 編碼各欄位之間的分隔符
+    private static final String SEPARATOR = "\n";
+    
+    private final SortKey sortKey;
+    private final Sort.Direction direction;
+    private final Long lastId;       // 上一頁最後一筆產品的ID，第一頁時為 null
+    private final String lastValue;  // 上一頁最後一筆產品的排序欄位值，ID 排序或第一頁時為 null
+    
+    /**
+     * 創建指向第一頁的游標
+     * 
+     * @param sortKey 排序鍵
+     * @param direction 排序方向
+     * @return 第一頁游標
+     */
+    public static ProductCursor first(SortKey sortKey, Sort.Direction direction) {
+        return new ProductCursor(sortKey, direction, null, null);
+    }
+    
+    /**
+     * 根據請求參數解析游標
+     * 
+     * 游標為空字串時從第一頁開始，使用請求的排序欄位與方向；
+     * 否則沿用游標中記錄的排序，確保翻頁過程中排序不變。
+     * 
+     * @param token 請求中的游標
+     * @param sort 排序欄位
+     * @param direction 排序方向（asc或desc）
+     * @return 產品分頁游標
+     */
+    public static ProductCursor resolve(String token, String sort, String direction) {
+        if (token == null || token.isEmpty()) {
+            Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            return first(SortKey.fromProperty(sort), sortDirection);
+        }
+        return decode(token);
+    }
+    
+    /**
+     * 創建指向指定產品之後的游標
+     * 
+     * @param product 本頁最後一筆產品
+     * @return 下一頁游標
+     */
+    public ProductCursor after(Product product) {
+        return new ProductCursor(sortKey, direction, product.getId(), sortKey.valueOf(product));
+    }
+    
+    /**
+     * 是否為第一頁游標
+     * 
+     * @return 第一頁時返回 true
+     */
+    public boolean isFirst() {
+        return lastId == null;
+    }
+    
+    /**
+     * 以 BigDecimal 形式獲取上一頁最後的價格
+     * 
+     * @return 價格
+     */
+    public BigDecimal getLastPrice() {
+        return new BigDecimal(lastValue);
+    }
+    
+    /**
+     * 獲取與游標一致的排序條件，排序欄位相同時按ID排序
+     * 
+     * @return 排序條件
+     */
+    public Sort toSort() {
+        Sort sort = Sort.by(direction, sortKey.getProperty());
+        return sortKey == SortKey.ID ? sort : sort.and(Sort.by(direction, SortKey.ID.getProperty()));
+    }
+    
+    /**
+     * 將游標編碼為不透明字串
+     * 
+     * @return Base64URL 編碼的游標
+     */
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + direction.name() + SEPARATOR + lastId
+                + (lastValue == null ? "" : SEPARATOR + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解碼游標字串
+     * 
+     * @param token Base64URL 編碼的游標
+     * @return 產品分頁游標
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1].toUpperCase(Locale.ROOT));
+            Long lastId = Long.valueOf(parts[2]);
+            String lastValue = parts.length > 3 ? parts[3] : null;
+            if (sortKey != SortKey.ID && lastValue == null) {
+                throw new InvalidCursorException("Invalid cursor: missing sort value");
+            }
+            if (sortKey == SortKey.PRICE) {
+                new BigDecimal(lastValue);
+            }
+            return new ProductCursor(sortKey, direction, lastId, lastValue);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token, e);
+        }
+    }
+}
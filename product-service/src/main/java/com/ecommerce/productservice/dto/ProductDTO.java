@@ -1,10 +1,12 @@
 package com.ecommerce.productservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +36,7 @@ public class ProductDTO {
     private BigDecimal weight;
     private String dimensions;
     private Boolean isActive;
+    private LocalDateTime updatedAt;  // 產品最後更新時間，庫存變更也會更新，用於計算 ETag
     
     // 詳細信息 (來自 MongoDB 的 ProductDetail 集合)
     private String fullDescription;
@@ -42,4 +45,8 @@ public class ProductDTO {
     private List<String> features = new ArrayList<>();
     private List<String> tags = new ArrayList<>();
     private Map<String, Object> additionalInfo;
+    
+    // 詳細信息因 MongoDB 逾時或失敗而缺失，此類結果不寫入快取，也不輸出給客戶端
+    @JsonIgnore
+    private boolean degraded;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 產品分面
+ * 
+ * 每個分面的計數套用除該分面本身以外的所有篩選條件，
+ * 使用者選擇某個品牌後，其他品牌的數量仍會顯示，方便切換。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+    
+    private List<FacetCount> brands = new ArrayList<>();       // 品牌分面，依數量降序
+    private List<FacetCount> categories = new ArrayList<>();   // 類別分面，依數量降序
+    private List<FacetCount> priceRanges = new ArrayList<>();  // 價格區間分面，依區間升序
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.productservice.dto;
+
+import com.ecommerce.productservice.exception.InvalidFieldsException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 產品摘要欄位集合
+ * 
+ * 解析列表請求的 view 與 fields 參數，決定返回哪些摘要欄位，
+ * 以及是否需要查詢 MongoDB（只有請求 imageUrl 時才需要）。
+ */
+public final class ProductFieldSet {
+    
+    public static final String ID = "id";
+    public static final String NAME = "name";
+    public static final String PRICE = "price";
+    public static final String STOCK = "stock";
+    public static final String BRAND = "brand";
+    public static final String CATEGORY_ID = "categoryId";
+    public static final String CATEGORY_NAME = "categoryName";
+    public static final String IMAGE_URL = "imageUrl";
+    
+    // 摘要檢視支援的所有欄位
+    private static final List<String> SUMMARY_FIELDS = List.of(
+            ID, NAME, PRICE, STOCK, BRAND, CATEGORY_ID, CATEGORY_NAME, IMAGE_URL);
+    
+    private final Set<String> fields;
+    
+    private ProductFieldSet(Set<String> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+    
+    /**
+     * 包含所有摘要欄位的集合
+     * 
+     * @return 摘要欄位集合
+     */
+    public static ProductFieldSet summary() {
+        return new ProductFieldSet(new LinkedHashSet<>(SUMMARY_FIELDS));
+    }
+    
+    /**
+     * 解析請求參數
+     * 
+     * view=summary 返回所有摘要欄位；fields 以逗號分隔指定摘要欄位，隱含摘要檢視，ID 總是包含在內。
+     * 兩者都未提供或 view=full 時返回 null，表示使用完整的產品DTO。
+     * 
+     * @param view 檢視模式（full或summary）
+     * @param fields 以逗號分隔的欄位列表
+     * @return 摘要欄位集合，完整檢視時為 null
+     */
+    public static ProductFieldSet parse(String view, String fields) {
+        boolean summaryView = "summary".equalsIgnoreCase(view);
+        if (view != null && !summaryView && !"full".equalsIgnoreCase(view)) {
+            throw new InvalidFieldsException("Unsupported view: " + view);
+        }
+        
+        if (fields == null || fields.isBlank()) {
+            return summaryView ? summary() : null;
+        }
+        if (view != null && !summaryView) {
+            throw new InvalidFieldsException("The fields parameter requires view=summary");
+        }
+        
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add(ID);
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(field -> {
+                    if (!SUMMARY_FIELDS.contains(field)) {
+                        throw new InvalidFieldsException("Unsupported field: " + field);
+                    }
+                    requested.add(field);
+                });
+        return new ProductFieldSet(requested);
+    }
+    
+    /**
+     * 是否包含指定欄位
+     * 
+     * @param field 欄位名稱
+     * @return 包含時返回 true
+     */
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+    
+    /**
+     * 獲取欄位集合
+     * 
+     * @return 不可修改的欄位集合
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+}
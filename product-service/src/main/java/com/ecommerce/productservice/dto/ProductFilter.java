@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 產品過濾條件
+ * 
+ * 封裝產品列表查詢的過濾條件，所有欄位均為可選，為 null 的欄位不參與過濾。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+    
+    private String name;          // 產品名稱關鍵字（不區分大小寫的模糊匹配）
+    private Long categoryId;      // 類別ID
+    private BigDecimal minPrice;  // 最低價格（含）
+    private BigDecimal maxPrice;  // 最高價格（含）
+    private String brand;         // 品牌名稱
+    private boolean activeOnly;   // 是否只返回上架中的產品
+}
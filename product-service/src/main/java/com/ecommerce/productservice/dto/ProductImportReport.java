@@ -0,0 +1,24 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 產品匯入報告 DTO
+ * 
+ * 被拒絕的列可透過 /api/products/import/{importId}/rejects 下載。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReport {
+    
+    private String importId;     // 匯入ID
+    private String format;       // 匯入格式
+    private long rows;           // 讀取的列數
+    private long imported;       // 成功匯入的產品數量
+    private long rejected;       // 被拒絕的列數
+    private long elapsedMillis;  // 匯入耗時（毫秒）
+    private long rowsPerSecond;  // 每秒處理的列數
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 產品摘要數據傳輸對象
+ * 
+ * 列表頁使用的精簡產品信息，不包含 MongoDB 中的詳細描述、規格等大欄位。
+ * 未請求的欄位為 null，序列化時省略。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSummaryDTO {
+    
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private String brand;
+    private Long categoryId;
+    private String categoryName;  // 類別名稱，來自類別索引
+    private String imageUrl;      // 第一張產品圖片，來自 MongoDB
+}
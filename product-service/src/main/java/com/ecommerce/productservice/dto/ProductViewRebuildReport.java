@@ -0,0 +1,18 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 產品讀取模型重建報告 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductViewRebuildReport {
+    
+    private long products;       // 寫入讀取模型的產品數量
+    private long removed;        // 移除的已刪除產品文檔數量
+    private long elapsedMillis;  // 重建耗時（毫秒）
+}
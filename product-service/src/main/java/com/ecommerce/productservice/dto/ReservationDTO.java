@@ -0,0 +1,30 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 庫存保留數據傳輸對象
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+    
+    private String id;          // 保留ID
+    private Long productId;     // 產品ID
+    private Integer quantity;   // 保留數量
+    private Status status;      // 保留狀態
+    private Instant expiresAt;  // 到期時間，到期前未確認即自動釋放
+    
+    /**
+     * 庫存保留狀態
+     */
+    public enum Status {
+        HELD,       // 保留中
+        CONFIRMED   // 已確認，庫存已扣減
+    }
+}
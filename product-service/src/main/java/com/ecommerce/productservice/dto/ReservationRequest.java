@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * 庫存保留請求 DTO
+ * 
+ * 結帳時在付款期間保留產品庫存的請求。
+ */
+@Data
+public class ReservationRequest {
+    
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+    
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be greater than 0")
+    private Integer quantity;
+    
+    // 保留秒數，未指定時使用預設值，超過上限時以上限為準
+    @Min(value = 1, message = "TTL must be greater than 0")
+    private Integer ttlSeconds;
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.productservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 庫存調整項目
+ * 
+ * 批量調整庫存請求中的一行，例如訂單中的一個商品。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustment {
+    
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+    
+    // 要增加或減少的數量（正數增加，負數減少）
+    @NotNull(message = "Quantity is required")
+    private Integer quantity;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量調整庫存請求 DTO
+ * 
+ * 所有項目在同一個交易中套用，任一項目庫存不足時全部不套用。
+ */
+@Data
+public class StockBatchRequest {
+    
+    @NotEmpty(message = "Adjustments are required")
+    @Size(max = 500, message = "At most 500 adjustments are allowed")
+    @Valid
+    private List<StockAdjustment> adjustments = new ArrayList<>();
+}
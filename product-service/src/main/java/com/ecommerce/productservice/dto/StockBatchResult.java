@@ -0,0 +1,47 @@
+package com.ecommerce.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量調整庫存結果
+ * 
+ * 依請求順序列出每一行的結果；任一行失敗時整批都不套用。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchResult {
+    
+    private boolean applied;   // 整批是否已套用
+    private List<Line> lines;  // 每一行的結果
+    
+    /**
+     * 單行調整結果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Line {
+        
+        private Long productId;   // 產品ID
+        private Integer quantity; // 請求的調整數量
+        private Status status;    // 調整結果
+        private Integer stock;    // 已套用時為調整後的庫存，庫存不足時為目前庫存，其餘為 null
+    }
+    
+    /**
+     * 單行調整狀態
+     */
+    public enum Status {
+        APPLIED,             // 已套用
+        INSUFFICIENT_STOCK,  // 庫存不足
+        NOT_FOUND,           // 產品不存在
+        NOT_APPLIED          // 本行可套用，但因其他行失敗而未套用
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 產品庫存數據傳輸對象
+ * 
+ * 庫存更新的結果，只包含產品ID與更新後的庫存，
+ * 不需要讀取產品詳情與類別名稱即可返回。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDTO {
+    
+    private Long productId;  // 產品ID
+    private Integer stock;   // 更新後的庫存
+}
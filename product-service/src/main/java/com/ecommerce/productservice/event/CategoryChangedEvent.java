@@ -0,0 +1,18 @@
+package com.ecommerce.productservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 類別變更事件
+ * 
+ * 在類別被創建、更新或刪除時由類別服務發布，
+ * 監聽者可在交易提交後據此刷新記憶體中的類別資料。
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    
+    // 發生變更的類別ID
+    private final Long categoryId;
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.productservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 產品變更事件
+ * 
+ * 在產品被創建、更新或刪除時由產品服務發布，
+ * 監聽者可在交易提交後據此更新記憶體中的產品資料（例如搜尋索引）。
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    
+    // 發生變更的產品ID
+    private final Long productId;
+}
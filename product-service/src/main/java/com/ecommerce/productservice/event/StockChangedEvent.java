@@ -0,0 +1,21 @@
+package com.ecommerce.productservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 庫存變更事件
+ * 
+ * 在產品庫存被直接調整時由產品服務發布，
+ * 監聽者可在交易提交後據此更新記憶體中的庫存（例如庫存保留帳本），或將減少的數量計入熱門度。
+ */
+@Getter
+@AllArgsConstructor
+public class StockChangedEvent {
+    
+    // 庫存發生變更的產品ID
+    private final Long productId;
+    
+    // 調整的數量（正數增加，負數減少）
+    private final int quantity;
+}
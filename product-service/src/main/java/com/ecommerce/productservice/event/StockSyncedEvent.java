@@ -0,0 +1,18 @@
+package com.ecommerce.productservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 庫存同步事件
+ * 
+ * 在背景程序將庫存寫回產品表後發布，例如已確認保留的扣減寫回與熱門模式分槽總和的同步。
+ * 與 {@link StockChangedEvent} 不同，庫存保留帳本已在寫回時更新，監聽者只需刷新由產品表衍生的資料（例如產品讀取模型）。
+ */
+@Getter
+@AllArgsConstructor
+public class StockSyncedEvent {
+    
+    // 庫存被寫回的產品ID
+    private final Long productId;
+}
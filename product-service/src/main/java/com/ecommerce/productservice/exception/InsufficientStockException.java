@@ -0,0 +1,26 @@
+package com.ecommerce.productservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 庫存不足異常
+ * 
+ * 當扣減庫存會使庫存變為負數時拋出此異常，庫存不會被修改。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 409 (CONFLICT) 響應。
+ * 繼承 IllegalArgumentException 以相容既有的呼叫方。
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 使用指定的錯誤消息構造異常
+     * 
+     * @param message 錯誤消息
+     */
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
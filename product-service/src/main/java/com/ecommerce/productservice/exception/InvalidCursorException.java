@@ -0,0 +1,35 @@
+package com.ecommerce.productservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 無效游標異常
+ * 
+ * 當分頁游標無法解析或排序欄位不支援游標分頁時拋出此異常。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 400 (BAD_REQUEST) 響應。
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 使用指定的錯誤消息構造異常
+     * 
+     * @param message 錯誤消息
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    /**
+     * 使用指定的錯誤消息和原因構造異常
+     * 
+     * @param message 錯誤消息
+     * @param cause 原因
+     */
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
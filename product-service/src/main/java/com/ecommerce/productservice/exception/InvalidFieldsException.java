@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 無效欄位異常
+ * 
+ * 當請求的檢視模式或欄位不被支援時拋出此異常。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 400 (BAD_REQUEST) 響應。
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFieldsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 使用指定的錯誤消息構造異常
+     * 
+     * @param message 錯誤消息
+     */
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.productservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 無效匯入異常
+ * 
+ * 當匯入檔案的格式無法處理時拋出此異常，例如 CSV 標題列缺少或含有不支援的欄位。
+ * 單一列的錯誤不會拋出此異常，而是記錄在被拒絕的列中。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 400 (BAD_REQUEST) 響應。
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 使用指定的錯誤消息構造異常
+     * 
+     * @param message 錯誤消息
+     */
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.productservice.exception;
+
+import com.ecommerce.productservice.dto.StockBatchResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 批量調整庫存失敗異常
+ * 
+ * 當批量調整中有任一行庫存不足或產品不存在時拋出此異常，整批的交易回滾。
+ * 異常攜帶每一行的結果，由控制器返回給客戶端。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 409 (CONFLICT) 響應。
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class StockBatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    // 每一行的結果
+    private final transient StockBatchResult result;
+
+    /**
+     * 使用每一行的結果構造異常
+     * 
+     * @param result 批量調整結果
+     */
+    public StockBatchException(StockBatchResult result) {
+        super("Stock batch not applied");
+        this.result = result;
+    }
+
+    /**
+     * 獲取每一行的結果
+     * 
+     * @return 批量調整結果
+     */
+    public StockBatchResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.productservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 儲存層逾時異常
+ * 
+ * 當必要的資料庫查詢未能在期限內完成時拋出此異常。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 503 (SERVICE_UNAVAILABLE) 響應。
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StoreTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 使用指定的錯誤消息構造異常
+     * 
+     * @param message 錯誤消息
+     */
+    public StoreTimeoutException(String message) {
+        super(message);
+    }
+
+    /**
+     * 使用指定的錯誤消息和原因構造異常
+     * 
+     * @param message 錯誤消息
+     * @param cause 原因
+     */
+    public StoreTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.dto.ProductCreateRequest;
+import com.ecommerce.productservice.exception.InvalidImportException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CSV 格式的逐列讀取器
+ * 
+ * 第一行為標題列，欄位名稱與產品創建請求的屬性相同，順序不限。
+ * 支援 RFC 4180 的雙引號欄位，引號內可包含逗號、換行與以兩個雙引號表示的雙引號。
+ * 清單欄位（imageUrls、features、tags）以 | 分隔多個值；空白欄位視為未提供。
+ */
+public class CsvRowReader implements ProductRowReader {
+
+    // 可在 CSV 中提供的欄位，規格等巢狀結構只能以 NDJSON 匯入
+    private static final Set<String> SCALAR_COLUMNS = Set.of("name", "shortDescription", "price", "stock",
+            "categoryId", "sku", "brand", "weight", "dimensions", "isActive", "fullDescription");
+
+    private static final Set<String> LIST_COLUMNS = Set.of("imageUrls", "features", "tags");
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    // 標題列的欄位名稱，讀取第一列前為 null
+    private String[] header;
+
+    // 已讀取的行數，與目前記錄開始的行號
+    private long lineNumber;
+
+    private long recordLine;
+
+    // 目前記錄的原始內容
+    private final StringBuilder raw = new StringBuilder();
+
+    public CsvRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (header == null) {
+            readHeader();
+        }
+
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (raw.isEmpty());
+
+        String line = raw.toString();
+        if (fields.size() != header.length) {
+            return ImportRow.malformed(recordLine, line,
+                    "Expected " + header.length + " columns but found " + fields.size());
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String value = fields.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            values.put(header[i], LIST_COLUMNS.contains(header[i])
+                    ? Arrays.stream(value.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toList()
+                    : value);
+        }
+        try {
+            return ImportRow.parsed(recordLine, line, objectMapper.convertValue(values, ProductCreateRequest.class));
+        } catch (IllegalArgumentException e) {
+            // 只保留錯誤訊息的第一行，不含 Jackson 的參照路徑
+            return ImportRow.malformed(recordLine, line, "Invalid value: " + e.getMessage().lines().findFirst().orElse(""));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // 讀取並檢查標題列
+    private void readHeader() throws IOException {
+        List<String> fields = readRecord();
+        if (fields == null || raw.isEmpty()) {
+            throw new InvalidImportException("CSV header row is required");
+        }
+        header = new String[fields.size()];
+        for (int i = 0; i < header.length; i++) {
+            String column = fields.get(i).trim();
+            if (!SCALAR_COLUMNS.contains(column) && !LIST_COLUMNS.contains(column)) {
+                throw new InvalidImportException("Unsupported CSV column: " + column);
+            }
+            header[i] = column;
+        }
+    }
+
+    // 讀取一筆記錄的所有欄位，已讀取到檔案結尾時返回 null
+    private List<String> readRecord() throws IOException {
+        raw.setLength(0);
+        recordLine = lineNumber + 1;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                raw.append(ch);
+                if (ch == '"') {
+                    c = reader.read();
+                    if (c == '"') {
+                        // 兩個雙引號表示一個雙引號
+                        field.append('"');
+                        raw.append('"');
+                        c = reader.read();
+                    } else {
+                        quoted = false;
+                    }
+                    continue;
+                }
+                if (ch == '\n') {
+                    lineNumber++;
+                }
+                field.append(ch);
+            } else if (ch == '\n') {
+                lineNumber++;
+                break;
+            } else if (ch != '\r') {
+                raw.append(ch);
+                if (ch == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(ch);
+                }
+            }
+            c = reader.read();
+        }
+        if (c == -1) {
+            // 最後一行沒有換行符號
+            lineNumber++;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.exception.InvalidImportException;
+import org.springframework.http.MediaType;
+
+/**
+ * 產品匯入檔案格式
+ */
+public enum ImportFormat {
+
+    NDJSON(ImportFormat.NDJSON_VALUE),  // 每行一個產品創建請求的 JSON 物件
+    CSV(ImportFormat.CSV_VALUE);        // 第一行為標題列，欄位名稱與產品創建請求的屬性相同
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    /**
+     * 根據請求的內容類型選擇匯入格式
+     *
+     * @param contentType 請求的內容類型，可包含字元集等參數
+     * @return 匯入格式
+     * @throws InvalidImportException 如果內容類型不被支援
+     */
+    public static ImportFormat of(String contentType) {
+        if (contentType != null) {
+            MediaType requested = MediaType.parseMediaType(contentType);
+            for (ImportFormat format : values()) {
+                if (format.mediaType.equalsTypeAndSubtype(requested)) {
+                    return format;
+                }
+            }
+        }
+        throw new InvalidImportException("Unsupported import content type: " + contentType);
+    }
+
+    /**
+     * 獲取此格式的內容類型
+     *
+     * @return 內容類型
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.dto.ProductCreateRequest;
+
+/**
+ * 匯入檔案中的一列
+ *
+ * @param line 在檔案中開始的行號，從 1 開始
+ * @param raw 原始內容，寫入被拒絕的列檔案
+ * @param request 解析出的產品創建請求，無法解析時為 null
+ * @param error 無法解析的原因，解析成功時為 null
+ */
+public record ImportRow(long line, String raw, ProductCreateRequest request, String error) {
+
+    /**
+     * 建立解析成功的列
+     *
+     * @param line 行號
+     * @param raw 原始內容
+     * @param request 產品創建請求
+     * @return 匯入列
+     */
+    public static ImportRow parsed(long line, String raw, ProductCreateRequest request) {
+        return new ImportRow(line, raw, request, null);
+    }
+
+    /**
+     * 建立無法解析的列
+     *
+     * @param line 行號
+     * @param raw 原始內容
+     * @param error 無法解析的原因
+     * @return 匯入列
+     */
+    public static ImportRow malformed(long line, String raw, String error) {
+        return new ImportRow(line, raw, null, error);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.dto.ProductCreateRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * NDJSON 格式的逐列讀取器
+ * 
+ * 每行是一個產品創建請求的 JSON 物件，空白行會被略過。
+ * 逐行解析而非在整個輸入流上解析，某一行的 JSON 錯誤只影響該行。
+ */
+public class NdjsonRowReader implements ProductRowReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    // 已讀取的行數
+    private long lineNumber;
+
+    public NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        try {
+            return ImportRow.parsed(lineNumber, line, objectMapper.readValue(line, ProductCreateRequest.class));
+        } catch (JsonProcessingException e) {
+            return ImportRow.malformed(lineNumber, line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.productservice.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 匯入檔案的逐列讀取器
+ * 
+ * 每次只從輸入流讀取一列，記憶體用量與檔案大小無關。
+ * 單一列無法解析時返回帶有錯誤原因的列，不會中斷後續的讀取。
+ */
+public interface ProductRowReader extends Closeable {
+
+    // 讀取輸入流的緩衝區大小（字元）
+    int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 讀取下一列
+     *
+     * @return 下一列，已讀取到檔案結尾時為 null
+     * @throws IOException 如果讀取輸入流失敗
+     */
+    ImportRow next() throws IOException;
+
+    /**
+     * 根據匯入格式建立讀取器
+     *
+     * @param format 匯入格式
+     * @param input UTF-8 編碼的輸入流
+     * @param objectMapper 用於將欄位轉換為產品創建請求
+     * @return 逐列讀取器
+     */
+    static ProductRowReader open(ImportFormat format, InputStream input, ObjectMapper objectMapper) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return switch (format) {
+            case NDJSON -> new NdjsonRowReader(reader, objectMapper);
+            case CSV -> new CsvRowReader(reader, objectMapper);
+        };
+    }
+}
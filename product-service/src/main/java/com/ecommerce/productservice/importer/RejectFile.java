@@ -0,0 +1,75 @@
+package com.ecommerce.productservice.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 被拒絕的列檔案
+ * 
+ * 以 NDJSON 格式逐行寫入被拒絕的列的行號、原因與原始內容。
+ * 第一次寫入時才建立檔案，沒有被拒絕的列時不會留下空檔案。
+ */
+public class RejectFile implements Closeable {
+
+    /**
+     * 被拒絕的列
+     *
+     * @param line 在匯入檔案中開始的行號
+     * @param reason 被拒絕的原因
+     * @param raw 原始內容
+     */
+    public record Rejected(long line, String reason, String raw) {
+    }
+
+    private final Path path;
+
+    private final ObjectMapper objectMapper;
+
+    private BufferedWriter writer;
+
+    private long count;
+
+    public RejectFile(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 寫入一個被拒絕的列
+     *
+     * @param row 匯入列
+     * @param reason 被拒絕的原因
+     * @throws IOException 如果寫入檔案失敗
+     */
+    public void write(ImportRow row, String reason) throws IOException {
+        if (writer == null) {
+            Files.createDirectories(path.getParent());
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        }
+        writer.write(objectMapper.writeValueAsString(new Rejected(row.line(), reason, row.raw())));
+        writer.newLine();
+        count++;
+    }
+
+    /**
+     * 獲取已寫入的列數
+     *
+     * @return 被拒絕的列數
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
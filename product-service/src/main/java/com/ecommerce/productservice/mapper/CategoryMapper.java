@@ -1,10 +1,16 @@
 package com.ecommerce.productservice.mapper;
 
+import com.ecommerce.productservice.cache.CategoryIndex;
 import com.ecommerce.productservice.model.Category;
 import com.ecommerce.productservice.dto.CategoryDTO;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -38,6 +44,27 @@ public class CategoryMapper {
         return dto;
     }
     
+    /**
+     * 將類別索引節點轉換為類別DTO
+     * 
+     * @param node 類別索引節點
+     * @return 類別DTO
+     */
+    public CategoryDTO toDTO(CategoryIndex.Node node) {
+        if (node == null) {
+            return null;
+        }
+        
+        CategoryDTO dto = new CategoryDTO();
+        dto.setId(node.id());
+        dto.setName(node.name());
+        dto.setDescription(node.description());
+        dto.setParentId(node.parentId());
+        dto.setIsActive(node.isActive());
+        
+        return dto;
+    }
+    
     /**
      * 將類別DTO轉換為類別實體
      * 
@@ -78,18 +105,99 @@ public class CategoryMapper {
     /**
      * 從資料庫查詢結果構建類別樹
      * 
+     * 查詢結果每列依序為 id、name、description、parent_id、level。
+     * 先為每一列建立節點並按ID索引，再逐列掛到父節點下，整體為線性時間；
+     * 子類別保持查詢結果中的順序。父類別不在結果中的列會被忽略。
+     * 
      * @param categoryRows 類別查詢結果
      * @return 類別樹結構
      */
     public List<Map<String, Object>> buildCategoryTree(List<Object[]> categoryRows) {
         List<Map<String, Object>> result = new ArrayList<>();
+        if (categoryRows == null || categoryRows.isEmpty()) {
+            return result;
+        }
+        
+        // 第一遍：建立所有節點
+        Map<Long, Map<String, Object>> nodes = new HashMap<>(categoryRows.size() * 2);
+        for (Object[] row : categoryRows) {
+            Long id = toLong(row[0]);
+            nodes.put(id, createTreeNode(id, (String) row[1], (String) row[2], toLong(row[3])));
+        }
         
-        // 實現類別樹的構建邏輯
-        // 這裡需要根據實際的查詢結果格式來實現
+        // 第二遍：將節點掛到父節點下
+        for (Object[] row : categoryRows) {
+            Map<String, Object> node = nodes.get(toLong(row[0]));
+            Long parentId = toLong(row[3]);
+            if (parentId == null) {
+                result.add(node);
+            } else if (nodes.containsKey(parentId)) {
+                childrenOf(nodes.get(parentId)).add(node);
+            }
+        }
         
         return result;
     }
     
+    /**
+     * 從類別索引快照構建類別樹
+     * 
+     * 從頂級類別開始逐層展開，每個類別只訪問一次；同層類別依名稱排序，
+     * 與 {@link #buildCategoryTree(List)} 處理遞迴查詢結果的順序一致。
+     * 
+     * @param index 類別索引快照
+     * @return 類別樹結構
+     */
+    public List<Map<String, Object>> buildCategoryTree(CategoryIndex index) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        
+        // 待展開的（類別節點，子類別容器）佇列
+        Deque<Map.Entry<CategoryIndex.Node, List<Map<String, Object>>>> pending = new ArrayDeque<>();
+        for (CategoryIndex.Node root : sortByName(index.roots())) {
+            pending.add(Map.entry(root, result));
+        }
+        
+        while (!pending.isEmpty()) {
+            Map.Entry<CategoryIndex.Node, List<Map<String, Object>>> entry = pending.poll();
+            CategoryIndex.Node category = entry.getKey();
+            Map<String, Object> node = createTreeNode(
+                    category.id(), category.name(), category.description(), category.parentId());
+            entry.getValue().add(node);
+            
+            List<Map<String, Object>> children = childrenOf(node);
+            for (CategoryIndex.Node child : sortByName(index.children(category.id()))) {
+                pending.add(Map.entry(child, children));
+            }
+        }
+        
+        return result;
+    }
+    
+    private Map<String, Object> createTreeNode(Long id, String name, String description, Long parentId) {
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("id", id);
+        node.put("name", name);
+        node.put("description", description);
+        node.put("parentId", parentId);
+        node.put("children", new ArrayList<Map<String, Object>>());
+        return node;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> childrenOf(Map<String, Object> node) {
+        return (List<Map<String, Object>>) node.get("children");
+    }
+    
+    private List<CategoryIndex.Node> sortByName(List<CategoryIndex.Node> nodes) {
+        List<CategoryIndex.Node> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparing(CategoryIndex.Node::name, Comparator.nullsLast(Comparator.naturalOrder())));
+        return sorted;
+    }
+    
+    private Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+    
     /**
      * 使用類別DTO更新類別實體
      * 
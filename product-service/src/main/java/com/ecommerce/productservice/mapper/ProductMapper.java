@@ -5,8 +5,13 @@ import com.ecommerce.productservice.model.ProductDetail;
 import com.ecommerce.productservice.dto.ProductDTO;
 import com.ecommerce.productservice.dto.ProductCreateRequest;
 import com.ecommerce.productservice.dto.ProductUpdateRequest;
+import com.ecommerce.productservice.dto.ProductFieldSet;
+import com.ecommerce.productservice.dto.ProductSummaryDTO;
+import com.ecommerce.productservice.repository.ProductSummaryView;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+
 /**
  * 產品映射器
  * 
@@ -43,6 +48,7 @@ public class ProductMapper {
         dto.setWeight(product.getWeight());
         dto.setDimensions(product.getDimensions());
         dto.setIsActive(product.getIsActive());
+        dto.setUpdatedAt(product.getUpdatedAt());
         
         // 設置詳細信息（來自MongoDB的ProductDetail集合）
         if (productDetail != null) {
@@ -57,6 +63,73 @@ public class ProductMapper {
         return dto;
     }
     
+    /**
+     * 將產品摘要投影轉換為產品摘要DTO，只填入請求的欄位
+     * 
+     * @param product 產品摘要投影
+     * @param categoryName 類別名稱
+     * @param imageUrl 第一張產品圖片
+     * @param fields 請求的摘要欄位
+     * @return 產品摘要DTO
+     */
+    public ProductSummaryDTO toSummaryDTO(ProductSummaryView product, String categoryName, String imageUrl,
+                                          ProductFieldSet fields) {
+        if (product == null) {
+            return null;
+        }
+        
+        return toSummaryDTO(product.getId(), product.getName(), product.getPrice(), product.getStock(),
+                product.getBrand(), product.getCategoryId(), categoryName, imageUrl, fields);
+    }
+    
+    /**
+     * 將產品實體轉換為產品摘要DTO，只填入請求的欄位
+     * 
+     * @param product 產品實體
+     * @param categoryName 類別名稱
+     * @param imageUrl 第一張產品圖片
+     * @param fields 請求的摘要欄位
+     * @return 產品摘要DTO
+     */
+    public ProductSummaryDTO toSummaryDTO(Product product, String categoryName, String imageUrl,
+                                          ProductFieldSet fields) {
+        if (product == null) {
+            return null;
+        }
+        
+        return toSummaryDTO(product.getId(), product.getName(), product.getPrice(), product.getStock(),
+                product.getBrand(), product.getCategoryId(), categoryName, imageUrl, fields);
+    }
+    
+    private ProductSummaryDTO toSummaryDTO(Long id, String name, BigDecimal price, Integer stock, String brand,
+                                           Long categoryId, String categoryName, String imageUrl,
+                                           ProductFieldSet fields) {
+        ProductSummaryDTO dto = new ProductSummaryDTO();
+        dto.setId(id);
+        if (fields.includes(ProductFieldSet.NAME)) {
+            dto.setName(name);
+        }
+        if (fields.includes(ProductFieldSet.PRICE)) {
+            dto.setPrice(price);
+        }
+        if (fields.includes(ProductFieldSet.STOCK)) {
+            dto.setStock(stock);
+        }
+        if (fields.includes(ProductFieldSet.BRAND)) {
+            dto.setBrand(brand);
+        }
+        if (fields.includes(ProductFieldSet.CATEGORY_ID)) {
+            dto.setCategoryId(categoryId);
+        }
+        if (fields.includes(ProductFieldSet.CATEGORY_NAME)) {
+            dto.setCategoryName(categoryName);
+        }
+        if (fields.includes(ProductFieldSet.IMAGE_URL)) {
+            dto.setImageUrl(imageUrl);
+        }
+        return dto;
+    }
+    
     /**
      * 將產品創建請求轉換為產品實體
      * 
@@ -14,7 +14,13 @@ import java.time.LocalDateTime;
  * 產品的詳細描述和圖片資訊存儲在 MongoDB 中的 ProductDetail 集合中。
  */
 @Entity
-@Table(name = "products")  // 指定表名為 products
+// 指定表名為 products，並為游標分頁的 (排序欄位, id) 建立複合索引
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_category_id_id", columnList = "category_id, id"),
+        @Index(name = "idx_products_brand_id", columnList = "brand, id")
+})
 @Data                      // Lombok 註解，自動生成 getter、setter、equals、hashCode 和 toString 方法
 @NoArgsConstructor         // Lombok 註解，自動生成無參構造函數
 @AllArgsConstructor        // Lombok 註解，自動生成全參構造函數
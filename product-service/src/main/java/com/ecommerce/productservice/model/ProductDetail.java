@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
@@ -25,6 +26,7 @@ public class ProductDetail {
     @Id  // MongoDB 文檔 ID
     private String id;
     
+    @Indexed(unique = true)  // 建立唯一索引，支援按產品 ID 查詢及批量 $in 查詢
     private Long productId;  // 關聯到 MySQL 中的產品 ID
     
     private String fullDescription;  // 產品詳細描述，可以是 HTML 格式
@@ -0,0 +1,49 @@
+package com.ecommerce.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 產品變更發件箱實體類
+ * 
+ * 此類映射到 MySQL 資料庫中的 product_outbox 表。產品的創建、更新與刪除在同一個交易中寫入一行，
+ * 與產品的變更一併提交或回滾，再由轉送程序分批送往事件匯流排後刪除。
+ * 自增的 ID 即為變更的序號。
+ */
+@Entity
+@Table(name = "product_outbox")  // 指定表名為 product_outbox
+@Data                      // Lombok 註解，自動生成 getter、setter、equals、hashCode 和 toString 方法
+@NoArgsConstructor         // Lombok 註解，自動生成無參構造函數
+@AllArgsConstructor        // Lombok 註解，自動生成全參構造函數
+public class ProductOutboxEvent {
+    
+    @Id  // 主鍵標記
+    @GeneratedValue(strategy = GenerationType.IDENTITY)  // 主鍵生成策略為自增
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)  // 指定列名，非空
+    private Long productId;
+    
+    @Enumerated(EnumType.STRING)  // 以名稱存儲
+    @Column(nullable = false, length = 16)  // 非空，指定列長度
+    private Type type;
+    
+    @Lob  // 大型文字欄位
+    private String payload;  // 變更後的產品DTO（JSON），刪除時為 null
+    
+    @Column(name = "created_at", nullable = false)  // 指定列名，非空
+    private LocalDateTime createdAt;
+    
+    /**
+     * 產品變更類型
+     */
+    public enum Type {
+        CREATED,  // 已創建
+        UPDATED,  // 已更新
+        DELETED   // 已刪除
+    }
+}
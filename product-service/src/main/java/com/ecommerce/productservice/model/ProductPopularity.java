@@ -0,0 +1,31 @@
+package com.ecommerce.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * 產品熱門度快照實體類
+ * 
+ * 此類映射到 MySQL 資料庫中的 product_popularity 表，定期保存熱門產品的估計分數，
+ * 服務重新啟動後據此恢復熱門排名，不需要從零開始累積。
+ */
+@Entity
+@Table(name = "product_popularity")  // 指定表名為 product_popularity
+@Data                                // Lombok 註解，自動生成 getter、setter、equals、hashCode 和 toString 方法
+@NoArgsConstructor                   // Lombok 註解，自動生成無參構造函數
+@AllArgsConstructor                  // Lombok 註解，自動生成全參構造函數
+public class ProductPopularity {
+    
+    @Id  // 主鍵標記，使用產品ID
+    @Column(name = "product_id")  // 指定列名
+    private Long productId;
+    
+    @Column(nullable = false)  // 非空
+    private Long score;  // 衰減後的估計分數
+    
+    @Column(name = "updated_at")  // 指定列名
+    private LocalDateTime updatedAt;
+}
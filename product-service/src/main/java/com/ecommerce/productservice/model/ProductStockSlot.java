@@ -0,0 +1,37 @@
+package com.ecommerce.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 產品庫存分槽實體類
+ * 
+ * 此類映射到 MySQL 資料庫中的 product_stock_slot 表。啟用熱門模式的產品，其庫存分散存放在多個分槽中，
+ * 併發的庫存更新分別鎖定不同的行，不會全部排隊等待 products 表中的同一行；
+ * 產品的庫存為所有分槽的總和。
+ */
+@Entity
+// 指定表名為 product_stock_slot，每個產品的分槽編號唯一
+@Table(name = "product_stock_slot", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_stock_slot", columnNames = {"product_id", "slot"})
+})
+@Data                      // Lombok 註解，自動生成 getter、setter、equals、hashCode 和 toString 方法
+@NoArgsConstructor         // Lombok 註解，自動生成無參構造函數
+@AllArgsConstructor        // Lombok 註解，自動生成全參構造函數
+public class ProductStockSlot {
+    
+    @Id  // 主鍵標記
+    @GeneratedValue(strategy = GenerationType.IDENTITY)  // 主鍵生成策略為自增
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)  // 指定列名，非空
+    private Long productId;
+    
+    @Column(nullable = false)  // 非空
+    private Integer slot;  // 分槽編號，從 0 開始
+    
+    @Column(nullable = false)  // 非空
+    private Integer quantity;  // 分槽中的庫存
+}
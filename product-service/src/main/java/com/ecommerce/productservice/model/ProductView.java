@@ -0,0 +1,37 @@
+package com.ecommerce.productservice.model;
+
+import com.ecommerce.productservice.dto.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 產品讀取模型實體類
+ * 
+ * 此類映射到 MongoDB 資料庫中的 product_view 集合，每個文檔保存一個已組裝完成的產品DTO，
+ * 包含 MySQL 的產品欄位、MongoDB 的產品詳情與類別名稱，讀取時只需一次文檔查詢。
+ * 文檔由讀取模型投影器依產品發件箱的變更非同步維護，與寫入端之間有短暫延遲。
+ */
+@Document(collection = "product_view")  // 指定 MongoDB 集合名稱
+@Data                                   // Lombok 註解，自動生成 getter、setter、equals、hashCode 和 toString 方法
+@NoArgsConstructor                      // Lombok 註解，自動生成無參構造函數
+@AllArgsConstructor                     // Lombok 註解，自動生成全參構造函數
+public class ProductView {
+    
+    @Id  // 使用產品 ID 作為文檔 ID
+    private Long id;
+    
+    private ProductDTO product;  // 已組裝完成的產品DTO
+    
+    @Indexed  // 類別改名時依類別批量更新類別名稱
+    private Long categoryId;
+    
+    private long sequence;  // 最後套用的發件箱變更序號，重建產生的文檔為 0
+    
+    private LocalDateTime updatedAt;  // 最後一次寫入整個產品DTO的時間
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 庫存保留確認紀錄實體類
+ * 
+ * 此類映射到 MySQL 資料庫中的 reservation_confirmation 表。確認保留時在確認的交易中寫入一行，
+ * 扣減寫回產品庫存時在同一個交易中刪除；服務在寫回前停止時，重新啟動後依剩餘的紀錄繼續寫回。
+ */
+@Entity
+@Table(name = "reservation_confirmation")  // 指定表名為 reservation_confirmation
+@Data                                      // Lombok 註解，自動生成 getter、setter、equals、hashCode 和 toString 方法
+@NoArgsConstructor                         // Lombok 註解，自動生成無參構造函數
+@AllArgsConstructor                        // Lombok 註解，自動生成全參構造函數
+public class ReservationConfirmation {
+    
+    @Id  // 主鍵標記
+    @GeneratedValue(strategy = GenerationType.IDENTITY)  // 主鍵生成策略為自增
+    private Long id;
+    
+    @Column(name = "reservation_id", nullable = false, unique = true, length = 36)  // 指定列名，非空且唯一
+    private String reservationId;
+    
+    @Column(name = "product_id", nullable = false)  // 指定列名，非空
+    private Long productId;
+    
+    @Column(nullable = false)  // 非空
+    private Integer quantity;  // 確認扣減的數量
+    
+    @Column(name = "confirmed_at", nullable = false)  // 指定列名，非空
+    private LocalDateTime confirmedAt;
+}
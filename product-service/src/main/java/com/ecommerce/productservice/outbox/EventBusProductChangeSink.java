@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 程序內事件匯流排的產品變更接收端
+ * 
+ * 將每個變更以 {@link ProductChange} 事件發布，服務內的元件以 @EventListener 訂閱。
+ * 監聽者在轉送執行緒中依序號順序同步執行。
+ */
+@Component
+public class EventBusProductChangeSink implements ProductChangeSink {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void send(List<ProductChange> changes) {
+        changes.forEach(eventPublisher::publishEvent);
+    }
+}
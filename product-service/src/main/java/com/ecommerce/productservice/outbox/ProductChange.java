@@ -0,0 +1,32 @@
+package com.ecommerce.productservice.outbox;
+
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * 產品變更訊息
+ * 
+ * 由轉送程序從發件箱讀出後送往各個 {@link ProductChangeSink}。
+ * 同一產品的變更依序號遞增送出；轉送可能重複，接收方可依序號去除重複。
+ *
+ * @param sequence 變更序號
+ * @param productId 產品ID
+ * @param type 變更類型
+ * @param payload 變更後的產品DTO（JSON），刪除時為 null
+ * @param occurredAt 變更時間
+ */
+public record ProductChange(long sequence, Long productId, ProductOutboxEvent.Type type, String payload,
+                            LocalDateTime occurredAt) {
+
+    /**
+     * 從發件箱的一行建立變更訊息
+     *
+     * @param event 發件箱事件
+     * @return 變更訊息
+     */
+    public static ProductChange of(ProductOutboxEvent event) {
+        return new ProductChange(event.getId(), event.getProductId(), event.getType(), event.getPayload(),
+                event.getCreatedAt());
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.productservice.outbox;
+
+import java.util.List;
+
+/**
+ * 產品變更的接收端
+ * 
+ * 每個實現此介面的 Bean 都會依序號順序收到每一批變更，例如程序內的事件匯流排或訊息佇列。
+ * 拋出異常時整批保留在發件箱中，下次轉送時重新送出。
+ */
+public interface ProductChangeSink {
+
+    /**
+     * 送出一批產品變更
+     *
+     * @param changes 依序號遞增排序的變更
+     * @throws Exception 如果送出失敗
+     */
+    void send(List<ProductChange> changes) throws Exception;
+}
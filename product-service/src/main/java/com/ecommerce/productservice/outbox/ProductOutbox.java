@@ -0,0 +1,92 @@
+package com.ecommerce.productservice.outbox;
+
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.repository.ProductOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 產品變更發件箱
+ * 
+ * 在產品變更的交易中寫入發件箱，變更提交時發件箱的一行一併提交，回滾時一併回滾，
+ * 不會有已提交卻未送出、或已送出卻回滾的變更。
+ */
+@Component
+public class ProductOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_outbox (product_id, type, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private ProductOutboxRepository productOutboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 在目前的交易中記錄一個產品變更
+     * 
+     * 先寫出交易中尚未寫入的產品變更，取得產品行的鎖後才分配序號，
+     * 同一產品的併發變更因此依提交順序取得遞增的序號。
+     *
+     * @param productId 產品ID
+     * @param type 變更類型
+     * @param payload 變更後的產品，刪除時為 null
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long productId, ProductOutboxEvent.Type type, Object payload) {
+        productOutboxRepository.flush();
+
+        ProductOutboxEvent event = new ProductOutboxEvent();
+        event.setProductId(productId);
+        event.setType(type);
+        event.setPayload(payload != null ? toJson(payload) : null);
+        event.setCreatedAt(LocalDateTime.now());
+        productOutboxRepository.save(event);
+    }
+
+    /**
+     * 在目前的交易中以一個 JDBC 批次記錄多個產品的同一類變更
+     * 
+     * 供批量匯入使用，每個產品一行，序號依列表順序遞增。
+     *
+     * @param type 變更類型
+     * @param products 變更後的產品，ID 不可為 null
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(ProductOutboxEvent.Type type, List<ProductDTO> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        productOutboxRepository.flush();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(products.size());
+        for (ProductDTO product : products) {
+            args.add(new Object[] {product.getId(), type.name(), toJson(product), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize product change payload", e);
+        }
+    }
+}
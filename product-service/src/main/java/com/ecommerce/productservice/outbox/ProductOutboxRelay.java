@@ -0,0 +1,83 @@
+package com.ecommerce.productservice.outbox;
+
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.repository.ProductOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 產品變更發件箱轉送程序
+ * 
+ * 定期依序號讀出一批變更，送往所有 {@link ProductChangeSink} 後刪除，直到發件箱清空或達到每次轉送的批數上限，
+ * 剩餘的變更在下次排程時繼續送出，避免大量積壓時長時間佔用排程執行緒。
+ * 任一接收端失敗時該批留在發件箱中，下次排程時從同一批重新送出，因此送達為至少一次。
+ * 多個服務實例共用資料庫時只應在一個實例上啟用轉送，否則同一批可能被送出多次。
+ */
+@Component
+public class ProductOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductOutboxRelay.class);
+
+    @Autowired
+    private ProductOutboxRepository productOutboxRepository;
+
+    @Autowired
+    private List<ProductChangeSink> sinks;
+
+    // 是否在此實例上轉送
+    @Value("${product.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    // 每批讀出的變更數量
+    @Value("${product.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    // 每次轉送最多送出的批數
+    @Value("${product.outbox.relay.max-batches:20}")
+    private int maxBatches;
+
+    /**
+     * 將發件箱中的變更送往所有接收端
+     *
+     * @return 本次送出的變更數量
+     */
+    @Scheduled(fixedDelayString = "${product.outbox.relay.interval-ms:500}")
+    public synchronized int relay() {
+        if (!enabled) {
+            return 0;
+        }
+        int relayed = 0;
+        int batches = 0;
+        List<ProductOutboxEvent> batch;
+        do {
+            batch = productOutboxRepository.findOldest(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<ProductChange> changes = batch.stream().map(ProductChange::of).toList();
+            try {
+                for (ProductChangeSink sink : sinks) {
+                    sink.send(changes);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to relay {} product changes from sequence {}, will retry",
+                        changes.size(), changes.get(0).sequence(), e);
+                break;
+            }
+            productOutboxRepository.deleteAllByIdInBatch(batch.stream().map(ProductOutboxEvent::getId).toList());
+            relayed += batch.size();
+        } while (batch.size() == batchSize && ++batches < maxBatches);
+
+        if (relayed > 0) {
+            logger.debug("Relayed {} product changes", relayed);
+        }
+        return relayed;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.productservice.popularity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch
+ *
+ * 以固定大小的計數器矩陣估計每個鍵的累計次數，記憶體用量與鍵的數量無關。
+ * 估計值只會高估不會低估，誤差隨寬度增加而減少，誤判機率隨深度增加而減少。
+ * 計數器以 {@link AtomicLongArray} 存放，累加不需要加鎖。
+ */
+public final class CountMinSketch {
+
+    // 每一列使用不同的雜湊種子
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * 建立 Count-Min Sketch
+     *
+     * @param width 每列的計數器數量，向上取整為2的冪次
+     * @param depth 列數，最多8列
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Invalid sketch size: width=" + width + ", depth=" + depth);
+        }
+        this.depth = depth;
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * 累加鍵的次數
+     *
+     * @param key 鍵
+     * @param delta 增加的次數
+     * @return 累加後的估計值
+     */
+    public long add(long key, long delta) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(indexOf(row, key), delta));
+        }
+        return estimate;
+    }
+
+    /**
+     * 估計鍵的次數
+     *
+     * @param key 鍵
+     * @return 估計值，不小於實際次數
+     */
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(indexOf(row, key)));
+        }
+        return estimate;
+    }
+
+    /**
+     * 將所有計數減半，使較早的次數權重逐漸降低
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >> 1);
+        }
+    }
+
+    private int indexOf(int row, long key) {
+        long hash = key ^ SEEDS[row];
+        // MurmurHash3 的 64 位元混合函數
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return row * width + ((int) hash & mask);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.productservice.popularity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 熱門項目追蹤
+ *
+ * 以 {@link CountMinSketch} 估計每個產品的次數，並保留估計值最高的固定數量候選項目。
+ * 已在候選中的產品只更新其計數；不在候選中的產品只有估計值超過目前門檻時才需要加鎖替換最低的候選，
+ * 穩定狀態下絕大多數的累加都不需要加鎖。查詢只排序固定數量的候選，與產品總數無關。
+ */
+public final class HeavyHitters {
+
+    private final CountMinSketch sketch;
+
+    // 候選項目的數量上限
+    private final int capacity;
+
+    // 候選產品ID到估計次數的映射
+    private final ConcurrentHashMap<Long, Long> candidates = new ConcurrentHashMap<>();
+
+    // 候選已滿時的最低估計次數，新產品必須超過此值才能成為候選
+    private volatile long threshold;
+
+    /**
+     * 建立熱門項目追蹤
+     *
+     * @param width Count-Min Sketch 每列的計數器數量
+     * @param depth Count-Min Sketch 的列數
+     * @param capacity 候選項目的數量上限
+     */
+    public HeavyHitters(int width, int depth, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.sketch = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+    }
+
+    /**
+     * 累加產品的次數
+     *
+     * @param productId 產品ID
+     * @param delta 增加的次數
+     */
+    public void add(long productId, long delta) {
+        long estimate = sketch.add(productId, delta);
+        if (candidates.computeIfPresent(productId, (key, count) -> Math.max(count, estimate)) != null) {
+            return;
+        }
+        if (candidates.size() < capacity || estimate > threshold) {
+            admit(productId, estimate);
+        }
+    }
+
+    /**
+     * 獲取次數最高的產品
+     *
+     * @param limit 返回的最大數量，不超過候選項目的數量上限
+     * @return 依估計次數降序、相同次數依產品ID升序排列的產品ID
+     */
+    public List<Long> top(int limit) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<Long> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            result.add(entries.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * 將所有次數減半，使熱門排名反映近期的活動
+     */
+    public synchronized void decay() {
+        sketch.decay();
+        candidates.replaceAll((key, count) -> count >> 1);
+        candidates.values().removeIf(count -> count == 0);
+        updateThreshold();
+    }
+
+    /**
+     * 獲取候選項目的快照
+     *
+     * @return 產品ID到估計次數的映射副本
+     */
+    public Map<Long, Long> snapshot() {
+        return new HashMap<>(candidates);
+    }
+
+    /**
+     * 獲取候選項目的數量上限
+     *
+     * @return 數量上限
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    private synchronized void admit(long productId, long estimate) {
+        candidates.merge(productId, estimate, Math::max);
+        if (candidates.size() > capacity) {
+            // 移除估計次數最低的候選
+            candidates.entrySet().stream()
+                    .min(Map.Entry.comparingByValue())
+                    .ifPresent(lowest -> candidates.remove(lowest.getKey()));
+        }
+        updateThreshold();
+    }
+
+    private void updateThreshold() {
+        threshold = candidates.size() < capacity ? 0
+                : candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ecommerce.productservice.popularity;
+
+import com.ecommerce.productservice.event.StockChangedEvent;
+import com.ecommerce.productservice.model.ProductPopularity;
+import com.ecommerce.productservice.repository.ProductPopularityRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 產品熱門度追蹤器
+ * 
+ * 統計產品的瀏覽次數與售出數量，以 {@link HeavyHitters} 在固定記憶體內找出熱門產品。
+ * 所有次數定期減半，使排名反映近期的活動；熱門候選定期保存到 product_popularity 表，
+ * 服務啟動時載入，重新啟動後不需要從零開始累積。
+ */
+@Component
+public class PopularityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityTracker.class);
+
+    @Autowired
+    private ProductPopularityRepository productPopularityRepository;
+
+    // Count-Min Sketch 每列的計數器數量
+    @Value("${product.popularity.sketch-width:4096}")
+    private int sketchWidth;
+
+    // Count-Min Sketch 的列數
+    @Value("${product.popularity.sketch-depth:4}")
+    private int sketchDepth;
+
+    // 熱門候選的數量上限，也是熱門產品查詢的最大數量
+    @Value("${product.popularity.capacity:200}")
+    private int capacity;
+
+    // 每售出一件相當於多少次瀏覽
+    @Value("${product.popularity.sale-weight:5}")
+    private int saleWeight;
+
+    private HeavyHitters heavyHitters;
+
+    /**
+     * 初始化熱門項目追蹤
+     */
+    @PostConstruct
+    public void init() {
+        heavyHitters = new HeavyHitters(sketchWidth, sketchDepth, capacity);
+    }
+
+    /**
+     * 記錄一次產品瀏覽
+     *
+     * @param productId 產品ID
+     */
+    public void recordView(Long productId) {
+        heavyHitters.add(productId, 1);
+    }
+
+    /**
+     * 記錄產品售出
+     *
+     * @param productId 產品ID
+     * @param quantity 售出數量
+     */
+    public void recordSale(Long productId, int quantity) {
+        if (quantity > 0) {
+            heavyHitters.add(productId, (long) quantity * saleWeight);
+        }
+    }
+
+    /**
+     * 庫存減少的交易提交後記錄售出
+     *
+     * 在交易提交後才計入，回滾的扣減不會被當作售出；增加庫存不影響熱門度
+     *
+     * @param event 庫存變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        recordSale(event.getProductId(), -event.getQuantity());
+    }
+
+    /**
+     * 獲取熱門產品ID
+     *
+     * @param limit 返回的最大數量，不超過熱門候選的數量上限
+     * @return 依熱門度降序排列的產品ID
+     */
+    public List<Long> topProductIds(int limit) {
+        return heavyHitters.top(limit);
+    }
+
+    /**
+     * 應用啟動完成後載入上次保存的快照
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<ProductPopularity> snapshot = productPopularityRepository.findAll();
+        for (ProductPopularity popularity : snapshot) {
+            heavyHitters.add(popularity.getProductId(), popularity.getScore());
+        }
+        logger.info("Product popularity restored: size={}", snapshot.size());
+    }
+
+    /**
+     * 定期將所有次數減半
+     */
+    @Scheduled(fixedDelayString = "${product.popularity.decay-interval-ms:3600000}",
+               initialDelayString = "${product.popularity.decay-interval-ms:3600000}")
+    public void decay() {
+        heavyHitters.decay();
+    }
+
+    /**
+     * 定期保存熱門候選的快照
+     * 
+     * 先寫入目前的候選再刪除已不在候選中的記錄，過程中任何時刻表中都保有完整的熱門產品
+     */
+    @Scheduled(fixedDelayString = "${product.popularity.snapshot-interval-ms:300000}",
+               initialDelayString = "${product.popularity.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        Map<Long, Long> candidates = heavyHitters.snapshot();
+        if (candidates.isEmpty()) {
+            productPopularityRepository.deleteAllInBatch();
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        productPopularityRepository.saveAll(candidates.entrySet().stream()
+                .map(entry -> new ProductPopularity(entry.getKey(), entry.getValue(), now))
+                .collect(Collectors.toList()));
+        productPopularityRepository.deleteByProductIdNotIn(candidates.keySet());
+        logger.debug("Product popularity snapshot saved: size={}", candidates.size());
+    }
+
+    /**
+     * 應用關閉前保存最後一次快照
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to save product popularity snapshot on shutdown: {}", e.toString());
+        }
+    }
+}
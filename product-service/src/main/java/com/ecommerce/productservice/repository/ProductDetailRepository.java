@@ -2,8 +2,11 @@ package com.ecommerce.productservice.repository;
 
 import com.ecommerce.productservice.model.ProductDetail;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -23,6 +26,28 @@ public interface ProductDetailRepository extends MongoRepository<ProductDetail,
      */
     Optional<ProductDetail> findByProductId(Long productId);
     
+    /**
+     * 根據多個產品 ID 批量查詢產品詳細信息
+     * 
+     * 對應 MongoDB 的 $in 查詢，用於列表頁一次取回整頁產品的詳細信息
+     * 
+     * @param productIds MySQL 中的產品 ID 集合
+     * @return 產品詳細信息列表，順序不保證與輸入一致
+     */
+    List<ProductDetail> findByProductIdIn(Collection<Long> productIds);
+    
+    /**
+     * 根據多個產品 ID 批量查詢產品的第一張圖片
+     * 
+     * 欄位投影只返回 productId 與 imageUrls 的第一個元素，不傳輸描述、規格等大欄位，
+     * 供列表頁的摘要檢視使用。返回實體的其餘欄位不會從資料庫載入。
+     * 
+     * @param productIds MySQL 中的產品 ID 集合
+     * @return 只含產品 ID 與第一張圖片的產品詳細信息列表
+     */
+    @Query(value = "{ 'productId': { $in: ?0 } }", fields = "{ 'productId': 1, 'imageUrls': { $slice: 1 } }")
+    List<ProductDetail> findImagesByProductIdIn(Collection<Long> productIds);
+    
     /**
      * 根據產品 ID 刪除產品詳細信息
      * 
@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.Product;
+
+import java.util.List;
+
+/**
+ * 產品批量匯入操作
+ * 
+ * 由 {@link ProductRepository} 繼承的自定義片段。產品主鍵由資料庫自增產生，
+ * Hibernate 無法批次插入此類實體，因此匯入時以 JDBC 批次插入並一次取回產生的主鍵。
+ */
+public interface ProductImportRepository {
+    
+    /**
+     * 以 JDBC 批次插入多個產品
+     * 
+     * 需要在交易中呼叫，插入的產品與呼叫方的交易一併提交或回滾。
+     * 產品的創建時間與更新時間設為目前時間，產生的主鍵依序寫回各產品。
+     * 
+     * @param products 要插入的產品
+     * @return 依輸入順序的產品 ID
+     */
+    List<Long> insertAll(List<Product> products);
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 產品批量匯入操作實現類
+ * 
+ * 使用與 Spring Data JPA 相同的資料來源，在 JPA 交易中執行時共用同一個連線與交易。
+ * MySQL 需要在連線 URL 加上 rewriteBatchedStatements=true，驅動程式才會將批次合併為多列插入。
+ */
+public class ProductImportRepositoryImpl implements ProductImportRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, short_description, price, stock, category_id, sku, brand, weight, " +
+            "dimensions, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 以 JDBC 批次插入多個產品
+     *
+     * @param products 要插入的產品
+     * @return 依輸入順序的產品 ID
+     */
+    @Override
+    public List<Long> insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        ps.setString(1, product.getName());
+                        ps.setString(2, product.getShortDescription());
+                        ps.setBigDecimal(3, product.getPrice());
+                        ps.setObject(4, product.getStock(), Types.INTEGER);
+                        ps.setObject(5, product.getCategoryId(), Types.BIGINT);
+                        ps.setString(6, product.getSku());
+                        ps.setString(7, product.getBrand());
+                        ps.setBigDecimal(8, product.getWeight());
+                        ps.setString(9, product.getDimensions());
+                        ps.setObject(10, product.getIsActive(), Types.BOOLEAN);
+                        ps.setTimestamp(11, timestamp);
+                        ps.setTimestamp(12, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != products.size()) {
+            throw new DataRetrievalFailureException(
+                    "Expected " + products.size() + " generated keys but got " + keys.size());
+        }
+        List<Long> ids = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            // 各資料庫返回的主鍵欄位名稱不同，每列只有一個主鍵
+            Long id = ((Number) keys.get(i).values().iterator().next()).longValue();
+            Product product = products.get(i);
+            product.setId(id);
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 產品變更發件箱儲存庫介面
+ * 
+ * 此介面繼承自 JpaRepository，提供對 ProductOutboxEvent 實體的基本 CRUD 操作。
+ */
+@Repository
+public interface ProductOutboxRepository extends JpaRepository<ProductOutboxEvent, Long> {
+    
+    /**
+     * 依序號查詢最早的一批變更
+     * 
+     * @param pageable 分頁參數，只使用每頁大小
+     * @return 依序號遞增排序的變更列表
+     */
+    @Query("SELECT e FROM ProductOutboxEvent e ORDER BY e.id")
+    List<ProductOutboxEvent> findOldest(Pageable pageable);
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.ProductPopularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * 產品熱門度快照儲存庫介面
+ * 
+ * 此介面繼承自 JpaRepository，提供對 ProductPopularity 實體的基本 CRUD 操作。
+ */
+@Repository
+public interface ProductPopularityRepository extends JpaRepository<ProductPopularity, Long> {
+    
+    /**
+     * 刪除不在指定產品 ID 集合中的快照
+     * 
+     * @param productIds 要保留的產品 ID 集合，不可為空
+     * @return 刪除的筆數
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductPopularity p WHERE p.productId NOT IN :productIds")
+    int deleteByProductIdNotIn(@Param("productIds") Collection<Long> productIds);
+}
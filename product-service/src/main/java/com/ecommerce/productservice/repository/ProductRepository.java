@@ -1,24 +1,36 @@
 package com.ecommerce.productservice.repository;
 
 import com.ecommerce.productservice.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 產品儲存庫介面
  * 
  * 此介面繼承自 JpaRepository，提供對 Product 實體的基本 CRUD 操作。
  * 同時定義了一些自定義的查詢方法，用於實現產品的搜尋和過濾功能。
+ * 庫存的批量調整與產品的批量匯入分別由 {@link ProductStockBatchRepository} 與
+ * {@link ProductImportRepository} 片段以 JDBC 批次實現，產品摘要的條件查詢由
+ * {@link ProductSummaryRepository} 片段以 Criteria API 實現。
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductStockBatchRepository, ProductImportRepository, ProductSummaryRepository {
     
     /**
      * 根據產品名稱模糊查詢
@@ -66,13 +78,68 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByStockLessThan(Integer threshold);
     
     /**
-     * 獲取熱門產品
-     *
-     * @param limit 返回的產品數量
-     * @return 熱門產品列表
+     * 以條件更新調整產品庫存
+     * 
+     * 庫存檢查與更新在同一條語句中由資料庫原子完成，併發的調整依序套用在最新的庫存上，
+     * 不會覆蓋彼此，且更新後庫存為負數時不會修改任何資料。
+     * 批量更新不經過實體的 @PreUpdate 回調，因此在語句中一併更新修改時間。
+     * 
+     * @param id 產品 ID
+     * @param quantity 要增加或減少的數量（正數增加，負數減少）
+     * @return 更新的行數，產品不存在或庫存不足時為 0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.updatedAt = LOCAL DATETIME " +
+           "WHERE p.id = :id AND p.stock + :quantity >= 0")
+    int adjustStock(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    /**
+     * 設定產品庫存
+     * 
+     * 用於將熱門模式產品的分槽總和同步回產品表。
+     * 
+     * @param id 產品 ID
+     * @param stock 庫存
+     * @return 更新的行數，產品不存在或庫存未改變時為 0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.stock = :stock, p.updatedAt = LOCAL DATETIME WHERE p.id = :id AND p.stock <> :stock")
+    int updateStock(@Param("id") Long id, @Param("stock") int stock);
+    
+    /**
+     * 查詢產品的目前庫存
+     * 
+     * @param id 產品 ID
+     * @return 包含庫存的 Optional 對象，如果產品不存在則為空
+     */
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+    
+    /**
+     * 查詢產品的版本欄位
+     * 
+     * @param id 產品 ID
+     * @return 包含更新時間、庫存與類別 ID 的 Optional 對象，如果產品不存在則為空
+     */
+    @Query("SELECT p.updatedAt AS updatedAt, p.stock AS stock, p.categoryId AS categoryId FROM Product p WHERE p.id = :id")
+    Optional<ProductVersionView> findVersionById(@Param("id") Long id);
+    
+    /**
+     * 依 ID 順序串流所有產品
+     * 
+     * 結果集分批從資料庫讀取，不會一次載入所有產品；需要在交易中使用並在使用後關閉串流。
+     * MySQL 需要在連線 URL 加上 useCursorFetch=true，驅動程式才會依擷取大小分批讀取。
+     * 
+     * @return 依 ID 遞增排序的產品串流
      */
-    @Query(value = "SELECT p.* FROM products p WHERE p.is_active = true ORDER BY p.popularity DESC", nativeQuery = true)
-    List<Product> findTopProducts(int limit);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
     
     /**
      * 根據多個條件查詢產品
@@ -99,4 +166,4 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("maxPrice") BigDecimal maxPrice, 
             @Param("brand") String brand, 
             Pageable pageable);
-}
\ No newline at end of file
+}
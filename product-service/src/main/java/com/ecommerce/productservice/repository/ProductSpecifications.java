@@ -0,0 +1,97 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.dto.ProductCursor;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.model.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 產品查詢條件
+ * 
+ * 以 JPA Specification 組合產品的過濾條件與游標分頁的定位條件
+ */
+public final class ProductSpecifications {
+    
+    private ProductSpecifications() {
+    }
+    
+    /**
+     * 根據過濾條件創建查詢條件，為 null 的條件不參與過濾
+     * 
+     * @param filter 產品過濾條件
+     * @return 查詢條件
+     */
+    public static Specification<Product> matches(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            
+            if (filter.getName() != null) {
+                predicates.add(cb.like(cb.lower(root.get("name")),
+                        "%" + filter.getName().toLowerCase(Locale.ROOT) + "%"));
+            }
+            if (filter.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("categoryId"), filter.getCategoryId()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getBrand() != null) {
+                predicates.add(cb.equal(root.get("brand"), filter.getBrand()));
+            }
+            if (filter.isActiveOnly()) {
+                predicates.add(cb.isTrue(root.get("isActive")));
+            }
+            
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    /**
+     * 創建游標定位條件，只保留排在游標位置之後的產品
+     * 
+     * 升序時條件為 key > v OR (key = v AND id > lastId)，降序時方向相反；
+     * 可利用 (排序欄位, id) 上的索引直接定位，不需要掃描並跳過前面的數據。
+     * 
+     * @param cursor 產品分頁游標
+     * @return 查詢條件，第一頁時不限制
+     */
+    public static Specification<Product> after(ProductCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor.isFirst()) {
+                return null;
+            }
+            
+            boolean ascending = cursor.getDirection().isAscending();
+            Predicate idAfter = beyond(cb, root.get("id"), cursor.getLastId(), ascending);
+            
+            switch (cursor.getSortKey()) {
+                case NAME:
+                    return seek(cb, root.get("name"), cursor.getLastValue(), ascending, idAfter);
+                case PRICE:
+                    return seek(cb, root.get("price"), cursor.getLastPrice(), ascending, idAfter);
+                default:
+                    return idAfter;
+            }
+        };
+    }
+    
+    private static <Y extends Comparable<? super Y>> Predicate seek(
+            CriteriaBuilder cb, Path<Y> key, Y value, boolean ascending, Predicate idAfter) {
+        return cb.or(beyond(cb, key, value, ascending), cb.and(cb.equal(key, value), idAfter));
+    }
+    
+    private static <Y extends Comparable<? super Y>> Predicate beyond(
+            CriteriaBuilder cb, Path<Y> key, Y value, boolean ascending) {
+        return ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+    }
+}
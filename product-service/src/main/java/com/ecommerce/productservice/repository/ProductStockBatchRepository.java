@@ -0,0 +1,33 @@
+package com.ecommerce.productservice.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * 產品庫存批量操作
+ * 
+ * 由 {@link ProductRepository} 繼承的自定義片段，以 JDBC 批次在一次往返中執行多個產品的庫存條件更新。
+ */
+public interface ProductStockBatchRepository {
+    
+    /**
+     * 以條件更新批量調整產品庫存
+     * 
+     * 依產品 ID 遞增的順序執行，同時調整多個產品的交易都以相同順序鎖定行，不會互相死鎖。
+     * 需要在交易中呼叫，各行的更新與呼叫方的交易一併提交或回滾。
+     * 驅動程式不返回各行的更新行數時，仍返回每一行實際的結果。
+     * 
+     * @param adjustments 產品 ID 到要增加或減少的數量，依產品 ID 排序
+     * @return 依產品 ID 順序的更新行數，產品不存在或庫存不足時為 0
+     */
+    int[] adjustStocks(SortedMap<Long, Integer> adjustments);
+    
+    /**
+     * 批量查詢產品的目前庫存
+     * 
+     * @param ids 產品 ID 集合
+     * @return 產品 ID 到庫存的映射，不含不存在的產品
+     */
+    Map<Long, Integer> findStocksByIds(Collection<Long> ids);
+}
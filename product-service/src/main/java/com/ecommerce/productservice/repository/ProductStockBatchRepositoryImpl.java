@@ -0,0 +1,96 @@
+package com.ecommerce.productservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * 產品庫存批量操作實現類
+ * 
+ * 使用與 Spring Data JPA 相同的資料來源，在 JPA 交易中執行時共用同一個連線與交易。
+ */
+public class ProductStockBatchRepositoryImpl implements ProductStockBatchRepository {
+
+    // 與 ProductRepository.adjustStock 相同的條件更新
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE products SET stock = stock + ?, updated_at = ? WHERE id = ? AND stock + ? >= 0";
+
+    private static final String FIND_STOCKS_SQL = "SELECT id, stock FROM products WHERE id IN (:ids)";
+
+    // 依產品 ID 遞增的順序鎖定要調整的行並讀取調整前的庫存
+    private static final String LOCK_STOCKS_SQL =
+            "SELECT id, stock FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 以條件更新批量調整產品庫存
+     *
+     * 先依產品 ID 順序鎖定各行並讀取調整前的庫存，再以一個批次執行條件更新。
+     * 驅動程式合併批次時（例如 MySQL 的 rewriteBatchedStatements）可能以 SUCCESS_NO_INFO
+     * 代替各行的更新行數，此時以鎖定時讀取的庫存判斷該行是否已更新；
+     * 各行在交易結束前保持鎖定，判斷結果與條件更新的結果相同。
+     *
+     * @param adjustments 產品 ID 到要增加或減少的數量，依產品 ID 排序
+     * @return 依產品 ID 順序的更新行數
+     */
+    @Override
+    public int[] adjustStocks(SortedMap<Long, Integer> adjustments) {
+        Map<Long, Integer> before = lockStocks(adjustments.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(adjustments.size());
+        adjustments.forEach((id, quantity) -> args.add(new Object[] {quantity, now, id, quantity}));
+
+        int[] counts = jdbcTemplate.batchUpdate(ADJUST_STOCK_SQL, args);
+        int index = 0;
+        for (Map.Entry<Long, Integer> adjustment : adjustments.entrySet()) {
+            if (counts[index] == Statement.SUCCESS_NO_INFO) {
+                Integer stock = before.get(adjustment.getKey());
+                counts[index] = stock != null && stock + adjustment.getValue() >= 0 ? 1 : 0;
+            }
+            index++;
+        }
+        return counts;
+    }
+
+    /**
+     * 批量查詢產品的目前庫存
+     *
+     * @param ids 產品 ID 集合
+     * @return 產品 ID 到庫存的映射
+     */
+    @Override
+    public Map<Long, Integer> findStocksByIds(Collection<Long> ids) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        if (ids.isEmpty()) {
+            return stocks;
+        }
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(FIND_STOCKS_SQL, new MapSqlParameterSource("ids", ids),
+                resultSet -> {
+                    stocks.put(resultSet.getLong("id"), resultSet.getInt("stock"));
+                });
+        return stocks;
+    }
+
+    // 鎖定各行並返回目前的庫存，不含不存在的產品
+    private Map<Long, Integer> lockStocks(Collection<Long> ids) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(LOCK_STOCKS_SQL, new MapSqlParameterSource("ids", ids),
+                resultSet -> {
+                    stocks.put(resultSet.getLong("id"), resultSet.getInt("stock"));
+                });
+        return stocks;
+    }
+}
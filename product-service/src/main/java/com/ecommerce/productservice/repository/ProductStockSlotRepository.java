@@ -0,0 +1,86 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.ProductStockSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 產品庫存分槽儲存庫介面
+ * 
+ * 此介面繼承自 JpaRepository，提供對 ProductStockSlot 實體的基本 CRUD 操作。
+ */
+@Repository
+public interface ProductStockSlotRepository extends JpaRepository<ProductStockSlot, Long> {
+    
+    /**
+     * 查詢產品的所有分槽
+     * 
+     * @param productId 產品 ID
+     * @return 依分槽編號排序的分槽列表
+     */
+    List<ProductStockSlot> findByProductIdOrderBySlot(Long productId);
+    
+    /**
+     * 查詢並鎖定產品的所有分槽
+     * 
+     * 依分槽編號順序加鎖，同時鎖定多個分槽的交易不會互相死鎖。
+     * 
+     * @param productId 產品 ID
+     * @return 依分槽編號排序的分槽列表
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockSlot s WHERE s.productId = :productId ORDER BY s.slot")
+    List<ProductStockSlot> lockByProductId(@Param("productId") Long productId);
+    
+    /**
+     * 查詢所有啟用熱門模式的產品
+     * 
+     * @return 產品 ID 列表
+     */
+    @Query("SELECT DISTINCT s.productId FROM ProductStockSlot s")
+    List<Long> findProductIds();
+    
+    /**
+     * 計算產品所有分槽的庫存總和
+     * 
+     * @param productId 產品 ID
+     * @return 庫存總和，產品沒有分槽時為 null
+     */
+    @Query("SELECT SUM(s.quantity) FROM ProductStockSlot s WHERE s.productId = :productId")
+    Long sumQuantityByProductId(@Param("productId") Long productId);
+    
+    /**
+     * 以條件更新調整單一分槽的庫存
+     * 
+     * 與產品的條件更新相同，檢查與更新由資料庫原子完成，但只鎖定該分槽的行。
+     * 
+     * @param productId 產品 ID
+     * @param slot 分槽編號
+     * @param quantity 要增加或減少的數量（正數增加，負數減少）
+     * @return 更新的行數，分槽不存在或分槽庫存不足時為 0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductStockSlot s SET s.quantity = s.quantity + :quantity " +
+           "WHERE s.productId = :productId AND s.slot = :slot AND s.quantity + :quantity >= 0")
+    int adjustSlot(@Param("productId") Long productId, @Param("slot") int slot, @Param("quantity") int quantity);
+    
+    /**
+     * 刪除產品的所有分槽
+     * 
+     * @param productId 產品 ID
+     * @return 刪除的筆數
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductStockSlot s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.dto.ProductFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * 產品摘要查詢
+ * 
+ * 由 {@link ProductRepository} 繼承的自定義片段，以 Criteria API 只選取摘要欄位。
+ */
+public interface ProductSummaryRepository {
+    
+    /**
+     * 根據過濾條件分頁查詢產品摘要
+     * 
+     * 只有不為 null 的條件出現在 WHERE 子句中，activeOnly 為 false 時包含已下架的產品；
+     * 不同條件組合各自產生只含所需條件的語句，資料庫可依實際條件選擇索引。
+     * 
+     * @param filter 產品過濾條件
+     * @param pageable 分頁參數
+     * @return 分頁的產品摘要列表
+     */
+    Page<ProductSummaryView> findSummaries(ProductFilter filter, Pageable pageable);
+}
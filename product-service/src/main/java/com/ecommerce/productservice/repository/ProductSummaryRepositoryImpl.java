@@ -0,0 +1,115 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 產品摘要查詢實現類
+ * 
+ * 與游標分頁共用 {@link ProductSpecifications#matches} 的過濾條件，以元組查詢只選取摘要欄位。
+ */
+public class ProductSummaryRepositoryImpl implements ProductSummaryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 根據過濾條件分頁查詢產品摘要
+     *
+     * 結果少於一頁時由內容推算總數，不執行計數查詢。
+     *
+     * @param filter 產品過濾條件
+     * @param pageable 分頁參數
+     * @return 分頁的產品摘要列表
+     */
+    @Override
+    public Page<ProductSummaryView> findSummaries(ProductFilter filter, Pageable pageable) {
+        Specification<Product> spec = ProductSpecifications.matches(filter);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        query.multiselect(root.get("id"), root.get("name"), root.get("price"), root.get("stock"),
+                root.get("brand"), root.get("categoryId"));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductSummaryView> content = typedQuery.getResultList().stream()
+                .<ProductSummaryView>map(tuple -> new SummaryRow(tuple.get(0, Long.class), tuple.get(1, String.class),
+                        tuple.get(2, BigDecimal.class), tuple.get(3, Integer.class), tuple.get(4, String.class),
+                        tuple.get(5, Long.class)))
+                .toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private record SummaryRow(Long id, String name, BigDecimal price, Integer stock, String brand, Long categoryId)
+            implements ProductSummaryView {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public Integer getStock() {
+            return stock;
+        }
+
+        @Override
+        public String getBrand() {
+            return brand;
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.productservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * 產品摘要投影
+ * 
+ * 列表頁只需要的產品欄位。作為 JPA 介面投影使用時，查詢只選取這些欄位，不載入完整的產品實體。
+ */
+public interface ProductSummaryView {
+    
+    Long getId();
+    
+    String getName();
+    
+    BigDecimal getPrice();
+    
+    Integer getStock();
+    
+    String getBrand();
+    
+    Long getCategoryId();
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.productservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 產品版本投影
+ * 
+ * 計算產品 ETag 所需的欄位。條件式請求只需以主鍵查詢這幾個欄位，不載入產品實體也不查詢產品詳情。
+ */
+public interface ProductVersionView {
+    
+    LocalDateTime getUpdatedAt();
+    
+    Integer getStock();
+    
+    Long getCategoryId();
+}
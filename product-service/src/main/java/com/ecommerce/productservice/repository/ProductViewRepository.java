@@ -0,0 +1,15 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.ProductView;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 產品讀取模型儲存庫介面
+ * 
+ * 此介面繼承自 MongoRepository，以產品 ID 查詢已組裝完成的產品。
+ * 讀取模型的寫入由 {@link com.ecommerce.productservice.view.ProductViewProjector} 以 MongoTemplate 條件更新完成。
+ */
+@Repository
+public interface ProductViewRepository extends MongoRepository<ProductView, Long> {
+}
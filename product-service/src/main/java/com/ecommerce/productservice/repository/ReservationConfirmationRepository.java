@@ -0,0 +1,14 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.ReservationConfirmation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 庫存保留確認紀錄儲存庫介面
+ * 
+ * 此介面繼承自 JpaRepository，提供對 ReservationConfirmation 實體的基本 CRUD 操作。
+ */
+@Repository
+public interface ReservationConfirmationRepository extends JpaRepository<ReservationConfirmation, Long> {
+}
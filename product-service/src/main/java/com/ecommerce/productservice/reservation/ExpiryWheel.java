@@ -0,0 +1,99 @@
+package com.ecommerce.productservice.reservation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 到期時間輪
+ *
+ * 以固定數量的槽位排程到期項目，每個槽位涵蓋一個刻度的時間，超過一圈的項目記錄其到期刻度並留在槽位中等待下一圈。
+ * 排程為常數時間，推進時只檢查經過的槽位，與排程中的項目總數無關。
+ * 項目不支援取消，呼叫方在到期時自行忽略已不存在的項目。
+ */
+public final class ExpiryWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<Slot>[] slots;
+
+    // 最後處理完畢的刻度
+    private long currentTick;
+
+    /**
+     * 建立到期時間輪
+     *
+     * @param slotCount 槽位數量，會向上取整為 2 的次方
+     * @param tickMillis 每個刻度的毫秒數
+     * @param nowMillis 目前時間（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiryWheel(int slotCount, long tickMillis, long nowMillis) {
+        if (slotCount <= 0 || tickMillis <= 0) {
+            throw new IllegalArgumentException("Invalid wheel size: " + slotCount + " x " + tickMillis + "ms");
+        }
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.slots = new List[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * 排程一個到期項目
+     *
+     * 項目在到期時間之後的第一個刻度被取出，最多延遲一個刻度。
+     *
+     * @param key 項目鍵
+     * @param expiresAtMillis 到期時間（毫秒）
+     */
+    public synchronized void schedule(String key, long expiresAtMillis) {
+        // 向上取整，確保項目不會早於到期時間被取出；已過期的項目排在下一個刻度
+        long tick = Math.max(currentTick + 1, (expiresAtMillis + tickMillis - 1) / tickMillis);
+        slots[(int) (tick & mask)].add(new Slot(key, tick));
+    }
+
+    /**
+     * 推進到目前時間並取出所有已到期的項目
+     *
+     * @param nowMillis 目前時間（毫秒）
+     * @return 已到期的項目鍵
+     */
+    public synchronized List<String> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<String> expired = new ArrayList<>();
+        // 間隔超過一圈時每個槽位只需檢查一次
+        long first = Math.max(currentTick + 1, targetTick - mask);
+        for (long tick = first; tick <= targetTick; tick++) {
+            Iterator<Slot> iterator = slots[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Slot slot = iterator.next();
+                if (slot.tick <= targetTick) {
+                    expired.add(slot.key);
+                    iterator.remove();
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    /**
+     * 獲取排程中的項目數量
+     *
+     * @return 項目數量
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (List<Slot> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    private record Slot(String key, long tick) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.productservice.reservation;
+
+/**
+ * 庫存保留
+ *
+ * 在付款期間為訂單保留的產品數量，到期前未確認即自動釋放。
+ *
+ * @param id 保留ID
+ * @param productId 產品ID
+ * @param quantity 保留數量
+ * @param expiresAtMillis 到期時間（毫秒）
+ */
+public record Reservation(String id, Long productId, int quantity, long expiresAtMillis) {
+}
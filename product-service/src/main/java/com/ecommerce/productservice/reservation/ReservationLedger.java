@@ -0,0 +1,477 @@
+package com.ecommerce.productservice.reservation;
+
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 庫存保留帳本
+ *
+ * 在記憶體中記錄每個產品的資料庫庫存、保留中的數量，以及已確認但尚未寫回資料庫的數量，
+ * 可售數量 = 資料庫庫存 - 已確認未寫回 - 寫回中 - 保留中。
+ * 產品依ID分散到固定數量的分段，每個分段各自加鎖，不同分段的產品互不阻塞；
+ * 資料庫庫存在首次使用時於分段鎖之外載入，產品有保留、已確認未寫回或寫回中的數量期間，
+ * 可售數量查詢不需要讀取資料庫；三者都歸零後產品即從記憶體中移除。
+ * 直接扣減的交易提交後由 {@link #commit} 從帳本中的庫存扣除，不需要重新載入。
+ * 確認保留分為 {@link #claim} 與 {@link #confirm} 兩步，呼叫者在兩步之間保存確認紀錄，
+ * 每筆已確認未寫回的數量都帶有確認紀錄ID，寫回時一併刪除。
+ * 保留的到期由 {@link ExpiryWheel} 排程。
+ */
+public final class ReservationLedger {
+
+    // 資料庫庫存未載入或已失效
+    private static final int UNKNOWN = -1;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    // 讀取產品的資料庫庫存，產品不存在時返回 null
+    private final Function<Long, Integer> stockLoader;
+
+    // 保留ID到保留中的庫存保留
+    private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+
+    // 有已確認未寫回數量的產品
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final ExpiryWheel expiryWheel;
+
+    /**
+     * 建立庫存保留帳本
+     *
+     * @param stripeCount 分段數量，會向上取整為 2 的次方
+     * @param expiryWheel 保留的到期時間輪
+     * @param stockLoader 讀取產品的資料庫庫存，產品不存在時返回 null
+     */
+    public ReservationLedger(int stripeCount, ExpiryWheel expiryWheel, Function<Long, Integer> stockLoader) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Invalid stripe count: " + stripeCount);
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.expiryWheel = expiryWheel;
+        this.stockLoader = stockLoader;
+    }
+
+    /**
+     * 保留產品庫存
+     *
+     * @param productId 產品ID
+     * @param quantity 保留數量
+     * @param expiresAtMillis 到期時間（毫秒）
+     * @return 庫存保留
+     * @throws ResourceNotFoundException 如果產品不存在
+     * @throws InsufficientStockException 如果可售數量不足
+     */
+    public Reservation reserve(Long productId, int quantity, long expiresAtMillis) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Invalid quantity: " + quantity);
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), productId, quantity, expiresAtMillis);
+        Stripe stripe = stripeOf(productId);
+        while (true) {
+            synchronized (stripe) {
+                Entry entry = stripe.loaded(productId);
+                if (entry != null) {
+                    if (entry.available() < quantity) {
+                        throw new InsufficientStockException("Insufficient stock for product with id: " + productId);
+                    }
+                    entry.reserved += quantity;
+                    holds.put(reservation.id(), new Hold(reservation, entry.version));
+                    break;
+                }
+            }
+            load(stripe, productId);
+        }
+        expiryWheel.schedule(reservation.id(), expiresAtMillis);
+        return reservation;
+    }
+
+    /**
+     * 取出要確認的庫存保留，保留數量仍從可售數量中扣除，但不會再到期、被釋放或被重複確認
+     *
+     * 之後必須呼叫 {@link #confirm} 或 {@link #unclaim}。
+     *
+     * @param reservationId 保留ID
+     * @return 取出的庫存保留
+     * @throws ResourceNotFoundException 如果保留不存在、已確認、已釋放或已到期
+     */
+    public Reservation claim(String reservationId) {
+        return remove(reservationId).reservation();
+    }
+
+    /**
+     * 確認已取出的庫存保留，保留數量轉為已確認，等待寫回資料庫
+     *
+     * @param reservation 由 {@link #claim} 取出的庫存保留
+     * @param confirmationId 已保存的確認紀錄ID，寫回時一併刪除
+     */
+    public void confirm(Reservation reservation, Long confirmationId) {
+        Stripe stripe = stripeOf(reservation.productId());
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(reservation.productId());
+            entry.reserved -= reservation.quantity();
+            entry.pending += reservation.quantity();
+            entry.confirmations.add(confirmationId);
+            dirty.add(reservation.productId());
+        }
+    }
+
+    /**
+     * 將未能確認的庫存保留放回帳本，到期前可再次確認或釋放
+     *
+     * @param reservation 由 {@link #claim} 取出的庫存保留
+     */
+    public void unclaim(Reservation reservation) {
+        // 版本無效，不會被當作直接扣減提交；取出期間到期項目可能已被時間輪取出，重新排程
+        holds.put(reservation.id(), new Hold(reservation, UNKNOWN));
+        expiryWheel.schedule(reservation.id(), reservation.expiresAtMillis());
+    }
+
+    /**
+     * 恢復服務重新啟動前已確認未寫回的數量
+     *
+     * @param productId 產品ID
+     * @param quantity 已確認的數量
+     * @param confirmationId 確認紀錄ID
+     */
+    public void recover(Long productId, int quantity, Long confirmationId) {
+        Stripe stripe = stripeOf(productId);
+        synchronized (stripe) {
+            Entry entry = stripe.entries.computeIfAbsent(productId, id -> new Entry());
+            entry.pending += quantity;
+            entry.confirmations.add(confirmationId);
+            dirty.add(productId);
+        }
+    }
+
+    /**
+     * 釋放庫存保留
+     *
+     * @param reservationId 保留ID
+     * @return 已釋放的庫存保留
+     * @throws ResourceNotFoundException 如果保留不存在、已確認、已釋放或已到期
+     */
+    public Reservation release(String reservationId) {
+        Reservation reservation = remove(reservationId).reservation();
+        unhold(reservation);
+        return reservation;
+    }
+
+    /**
+     * 記錄直接扣減的交易已提交，釋放保留並從資料庫庫存中扣除保留數量
+     *
+     * 保留後資料庫庫存未被重新載入時直接扣除，否則無法判斷載入的庫存是否已包含這次扣減，改為重新載入。
+     *
+     * @param reservationId 保留ID
+     * @return 已提交的庫存保留
+     * @throws ResourceNotFoundException 如果保留不存在、已釋放或已到期
+     */
+    public Reservation commit(String reservationId) {
+        Hold hold = remove(reservationId);
+        Reservation reservation = hold.reservation();
+        Stripe stripe = stripeOf(reservation.productId());
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(reservation.productId());
+            entry.reserved -= reservation.quantity();
+            if (entry.stock != UNKNOWN && entry.version == hold.version()) {
+                entry.stock -= reservation.quantity();
+            } else {
+                entry.unload();
+            }
+            stripe.evictIfIdle(reservation.productId(), entry);
+        }
+        return reservation;
+    }
+
+    /**
+     * 釋放所有已到期的庫存保留
+     *
+     * @param nowMillis 目前時間（毫秒）
+     * @return 釋放的保留數量
+     */
+    public int expire(long nowMillis) {
+        int expired = 0;
+        for (String reservationId : expiryWheel.advance(nowMillis)) {
+            // 已確認或已釋放的保留不在帳本中，直接略過
+            Hold hold = holds.get(reservationId);
+            if (hold != null && hold.reservation().expiresAtMillis() <= nowMillis
+                    && holds.remove(reservationId, hold)) {
+                unhold(hold.reservation());
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 獲取產品的庫存狀態
+     *
+     * @param productId 產品ID
+     * @return 庫存狀態
+     * @throws ResourceNotFoundException 如果產品不存在
+     */
+    public Availability availability(Long productId) {
+        Stripe stripe = stripeOf(productId);
+        while (true) {
+            synchronized (stripe) {
+                Entry entry = stripe.loaded(productId);
+                if (entry != null) {
+                    Availability availability = new Availability(entry.stock - entry.pending - entry.writing,
+                            entry.reserved, entry.available());
+                    stripe.evictIfIdle(productId, entry);
+                    return availability;
+                }
+            }
+            load(stripe, productId);
+        }
+    }
+
+    /**
+     * 取出所有已確認未寫回的數量，轉為寫回中
+     *
+     * 寫回中的數量仍從可售數量中扣除，直到 {@link #completeWrite} 或 {@link #failWrite} 被呼叫。
+     *
+     * @return 待寫回的扣減
+     */
+    public List<PendingWrite> drainPending() {
+        List<PendingWrite> writes = new ArrayList<>();
+        for (Long productId : dirty) {
+            dirty.remove(productId);
+            Stripe stripe = stripeOf(productId);
+            synchronized (stripe) {
+                Entry entry = stripe.entries.get(productId);
+                if (entry != null && entry.pending > 0) {
+                    writes.add(new PendingWrite(productId, entry.pending, entry.version,
+                            List.copyOf(entry.confirmations)));
+                    entry.writing += entry.pending;
+                    entry.pending = 0;
+                    entry.confirmations.clear();
+                }
+            }
+        }
+        return writes;
+    }
+
+    /**
+     * 記錄扣減已寫回資料庫，從資料庫庫存中扣除寫回的數量
+     *
+     * @param write 已寫回的扣減
+     */
+    public void completeWrite(PendingWrite write) {
+        Stripe stripe = stripeOf(write.productId());
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(write.productId());
+            entry.writing -= write.quantity();
+            // 寫回期間庫存被重新載入或被其他途徑修改時，以下次載入的資料庫庫存為準
+            if (entry.stock != UNKNOWN && entry.version == write.version()) {
+                entry.stock -= write.quantity();
+            } else {
+                entry.unload();
+            }
+            stripe.evictIfIdle(write.productId(), entry);
+        }
+    }
+
+    /**
+     * 記錄扣減未能寫回資料庫
+     *
+     * 已確認的扣減不會被捨棄，一律轉回已確認未寫回，在下次寫回時重試。
+     *
+     * @param write 未寫回的扣減
+     * @param stale 資料庫庫存是否與帳本不符，為 true 時重新載入資料庫庫存
+     */
+    public void failWrite(PendingWrite write, boolean stale) {
+        Stripe stripe = stripeOf(write.productId());
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(write.productId());
+            entry.writing -= write.quantity();
+            entry.pending += write.quantity();
+            entry.confirmations.addAll(write.confirmationIds());
+            dirty.add(write.productId());
+            if (stale) {
+                entry.unload();
+            }
+        }
+    }
+
+    /**
+     * 捨棄無法寫回的扣減，例如產品已被刪除
+     *
+     * @param write 捨棄的扣減
+     */
+    public void discardWrite(PendingWrite write) {
+        Stripe stripe = stripeOf(write.productId());
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(write.productId());
+            entry.writing -= write.quantity();
+            entry.unload();
+            stripe.evictIfIdle(write.productId(), entry);
+        }
+    }
+
+    /**
+     * 使產品的資料庫庫存失效，下次使用時重新載入
+     *
+     * 在庫存被帳本以外的途徑修改後呼叫，保留中與已確認未寫回的數量不受影響。
+     *
+     * @param productId 產品ID
+     */
+    public void invalidate(Long productId) {
+        Stripe stripe = stripeOf(productId);
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(productId);
+            if (entry != null) {
+                entry.unload();
+                stripe.evictIfIdle(productId, entry);
+            }
+        }
+    }
+
+    /**
+     * 獲取保留中的庫存保留數量
+     *
+     * @return 保留數量
+     */
+    public int holdCount() {
+        return holds.size();
+    }
+
+    private Hold remove(String reservationId) {
+        Hold hold = reservationId == null ? null : holds.remove(reservationId);
+        if (hold == null) {
+            throw new ResourceNotFoundException("Reservation not found or expired with id: " + reservationId);
+        }
+        return hold;
+    }
+
+    // 在分段鎖之外讀取資料庫庫存，讀取期間庫存未被重新載入或修改時才寫入帳本，否則由呼叫者重試
+    private void load(Stripe stripe, Long productId) {
+        Entry entry;
+        long version;
+        synchronized (stripe) {
+            entry = stripe.entries.computeIfAbsent(productId, id -> new Entry());
+            if (entry.stock != UNKNOWN) {
+                return;
+            }
+            version = entry.version;
+        }
+        Integer stock = null;
+        try {
+            stock = stockLoader.apply(productId);
+        } finally {
+            synchronized (stripe) {
+                if (stock != null && stripe.entries.get(productId) == entry
+                        && entry.stock == UNKNOWN && entry.version == version) {
+                    entry.stock = stock;
+                    entry.version++;
+                } else {
+                    stripe.evictIfIdle(productId, entry);
+                }
+            }
+        }
+        if (stock == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+    }
+
+    private void unhold(Reservation reservation) {
+        Stripe stripe = stripeOf(reservation.productId());
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(reservation.productId());
+            entry.reserved -= reservation.quantity();
+            stripe.evictIfIdle(reservation.productId(), entry);
+        }
+    }
+
+    private Stripe stripeOf(Long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & mask];
+    }
+
+    /**
+     * 產品的庫存狀態
+     *
+     * @param stock 扣除已確認數量後的庫存
+     * @param reserved 保留中的數量
+     * @param available 可售數量
+     */
+    public record Availability(long stock, long reserved, long available) {
+    }
+
+    /**
+     * 待寫回資料庫的扣減
+     *
+     * @param productId 產品ID
+     * @param quantity 扣減數量
+     * @param version 取出時的庫存版本，用於判斷寫回期間庫存是否被重新載入或被其他途徑修改
+     * @param confirmationIds 扣減包含的確認紀錄ID
+     */
+    public record PendingWrite(Long productId, long quantity, long version, List<Long> confirmationIds) {
+    }
+
+    // 保留中的庫存保留與保留時的庫存版本
+    private record Hold(Reservation reservation, long version) {
+    }
+
+    private static final class Stripe {
+
+        private final Map<Long, Entry> entries = new HashMap<>();
+
+        // 已載入資料庫庫存的產品，未載入時為 null
+        private Entry loaded(Long productId) {
+            Entry entry = entries.get(productId);
+            return entry != null && entry.stock != UNKNOWN ? entry : null;
+        }
+
+        // 沒有保留與未寫回數量的產品不需要留在記憶體中，不論資料庫庫存是否已載入都直接移除
+        private void evictIfIdle(Long productId, Entry entry) {
+            if (entry.reserved == 0 && entry.pending == 0 && entry.writing == 0) {
+                entries.remove(productId, entry);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        // 資料庫中的庫存
+        private int stock = UNKNOWN;
+
+        // 保留中的數量
+        private long reserved;
+
+        // 已確認、尚未寫回資料庫的數量
+        private long pending;
+
+        // 正在寫回資料庫的數量
+        private long writing;
+
+        // 已確認未寫回的確認紀錄ID
+        private final List<Long> confirmations = new ArrayList<>();
+
+        // 資料庫庫存被載入或失效的次數
+        private long version;
+
+        private long available() {
+            return stock - pending - writing - reserved;
+        }
+
+        // 資料庫庫存失效，進行中的載入與之前取得的版本都不再有效
+        private void unload() {
+            stock = UNKNOWN;
+            version++;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.productservice.reservation;
+
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.event.StockChangedEvent;
+import com.ecommerce.productservice.service.ReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 庫存保留的庫存變更監聽器
+ * 
+ * 產品被更新、刪除或庫存被直接增加的交易提交後，使庫存保留帳本中該產品的資料庫庫存失效，
+ * 下次保留或查詢可售數量時重新載入。直接扣減先在帳本中保留，提交時已由帳本扣除，不需要重新載入。
+ */
+@Component
+public class ReservationStockListener {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    /**
+     * 產品變更的交易提交後重新載入庫存
+     *
+     * @param event 產品變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        reservationService.refreshStock(event.getProductId());
+    }
+
+    /**
+     * 增加庫存的交易提交後重新載入庫存
+     *
+     * @param event 庫存變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.getQuantity() >= 0) {
+            reservationService.refreshStock(event.getProductId());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.FacetCount;
+import com.ecommerce.productservice.dto.ProductFacets;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.repository.ProductRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 產品分面引擎
+ * 
+ * 持有 {@link ProductFacetIndex}。應用啟動完成後分批載入所有產品建立索引，
+ * 之後在產品變更的交易提交後重新讀取該產品並增量更新索引。
+ * 名稱條件由 {@link ProductSearchEngine} 求出符合的產品ID後再與其他條件求交集。
+ * 索引尚未建立完成時 {@link #search} 返回 null，調用者應改用資料庫查詢。
+ * 
+ * 重建在鎖外載入新索引，期間的增量更新仍套用到目前的索引並記錄變更的產品ID，
+ * 新索引在鎖內重新套用這些產品後才替換目前的索引。
+ */
+@Component
+public class ProductFacetEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetEngine.class);
+
+    // 建立索引時每批載入的產品數量
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * 查詢結果
+     *
+     * @param productIds 依產品ID升序排列的分頁產品ID
+     * @param facets 分面計數，未要求分面時為 null
+     */
+    public record Result(Page<Long> productIds, ProductFacets facets) {
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+
+    @Autowired
+    private CategoryIndexManager categoryIndexManager;
+
+    // 價格分面的區間分界
+    @Value("${product.facet.price-bounds:100,500,1000,5000,10000}")
+    private BigDecimal[] priceBounds;
+
+    // 目前生效的索引，尚未建立或已停用時為 null
+    private volatile ProductFacetIndex current;
+
+    // 保護增量更新、變更記錄與索引替換
+    private final Object updateLock = new Object();
+
+    // 重建期間變更的產品ID，未在重建時為 null
+    private Set<Long> changedDuringRebuild;
+
+    /**
+     * 索引是否已建立完成
+     *
+     * @return 可以查詢時返回 true
+     */
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * 查詢產品
+     *
+     * @param filter 產品過濾條件
+     * @param pageable 分頁參數，排序條件會被忽略，結果依產品ID升序排列
+     * @param withFacets 是否計算分面
+     * @return 查詢結果；索引尚未建立，或有名稱條件但搜尋索引尚未建立時為 null
+     */
+    public Result search(ProductFilter filter, Pageable pageable, boolean withFacets) {
+        ProductFacetIndex index = current;
+        if (index == null) {
+            return null;
+        }
+
+        RoaringBitmap nameMatches = null;
+        if (filter.getName() != null && !filter.getName().isBlank()) {
+            List<Long> matching = productSearchEngine.matching(filter.getName());
+            if (matching == null) {
+                return null;
+            }
+            nameMatches = new RoaringBitmap();
+            for (Long productId : matching) {
+                // 索引建立時已確認所有產品ID都在點陣圖範圍內，範圍外的ID不可能命中
+                if (ProductFacetIndex.isIndexable(productId)) {
+                    nameMatches.add(productId.intValue());
+                }
+            }
+        }
+
+        ProductFacetIndex.Query query = new ProductFacetIndex.Query(nameMatches, filter.getBrand(),
+                filter.getCategoryId(), filter.getMinPrice(), filter.getMaxPrice(), filter.isActiveOnly());
+        ProductFacetIndex.Result result = index.search(query, pageable.getOffset(), pageable.getPageSize(), withFacets);
+
+        Page<Long> page = new PageImpl<>(result.productIds(), pageable, result.total());
+        return new Result(page, withFacets ? toFacets(result, index.priceBounds()) : null);
+    }
+
+    /**
+     * 從資料庫分批載入所有產品並替換索引
+     * 
+     * 重建之間串行執行；載入期間不阻塞增量更新，期間提交的變更在替換前重新套用到新索引上。
+     * 產品ID為負數或超出點陣圖支援的 int 範圍時停用索引，篩選改由資料庫處理。
+     */
+    public synchronized void rebuild() {
+        synchronized (updateLock) {
+            changedDuringRebuild = new LinkedHashSet<>();
+        }
+
+        ProductFacetIndex index = new ProductFacetIndex(priceBounds);
+        Pageable pageable = PageRequest.of(0, BATCH_SIZE, Sort.by("id"));
+        Page<Product> batch;
+        try {
+            do {
+                batch = productRepository.findAll(pageable);
+                for (Product product : batch) {
+                    index.put(product.getId(), ProductFacetIndex.Entry.of(product));
+                }
+                pageable = batch.nextPageable();
+            } while (batch.hasNext());
+            synchronized (updateLock) {
+                changedDuringRebuild.forEach(productId -> apply(index, productId));
+                current = index;
+            }
+        } catch (ArithmeticException e) {
+            logger.warn("Product facet index disabled: product id out of bitmap range");
+            current = null;
+            return;
+        } finally {
+            synchronized (updateLock) {
+                changedDuringRebuild = null;
+            }
+        }
+        logger.info("Product facet index built: size={}", index.size());
+    }
+
+    /**
+     * 應用啟動完成後建立索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 產品變更的交易提交後更新索引
+     * 
+     * 重新讀取已提交的產品，產品存在時更新索引，已刪除時從索引移除。
+     *
+     * @param event 產品變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (updateLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.getProductId());
+            }
+            ProductFacetIndex index = current;
+            if (index == null) {
+                return;
+            }
+            try {
+                apply(index, event.getProductId());
+            } catch (ArithmeticException e) {
+                logger.warn("Product facet index disabled: product id {} out of bitmap range", event.getProductId());
+                current = null;
+            }
+        }
+    }
+
+    // 重新讀取已提交的產品，產品存在時更新索引，已刪除時從索引移除
+    private void apply(ProductFacetIndex index, Long productId) {
+        productRepository.findById(productId).ifPresentOrElse(
+                product -> index.put(product.getId(), ProductFacetIndex.Entry.of(product)),
+                () -> index.remove(productId));
+    }
+
+    /**
+     * 將索引的計數轉換為分面DTO
+     */
+    private ProductFacets toFacets(ProductFacetIndex.Result result, BigDecimal[] bounds) {
+        ProductFacets facets = new ProductFacets();
+
+        for (Map.Entry<String, Long> entry : result.brandCounts().entrySet()) {
+            facets.getBrands().add(new FacetCount(entry.getKey(), null, entry.getValue()));
+        }
+        facets.getBrands().sort(byCountDescending());
+
+        CategoryIndex categoryIndex = categoryIndexManager.current();
+        for (Map.Entry<Long, Long> entry : result.categoryCounts().entrySet()) {
+            facets.getCategories().add(new FacetCount(String.valueOf(entry.getKey()),
+                    categoryIndex.nameOf(entry.getKey()), entry.getValue()));
+        }
+        facets.getCategories().sort(byCountDescending());
+
+        // 區間值為「下限-上限」，首個區間下限為0，最後一個區間沒有上限
+        long[] bucketCounts = result.priceBucketCounts();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            if (bucketCounts[i] > 0) {
+                String lower = i == 0 ? "0" : bounds[i - 1].toPlainString();
+                String upper = i == bounds.length ? "" : bounds[i].toPlainString();
+                facets.getPriceRanges().add(new FacetCount(lower + "-" + upper, null, bucketCounts[i]));
+            }
+        }
+        return facets;
+    }
+
+    private static Comparator<FacetCount> byCountDescending() {
+        return Comparator.comparingLong(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getValue);
+    }
+}
@@ -0,0 +1,361 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.model.Product;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 產品分面索引
+ *
+ * 以壓縮點陣圖（RoaringBitmap）記錄每個品牌、類別、上架狀態與價格區間包含哪些產品，
+ * 篩選條件的組合以點陣圖交集求得，分面計數以交集基數計算，不需要逐筆比對產品。
+ * 任意價格範圍以細分價格區間篩選：完全落在範圍內的區間直接合併，只有範圍兩端的區間逐筆比對價格。
+ * 點陣圖以非負 int 表示產品ID，產品ID為負數或超出 int 範圍時 {@link #put} 拋出 {@link ArithmeticException}。
+ * 讀寫以讀寫鎖保護，單一產品的增量更新只短暫持有寫鎖。
+ */
+public final class ProductFacetIndex {
+
+    /**
+     * 產品在索引中的篩選欄位
+     */
+    public record Entry(String brand, Long categoryId, BigDecimal price, boolean active) {
+
+        public static Entry of(Product product) {
+            return new Entry(product.getBrand(), product.getCategoryId(), product.getPrice(),
+                    Boolean.TRUE.equals(product.getIsActive()));
+        }
+    }
+
+    /**
+     * 篩選條件，為 null 的條件不限制
+     *
+     * @param productIds 限定的產品ID，例如名稱搜尋的結果
+     * @param brand 品牌名稱
+     * @param categoryId 類別ID
+     * @param minPrice 最低價格（含）
+     * @param maxPrice 最高價格（含）
+     * @param activeOnly 是否只包含上架中的產品
+     */
+    public record Query(RoaringBitmap productIds, String brand, Long categoryId,
+                        BigDecimal minPrice, BigDecimal maxPrice, boolean activeOnly) {
+    }
+
+    /**
+     * 一頁查詢結果
+     *
+     * @param productIds 依產品ID升序排列的一頁產品ID
+     * @param total 符合條件的產品總數
+     * @param brandCounts 品牌到產品數量的映射，未要求分面時為 null
+     * @param categoryCounts 類別ID到產品數量的映射，未要求分面時為 null
+     * @param priceBucketCounts 每個價格區間的產品數量，未要求分面時為 null
+     */
+    public record Result(List<Long> productIds, long total, Map<String, Long> brandCounts,
+                         Map<Long, Long> categoryCounts, long[] priceBucketCounts) {
+    }
+
+    // 價格區間的分界，升序；第 i 個區間為 [bounds[i-1], bounds[i])，首尾區間無下限或上限
+    private final BigDecimal[] priceBounds;
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> brands = new HashMap<>();
+    private final Map<Long, RoaringBitmap> categories = new HashMap<>();
+    private final RoaringBitmap[] priceBuckets;
+
+    // 細分價格區間的下限到產品的映射，用於任意價格範圍的篩選；
+    // 區間下限為價格向下取兩位有效數字，每個數量級最多 90 個區間，與不同價格的數量無關
+    private final TreeMap<BigDecimal, RoaringBitmap> priceRanges = new TreeMap<>();
+
+    // 產品ID到目前索引內容的映射，用於更新與刪除時撤銷舊值
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 建立空索引
+     *
+     * @param priceBounds 價格區間的分界，必須升序
+     */
+    public ProductFacetIndex(BigDecimal[] priceBounds) {
+        this.priceBounds = priceBounds.clone();
+        this.priceBuckets = new RoaringBitmap[priceBounds.length + 1];
+        for (int i = 0; i < priceBuckets.length; i++) {
+            priceBuckets[i] = new RoaringBitmap();
+        }
+    }
+
+    /**
+     * 加入或更新產品
+     *
+     * @param productId 產品ID
+     * @param entry 產品的篩選欄位
+     */
+    public void put(Long productId, Entry entry) {
+        int id = bitmapId(productId);
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            entries.put(id, entry);
+            all.add(id);
+            if (entry.active()) {
+                active.add(id);
+            }
+            if (entry.brand() != null) {
+                brands.computeIfAbsent(entry.brand(), key -> new RoaringBitmap()).add(id);
+            }
+            if (entry.categoryId() != null) {
+                categories.computeIfAbsent(entry.categoryId(), key -> new RoaringBitmap()).add(id);
+            }
+            if (entry.price() != null) {
+                priceBuckets[bucketOf(entry.price())].add(id);
+                priceRanges.computeIfAbsent(priceRangeOf(entry.price()), key -> new RoaringBitmap()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除產品
+     *
+     * @param productId 產品ID
+     */
+    public void remove(Long productId) {
+        if (!isIndexable(productId)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查詢產品
+     *
+     * @param query 篩選條件
+     * @param offset 略過的筆數
+     * @param limit 返回的最大筆數
+     * @param withFacets 是否計算分面
+     * @return 一頁查詢結果
+     */
+    public Result search(Query query, long offset, int limit, boolean withFacets) {
+        lock.readLock().lock();
+        try {
+            // 各條件的點陣圖，為 null 表示不限制
+            RoaringBitmap idFilter = query.productIds();
+            RoaringBitmap activeFilter = query.activeOnly() ? active : null;
+            RoaringBitmap brandFilter = query.brand() == null ? null
+                    : brands.getOrDefault(query.brand(), new RoaringBitmap());
+            RoaringBitmap categoryFilter = query.categoryId() == null ? null
+                    : categories.getOrDefault(query.categoryId(), new RoaringBitmap());
+            RoaringBitmap priceFilter = priceFilter(query.minPrice(), query.maxPrice());
+
+            RoaringBitmap matches = intersect(idFilter, activeFilter, brandFilter, categoryFilter, priceFilter);
+            List<Long> page = page(matches, offset, limit);
+            if (!withFacets) {
+                return new Result(page, matches.getLongCardinality(), null, null, null);
+            }
+
+            // 每個分面的計數排除該分面本身的條件
+            RoaringBitmap withoutBrand = intersect(idFilter, activeFilter, categoryFilter, priceFilter);
+            Map<String, Long> brandCounts = new LinkedHashMap<>();
+            brands.forEach((brand, bitmap) -> putIfPositive(brandCounts, brand,
+                    RoaringBitmap.andCardinality(withoutBrand, bitmap)));
+
+            RoaringBitmap withoutCategory = intersect(idFilter, activeFilter, brandFilter, priceFilter);
+            Map<Long, Long> categoryCounts = new LinkedHashMap<>();
+            categories.forEach((categoryId, bitmap) -> putIfPositive(categoryCounts, categoryId,
+                    RoaringBitmap.andCardinality(withoutCategory, bitmap)));
+
+            RoaringBitmap withoutPrice = intersect(idFilter, activeFilter, brandFilter, categoryFilter);
+            long[] priceBucketCounts = new long[priceBuckets.length];
+            for (int i = 0; i < priceBuckets.length; i++) {
+                priceBucketCounts[i] = RoaringBitmap.andCardinality(withoutPrice, priceBuckets[i]);
+            }
+
+            return new Result(page, matches.getLongCardinality(), brandCounts, categoryCounts, priceBucketCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 判斷產品ID能否以點陣圖表示
+     *
+     * @param productId 產品ID
+     * @return 產品ID介於 0 與 {@link Integer#MAX_VALUE} 之間時返回 true
+     */
+    public static boolean isIndexable(Long productId) {
+        return productId != null && productId >= 0 && productId <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * 獲取價格區間的分界
+     *
+     * @return 價格區間分界的副本
+     */
+    public BigDecimal[] priceBounds() {
+        return priceBounds.clone();
+    }
+
+    /**
+     * 獲取索引中的產品數量
+     *
+     * @return 產品數量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap priceFilter(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return new RoaringBitmap();
+        }
+
+        // 區間下限隨價格單調遞增：兩端之間的區間完全落在範圍內，兩端的區間逐筆比對價格
+        BigDecimal lowerRange = minPrice == null ? null : priceRangeOf(minPrice);
+        BigDecimal upperRange = maxPrice == null ? null : priceRangeOf(maxPrice);
+        NavigableMap<BigDecimal, RoaringBitmap> inner = priceRanges;
+        if (lowerRange != null) {
+            inner = inner.tailMap(lowerRange, false);
+        }
+        if (upperRange != null) {
+            inner = inner.headMap(upperRange, false);
+        }
+        RoaringBitmap result = inner.isEmpty() ? new RoaringBitmap() : FastAggregation.or(inner.values().iterator());
+        if (lowerRange != null) {
+            addInRange(result, priceRanges.get(lowerRange), minPrice, maxPrice);
+        }
+        if (upperRange != null && !upperRange.equals(lowerRange)) {
+            addInRange(result, priceRanges.get(upperRange), minPrice, maxPrice);
+        }
+        return result;
+    }
+
+    private void addInRange(RoaringBitmap result, RoaringBitmap candidates, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (candidates == null) {
+            return;
+        }
+        candidates.forEach((int id) -> {
+            BigDecimal price = entries.get(id).price();
+            if ((minPrice == null || price.compareTo(minPrice) >= 0)
+                    && (maxPrice == null || price.compareTo(maxPrice) <= 0)) {
+                result.add(id);
+            }
+        });
+    }
+
+    // 價格所在細分區間的下限：價格向下取兩位有效數字，例如 1234.5 為 1200、99.99 為 99
+    private static BigDecimal priceRangeOf(BigDecimal price) {
+        int scale = price.scale() - price.precision() + 2;
+        return price.setScale(scale, RoundingMode.FLOOR).stripTrailingZeros();
+    }
+
+    private static int bitmapId(Long productId) {
+        if (!isIndexable(productId)) {
+            throw new ArithmeticException("Product id out of bitmap range: " + productId);
+        }
+        return productId.intValue();
+    }
+
+    /**
+     * 求多個點陣圖的交集，null 表示不限制
+     */
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(filters.length);
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                bitmaps.add(filter);
+            }
+        }
+        if (bitmaps.isEmpty()) {
+            return all.clone();
+        }
+        if (bitmaps.size() == 1) {
+            // 外部傳入的點陣圖可能包含已刪除的產品
+            return RoaringBitmap.and(bitmaps.get(0), all);
+        }
+        bitmaps.add(all);
+        return FastAggregation.and(bitmaps.iterator());
+    }
+
+    private List<Long> page(RoaringBitmap matches, long offset, int limit) {
+        List<Long> page = new ArrayList<>();
+        if (offset >= matches.getLongCardinality() || limit <= 0) {
+            return page;
+        }
+
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded(matches.select((int) offset));
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add((long) iterator.next());
+        }
+        return page;
+    }
+
+    private int bucketOf(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && price.compareTo(priceBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static <K> void putIfPositive(Map<K, Long> counts, K key, long count) {
+        if (count > 0) {
+            counts.put(key, count);
+        }
+    }
+
+    private void removeInternal(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        all.remove(id);
+        active.remove(id);
+        if (entry.brand() != null) {
+            removeFrom(brands, entry.brand(), id);
+        }
+        if (entry.categoryId() != null) {
+            removeFrom(categories, entry.categoryId(), id);
+        }
+        if (entry.price() != null) {
+            priceBuckets[bucketOf(entry.price())].remove(id);
+            removeFrom(priceRanges, priceRangeOf(entry.price()), id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+}
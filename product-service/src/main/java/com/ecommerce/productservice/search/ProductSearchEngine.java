@@ -0,0 +1,159 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 產品搜尋引擎
+ * 
+ * 持有產品名稱的 {@link ProductSearchIndex}。應用啟動完成後分批載入所有產品建立索引，
+ * 之後在產品變更的交易提交後重新讀取該產品並增量更新索引。索引建立完成前
+ * {@link #isReady()} 返回 false，調用者應改用資料庫查詢。
+ * 
+ * 重建在鎖外載入新索引，期間的增量更新仍套用到目前的索引並記錄變更的產品ID，
+ * 新索引在鎖內重新套用這些產品後才替換目前的索引。
+ */
+@Component
+public class ProductSearchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchEngine.class);
+
+    // 建立索引時每批載入的產品數量
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // 目前生效的索引，尚未建立時為 null
+    private volatile ProductSearchIndex current;
+
+    // 保護增量更新、變更記錄與索引替換
+    private final Object updateLock = new Object();
+
+    // 重建期間變更的產品ID，未在重建時為 null
+    private Set<Long> changedDuringRebuild;
+
+    /**
+     * 索引是否已建立完成
+     *
+     * @return 可以查詢時返回 true
+     */
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * 查詢產品
+     *
+     * @param query 查詢關鍵字
+     * @param pageable 分頁參數，排序條件會被忽略，結果依相關度排序
+     * @return 分頁的產品ID，索引尚未建立時為空頁
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        ProductSearchIndex index = current;
+        if (index == null) {
+            return Page.empty(pageable);
+        }
+        ProductSearchIndex.Hits hits = index.search(query, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(hits.productIds(), pageable, hits.total());
+    }
+
+    /**
+     * 查詢名稱包含所有查詢詞的產品，不計算相關度
+     *
+     * @param query 查詢關鍵字
+     * @return 命中的產品ID，索引尚未建立時為 null
+     */
+    public List<Long> matching(String query) {
+        ProductSearchIndex index = current;
+        return index == null ? null : index.matching(query);
+    }
+
+    /**
+     * 從資料庫分批載入所有產品並替換索引
+     * 
+     * 重建之間串行執行；載入期間不阻塞增量更新，期間提交的變更在替換前重新套用到新索引上
+     */
+    public synchronized void rebuild() {
+        synchronized (updateLock) {
+            changedDuringRebuild = new LinkedHashSet<>();
+        }
+
+        ProductSearchIndex index = new ProductSearchIndex();
+        try {
+            Pageable pageable = PageRequest.of(0, BATCH_SIZE, Sort.by("id"));
+            Page<Product> batch;
+            do {
+                batch = productRepository.findAll(pageable);
+                for (Product product : batch) {
+                    index.put(product.getId(), product.getName());
+                }
+                pageable = batch.nextPageable();
+            } while (batch.hasNext());
+
+            synchronized (updateLock) {
+                changedDuringRebuild.forEach(productId -> apply(index, productId));
+                current = index;
+            }
+        } finally {
+            synchronized (updateLock) {
+                changedDuringRebuild = null;
+            }
+        }
+        logger.info("Product search index built: size={}", index.size());
+    }
+
+    /**
+     * 應用啟動完成後建立索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 產品變更的交易提交後更新索引
+     * 
+     * 重新讀取已提交的產品，產品存在時更新索引，已刪除時從索引移除。
+     * 交易回滾時不會觸發；在交易之外發布的事件則立即處理。
+     *
+     * @param event 產品變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (updateLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.getProductId());
+            }
+            ProductSearchIndex index = current;
+            if (index != null) {
+                apply(index, event.getProductId());
+            }
+        }
+    }
+
+    // 重新讀取已提交的產品，產品存在時更新索引，已刪除時從索引移除
+    private void apply(ProductSearchIndex index, Long productId) {
+        productRepository.findById(productId).ifPresentOrElse(
+                product -> index.put(product.getId(), product.getName()),
+                () -> index.remove(productId));
+    }
+}
@@ -0,0 +1,306 @@
+package com.ecommerce.productservice.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 產品倒排索引
+ *
+ * 詞到產品ID與詞頻的倒排表，以 BM25 計算相關度。查詢採用 AND 語義：
+ * 產品必須包含查詢的所有詞才會命中，與原本 LIKE 子字串查詢的結果範圍一致。
+ * 拉丁詞以子字串匹配：查詢詞展開為所有包含它的已索引詞（如「book」展開為「macbook」），
+ * 合併其倒排表後計算相關度；候選詞由已索引拉丁詞的三字母組（trigram）索引縮小範圍，
+ * 短於三個字母的查詢詞則掃描所有已索引的拉丁詞。
+ * 讀寫以讀寫鎖保護，查詢之間互不阻塞，單一產品的增量更新只短暫持有寫鎖。
+ */
+public final class ProductSearchIndex {
+
+    // BM25 的詞頻飽和參數
+    private static final double K1 = 1.2;
+
+    // BM25 的文件長度正規化參數
+    private static final double B = 0.75;
+
+    // 拉丁詞子字串匹配的字母組長度
+    private static final int GRAM = 3;
+
+    /**
+     * 一頁查詢結果
+     *
+     * @param productIds 依相關度排序的產品ID
+     * @param total 命中的產品總數
+     */
+    public record Hits(List<Long> productIds, long total) {
+    }
+
+    private record ScoredProduct(long productId, double score) {
+    }
+
+    // 詞到（產品ID到詞頻）的倒排表
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    // 產品ID到該產品所有詞的映射，用於更新與刪除時撤銷舊的倒排項
+    private final Map<Long, List<String>> documents = new HashMap<>();
+
+    // 已索引的拉丁詞
+    private final Set<String> latinWords = new HashSet<>();
+
+    // 三字母組到包含它的已索引拉丁詞
+    private final Map<String, Set<String>> latinGrams = new HashMap<>();
+
+    // 所有產品的詞數總和，用於計算平均文件長度
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 加入或更新產品
+     *
+     * @param productId 產品ID
+     * @param text 要索引的文字
+     */
+    public void put(Long productId, String text) {
+        List<String> tokens = ProductTokenizer.tokenize(text);
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            documents.put(productId, tokens);
+            totalLength += tokens.size();
+            for (String token : tokens) {
+                Map<Long, Integer> posting = postings.get(token);
+                if (posting == null) {
+                    posting = new HashMap<>();
+                    postings.put(token, posting);
+                    addLatinWord(token);
+                }
+                posting.merge(productId, 1, Integer::sum);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除產品
+     *
+     * @param productId 產品ID
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查詢產品
+     *
+     * @param query 查詢關鍵字
+     * @param offset 略過的筆數
+     * @param limit 返回的最大筆數
+     * @return 依相關度降序、相同分數依產品ID升序排列的一頁結果
+     */
+    public Hits search(String query, long offset, int limit) {
+        List<String> terms = ProductTokenizer.queryTerms(query);
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = postingsOf(terms);
+            if (termPostings == null) {
+                return new Hits(List.of(), 0);
+            }
+
+            int documentCount = documents.size();
+            double averageLength = (double) totalLength / documentCount;
+            double[] idf = new double[termPostings.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int df = termPostings.get(i).size();
+                idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+
+            List<ScoredProduct> candidates = new ArrayList<>();
+            for (Long productId : termPostings.get(0).keySet()) {
+                double lengthNorm = K1 * (1 - B + B * documents.get(productId).size() / averageLength);
+                double score = 0;
+                boolean matchesAll = true;
+                for (int i = 0; i < idf.length; i++) {
+                    Integer tf = termPostings.get(i).get(productId);
+                    if (tf == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    score += idf[i] * tf * (K1 + 1) / (tf + lengthNorm);
+                }
+                if (matchesAll) {
+                    candidates.add(new ScoredProduct(productId, score));
+                }
+            }
+
+            candidates.sort(Comparator.comparingDouble(ScoredProduct::score).reversed()
+                    .thenComparingLong(ScoredProduct::productId));
+
+            List<Long> page = new ArrayList<>();
+            for (long i = offset; i < candidates.size() && page.size() < limit; i++) {
+                page.add(candidates.get((int) i).productId());
+            }
+            return new Hits(page, candidates.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查詢包含所有查詢詞的產品，不計算相關度
+     *
+     * @param query 查詢關鍵字
+     * @return 命中的產品ID，順序不保證
+     */
+    public List<Long> matching(String query) {
+        List<String> terms = ProductTokenizer.queryTerms(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = postingsOf(terms);
+            if (termPostings == null) {
+                return List.of();
+            }
+
+            List<Long> result = new ArrayList<>();
+            for (Long productId : termPostings.get(0).keySet()) {
+                if (termPostings.stream().allMatch(posting -> posting.containsKey(productId))) {
+                    result.add(productId);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 獲取索引中的產品數量
+     *
+     * @return 產品數量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取出所有查詢詞的倒排表，依長度升序排列，使交集從最短的倒排表開始
+     *
+     * @return 倒排表列表，任一詞不存在時為 null
+     */
+    private List<Map<Long, Integer>> postingsOf(List<String> terms) {
+        List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Map<Long, Integer> posting = ProductTokenizer.isLatin(term) ? latinPostings(term) : postings.get(term);
+            if (posting == null) {
+                return null;
+            }
+            termPostings.add(posting);
+        }
+        termPostings.sort(Comparator.comparingInt(Map::size));
+        return termPostings;
+    }
+
+    /**
+     * 合併所有包含拉丁查詢詞的已索引詞的倒排表，同一產品的詞頻相加
+     *
+     * @return 合併後的倒排表，沒有包含查詢詞的已索引詞時為 null
+     */
+    private Map<Long, Integer> latinPostings(String term) {
+        List<String> words = latinWordsContaining(term);
+        if (words.isEmpty()) {
+            return null;
+        }
+        if (words.size() == 1) {
+            return postings.get(words.get(0));
+        }
+        Map<Long, Integer> merged = new HashMap<>();
+        for (String word : words) {
+            postings.get(word).forEach((productId, tf) -> merged.merge(productId, tf, Integer::sum));
+        }
+        return merged;
+    }
+
+    private List<String> latinWordsContaining(String term) {
+        Set<String> candidates = latinWords;
+        if (term.length() >= GRAM) {
+            // 從包含查詢詞任一字母組的最少候選詞開始檢查
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                Set<String> words = latinGrams.get(term.substring(i, i + GRAM));
+                if (words == null) {
+                    return List.of();
+                }
+                if (words.size() < candidates.size()) {
+                    candidates = words;
+                }
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (String word : candidates) {
+            if (word.contains(term)) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private void addLatinWord(String word) {
+        if (!ProductTokenizer.isLatin(word)) {
+            return;
+        }
+        latinWords.add(word);
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            latinGrams.computeIfAbsent(word.substring(i, i + GRAM), key -> new HashSet<>()).add(word);
+        }
+    }
+
+    private void removeLatinWord(String word) {
+        if (!latinWords.remove(word)) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            String gram = word.substring(i, i + GRAM);
+            Set<String> words = latinGrams.get(gram);
+            if (words != null && words.remove(word) && words.isEmpty()) {
+                latinGrams.remove(gram);
+            }
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        List<String> tokens = documents.remove(productId);
+        if (tokens == null) {
+            return;
+        }
+        totalLength -= tokens.size();
+        for (String token : tokens) {
+            Map<Long, Integer> posting = postings.get(token);
+            if (posting != null && posting.remove(productId) != null && posting.isEmpty()) {
+                postings.remove(token);
+                removeLatinWord(token);
+            }
+        }
+    }
+}
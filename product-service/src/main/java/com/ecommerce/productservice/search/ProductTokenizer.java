@@ -0,0 +1,105 @@
+package com.ecommerce.productservice.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 產品名稱分詞器
+ *
+ * 產品名稱以中文為主，無法以空白分詞。中日韓文字以雙字詞（bigram）切分，
+ * 拉丁字母與數字以連續的字母數字為一個詞，由索引以子字串匹配，其餘字元視為分隔符。
+ * 分詞前先做 NFKC 正規化並轉為小寫，全形英數字與半形視為相同。
+ */
+public final class ProductTokenizer {
+
+    private ProductTokenizer() {
+    }
+
+    /**
+     * 切分索引文字
+     *
+     * 中日韓文字同時產生單字詞與雙字詞，使單字查詢也能命中
+     *
+     * @param text 產品名稱
+     * @return 詞列表，包含重複的詞以計算詞頻
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        split(text, tokens, true);
+        return tokens;
+    }
+
+    /**
+     * 切分查詢文字
+     *
+     * 連續兩個以上的中日韓文字只產生雙字詞，單獨一個字才產生單字詞，
+     * 使「手機」只匹配相鄰的兩個字，而不是分別包含「手」與「機」的產品
+     *
+     * @param query 查詢關鍵字
+     * @return 去除重複後的詞列表
+     */
+    public static List<String> queryTerms(String query) {
+        List<String> tokens = new ArrayList<>();
+        split(query, tokens, false);
+        return new ArrayList<>(new LinkedHashSet<>(tokens));
+    }
+
+    /**
+     * 判斷詞是否為拉丁字母與數字組成的詞
+     *
+     * @param token 分詞結果中的詞
+     * @return 不是中日韓文字的詞返回 true
+     */
+    public static boolean isLatin(String token) {
+        return !token.isEmpty() && !isCjk(token.codePointAt(0));
+    }
+
+    private static void split(String text, List<String> tokens, boolean indexing) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int[] codePoints = normalized.codePoints().toArray();
+        int i = 0;
+        while (i < codePoints.length) {
+            int start = i;
+            if (isCjk(codePoints[i])) {
+                while (i < codePoints.length && isCjk(codePoints[i])) {
+                    i++;
+                }
+                addCjkRun(codePoints, start, i, tokens, indexing);
+            } else if (Character.isLetterOrDigit(codePoints[i])) {
+                while (i < codePoints.length && !isCjk(codePoints[i]) && Character.isLetterOrDigit(codePoints[i])) {
+                    i++;
+                }
+                tokens.add(new String(codePoints, start, i - start));
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void addCjkRun(int[] codePoints, int start, int end, List<String> tokens, boolean indexing) {
+        int length = end - start;
+        if (indexing || length == 1) {
+            for (int i = start; i < end; i++) {
+                tokens.add(new String(codePoints, i, 1));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -75,6 +75,16 @@ public interface CategoryService {
      */
     List<Map<String, Object>> getCategoryTree();
     
+    /**
+     * 獲取預先序列化的類別樹 JSON 及其 ETag
+     * 
+     * JSON 與 ETag 來自同一個類別索引版本，調用者應以同一個返回值構建回應。
+     * 返回的位元組陣列在類別變更前會被重複使用，調用者不可修改其內容
+     *
+     * @return 已序列化的類別樹
+     */
+    SerializedTree getSerializedCategoryTree();
+    
     /**
      * 根據名稱搜尋類別
      *
@@ -82,4 +92,15 @@ public interface CategoryService {
      * @return 符合條件的類別列表
      */
     List<CategoryDTO> searchCategoriesByName(String name);
-}
\ No newline at end of file
+    
+    /**
+     * 已序列化的類別樹
+     * 
+     * ETag 由 JSON 的內容計算，每個類別索引版本只計算一次；內容相同時所有服務實例返回相同的值
+     *
+     * @param json UTF-8 編碼的類別樹 JSON
+     * @param eTag 以雙引號包圍的強 ETag
+     */
+    record SerializedTree(byte[] json, String eTag) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * 產品目錄匯出服務接口
+ * 
+ * 定義以串流方式匯出完整產品目錄的操作
+ */
+public interface ProductExportService {
+    
+    /**
+     * 將所有產品以 NDJSON 格式寫入輸出流
+     * 
+     * 每行一個包含詳情與類別名稱的產品DTO，依產品 ID 排序。
+     * 產品與詳情都以串流讀取，記憶體用量與產品數量無關。
+     * 
+     * @param output 輸出流，寫入完成後不會關閉
+     * @return 匯出的產品數量
+     * @throws IOException 如果寫入輸出流失敗，例如客戶端中斷連線
+     */
+    long exportProducts(OutputStream output) throws IOException;
+    
+    /**
+     * 依產品 ID 順序組裝所有產品並逐一交給調用者處理
+     * 
+     * 與匯出使用相同的合併連接，調用者不應保留所有產品，以維持記憶體用量與產品數量無關。
+     * 
+     * @param action 處理每個產品DTO的操作
+     * @return 處理的產品數量
+     */
+    long forEachProduct(Consumer<ProductDTO> action);
+}
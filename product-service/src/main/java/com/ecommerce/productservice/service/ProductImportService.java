@@ -0,0 +1,37 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductImportReport;
+import com.ecommerce.productservice.importer.ImportFormat;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 產品批量匯入服務接口
+ * 
+ * 定義從 NDJSON 或 CSV 串流匯入大量產品的操作
+ */
+public interface ProductImportService {
+    
+    /**
+     * 從輸入流匯入產品
+     * 
+     * 逐列讀取與驗證，每累積一批在一個交易中以 JDBC 批次寫入 MySQL，並以一次 bulkWrite 寫入 MongoDB。
+     * 無法解析、驗證失敗或類別不存在的列寫入被拒絕的列檔案，不影響其他列。
+     * 
+     * @param input UTF-8 編碼的輸入流
+     * @param format 匯入格式
+     * @return 匯入報告
+     * @throws com.ecommerce.productservice.exception.InvalidImportException 如果檔案格式無法處理
+     */
+    ProductImportReport importProducts(InputStream input, ImportFormat format);
+    
+    /**
+     * 查詢匯入的被拒絕的列檔案
+     * 
+     * @param importId 匯入ID
+     * @return 包含檔案路徑的 Optional 對象，沒有被拒絕的列或匯入ID無效時為空
+     */
+    Optional<Path> findRejects(String importId);
+}
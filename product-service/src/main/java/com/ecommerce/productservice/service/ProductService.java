@@ -1,8 +1,17 @@
 package com.ecommerce.productservice.service;
 
+import com.ecommerce.productservice.dto.CursorPage;
+import com.ecommerce.productservice.dto.FacetedPage;
 import com.ecommerce.productservice.dto.ProductCreateRequest;
+import com.ecommerce.productservice.dto.ProductCursor;
 import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductFieldSet;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.dto.ProductSummaryDTO;
 import com.ecommerce.productservice.dto.ProductUpdateRequest;
+import com.ecommerce.productservice.dto.StockAdjustment;
+import com.ecommerce.productservice.dto.StockBatchResult;
+import com.ecommerce.productservice.dto.StockDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -43,6 +52,28 @@ public interface ProductService {
      */
     Optional<ProductDTO> getProductById(Long id);
     
+    /**
+     * 獲取產品目前版本的 ETag
+     * 
+     * 產品快取或讀取模型中已有該產品時直接計算，否則只以主鍵查詢產品的版本欄位，
+     * 不組裝產品也不查詢產品詳情。對同一版本的產品與 {@link #getProductETag(ProductDTO)} 返回相同的值。
+     * 
+     * @param id 產品 ID
+     * @return 包含強 ETag 的 Optional 對象，如果產品不存在則為空
+     */
+    Optional<String> getProductETag(Long id);
+    
+    /**
+     * 計算產品 DTO 的 ETag
+     * 
+     * ETag 由產品的更新時間、庫存與所屬類別的更新時間決定；產品詳情只經由產品更新寫入，
+     * 更新時一併更新產品的更新時間，因此詳情變更也會產生新的 ETag。
+     * 
+     * @param product 產品 DTO
+     * @return 強 ETag
+     */
+    String getProductETag(ProductDTO product);
+    
     /**
      * 獲取所有產品
      * 
@@ -61,6 +92,8 @@ public interface ProductService {
     /**
      * 根據名稱搜尋產品
      * 
+     * 結果依相關度排序，中文名稱以雙字詞匹配
+     * 
      * @param name 產品名稱關鍵字
      * @param pageable 分頁參數
      * @return 分頁的產品列表
@@ -116,12 +149,84 @@ public interface ProductService {
      */
     Page<ProductDTO> filterProducts(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, String brand, Pageable pageable);
     
+    /**
+     * 根據多個條件過濾產品並計算分面
+     * 
+     * 除分頁結果外，同時返回品牌、類別與價格區間的產品數量，
+     * 每個分面的計數套用除該分面本身以外的所有條件
+     * 
+     * @param filter 產品過濾條件
+     * @param pageable 分頁參數
+     * @return 帶分面計數的分頁產品列表
+     */
+    FacetedPage<ProductDTO> filterProductsWithFacets(ProductFilter filter, Pageable pageable);
+    
+    /**
+     * 以游標分頁查詢產品
+     * 
+     * 從游標位置之後開始查詢，不執行 COUNT，查詢成本與翻頁深度無關
+     * 
+     * @param filter 產品過濾條件
+     * @param cursor 產品分頁游標
+     * @param size 每頁大小
+     * @return 游標分頁結果
+     */
+    CursorPage<ProductDTO> scrollProducts(ProductFilter filter, ProductCursor cursor, int size);
+    
+    /**
+     * 分頁查詢產品摘要
+     * 
+     * 只從 MySQL 選取摘要欄位；只有請求 imageUrl 時才查詢 MongoDB，且只取第一張圖片
+     * 
+     * @param filter 產品過濾條件
+     * @param pageable 分頁參數
+     * @param fields 請求的摘要欄位
+     * @return 分頁的產品摘要列表
+     */
+    Page<ProductSummaryDTO> getProductSummaries(ProductFilter filter, Pageable pageable, ProductFieldSet fields);
+    
+    /**
+     * 根據名稱搜尋產品摘要
+     * 
+     * @param name 產品名稱關鍵字
+     * @param pageable 分頁參數
+     * @param fields 請求的摘要欄位
+     * @return 依相關度排序的分頁產品摘要列表
+     */
+    Page<ProductSummaryDTO> searchProductSummaries(String name, Pageable pageable, ProductFieldSet fields);
+    
+    /**
+     * 以游標分頁查詢產品摘要
+     * 
+     * @param filter 產品過濾條件
+     * @param cursor 產品分頁游標
+     * @param size 每頁大小
+     * @param fields 請求的摘要欄位
+     * @return 游標分頁的產品摘要結果
+     */
+    CursorPage<ProductSummaryDTO> scrollProductSummaries(ProductFilter filter, ProductCursor cursor, int size,
+                                                         ProductFieldSet fields);
+    
     /**
      * 更新產品庫存
      * 
+     * 庫存檢查與更新在單一條件更新語句中完成，併發的扣減不會互相覆蓋或使庫存變為負數。
+     * 
      * @param id 產品 ID
      * @param quantity 要增加或減少的數量（正數增加，負數減少）
-     * @return 更新後的產品 DTO
+     * @return 更新後的庫存
+     * @throws com.ecommerce.productservice.exception.InsufficientStockException 如果庫存不足
+     */
+    StockDTO updateProductStock(Long id, Integer quantity);
+    
+    /**
+     * 批量調整多個產品的庫存
+     * 
+     * 所有項目在同一個交易中依產品 ID 順序套用，任一項目庫存不足或產品不存在時全部不套用。
+     * 
+     * @param adjustments 庫存調整項目，同一產品可出現多次
+     * @return 每一行的調整結果
+     * @throws com.ecommerce.productservice.exception.StockBatchException 如果任一項目無法套用
      */
-    ProductDTO updateProductStock(Long id, Integer quantity);
-}
\ No newline at end of file
+    StockBatchResult adjustStocks(List<StockAdjustment> adjustments);
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.AvailabilityDTO;
+import com.ecommerce.productservice.dto.ReservationDTO;
+
+/**
+ * 庫存保留服務介面
+ * 
+ * 定義結帳期間保留庫存的業務邏輯：保留、確認與釋放，以及產品可售數量的查詢。
+ * 保留在到期前未確認會自動釋放；確認後的扣減批次寫回資料庫。
+ */
+public interface ReservationService {
+    
+    /**
+     * 保留產品庫存
+     * 
+     * @param productId 產品 ID
+     * @param quantity 保留數量
+     * @param ttlSeconds 保留秒數，為 null 時使用預設值
+     * @return 庫存保留
+     * @throws com.ecommerce.productservice.exception.InsufficientStockException 如果可售數量不足
+     */
+    ReservationDTO reserve(Long productId, int quantity, Integer ttlSeconds);
+    
+    /**
+     * 確認庫存保留，扣減產品庫存
+     * 
+     * @param reservationId 保留 ID
+     * @return 已確認的庫存保留
+     */
+    ReservationDTO confirm(String reservationId);
+    
+    /**
+     * 釋放庫存保留
+     * 
+     * @param reservationId 保留 ID
+     */
+    void release(String reservationId);
+    
+    /**
+     * 獲取產品的可售數量
+     * 
+     * @param productId 產品 ID
+     * @return 產品的庫存、保留中的數量與可售數量
+     */
+    AvailabilityDTO getAvailability(Long productId);
+    
+    /**
+     * 在目前的交易中為直接扣減保留產品庫存
+     * 
+     * 不經過保留流程的庫存扣減在寫入資料庫前呼叫，與保留相同地檢查可售數量，
+     * 避免扣減已保留或已確認未寫回的庫存。交易結束時釋放保留；交易提交時先重新載入資料庫庫存。
+     * 
+     * @param productId 產品 ID
+     * @param quantity 扣減數量
+     * @throws com.ecommerce.productservice.exception.InsufficientStockException 如果可售數量不足
+     * @throws com.ecommerce.productservice.exception.ResourceNotFoundException 如果產品不存在
+     * @throws org.springframework.transaction.IllegalTransactionStateException 如果不在交易中
+     */
+    void holdForUpdate(Long productId, int quantity);
+    
+    /**
+     * 重新載入產品的資料庫庫存
+     * 
+     * 在庫存被保留以外的途徑修改後呼叫。
+     * 
+     * @param productId 產品 ID
+     */
+    void refreshStock(Long productId);
+}
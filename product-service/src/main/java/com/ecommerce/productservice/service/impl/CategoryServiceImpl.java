@@ -1,23 +1,34 @@
 package com.ecommerce.productservice.service.impl;
 
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
 import com.ecommerce.productservice.dto.CategoryDTO;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
 import com.ecommerce.productservice.mapper.CategoryMapper;
 import com.ecommerce.productservice.model.Category;
 import com.ecommerce.productservice.repository.CategoryRepository;
 import com.ecommerce.productservice.service.CategoryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * 類別服務實現類
+ * 
+ * 寫入操作直接存取資料庫，並在交易提交後透過 {@link CategoryChangedEvent} 觸發類別索引重建；
+ * 讀取操作（除分頁查詢外）由記憶體中的 {@link CategoryIndex} 快照提供。
  */
 @Service
 public class CategoryServiceImpl implements CategoryService {
@@ -28,6 +39,27 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryMapper categoryMapper;
 
+    @Autowired
+    private CategoryIndexManager categoryIndexManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 以類別索引版本為鍵的類別樹 JSON 快取
+    private volatile CachedTree cachedTree;
+
+    /**
+     * 類別樹 JSON 快取項
+     *
+     * @param version 生成時的類別索引版本
+     * @param tree 已序列化的類別樹
+     */
+    private record CachedTree(long version, SerializedTree tree) {
+    }
+
     /**
      * 創建類別
      *
@@ -49,6 +81,9 @@ public class CategoryServiceImpl implements CategoryService {
         // 保存類別到MySQL
         Category savedCategory = categoryRepository.save(category);
         
+        // 通知類別索引在交易提交後重建
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
+        
         // 使用映射器將實體轉換為DTO並返回
         return categoryMapper.toDTO(savedCategory);
     }
@@ -84,6 +119,9 @@ public class CategoryServiceImpl implements CategoryService {
         // 保存更新後的類別到MySQL
         Category updatedCategory = categoryRepository.save(category);
         
+        // 通知類別索引在交易提交後重建
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        
         // 使用映射器將實體轉換為DTO並返回
         return categoryMapper.toDTO(updatedCategory);
     }
@@ -96,8 +134,8 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public Optional<CategoryDTO> getCategoryById(Long id) {
-        // 根據ID查詢類別
-        return categoryRepository.findById(id)
+        // 從類別索引查詢類別
+        return categoryIndexManager.current().find(id)
                 .map(categoryMapper::toDTO);
     }
 
@@ -136,6 +174,9 @@ public class CategoryServiceImpl implements CategoryService {
         
         // 刪除類別
         categoryRepository.delete(category);
+        
+        // 通知類別索引在交易提交後重建
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     /**
@@ -145,11 +186,8 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public List<CategoryDTO> getTopLevelCategories() {
-        // 查詢所有沒有父類別的類別
-        List<Category> topLevelCategories = categoryRepository.findByParentIdIsNull();
-        
-        // 使用映射器將類別實體列表轉換為DTO列表
-        return categoryMapper.toDTOList(topLevelCategories);
+        // 從類別索引獲取所有沒有父類別的類別
+        return toDTOList(categoryIndexManager.current().roots());
     }
 
     /**
@@ -160,15 +198,15 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public List<CategoryDTO> getSubcategories(Long parentId) {
-        // 檢查父類別是否存在
-        categoryRepository.findById(parentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Parent category not found with id: " + parentId));
+        CategoryIndex index = categoryIndexManager.current();
         
-        // 根據父類別ID查詢子類別
-        List<Category> subcategories = categoryRepository.findByParentId(parentId);
+        // 檢查父類別是否存在
+        if (!index.contains(parentId)) {
+            throw new ResourceNotFoundException("Parent category not found with id: " + parentId);
+        }
         
-        // 使用映射器將類別實體列表轉換為DTO列表
-        return categoryMapper.toDTOList(subcategories);
+        // 從類別索引獲取子類別
+        return toDTOList(index.children(parentId));
     }
 
     /**
@@ -178,11 +216,39 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public List<Map<String, Object>> getCategoryTree() {
-        // 查詢類別樹
-        List<Object[]> categoryRows = categoryRepository.findCategoryTree();
+        // 從類別索引構建類別樹結構，不再執行遞迴查詢
+        return categoryMapper.buildCategoryTree(categoryIndexManager.current());
+    }
+
+    /**
+     * 獲取預先序列化的類別樹 JSON 及其 ETag
+     * 
+     * 每個類別索引版本只序列化一次；類別變更後索引版本遞增，下一次調用時重新生成
+     *
+     * @return 已序列化的類別樹
+     */
+    @Override
+    public SerializedTree getSerializedCategoryTree() {
+        return currentTree().tree();
+    }
+
+    // 返回目前類別索引版本的類別樹快取項，版本改變時重新序列化
+    private CachedTree currentTree() {
+        CategoryIndex index = categoryIndexManager.current();
+        CachedTree cached = cachedTree;
+        if (cached != null && cached.version() == index.version()) {
+            return cached;
+        }
         
-        // 使用映射器構建類別樹結構
-        return categoryMapper.buildCategoryTree(categoryRows);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(categoryMapper.buildCategoryTree(index));
+            cached = new CachedTree(index.version(),
+                    new SerializedTree(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\""));
+            cachedTree = cached;
+            return cached;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize category tree", e);
+        }
     }
 
     /**
@@ -193,10 +259,19 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public List<CategoryDTO> searchCategoriesByName(String name) {
-        // 根據名稱搜尋類別
-        List<Category> categories = categoryRepository.findByNameContainingIgnoreCase(name);
-        
-        // 使用映射器將類別實體列表轉換為DTO列表
-        return categoryMapper.toDTOList(categories);
+        // 在類別索引中根據名稱搜尋類別
+        return toDTOList(categoryIndexManager.current().searchByName(name));
+    }
+
+    /**
+     * 將類別索引節點列表轉換為DTO列表
+     *
+     * @param nodes 類別索引節點列表
+     * @return 類別DTO列表
+     */
+    private List<CategoryDTO> toDTOList(List<CategoryIndex.Node> nodes) {
+        return nodes.stream()
+                .map(categoryMapper::toDTO)
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.ProductExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 產品目錄匯出服務實現類
+ * 
+ * 以合併連接組合產品與詳情：MySQL 依產品 ID 排序串流產品，MongoDB 以游標依 productId 排序串流詳情，
+ * 兩邊各自前進，每個產品只比較目前的詳情，不需要逐一查詢也不需要在記憶體中建立對照表。
+ * 類別名稱從記憶體中的類別索引取得。產品讀取模型的重建也以同一個合併連接讀取所有產品。
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportServiceImpl.class);
+
+    // MongoDB 游標每批讀取的詳情數量，與產品的擷取大小相同
+    private static final int DETAIL_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryIndexManager categoryIndexManager;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 將所有產品以 NDJSON 格式寫入輸出流
+     *
+     * @param output 輸出流
+     * @return 匯出的產品數量
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        long count;
+
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(output)) {
+            count = forEachProduct(product -> {
+                try {
+                    writer.write(product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (count > 0) {
+            // 最後一行也以換行結尾
+            output.write('\n');
+        }
+        output.flush();
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Product export finished: products={}, elapsed={}ms", count, elapsedMillis);
+        return count;
+    }
+
+    /**
+     * 依產品 ID 順序組裝所有產品並逐一交給調用者處理
+     *
+     * @param action 處理每個產品DTO的操作
+     * @return 處理的產品數量
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachProduct(Consumer<ProductDTO> action) {
+        CategoryIndex categories = categoryIndexManager.current();
+        Query detailQuery = new Query().with(Sort.by("productId")).cursorBatchSize(DETAIL_BATCH_SIZE);
+        long count = 0;
+
+        try (Stream<Product> products = productRepository.streamAllOrderById();
+             Stream<ProductDetail> details = mongoTemplate.stream(detailQuery, ProductDetail.class)) {
+            Iterator<ProductDetail> detailIterator = details.iterator();
+            ProductDetail detail = detailIterator.hasNext() ? detailIterator.next() : null;
+
+            for (Iterator<Product> productIterator = products.iterator(); productIterator.hasNext(); ) {
+                Product product = productIterator.next();
+                // 略過已刪除產品遺留的詳情，以及沒有產品ID的詳情（排序在最前面）
+                while (detail != null && (detail.getProductId() == null || detail.getProductId() < product.getId())) {
+                    detail = detailIterator.hasNext() ? detailIterator.next() : null;
+                }
+                ProductDetail productDetail = detail != null && detail.getProductId().equals(product.getId())
+                        ? detail : null;
+
+                action.accept(productMapper.toDTO(product, productDetail, categories.nameOf(product.getCategoryId())));
+                // 處理後從持久化上下文移除，上下文不會隨產品數量成長
+                entityManager.detach(product);
+                count++;
+            }
+        }
+        return count;
+    }
+}
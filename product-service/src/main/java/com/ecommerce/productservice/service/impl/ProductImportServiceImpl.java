@@ -0,0 +1,252 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.ProductCreateRequest;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductImportReport;
+import com.ecommerce.productservice.importer.ImportFormat;
+import com.ecommerce.productservice.importer.ImportRow;
+import com.ecommerce.productservice.importer.ProductRowReader;
+import com.ecommerce.productservice.importer.RejectFile;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.outbox.ProductOutbox;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
+import com.ecommerce.productservice.service.ProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 產品批量匯入服務實現類
+ * 
+ * 讀取、驗證與寫入在同一個執行緒中依序進行，一批寫入完成前不會繼續讀取輸入流，
+ * 客戶端上傳的速度因此受限於資料庫寫入的速度，記憶體中最多只保留一批的列。
+ * 每批各自提交，匯入中途失敗時已提交的批次會保留。
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    // 被拒絕的列檔案的副檔名
+    private static final String REJECTS_SUFFIX = ".rejects.ndjson";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryIndexManager categoryIndexManager;
+
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+
+    @Autowired
+    private ProductFacetEngine productFacetEngine;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductOutbox productOutbox;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 每個交易寫入的產品數量
+    @Value("${product.import.batch-size:1000}")
+    private int batchSize;
+
+    // 被拒絕的列檔案的目錄
+    @Value("${product.import.reject-dir:${java.io.tmpdir}/product-imports}")
+    private String rejectDir;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 初始化交易模板
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 從輸入流匯入產品
+     *
+     * @param input UTF-8 編碼的輸入流
+     * @param format 匯入格式
+     * @return 匯入報告
+     */
+    @Override
+    public ProductImportReport importProducts(InputStream input, ImportFormat format) {
+        String importId = UUID.randomUUID().toString();
+        long start = System.nanoTime();
+        // 匯入期間的類別以開始時的類別索引為準，不逐列查詢資料庫
+        CategoryIndex categories = categoryIndexManager.current();
+        long rows = 0;
+        long imported = 0;
+        long rejected;
+
+        try (ProductRowReader reader = ProductRowReader.open(format, input, objectMapper);
+             RejectFile rejects = new RejectFile(rejectsPath(importId), objectMapper)) {
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                rows++;
+                String error = validate(row, categories);
+                if (error != null) {
+                    rejects.write(row, error);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    imported += writeBatch(batch, categories, rejects);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                imported += writeBatch(batch, categories, rejects);
+            }
+            rejected = rejects.count();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to import products", e);
+        } finally {
+            if (imported > 0) {
+                // 匯入的產品不逐一發布變更事件，完成後重建一次搜尋與分面索引
+                productSearchEngine.rebuild();
+                productFacetEngine.rebuild();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long rowsPerSecond = rows * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+        logger.info("Product import {} finished: format={}, rows={}, imported={}, rejected={}, elapsed={}ms, rate={} rows/s",
+                importId, format, rows, imported, rejected, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond);
+        return new ProductImportReport(importId, format.name(), rows, imported, rejected,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond);
+    }
+
+    /**
+     * 查詢匯入的被拒絕的列檔案
+     *
+     * @param importId 匯入ID
+     * @return 包含檔案路徑的 Optional 對象
+     */
+    @Override
+    public Optional<Path> findRejects(String importId) {
+        try {
+            // 只接受 UUID 格式，避免以匯入ID讀取目錄外的檔案
+            Path path = rejectsPath(UUID.fromString(importId).toString());
+            return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    // 驗證一列，返回被拒絕的原因，可匯入時返回 null
+    private String validate(ImportRow row, CategoryIndex categories) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        Set<ConstraintViolation<ProductCreateRequest>> violations = validator.validate(row.request());
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!categories.contains(row.request().getCategoryId())) {
+            return "Category not found with id: " + row.request().getCategoryId();
+        }
+        return null;
+    }
+
+    /**
+     * 在一個交易中寫入一批產品
+     *
+     * 每個產品在同一個交易中寫入一行發件箱的創建變更，讀取模型等下游與逐一創建的產品相同地收到變更。
+     * MongoDB 寫入失敗時 MySQL 的插入與發件箱一併回滾；已寫入 MongoDB 的詳情引用的產品ID不會再被分配，
+     * 不會與之後的產品衝突。寫入失敗的整批列記錄為被拒絕的列。
+     *
+     * @param batch 已驗證的列
+     * @param categories 匯入開始時的類別索引，用於變更中的類別名稱
+     * @param rejects 被拒絕的列檔案
+     * @return 成功寫入的產品數量
+     */
+    private int writeBatch(List<ImportRow> batch, CategoryIndex categories, RejectFile rejects) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Product> products = new ArrayList<>(batch.size());
+                for (ImportRow row : batch) {
+                    products.add(productMapper.toProductEntity(row.request()));
+                }
+                List<Long> ids = productRepository.insertAll(products);
+
+                List<ProductDetail> details = new ArrayList<>(batch.size());
+                List<ProductDTO> created = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    ProductDetail detail = productMapper.toProductDetailEntity(batch.get(i).request(), ids.get(i));
+                    details.add(detail);
+                    ProductDTO product = productMapper.toDTO(products.get(i), detail,
+                            categories.nameOf(products.get(i).getCategoryId()));
+                    product.setId(ids.get(i));
+                    created.add(product);
+                }
+                productOutbox.recordAll(ProductOutboxEvent.Type.CREATED, created);
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDetail.class)
+                        .insert(details)
+                        .execute();
+            });
+            return batch.size();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write {} imported products", batch.size(), e);
+            for (ImportRow row : batch) {
+                rejects.write(row, "Write failed: " + e.getMessage());
+            }
+            return 0;
+        }
+    }
+
+    private Path rejectsPath(String importId) {
+        return Paths.get(rejectDir, importId + REJECTS_SUFFIX);
+    }
+}
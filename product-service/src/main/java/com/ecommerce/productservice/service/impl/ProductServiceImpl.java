@@ -1,26 +1,84 @@
 package com.ecommerce.productservice.service.impl;
 
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.config.CacheConfig;
+import com.ecommerce.productservice.config.ProductLookupExecutor;
+import com.ecommerce.productservice.dto.CursorPage;
+import com.ecommerce.productservice.dto.FacetedPage;
 import com.ecommerce.productservice.dto.ProductCreateRequest;
+import com.ecommerce.productservice.dto.ProductCursor;
 import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductFieldSet;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.dto.ProductSummaryDTO;
 import com.ecommerce.productservice.dto.ProductUpdateRequest;
+import com.ecommerce.productservice.dto.StockAdjustment;
+import com.ecommerce.productservice.dto.StockBatchResult;
+import com.ecommerce.productservice.dto.StockDTO;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.event.StockChangedEvent;
+import com.ecommerce.productservice.exception.InsufficientStockException;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.exception.StockBatchException;
+import com.ecommerce.productservice.exception.StoreTimeoutException;
 import com.ecommerce.productservice.mapper.ProductMapper;
 import com.ecommerce.productservice.model.Category;
 import com.ecommerce.productservice.model.Product;
 import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.model.ProductView;
+import com.ecommerce.productservice.outbox.ProductOutbox;
+import com.ecommerce.productservice.popularity.PopularityTracker;
 import com.ecommerce.productservice.repository.CategoryRepository;
 import com.ecommerce.productservice.repository.ProductDetailRepository;
 import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductSpecifications;
+import com.ecommerce.productservice.repository.ProductSummaryView;
+import com.ecommerce.productservice.repository.ProductVersionView;
+import com.ecommerce.productservice.repository.ProductViewRepository;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
 import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.productservice.service.ReservationService;
+import com.ecommerce.productservice.stock.HotStockManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +87,11 @@ import java.util.stream.Collectors;
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+
+    // 游標分頁的每頁上限
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -41,6 +104,55 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private CategoryIndexManager categoryIndexManager;
+
+    @Autowired
+    private ProductLookupExecutor productLookupExecutor;
+
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+
+    @Autowired
+    private ProductFacetEngine productFacetEngine;
+
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    @Autowired
+    private HotStockManager hotStockManager;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ProductOutbox productOutbox;
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 是否並行查詢 MySQL 與 MongoDB
+    @Value("${product.lookup.parallel:true}")
+    private boolean parallelLookup;
+
+    // MySQL 查詢期限（毫秒）
+    @Value("${product.lookup.mysql-timeout-ms:500}")
+    private long mysqlTimeoutMillis;
+
+    // MongoDB 查詢期限（毫秒）
+    @Value("${product.lookup.mongo-timeout-ms:300}")
+    private long mongoTimeoutMillis;
+
+    // 是否從產品讀取模型讀取以ID查詢的產品
+    @Value("${product.view.read-enabled:false}")
+    private boolean readFromView;
+
     /**
      * 創建產品
      *
@@ -51,8 +163,7 @@ public class ProductServiceImpl implements ProductService {
     @Transactional
     public ProductDTO createProduct(ProductCreateRequest productRequest) {
         // 檢查類別是否存在
-        Category category = categoryRepository.findById(productRequest.getCategoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + productRequest.getCategoryId()));
+        String categoryName = requireCategoryName(productRequest.getCategoryId());
 
         // 使用映射器將請求轉換為產品實體
         Product product = productMapper.toProductEntity(productRequest);
@@ -66,8 +177,13 @@ public class ProductServiceImpl implements ProductService {
         // 保存產品詳情到MongoDB
         ProductDetail savedProductDetail = productDetailRepository.save(productDetail);
         
-        // 使用映射器將實體轉換為DTO並返回
-        return productMapper.toDTO(savedProduct, savedProductDetail, category.getName());
+        // 通知搜尋索引等監聽者，在交易提交後處理
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
+        
+        // 使用映射器將實體轉換為DTO，並在同一交易中寫入發件箱
+        ProductDTO productDTO = productMapper.toDTO(savedProduct, savedProductDetail, categoryName);
+        productOutbox.record(savedProduct.getId(), ProductOutboxEvent.Type.CREATED, productDTO);
+        return productDTO;
     }
 
     /**
@@ -79,31 +195,33 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_CACHE, key = "#id")
     public ProductDTO updateProduct(Long id, ProductUpdateRequest productRequest) {
         // 檢查產品是否存在
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         
         // 如果更新了類別，檢查新類別是否存在
-        String categoryName = null;
+        String categoryName;
         if (productRequest.getCategoryId() != null) {
-            Category category = categoryRepository.findById(productRequest.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + productRequest.getCategoryId()));
-            categoryName = category.getName();
+            categoryName = requireCategoryName(productRequest.getCategoryId());
         } else {
             // 獲取現有類別名稱
-            Category category = categoryRepository.findById(product.getCategoryId())
-                    .orElse(null);
-            if (category != null) {
-                categoryName = category.getName();
-            }
+            categoryName = categoryIndexManager.current().nameOf(product.getCategoryId());
         }
         
         // 使用映射器更新產品實體
         productMapper.updateProductFromRequest(product, productRequest);
         
-        // 保存更新後的產品到MySQL
-        Product updatedProduct = productRepository.save(product);
+        // 熱門模式的產品庫存存放在分槽中，一併重新分配
+        if (productRequest.getStock() != null) {
+            hotStockManager.setStock(id, productRequest.getStock());
+        }
+        
+        // 詳情只經由產品更新寫入，無論產品欄位是否改變都更新產品的更新時間，使 ETag 隨詳情改變；
+        // 立即寫入資料庫，使DTO與發件箱中的更新時間與資料庫一致
+        product.setUpdatedAt(LocalDateTime.now());
+        Product updatedProduct = productRepository.saveAndFlush(product);
         
         // 獲取產品詳情
         ProductDetail productDetail = productDetailRepository.findByProductId(id)
@@ -119,18 +237,47 @@ public class ProductServiceImpl implements ProductService {
         // 保存更新後的產品詳情到MongoDB
         ProductDetail updatedProductDetail = productDetailRepository.save(productDetail);
         
-        // 使用映射器將實體轉換為DTO並返回
-        return productMapper.toDTO(updatedProduct, updatedProductDetail, categoryName);
+        // 通知搜尋索引等監聽者，在交易提交後處理
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
+        
+        // 使用映射器將實體轉換為DTO，並在同一交易中寫入發件箱
+        ProductDTO productDTO = productMapper.toDTO(updatedProduct, updatedProductDetail, categoryName);
+        productOutbox.record(id, ProductOutboxEvent.Type.UPDATED, productDTO);
+        return productDTO;
     }
 
     /**
      * 根據ID獲取產品
+     * 
+     * 組裝完成的產品DTO會放入產品快取，產品更新、庫存變更、刪除或類別變更時清除；
+     * 不存在的產品與缺少詳情的降級結果不會被快取。
+     * 啟用 product.lookup.parallel 時，MySQL 與 MongoDB 查詢並行發出。快取中的DTO由所有調用者共享，調用者不應修改其內容。
+     * 啟用 product.view.read-enabled 時改為讀取一個讀取模型文檔，讀取模型中還沒有該產品時才組裝。
+     * 熱門模式的產品以庫存分槽的總和作為庫存，不使用落後的產品表與讀取模型庫存；
+     * 分槽調整時清除快取，快取中的庫存與分槽一致。
      *
      * @param id 產品ID
      * @return 包含產品的Optional對象，如果未找到則為空
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_CACHE, key = "#id", unless = "#result == null || #result.degraded")
     public Optional<ProductDTO> getProductById(Long id) {
+        return loadProduct(id).map(this::withHotStock);
+    }
+
+    // 從讀取模型或 MySQL 與 MongoDB 組裝產品
+    private Optional<ProductDTO> loadProduct(Long id) {
+        if (readFromView) {
+            Optional<ProductView> view = productViewRepository.findById(id);
+            if (view.isPresent()) {
+                return Optional.of(view.get().getProduct());
+            }
+        }
+        
+        if (parallelLookup) {
+            return getProductByIdConcurrently(id);
+        }
+        
         // 從MySQL獲取產品
         Optional<Product> productOptional = productRepository.findById(id);
         
@@ -141,14 +288,8 @@ public class ProductServiceImpl implements ProductService {
             Optional<ProductDetail> productDetailOptional = productDetailRepository.findByProductId(id);
             ProductDetail productDetail = productDetailOptional.orElse(null);
             
-            // 獲取類別名稱
-            String categoryName = null;
-            if (product.getCategoryId() != null) {
-                Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-                if (categoryOptional.isPresent()) {
-                    categoryName = categoryOptional.get().getName();
-                }
-            }
+            // 從類別索引獲取類別名稱
+            String categoryName = categoryIndexManager.current().nameOf(product.getCategoryId());
             
             // 使用映射器將實體轉換為DTO
             ProductDTO productDTO = productMapper.toDTO(product, productDetail, categoryName);
@@ -158,6 +299,130 @@ public class ProductServiceImpl implements ProductService {
         return Optional.empty();
     }
 
+    /**
+     * 獲取產品目前版本的 ETag
+     *
+     * @param id 產品ID
+     * @return 包含強 ETag 的Optional對象，如果產品不存在則為空
+     */
+    @Override
+    public Optional<String> getProductETag(Long id) {
+        // 快取中的產品即是 getProductById 會返回的版本
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        ProductDTO cached = cache != null ? cache.get(id, ProductDTO.class) : null;
+        if (cached != null) {
+            return Optional.of(getProductETag(cached));
+        }
+        
+        if (readFromView) {
+            Optional<ProductView> view = productViewRepository.findById(id);
+            if (view.isPresent()) {
+                return Optional.of(getProductETag(withHotStock(view.get().getProduct())));
+            }
+        }
+        
+        // 以主鍵只查詢版本欄位，熱門模式的產品與 getProductById 相同以分槽總和計算
+        return productRepository.findVersionById(id).map(version -> {
+            OptionalInt hotStock = hotStockManager.stockOf(id);
+            Integer stock = hotStock.isPresent() ? hotStock.getAsInt() : version.getStock();
+            return eTagOf(id, version.getUpdatedAt(), stock, version.getCategoryId());
+        });
+    }
+
+    // 熱門模式的產品以庫存分槽的總和取代產品表中落後的庫存
+    private ProductDTO withHotStock(ProductDTO product) {
+        hotStockManager.stockOf(product.getId()).ifPresent(product::setStock);
+        return product;
+    }
+
+    /**
+     * 計算產品DTO的 ETag
+     *
+     * @param product 產品DTO
+     * @return 強 ETag
+     */
+    @Override
+    public String getProductETag(ProductDTO product) {
+        return eTagOf(product.getId(), product.getUpdatedAt(), product.getStock(), product.getCategoryId());
+    }
+
+    /**
+     * 由產品的版本欄位計算 ETag
+     *
+     * 時間截斷到毫秒，避免資料庫與記憶體中的時間精度不同；庫存直接加入計算，
+     * 只更新庫存的語句以資料庫時間更新時間，精度可能只到秒。類別改名後類別的更新時間改變，ETag 也隨之改變。
+     *
+     * @param id 產品ID
+     * @param updatedAt 產品更新時間
+     * @param stock 庫存
+     * @param categoryId 類別ID
+     * @return 以雙引號包圍的強 ETag
+     */
+    private String eTagOf(Long id, LocalDateTime updatedAt, Integer stock, Long categoryId) {
+        LocalDateTime categoryUpdatedAt = categoryIndexManager.current().find(categoryId)
+                .map(CategoryIndex.Node::updatedAt)
+                .orElse(null);
+        String version = id + "|" + truncate(updatedAt) + "|" + stock + "|" + categoryId + "|" + truncate(categoryUpdatedAt);
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time) {
+        return time != null ? time.truncatedTo(ChronoUnit.MILLIS) : null;
+    }
+
+    /**
+     * 並行查詢 MySQL 與 MongoDB 並組裝產品
+     * 
+     * 兩個查詢同時發出，延遲約為兩者中較慢的一方而非總和。每個儲存各自有期限：
+     * MySQL 逾時拋出 {@link StoreTimeoutException}；MongoDB 逾時或失敗時降級為不含詳情的產品，
+     * 降級結果不寫入快取。
+     *
+     * @param id 產品ID
+     * @return 包含產品的Optional對象，如果未找到則為空
+     */
+    private Optional<ProductDTO> getProductByIdConcurrently(Long id) {
+        CompletableFuture<Optional<Product>> productFuture =
+                productLookupExecutor.supply(() -> productRepository.findById(id), mysqlTimeoutMillis);
+        CompletableFuture<Optional<ProductDetail>> detailFuture =
+                productLookupExecutor.supply(() -> productDetailRepository.findByProductId(id), mongoTimeoutMillis);
+        
+        // 等待MySQL產品查詢
+        Optional<Product> productOptional;
+        try {
+            productOptional = productFuture.join();
+        } catch (CompletionException e) {
+            detailFuture.cancel(false);
+            if (e.getCause() instanceof TimeoutException) {
+                throw new StoreTimeoutException("MySQL lookup timed out for product id: " + id, e.getCause());
+            }
+            throw unwrap(e);
+        }
+        
+        if (productOptional.isEmpty()) {
+            detailFuture.cancel(false);
+            return Optional.empty();
+        }
+        Product product = productOptional.get();
+        
+        // 等待MongoDB詳情查詢，逾時或失敗時降級
+        ProductDetail productDetail = detailFuture
+                .handle((detail, error) -> {
+                    if (error != null) {
+                        logger.warn("Product detail lookup failed for product id {}: {}", id, error.toString());
+                        return null;
+                    }
+                    return detail.orElse(null);
+                })
+                .join();
+        
+        // 從類別索引獲取類別名稱
+        String categoryName = categoryIndexManager.current().nameOf(product.getCategoryId());
+        
+        ProductDTO productDTO = productMapper.toDTO(product, productDetail, categoryName);
+        productDTO.setDegraded(detailFuture.isCompletedExceptionally());
+        return Optional.of(productDTO);
+    }
+
     /**
      * 獲取所有產品
      *
@@ -169,23 +434,8 @@ public class ProductServiceImpl implements ProductService {
         // 分頁查詢所有產品
         Page<Product> products = productRepository.findAll(pageable);
         
-        // 使用映射器將每個產品實體轉換為DTO
-        return products.map(product -> {
-            // 從MongoDB獲取產品詳情
-            ProductDetail productDetail = productDetailRepository.findByProductId(product.getId()).orElse(null);
-            
-            // 獲取類別名稱
-            String categoryName = null;
-            if (product.getCategoryId() != null) {
-                Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-                if (categoryOptional.isPresent()) {
-                    categoryName = categoryOptional.get().getName();
-                }
-            }
-            
-            // 使用映射器將實體轉換為DTO
-            return productMapper.toDTO(product, productDetail, categoryName);
-        });
+        // 批量組裝整頁產品DTO
+        return toDTOPage(products);
     }
 
     /**
@@ -195,6 +445,7 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_CACHE, key = "#id")
     public void deleteProduct(Long id) {
         // 檢查產品是否存在
         if (!productRepository.existsById(id)) {
@@ -204,12 +455,20 @@ public class ProductServiceImpl implements ProductService {
         // 刪除MongoDB中的產品詳情
         productDetailRepository.deleteByProductId(id);
         
-        // 刪除MySQL中的產品
+        // 刪除MySQL中的產品與熱門模式的庫存分槽
+        hotStockManager.remove(id);
         productRepository.deleteById(id);
+        productOutbox.record(id, ProductOutboxEvent.Type.DELETED, null);
+        
+        // 通知搜尋索引等監聽者，在交易提交後處理
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
     }
 
     /**
      * 根據名稱搜尋產品
+     * 
+     * 由記憶體中的倒排索引查詢並依相關度排序，分頁參數中的排序條件會被忽略；
+     * 索引尚未建立完成時改用資料庫的模糊查詢。
      *
      * @param name 產品名稱關鍵字
      * @param pageable 分頁參數
@@ -217,26 +476,44 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public Page<ProductDTO> searchProductsByName(String name, Pageable pageable) {
-        // 根據名稱搜尋產品
-        Page<Product> products = productRepository.findByNameContainingIgnoreCase(name, pageable);
+        if (!productSearchEngine.isReady()) {
+            // 根據名稱模糊查詢產品
+            Page<Product> products = productRepository.findByNameContainingIgnoreCase(name, pageable);
+            return toDTOPage(products);
+        }
         
-        // 使用映射器將每個產品實體轉換為DTO
-        return products.map(product -> {
-            // 從MongoDB獲取產品詳情
-            ProductDetail productDetail = productDetailRepository.findByProductId(product.getId()).orElse(null);
-            
-            // 獲取類別名稱
-            String categoryName = null;
-            if (product.getCategoryId() != null) {
-                Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-                if (categoryOptional.isPresent()) {
-                    categoryName = categoryOptional.get().getName();
-                }
-            }
-            
-            // 使用映射器將實體轉換為DTO
-            return productMapper.toDTO(product, productDetail, categoryName);
-        });
+        // 從搜尋索引取得一頁產品ID，再批量載入產品
+        return loadPage(productSearchEngine.search(name, pageable));
+    }
+
+    /**
+     * 根據名稱搜尋產品摘要
+     *
+     * @param name 產品名稱關鍵字
+     * @param pageable 分頁參數
+     * @param fields 請求的摘要欄位
+     * @return 分頁的產品摘要列表
+     */
+    @Override
+    public Page<ProductSummaryDTO> searchProductSummaries(String name, Pageable pageable, ProductFieldSet fields) {
+        if (!productSearchEngine.isReady()) {
+            ProductFilter filter = new ProductFilter();
+            filter.setName(name);
+            return getProductSummaries(filter, pageable, fields);
+        }
+        
+        // 從搜尋索引取得一頁產品ID，再批量載入產品
+        Page<Long> hits = productSearchEngine.search(name, pageable);
+        List<Product> products = findProductsInOrder(hits.getContent());
+        
+        // 批量組裝產品摘要，不查詢完整的產品詳情
+        Map<Long, String> imageUrls = findImageUrls(new HashSet<>(hits.getContent()), fields);
+        CategoryIndex index = categoryIndexManager.current();
+        List<ProductSummaryDTO> summaries = products.stream()
+                .map(product -> productMapper.toSummaryDTO(
+                        product, index.nameOf(product.getCategoryId()), imageUrls.get(product.getId()), fields))
+                .collect(Collectors.toList());
+        return new PageImpl<>(summaries, pageable, hits.getTotalElements());
     }
 
     /**
@@ -249,20 +526,15 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public Page<ProductDTO> getProductsByCategory(Long categoryId, Pageable pageable) {
         // 檢查類別是否存在
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
+        String categoryName = requireCategoryName(categoryId);
         
         // 根據類別ID查詢產品
         Page<Product> products = productRepository.findByCategoryId(categoryId, pageable);
         
-        // 使用映射器將每個產品實體轉換為DTO
-        return products.map(product -> {
-            // 從MongoDB獲取產品詳情
-            ProductDetail productDetail = productDetailRepository.findByProductId(product.getId()).orElse(null);
-            
-            // 使用映射器將實體轉換為DTO
-            return productMapper.toDTO(product, productDetail, category.getName());
-        });
+        // 批量組裝整頁產品DTO，類別名稱已知，無需再次查詢
+        Map<Long, ProductDetail> productDetails = findProductDetails(products.getContent());
+        return products.map(product -> productMapper.toDTO(
+                product, productDetails.get(product.getId()), categoryName));
     }
 
     /**
@@ -278,23 +550,8 @@ public class ProductServiceImpl implements ProductService {
         // 根據價格範圍查詢產品
         Page<Product> products = productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
         
-        // 使用映射器將每個產品實體轉換為DTO
-        return products.map(product -> {
-            // 從MongoDB獲取產品詳情
-            ProductDetail productDetail = productDetailRepository.findByProductId(product.getId()).orElse(null);
-            
-            // 獲取類別名稱
-            String categoryName = null;
-            if (product.getCategoryId() != null) {
-                Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-                if (categoryOptional.isPresent()) {
-                    categoryName = categoryOptional.get().getName();
-                }
-            }
-            
-            // 使用映射器將實體轉換為DTO
-            return productMapper.toDTO(product, productDetail, categoryName);
-        });
+        // 批量組裝整頁產品DTO
+        return toDTOPage(products);
     }
 
     /**
@@ -309,59 +566,44 @@ public class ProductServiceImpl implements ProductService {
         // 根據品牌查詢產品
         Page<Product> products = productRepository.findByBrand(brand, pageable);
         
-        // 使用映射器將每個產品實體轉換為DTO
-        return products.map(product -> {
-            // 從MongoDB獲取產品詳情
-            ProductDetail productDetail = productDetailRepository.findByProductId(product.getId()).orElse(null);
-            
-            // 獲取類別名稱
-            String categoryName = null;
-            if (product.getCategoryId() != null) {
-                Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-                if (categoryOptional.isPresent()) {
-                    categoryName = categoryOptional.get().getName();
-                }
-            }
-            
-            // 使用映射器將實體轉換為DTO
-            return productMapper.toDTO(product, productDetail, categoryName);
-        });
+        // 批量組裝整頁產品DTO
+        return toDTOPage(products);
     }
 
     /**
      * 獲取熱門產品
+     * 
+     * 熱門排名由熱門度追蹤器提供，只需載入排名中的產品，不排序產品表；已下架的產品會被略過。
      *
      * @param limit 返回的產品數量
      * @return 熱門產品列表
      */
     @Override
     public List<ProductDTO> getTopProducts(int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        if (readFromView) {
+            return findDTOsInOrder(popularityTracker.topProductIds(limit)).stream()
+                    .filter(product -> Boolean.TRUE.equals(product.getIsActive()))
+                    .collect(Collectors.toList());
+        }
+        
         // 獲取熱門產品
-        List<Product> topProducts = productRepository.findTopProducts(limit);
-        
-        // 將實體轉換為DTO（使用Lambda表達式）
-        return topProducts.stream()
-                .map(product -> {
-                    // 從MongoDB獲取產品詳情
-                    ProductDetail productDetail = productDetailRepository.findByProductId(product.getId()).orElse(null);
-                    
-                    // 獲取類別名稱
-                    String categoryName = null;
-                    if (product.getCategoryId() != null) {
-                        Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-                        if (categoryOptional.isPresent()) {
-                            categoryName = categoryOptional.get().getName();
-                        }
-                    }
-                    
-                    // 使用映射器將實體轉換為DTO
-                    return productMapper.toDTO(product, productDetail, categoryName);
-                })
+        List<Product> topProducts = findProductsInOrder(popularityTracker.topProductIds(limit)).stream()
+                .filter(product -> Boolean.TRUE.equals(product.getIsActive()))
                 .collect(Collectors.toList());
+        
+        // 批量組裝產品DTO
+        return toDTOs(topProducts);
     }
 
     /**
      * 根據多個條件過濾產品
+     * 
+     * 由記憶體中的分面索引以點陣圖交集求得結果，依產品ID升序排列；
+     * 分面索引尚未建立完成時改用資料庫查詢。
      *
      * @param name 產品名稱關鍵字
      * @param categoryId 類別ID
@@ -373,66 +615,466 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public Page<ProductDTO> filterProducts(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, String brand, Pageable pageable) {
+        ProductFilter filter = new ProductFilter(name, categoryId, minPrice, maxPrice, brand, true);
+        ProductFacetEngine.Result result = productFacetEngine.search(filter, pageable, false);
+        if (result != null) {
+            return loadPage(result.productIds());
+        }
+        
         // 根據多個條件查詢產品
         Page<Product> products = productRepository.findProductsByFilters(name, categoryId, minPrice, maxPrice, brand, pageable);
         
-        // 使用映射器將每個產品實體轉換為DTO
-        return products.map(product -> {
-            // 從MongoDB獲取產品詳情
-            ProductDetail productDetail = productDetailRepository.findByProductId(product.getId()).orElse(null);
-            
-            // 獲取類別名稱
-            String categoryName = null;
-            if (product.getCategoryId() != null) {
-                Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-                if (categoryOptional.isPresent()) {
-                    categoryName = categoryOptional.get().getName();
-                }
-            }
-            
-            // 使用映射器將實體轉換為DTO
-            return productMapper.toDTO(product, productDetail, categoryName);
-        });
+        // 批量組裝整頁產品DTO
+        return toDTOPage(products);
+    }
+
+    /**
+     * 根據多個條件過濾產品並計算分面
+     *
+     * @param filter 產品過濾條件
+     * @param pageable 分頁參數
+     * @return 帶分面計數的分頁產品列表
+     */
+    @Override
+    public FacetedPage<ProductDTO> filterProductsWithFacets(ProductFilter filter, Pageable pageable) {
+        ProductFacetEngine.Result result = productFacetEngine.search(filter, pageable, true);
+        if (result != null) {
+            Page<ProductDTO> page = loadPage(result.productIds());
+            return new FacetedPage<>(page.getContent(), page.getTotalElements(), page.getTotalPages(),
+                    page.getNumber(), page.getSize(), result.facets());
+        }
+        
+        // 分面索引尚未建立，只返回資料庫查詢的結果
+        Page<ProductDTO> page = filterProducts(filter.getName(), filter.getCategoryId(), filter.getMinPrice(),
+                filter.getMaxPrice(), filter.getBrand(), pageable);
+        return new FacetedPage<>(page.getContent(), page.getTotalElements(), page.getTotalPages(),
+                page.getNumber(), page.getSize(), null);
+    }
+
+    /**
+     * 以游標分頁查詢產品
+     *
+     * @param filter 產品過濾條件
+     * @param cursor 產品分頁游標
+     * @param size 每頁大小
+     * @return 游標分頁結果
+     */
+    @Override
+    public CursorPage<ProductDTO> scrollProducts(ProductFilter filter, ProductCursor cursor, int size) {
+        CursorPage<Product> page = scrollEntities(filter, cursor, size);
+        
+        // 批量組裝產品DTO
+        return new CursorPage<>(toDTOs(page.getContent()), page.getNextCursor(), page.isHasNext(), page.getSize());
+    }
+
+    /**
+     * 分頁查詢產品摘要
+     *
+     * @param filter 產品過濾條件
+     * @param pageable 分頁參數
+     * @param fields 請求的摘要欄位
+     * @return 分頁的產品摘要列表
+     */
+    @Override
+    public Page<ProductSummaryDTO> getProductSummaries(ProductFilter filter, Pageable pageable, ProductFieldSet fields) {
+        // 檢查類別是否存在
+        if (filter.getCategoryId() != null) {
+            requireCategoryName(filter.getCategoryId());
+        }
+        
+        // 只選取摘要欄位，WHERE 子句只包含有值的條件
+        Page<ProductSummaryView> products = productRepository.findSummaries(filter, pageable);
+        
+        // 批量組裝整頁產品摘要
+        Map<Long, String> imageUrls = findImageUrls(
+                products.getContent().stream().map(ProductSummaryView::getId).collect(Collectors.toSet()), fields);
+        CategoryIndex index = categoryIndexManager.current();
+        return products.map(product -> productMapper.toSummaryDTO(
+                product, index.nameOf(product.getCategoryId()), imageUrls.get(product.getId()), fields));
+    }
+
+    /**
+     * 以游標分頁查詢產品摘要
+     *
+     * @param filter 產品過濾條件
+     * @param cursor 產品分頁游標
+     * @param size 每頁大小
+     * @param fields 請求的摘要欄位
+     * @return 游標分頁的產品摘要結果
+     */
+    @Override
+    public CursorPage<ProductSummaryDTO> scrollProductSummaries(ProductFilter filter, ProductCursor cursor, int size,
+                                                                ProductFieldSet fields) {
+        CursorPage<Product> page = scrollEntities(filter, cursor, size);
+        
+        // 批量組裝產品摘要，不查詢完整的產品詳情
+        Map<Long, String> imageUrls = findImageUrls(
+                page.getContent().stream().map(Product::getId).collect(Collectors.toSet()), fields);
+        CategoryIndex index = categoryIndexManager.current();
+        List<ProductSummaryDTO> summaries = page.getContent().stream()
+                .map(product -> productMapper.toSummaryDTO(
+                        product, index.nameOf(product.getCategoryId()), imageUrls.get(product.getId()), fields))
+                .collect(Collectors.toList());
+        return new CursorPage<>(summaries, page.getNextCursor(), page.isHasNext(), page.getSize());
+    }
+
+    /**
+     * 以游標分頁查詢產品實體
+     *
+     * @param filter 產品過濾條件
+     * @param cursor 產品分頁游標
+     * @param size 每頁大小
+     * @return 游標分頁的產品實體
+     */
+    private CursorPage<Product> scrollEntities(ProductFilter filter, ProductCursor cursor, int size) {
+        // 檢查類別是否存在
+        if (filter.getCategoryId() != null) {
+            requireCategoryName(filter.getCategoryId());
+        }
+        
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Specification<Product> spec = ProductSpecifications.matches(filter)
+                .and(ProductSpecifications.after(cursor));
+        
+        // 多取一筆判斷是否還有下一頁，不執行 COUNT
+        List<Product> products = productRepository.findBy(spec,
+                query -> query.sortBy(cursor.toSort()).limit(limit + 1).all());
+        
+        boolean hasNext = products.size() > limit;
+        if (hasNext) {
+            products = products.subList(0, limit);
+        }
+        String nextCursor = hasNext ? cursor.after(products.get(products.size() - 1)).encode() : null;
+        
+        return new CursorPage<>(products, nextCursor, hasNext, limit);
     }
 
     /**
      * 更新產品庫存
      *
+     * 使用單一條件更新語句，不先讀取再寫回，避免併發請求遺失更新或超賣；
+     * 減少庫存時先在庫存保留帳本中保留扣減數量，不扣減已保留或已確認未寫回的庫存。
+     * 返回結果只包含庫存，不需要讀取產品詳情與類別名稱。
+     *
      * @param id 產品ID
      * @param quantity 要增加或減少的數量（正數增加，負數減少）
-     * @return 更新後的產品DTO
+     * @return 更新後的庫存
      */
     @Override
     @Transactional
-    public ProductDTO updateProductStock(Long id, Integer quantity) {
-        // 檢查產品是否存在
-        Product product = productRepository.findById(id)
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_CACHE, key = "#id")
+    public StockDTO updateProductStock(Long id, Integer quantity) {
+        if (quantity < 0) {
+            reservationService.holdForUpdate(id, -quantity);
+        }
+        
+        // 熱門模式的產品更新庫存分槽，其餘產品更新產品表
+        OptionalInt hotStock = hotStockManager.adjust(id, quantity);
+        int stock = hotStock.isPresent() ? hotStock.getAsInt() : adjustProductStock(id, quantity);
+        
+        // 發布庫存變更事件，交易提交後清除產品快取，減少庫存計入熱門度，增加庫存時庫存保留帳本重新載入庫存
+        eventPublisher.publishEvent(new StockChangedEvent(id, quantity));
+        
+        return new StockDTO(id, stock);
+    }
+
+    /**
+     * 批量調整多個產品的庫存
+     *
+     * 同一產品的多行先合併，一般產品依產品 ID 遞增的順序以一個 JDBC 批次條件更新，
+     * 熱門模式的產品在之後依相同順序更新庫存分槽。減少庫存的產品先在庫存保留帳本中保留扣減數量，
+     * 可售數量不足的產品不更新。所有更新都在同一個交易中，
+     * 任一行庫存不足或產品不存在時拋出異常使整個交易回滾。
+     *
+     * @param adjustments 庫存調整項目
+     * @return 每一行的調整結果
+     */
+    @Override
+    @Transactional
+    public StockBatchResult adjustStocks(List<StockAdjustment> adjustments) {
+        // 合併同一產品的多行，並依產品 ID 排序以固定鎖定順序
+        SortedMap<Long, Integer> merged = new TreeMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            merged.merge(adjustment.getProductId(), adjustment.getQuantity(), Integer::sum);
+        }
+        Map<Long, StockBatchResult.Status> statuses = new HashMap<>();
+        Map<Long, Integer> stocks = new HashMap<>();
+        
+        // 減少庫存的產品先在帳本中保留，保留失敗的產品不再更新
+        SortedMap<Long, Integer> regular = new TreeMap<>();
+        SortedMap<Long, Integer> hot = new TreeMap<>();
+        merged.forEach((id, quantity) -> {
+            if (quantity < 0) {
+                try {
+                    reservationService.holdForUpdate(id, -quantity);
+                } catch (InsufficientStockException e) {
+                    stocks.put(id, Math.toIntExact(reservationService.getAvailability(id).getAvailable()));
+                    statuses.put(id, StockBatchResult.Status.INSUFFICIENT_STOCK);
+                    return;
+                } catch (ResourceNotFoundException e) {
+                    statuses.put(id, StockBatchResult.Status.NOT_FOUND);
+                    return;
+                }
+            }
+            (hotStockManager.isHot(id) ? hot : regular).put(id, quantity);
+        });
+        
+        // 一般產品：一次批次更新，再一次查詢取得更新後的庫存與失敗行的目前庫存
+        if (!regular.isEmpty()) {
+            int[] counts = productRepository.adjustStocks(regular);
+            stocks.putAll(productRepository.findStocksByIds(regular.keySet()));
+            int index = 0;
+            for (Long id : regular.keySet()) {
+                statuses.put(id, counts[index++] > 0 ? StockBatchResult.Status.APPLIED
+                        : stocks.containsKey(id) ? StockBatchResult.Status.INSUFFICIENT_STOCK
+                        : StockBatchResult.Status.NOT_FOUND);
+            }
+        }
+        
+        // 熱門模式的產品：逐一更新庫存分槽，分槽已被刪除時改為更新產品表
+        hot.forEach((id, quantity) -> {
+            try {
+                OptionalInt stock = hotStockManager.adjust(id, quantity);
+                stocks.put(id, stock.isPresent() ? stock.getAsInt() : adjustProductStock(id, quantity));
+                statuses.put(id, StockBatchResult.Status.APPLIED);
+            } catch (InsufficientStockException e) {
+                hotStockManager.stockOf(id).ifPresent(stock -> stocks.put(id, stock));
+                statuses.put(id, StockBatchResult.Status.INSUFFICIENT_STOCK);
+            } catch (ResourceNotFoundException e) {
+                statuses.put(id, StockBatchResult.Status.NOT_FOUND);
+            }
+        });
+        
+        boolean applied = statuses.values().stream().allMatch(status -> status == StockBatchResult.Status.APPLIED);
+        List<StockBatchResult.Line> lines = new ArrayList<>(adjustments.size());
+        for (StockAdjustment adjustment : adjustments) {
+            Long id = adjustment.getProductId();
+            StockBatchResult.Status status = statuses.get(id);
+            if (!applied && status == StockBatchResult.Status.APPLIED) {
+                lines.add(new StockBatchResult.Line(id, adjustment.getQuantity(),
+                        StockBatchResult.Status.NOT_APPLIED, null));
+            } else {
+                lines.add(new StockBatchResult.Line(id, adjustment.getQuantity(), status, stocks.get(id)));
+            }
+        }
+        StockBatchResult result = new StockBatchResult(applied, lines);
+        if (!applied) {
+            // 回滾已套用的行
+            throw new StockBatchException(result);
+        }
+        
+        // 交易提交後清除產品快取，減少庫存計入熱門度，增加庫存時庫存保留帳本重新載入庫存
+        merged.forEach((id, quantity) -> eventPublisher.publishEvent(new StockChangedEvent(id, quantity)));
+        
+        return result;
+    }
+
+    /**
+     * 以條件更新調整產品表中的庫存
+     *
+     * @param id 產品ID
+     * @param quantity 要增加或減少的數量（正數增加，負數減少）
+     * @return 更新後的庫存
+     */
+    private int adjustProductStock(Long id, int quantity) {
+        if (productRepository.adjustStock(id, quantity) == 0) {
+            // 沒有更新任何行，區分產品不存在與庫存不足
+            productRepository.findStockById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+            throw new InsufficientStockException("Insufficient stock for product with id: " + id);
+        }
+        
+        // 同一交易內讀取，該行已被本次更新鎖定，讀到的即是本次更新後的庫存
+        return productRepository.findStockById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    }
+
+    /**
+     * 批量組裝一頁產品DTO
+     *
+     * @param products 分頁的產品實體
+     * @return 分頁的產品DTO，保留原有的分頁信息
+     */
+    private Page<ProductDTO> toDTOPage(Page<Product> products) {
+        Map<Long, ProductDetail> productDetails = findProductDetails(products.getContent());
+        Map<Long, String> categoryNames = findCategoryNames(products.getContent());
         
-        // 更新庫存
-        int newStock = product.getStock() + quantity;
-        if (newStock < 0) {
-            throw new IllegalArgumentException("Insufficient stock for product with id: " + id);
+        return products.map(product -> productMapper.toDTO(
+                product, productDetails.get(product.getId()), categoryNames.get(product.getCategoryId())));
+    }
+
+    /**
+     * 批量組裝產品DTO列表
+     *
+     * @param products 產品實體列表
+     * @return 與輸入順序一致的產品DTO列表
+     */
+    private List<ProductDTO> toDTOs(List<Product> products) {
+        Map<Long, ProductDetail> productDetails = findProductDetails(products);
+        Map<Long, String> categoryNames = findCategoryNames(products);
+        
+        return products.stream()
+                .map(product -> productMapper.toDTO(
+                        product, productDetails.get(product.getId()), categoryNames.get(product.getCategoryId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 批量載入一頁產品ID對應的產品並組裝DTO
+     *
+     * @param productIds 分頁的產品ID
+     * @return 與產品ID順序一致的分頁產品DTO，保留原有的分頁信息
+     */
+    private Page<ProductDTO> loadPage(Page<Long> productIds) {
+        return new PageImpl<>(findDTOsInOrder(productIds.getContent()), productIds.getPageable(),
+                productIds.getTotalElements());
+    }
+
+    /**
+     * 載入多個產品ID對應的產品DTO，並依輸入的ID順序排列
+     *
+     * 啟用讀取模型時以一次 $in 查詢讀取讀取模型，只有讀取模型中還沒有的產品才從 MySQL 與 MongoDB 組裝。
+     *
+     * @param productIds 產品ID列表
+     * @return 與輸入順序一致的產品DTO列表
+     */
+    private List<ProductDTO> findDTOsInOrder(List<Long> productIds) {
+        if (!readFromView) {
+            return toDTOs(findProductsInOrder(productIds));
+        }
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Map<Long, ProductDTO> products = new HashMap<>();
+        productViewRepository.findAllById(productIds).forEach(view -> products.put(view.getId(), view.getProduct()));
+        List<Long> missing = productIds.stream()
+                .filter(id -> !products.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            toDTOs(findProductsInOrder(missing)).forEach(product -> products.put(product.getId(), product));
+        }
+        return productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 以一次查詢載入多個產品，並依輸入的ID順序排列
+     *
+     * 查詢期間已被刪除的產品會被略過。
+     *
+     * @param productIds 產品ID列表
+     * @return 與輸入順序一致的產品實體列表
+     */
+    private List<Product> findProductsInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
         }
         
-        product.setStock(newStock);
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 以一次 $in 查詢取得多個產品的詳情
+     *
+     * 無論列表有多少筆產品，對 MongoDB 只發出一次查詢，避免逐筆查詢造成的 N+1 問題。
+     *
+     * @param products 產品實體列表
+     * @return 產品ID到產品詳情的映射
+     */
+    private Map<Long, ProductDetail> findProductDetails(List<Product> products) {
+        if (products.isEmpty()) {
+            return Collections.emptyMap();
+        }
         
-        // 保存更新後的產品到MySQL
-        Product updatedProduct = productRepository.save(product);
+        Set<Long> productIds = products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
         
-        // 從MongoDB獲取產品詳情
-        ProductDetail productDetail = productDetailRepository.findByProductId(id).orElse(null);
+        return productDetailRepository.findByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductDetail::getProductId, Function.identity(), (first, second) -> first));
+    }
+
+    /**
+     * 以一次帶欄位投影的 $in 查詢取得多個產品的第一張圖片
+     *
+     * 未請求 imageUrl 時不查詢 MongoDB。
+     *
+     * @param productIds 產品ID集合
+     * @param fields 請求的摘要欄位
+     * @return 產品ID到第一張圖片的映射
+     */
+    private Map<Long, String> findImageUrls(Set<Long> productIds, ProductFieldSet fields) {
+        if (productIds.isEmpty() || !fields.includes(ProductFieldSet.IMAGE_URL)) {
+            return Collections.emptyMap();
+        }
         
-        // 獲取類別名稱
-        String categoryName = null;
-        if (product.getCategoryId() != null) {
-            Optional<Category> categoryOptional = categoryRepository.findById(product.getCategoryId());
-            if (categoryOptional.isPresent()) {
-                categoryName = categoryOptional.get().getName();
+        Map<Long, String> imageUrls = new HashMap<>();
+        for (ProductDetail detail : productDetailRepository.findImagesByProductIdIn(productIds)) {
+            if (detail.getImageUrls() != null && !detail.getImageUrls().isEmpty()) {
+                imageUrls.putIfAbsent(detail.getProductId(), detail.getImageUrls().get(0));
             }
         }
+        return imageUrls;
+    }
+
+    /**
+     * 取出非同步查詢拋出的原始異常
+     *
+     * @param e 非同步查詢的包裝異常
+     * @return 原始的執行期異常
+     */
+    private RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+
+    /**
+     * 從類別索引取得多個產品所屬類別的名稱
+     *
+     * @param products 產品實體列表
+     * @return 類別ID到類別名稱的映射
+     */
+    private Map<Long, String> findCategoryNames(List<Product> products) {
+        CategoryIndex index = categoryIndexManager.current();
         
-        // 使用映射器將實體轉換為DTO並返回
-        return productMapper.toDTO(updatedProduct, productDetail, categoryName);
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Product product : products) {
+            categoryNames.computeIfAbsent(product.getCategoryId(), index::nameOf);
+        }
+        return categoryNames;
+    }
+
+    /**
+     * 獲取類別名稱，類別不存在時拋出異常
+     *
+     * 優先從類別索引讀取；索引中找不到時再查詢資料庫確認，
+     * 以免在索引重建完成前拒絕剛創建的類別。
+     *
+     * @param categoryId 類別ID
+     * @return 類別名稱
+     */
+    private String requireCategoryName(Long categoryId) {
+        CategoryIndex index = categoryIndexManager.current();
+        if (index.contains(categoryId)) {
+            return index.nameOf(categoryId);
+        }
+        
+        return categoryRepository.findById(categoryId)
+                .map(Category::getName)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,363 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.config.CacheConfig;
+import com.ecommerce.productservice.dto.AvailabilityDTO;
+import com.ecommerce.productservice.dto.ReservationDTO;
+import com.ecommerce.productservice.event.StockSyncedEvent;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.model.ReservationConfirmation;
+import com.ecommerce.productservice.popularity.PopularityTracker;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ReservationConfirmationRepository;
+import com.ecommerce.productservice.reservation.ExpiryWheel;
+import com.ecommerce.productservice.reservation.Reservation;
+import com.ecommerce.productservice.reservation.ReservationLedger;
+import com.ecommerce.productservice.reservation.ReservationLedger.PendingWrite;
+import com.ecommerce.productservice.service.ReservationService;
+import com.ecommerce.productservice.stock.HotStockManager;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * 庫存保留服務實現類
+ * 
+ * 保留與釋放只修改記憶體中的 {@link ReservationLedger}，不需要讀寫資料庫；
+ * 確認時在自己的交易中寫入一筆確認紀錄後才返回，確認後的扣減由排程依產品合併，
+ * 每批在一個交易中以條件更新寫回 MySQL 並刪除對應的確認紀錄。
+ * 寫回失敗的扣減留在帳本中，下次排程時重試，在寫回前仍從可售數量中扣除；
+ * 服務在寫回前停止時，重新啟動後依剩餘的確認紀錄恢復並繼續寫回。
+ * 帳本只存在於一個服務實例的記憶體中，多個實例共用資料庫時只應在一個實例上處理保留。
+ * 不經過保留的直接扣減在交易期間也在帳本中保留，不會扣減已保留或已確認的庫存。
+ */
+@Service
+public class ReservationServiceImpl implements ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationServiceImpl.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReservationConfirmationRepository reservationConfirmationRepository;
+
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    @Autowired
+    private HotStockManager hotStockManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 帳本的分段數量
+    @Value("${product.reservation.stripes:64}")
+    private int stripes;
+
+    // 到期時間輪的槽位數量與每個刻度的毫秒數
+    @Value("${product.reservation.wheel-slots:512}")
+    private int wheelSlots;
+
+    @Value("${product.reservation.tick-ms:1000}")
+    private long tickMillis;
+
+    // 未指定時的保留秒數與保留秒數上限
+    @Value("${product.reservation.default-ttl-seconds:600}")
+    private int defaultTtlSeconds;
+
+    @Value("${product.reservation.max-ttl-seconds:1800}")
+    private int maxTtlSeconds;
+
+    // 每個交易寫回的產品數量
+    @Value("${product.reservation.flush-batch-size:100}")
+    private int flushBatchSize;
+
+    private ReservationLedger ledger;
+
+    private TransactionTemplate transactionTemplate;
+
+    // 讀取資料庫庫存的交易，不使用呼叫者交易中的快照
+    private TransactionTemplate loadTemplate;
+
+    /**
+     * 初始化庫存保留帳本，恢復重新啟動前已確認未寫回的扣減
+     */
+    @PostConstruct
+    public void init() {
+        ExpiryWheel expiryWheel = new ExpiryWheel(wheelSlots, tickMillis, System.currentTimeMillis());
+        ledger = new ReservationLedger(stripes, expiryWheel, this::loadStock);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        loadTemplate = new TransactionTemplate(transactionManager);
+        loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        loadTemplate.setReadOnly(true);
+
+        List<ReservationConfirmation> confirmations = reservationConfirmationRepository.findAll();
+        confirmations.forEach(confirmation -> ledger.recover(confirmation.getProductId(),
+                confirmation.getQuantity(), confirmation.getId()));
+        if (!confirmations.isEmpty()) {
+            logger.info("Recovered {} confirmed reservations pending write-back", confirmations.size());
+        }
+    }
+
+    /**
+     * 保留產品庫存
+     *
+     * @param productId 產品ID
+     * @param quantity 保留數量
+     * @param ttlSeconds 保留秒數，為 null 時使用預設值
+     * @return 庫存保留
+     */
+    @Override
+    public ReservationDTO reserve(Long productId, int quantity, Integer ttlSeconds) {
+        int ttl = Math.min(ttlSeconds != null ? ttlSeconds : defaultTtlSeconds, maxTtlSeconds);
+        long expiresAt = System.currentTimeMillis() + ttl * 1000L;
+        return toDTO(ledger.reserve(productId, quantity, expiresAt), ReservationDTO.Status.HELD);
+    }
+
+    /**
+     * 確認庫存保留，扣減產品庫存
+     *
+     * 確認紀錄提交後才返回，服務在扣減寫回前停止也不會遺失；確認紀錄未能保存時保留放回帳本，可再次確認。
+     *
+     * @param reservationId 保留ID
+     * @return 已確認的庫存保留
+     */
+    @Override
+    public ReservationDTO confirm(String reservationId) {
+        Reservation reservation = ledger.claim(reservationId);
+        ReservationConfirmation confirmation;
+        try {
+            confirmation = transactionTemplate.execute(status -> reservationConfirmationRepository.save(
+                    new ReservationConfirmation(null, reservation.id(), reservation.productId(),
+                            reservation.quantity(), LocalDateTime.now())));
+        } catch (RuntimeException e) {
+            ledger.unclaim(reservation);
+            throw e;
+        }
+        ledger.confirm(reservation, confirmation.getId());
+        popularityTracker.recordSale(reservation.productId(), reservation.quantity());
+        return toDTO(reservation, ReservationDTO.Status.CONFIRMED);
+    }
+
+    /**
+     * 釋放庫存保留
+     *
+     * @param reservationId 保留ID
+     */
+    @Override
+    public void release(String reservationId) {
+        ledger.release(reservationId);
+    }
+
+    /**
+     * 獲取產品的可售數量
+     *
+     * @param productId 產品ID
+     * @return 產品的庫存、保留中的數量與可售數量
+     */
+    @Override
+    public AvailabilityDTO getAvailability(Long productId) {
+        ReservationLedger.Availability availability = ledger.availability(productId);
+        return new AvailabilityDTO(productId, availability.stock(), availability.reserved(), availability.available());
+    }
+
+    /**
+     * 在目前的交易中為直接扣減保留產品庫存
+     *
+     * 保留的到期時間為保留秒數上限，交易未正常結束時仍會被釋放。
+     * 交易提交後從帳本中的庫存扣除扣減數量，不需要重新讀取資料庫。
+     *
+     * @param productId 產品ID
+     * @param quantity 扣減數量
+     */
+    @Override
+    public void holdForUpdate(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalTransactionStateException("Stock decrement of product " + productId
+                    + " must run in a transaction");
+        }
+        Reservation hold = ledger.reserve(productId, quantity, System.currentTimeMillis() + maxTtlSeconds * 1000L);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        ledger.commit(hold.id());
+                    } else {
+                        ledger.release(hold.id());
+                    }
+                } catch (ResourceNotFoundException e) {
+                    // 交易超過保留秒數上限，保留已到期釋放，已提交的扣減改為重新載入資料庫庫存
+                    if (status == STATUS_COMMITTED) {
+                        ledger.invalidate(productId);
+                    }
+                }
+                // 無法判斷交易是否已提交時重新載入資料庫庫存
+                if (status == STATUS_UNKNOWN) {
+                    ledger.invalidate(productId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 重新載入產品的資料庫庫存
+     *
+     * @param productId 產品ID
+     */
+    @Override
+    public void refreshStock(Long productId) {
+        ledger.invalidate(productId);
+    }
+
+    /**
+     * 釋放已到期的庫存保留
+     */
+    @Scheduled(fixedDelayString = "${product.reservation.tick-ms:1000}")
+    public void expireReservations() {
+        int expired = ledger.expire(System.currentTimeMillis());
+        if (expired > 0) {
+            logger.debug("Released {} expired reservations", expired);
+        }
+    }
+
+    /**
+     * 將已確認的扣減批次寫回資料庫
+     */
+    @Scheduled(fixedDelayString = "${product.reservation.flush-interval-ms:1000}")
+    public synchronized void flushConfirmed() {
+        List<PendingWrite> writes = ledger.drainPending();
+        // 與批量調整庫存相同，依產品ID順序鎖定行，避免與其他交易互相死鎖
+        writes.sort(Comparator.comparing(PendingWrite::productId));
+        for (int from = 0; from < writes.size(); from += flushBatchSize) {
+            writeBatch(writes.subList(from, Math.min(writes.size(), from + flushBatchSize)));
+        }
+    }
+
+    /**
+     * 服務關閉時寫回所有已確認的扣減，未寫回的扣減在重新啟動後依確認紀錄恢復
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        flushConfirmed();
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        Map<PendingWrite, WriteResult> written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                Map<PendingWrite, WriteResult> result = new LinkedHashMap<>();
+                for (PendingWrite write : batch) {
+                    WriteResult outcome = writeBack(write.productId(), -Math.toIntExact(write.quantity()));
+                    // 產品已被刪除的扣減無法寫回，與已寫回的扣減一樣刪除確認紀錄
+                    if (outcome != WriteResult.INSUFFICIENT) {
+                        reservationConfirmationRepository.deleteAllByIdInBatch(write.confirmationIds());
+                    }
+                    result.put(write, outcome);
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write back {} confirmed reservations, will retry", batch.size(), e);
+            batch.forEach(write -> ledger.failWrite(write, false));
+            return;
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        written.forEach((write, outcome) -> {
+            switch (outcome) {
+                case WRITTEN -> ledger.completeWrite(write);
+                case INSUFFICIENT -> {
+                    // 庫存在帳本之外被減少到低於已確認的數量，保留扣減並重新載入庫存，
+                    // 在庫存補足前每次寫回都會重試並記錄錯誤
+                    logger.error("Stock of product {} is below its confirmed reservations, decrement of {} will be retried",
+                            write.productId(), write.quantity());
+                    ledger.failWrite(write, true);
+                }
+                case NOT_FOUND -> {
+                    logger.error("Product {} was deleted, dropped confirmed decrement of {} (confirmations {})",
+                            write.productId(), write.quantity(), write.confirmationIds());
+                    ledger.discardWrite(write);
+                }
+            }
+            if (cache != null) {
+                cache.evict(write.productId());
+            }
+            // 帳本已更新，只通知讀取模型等由產品表衍生的資料
+            eventPublisher.publishEvent(new StockSyncedEvent(write.productId()));
+        });
+    }
+
+    // 熱門模式的產品讀取分槽總和，其餘產品讀取產品表；
+    // 載入的庫存由所有交易共用，在新的讀已提交交易中讀取，不使用呼叫者可重複讀交易中較舊的快照
+    private Integer loadStock(Long productId) {
+        return loadTemplate.execute(status -> {
+            OptionalInt stock = hotStockManager.stockOf(productId);
+            if (stock.isPresent()) {
+                return stock.getAsInt();
+            }
+            return productRepository.findStockById(productId).orElse(null);
+        });
+    }
+
+    // 寫回一個產品的扣減
+    private WriteResult writeBack(Long productId, int quantity) {
+        try {
+            if (hotStockManager.adjust(productId, quantity).isPresent()) {
+                return WriteResult.WRITTEN;
+            }
+        } catch (InsufficientStockException e) {
+            return WriteResult.INSUFFICIENT;
+        }
+        if (productRepository.adjustStock(productId, quantity) == 1) {
+            return WriteResult.WRITTEN;
+        }
+        return productRepository.findStockById(productId).isPresent() ? WriteResult.INSUFFICIENT
+                : WriteResult.NOT_FOUND;
+    }
+
+    private ReservationDTO toDTO(Reservation reservation, ReservationDTO.Status status) {
+        return new ReservationDTO(reservation.id(), reservation.productId(), reservation.quantity(), status,
+                Instant.ofEpochMilli(reservation.expiresAtMillis()));
+    }
+
+    /**
+     * 寫回一個產品扣減的結果
+     */
+    private enum WriteResult {
+        WRITTEN,       // 已寫回
+        INSUFFICIENT,  // 資料庫庫存不足以扣減
+        NOT_FOUND      // 產品已被刪除
+    }
+}
@@ -0,0 +1,399 @@
+package com.ecommerce.productservice.stock;
+
+import com.ecommerce.productservice.config.CacheConfig;
+import com.ecommerce.productservice.event.StockSyncedEvent;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.model.ProductStockSlot;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductStockSlotRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 熱門產品庫存管理器
+ *
+ * 啟用熱門模式的產品，其庫存分散存放在 product_stock_slot 表的多個分槽中。
+ * 增加庫存寫入隨機的分槽；扣減時從隨機的分槽開始，以條件更新嘗試估計庫存足夠的分槽，
+ * 併發的更新分散在不同的行鎖上，吞吐量隨分槽數量增加。單一分槽都不足時才鎖定所有分槽合併扣減。
+ * 每次嘗試分槽與合併扣減都在自己的讀已提交短交易中完成，未成功的嘗試立即釋放行鎖，呼叫方的交易也不持有分槽的行鎖，
+ * 不同的嘗試順序不會互相死鎖；呼叫方的交易回滾時，已扣減的數量在另一個短交易中歸還。
+ * 呼叫方在交易中扣減時每次嘗試都會另外取得一個資料庫連線，連線池的大小需大於同時更新庫存的請求數量。
+ * 背景排程定期將各分槽重新平均分配，並將總和同步回 products 表，供列表等讀取產品實體的查詢使用。
+ */
+@Component
+public class HotStockManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockManager.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockSlotRepository productStockSlotRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 每個產品的分槽數量上限
+    @Value("${product.stock.hot.max-slots:64}")
+    private int maxSlots;
+
+    // 啟用熱門模式的產品ID到分槽庫存估計
+    private final ConcurrentHashMap<Long, StockSlots> hotProducts = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    // 扣減與歸還庫存的獨立短交易
+    private TransactionTemplate slotTemplate;
+
+    /**
+     * 初始化交易模板
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        slotTemplate = new TransactionTemplate(transactionManager);
+        slotTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        slotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * 服務啟動後載入已啟用熱門模式的產品
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Long productId : productStockSlotRepository.findProductIds()) {
+            hotProducts.put(productId, toStockSlots(productStockSlotRepository.findByProductIdOrderBySlot(productId)));
+        }
+        if (!hotProducts.isEmpty()) {
+            logger.info("Loaded {} hot stock products", hotProducts.size());
+        }
+    }
+
+    /**
+     * 判斷產品是否啟用熱門模式
+     *
+     * @param productId 產品ID
+     * @return 是否啟用熱門模式
+     */
+    public boolean isHot(Long productId) {
+        return hotProducts.containsKey(productId);
+    }
+
+    /**
+     * 調整熱門產品的庫存
+     *
+     * 增加在呼叫方的交易中寫入；扣減在獨立的交易中立即提交，呼叫方的交易回滾時歸還。
+     *
+     * @param productId 產品ID
+     * @param quantity 要增加或減少的數量（正數增加，負數減少）
+     * @return 調整後的總庫存，產品未啟用熱門模式時為空，由呼叫方改為更新 products 表
+     * @throws InsufficientStockException 如果所有分槽的總和不足
+     */
+    public OptionalInt adjust(Long productId, int quantity) {
+        StockSlots slots = hotProducts.get(productId);
+        if (slots == null) {
+            return OptionalInt.empty();
+        }
+
+        boolean adjusted = quantity >= 0
+                ? increment(productId, slots, quantity)
+                : decrement(productId, slots, -quantity);
+        if (!adjusted) {
+            // 分槽已在停用熱門模式時被刪除
+            return OptionalInt.empty();
+        }
+        return stockOf(productId);
+    }
+
+    /**
+     * 獲取熱門產品的總庫存
+     *
+     * @param productId 產品ID
+     * @return 所有分槽的總和，產品未啟用熱門模式時為空
+     */
+    public OptionalInt stockOf(Long productId) {
+        if (!isHot(productId)) {
+            return OptionalInt.empty();
+        }
+        Long total = productStockSlotRepository.sumQuantityByProductId(productId);
+        return total == null ? OptionalInt.empty() : OptionalInt.of(Math.toIntExact(total));
+    }
+
+    /**
+     * 設定熱門產品的總庫存，平均分配到各分槽
+     *
+     * @param productId 產品ID
+     * @param stock 總庫存
+     * @return 是否已設定，產品未啟用熱門模式時為 false
+     */
+    public boolean setStock(Long productId, int stock) {
+        if (!isHot(productId)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<ProductStockSlot> locked = productStockSlotRepository.lockByProductId(productId);
+            if (locked.isEmpty()) {
+                return false;
+            }
+            redistribute(productId, locked, stock);
+            return true;
+        }));
+    }
+
+    /**
+     * 啟用熱門模式，或調整已啟用產品的分槽數量
+     *
+     * @param productId 產品ID
+     * @param slotCount 分槽數量，限制在 2 到分槽數量上限之間
+     * @return 總庫存
+     * @throws ResourceNotFoundException 如果產品不存在
+     */
+    public synchronized int enable(Long productId, int slotCount) {
+        int count = Math.max(2, Math.min(slotCount, maxSlots));
+        boolean wasHot = isHot(productId);
+        int total = transactionTemplate.execute(status -> {
+            // 以不改變庫存的更新鎖定產品行，一般的庫存更新等待本交易完成
+            if (productRepository.adjustStock(productId, 0) == 0) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            List<ProductStockSlot> existing = productStockSlotRepository.lockByProductId(productId);
+            int stock = existing.isEmpty()
+                    ? productRepository.findStockById(productId).orElse(0)
+                    : sum(existing);
+            productStockSlotRepository.deleteByProductId(productId);
+
+            int[] quantities = StockSlots.split(stock, count);
+            List<ProductStockSlot> slots = new ArrayList<>(count);
+            for (int slot = 0; slot < count; slot++) {
+                slots.add(new ProductStockSlot(null, productId, slot, quantities[slot]));
+            }
+            productStockSlotRepository.saveAll(slots);
+            productRepository.updateStock(productId, stock);
+            return stock;
+        });
+        hotProducts.put(productId, new StockSlots(StockSlots.split(total, count)));
+
+        if (!wasHot) {
+            reconcile(productId, total);
+        }
+        logger.info("Enabled hot stock for product {} with {} slots", productId, count);
+        return total;
+    }
+
+    /**
+     * 停用熱門模式，將所有分槽的總和寫回 products 表
+     *
+     * @param productId 產品ID
+     * @return 總庫存
+     * @throws ResourceNotFoundException 如果產品未啟用熱門模式
+     */
+    public synchronized int disable(Long productId) {
+        if (!isHot(productId)) {
+            throw new ResourceNotFoundException("Hot stock not enabled for product with id: " + productId);
+        }
+        Integer total = transactionTemplate.execute(status -> {
+            List<ProductStockSlot> locked = productStockSlotRepository.lockByProductId(productId);
+            if (locked.isEmpty()) {
+                return null;
+            }
+            int stock = sum(locked);
+            productStockSlotRepository.deleteByProductId(productId);
+            productRepository.updateStock(productId, stock);
+            return stock;
+        });
+        // 移除前仍在進行的分槽更新找不到分槽，會改為更新 products 表
+        hotProducts.remove(productId);
+        evictCache(productId);
+        logger.info("Disabled hot stock for product {}", productId);
+        return total != null ? total : productRepository.findStockById(productId).orElse(0);
+    }
+
+    /**
+     * 刪除產品的所有分槽
+     *
+     * 在刪除產品時呼叫，由呼叫方的交易一併提交。
+     *
+     * @param productId 產品ID
+     */
+    public void remove(Long productId) {
+        if (hotProducts.remove(productId) != null) {
+            productStockSlotRepository.deleteByProductId(productId);
+        }
+    }
+
+    /**
+     * 重新平均分配各分槽，並將總和同步回 products 表
+     *
+     * 扣減集中在部分分槽時，其他請求需要嘗試更多分槽或合併扣減；定期平均分配可以維持每個分槽都有庫存。
+     */
+    @Scheduled(fixedDelayString = "${product.stock.hot.rebalance-interval-ms:1000}")
+    public synchronized void rebalance() {
+        for (Long productId : hotProducts.keySet()) {
+            try {
+                Boolean changed = transactionTemplate.execute(status -> {
+                    List<ProductStockSlot> locked = productStockSlotRepository.lockByProductId(productId);
+                    if (locked.isEmpty()) {
+                        return false;
+                    }
+                    int total = sum(locked);
+                    // 任一分槽低於平均值的一半時重新分配，總庫存少於分槽數量時無法每個分槽都有庫存
+                    int low = Math.max(1, total / locked.size() / 2);
+                    if (total >= locked.size() && locked.stream().anyMatch(slot -> slot.getQuantity() < low)) {
+                        redistribute(productId, locked, total);
+                    } else {
+                        hotProducts.computeIfPresent(productId, (key, slots) -> toStockSlots(locked));
+                    }
+                    return productRepository.updateStock(productId, total) > 0;
+                });
+                if (Boolean.TRUE.equals(changed)) {
+                    evictCache(productId);
+                    eventPublisher.publishEvent(new StockSyncedEvent(productId));
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to rebalance stock slots of product {}", productId, e);
+            }
+        }
+    }
+
+    private boolean increment(Long productId, StockSlots slots, int quantity) {
+        int slot = ThreadLocalRandom.current().nextInt(slots.count());
+        if (productStockSlotRepository.adjustSlot(productId, slot, quantity) == 0) {
+            return false;
+        }
+        slots.adjusted(slot, quantity);
+        return true;
+    }
+
+    private boolean decrement(Long productId, StockSlots slots, int need) {
+        if (!takeFromSlots(productId, slots, need)) {
+            return false;
+        }
+        // 扣減已提交，呼叫方的交易回滾時歸還
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        restore(productId, need);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    // 每次嘗試各自提交，分槽已被刪除時返回 false
+    private boolean takeFromSlots(Long productId, StockSlots slots, int need) {
+        for (int slot : slots.order(need, ThreadLocalRandom.current().nextInt(slots.count()))) {
+            Integer updated = slotTemplate.execute(status -> productStockSlotRepository.adjustSlot(productId, slot, -need));
+            if (updated != null && updated == 1) {
+                slots.adjusted(slot, -need);
+                return true;
+            }
+        }
+
+        // 沒有單一分槽足夠，依分槽編號順序鎖定所有分槽合併扣減
+        Long remaining = slotTemplate.execute(status -> {
+            List<ProductStockSlot> locked = productStockSlotRepository.lockByProductId(productId);
+            if (locked.isEmpty()) {
+                return null;
+            }
+            int total = sum(locked);
+            if (total < need) {
+                return -1L;
+            }
+            redistribute(productId, locked, total - need);
+            return (long) (total - need);
+        });
+        if (remaining == null) {
+            return false;
+        }
+        if (remaining < 0) {
+            throw new InsufficientStockException("Insufficient stock for product with id: " + productId);
+        }
+        return true;
+    }
+
+    // 歸還呼叫方交易回滾前已扣減的庫存，分槽已被刪除時歸還到 products 表
+    private void restore(Long productId, int quantity) {
+        try {
+            slotTemplate.executeWithoutResult(status -> {
+                StockSlots slots = hotProducts.get(productId);
+                if (slots == null || !increment(productId, slots, quantity)) {
+                    productRepository.adjustStock(productId, quantity);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to restore {} stock of product {} after rollback", quantity, productId, e);
+        }
+    }
+
+    // 啟用前已讀取產品庫存、尚未提交的一般庫存更新，補記到分槽中
+    private void reconcile(Long productId, int enabledStock) {
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.adjustStock(productId, 0);
+            int drift = productRepository.findStockById(productId).orElse(enabledStock) - enabledStock;
+            if (drift == 0) {
+                return;
+            }
+            List<ProductStockSlot> locked = productStockSlotRepository.lockByProductId(productId);
+            int total = Math.max(0, sum(locked) + drift);
+            redistribute(productId, locked, total);
+            productRepository.updateStock(productId, total);
+        });
+    }
+
+    // 由呼叫方的交易鎖定分槽後呼叫
+    private void redistribute(Long productId, List<ProductStockSlot> locked, int total) {
+        int[] quantities = StockSlots.split(total, locked.size());
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setQuantity(quantities[i]);
+        }
+        productStockSlotRepository.saveAll(locked);
+        hotProducts.computeIfPresent(productId, (key, slots) -> new StockSlots(quantities));
+    }
+
+    private void evictCache(Long productId) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        if (cache != null) {
+            cache.evict(productId);
+        }
+    }
+
+    private static int sum(List<ProductStockSlot> slots) {
+        return slots.stream().mapToInt(ProductStockSlot::getQuantity).sum();
+    }
+
+    private static StockSlots toStockSlots(List<ProductStockSlot> slots) {
+        return new StockSlots(slots.stream().mapToInt(ProductStockSlot::getQuantity).toArray());
+    }
+}
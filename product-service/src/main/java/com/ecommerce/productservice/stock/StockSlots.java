@@ -0,0 +1,86 @@
+package com.ecommerce.productservice.stock;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 熱門產品的分槽庫存估計
+ *
+ * 記錄每個分槽最近已知的庫存，用於挑選扣減時要嘗試的分槽。估計值只是提示，
+ * 實際的庫存檢查由資料庫的條件更新完成，估計錯誤只會多嘗試一個分槽。
+ */
+public final class StockSlots {
+
+    private final AtomicIntegerArray quantities;
+
+    /**
+     * 建立分槽庫存估計
+     *
+     * @param quantities 各分槽目前的庫存，依分槽編號排列
+     */
+    public StockSlots(int[] quantities) {
+        if (quantities.length == 0) {
+            throw new IllegalArgumentException("At least one slot is required");
+        }
+        this.quantities = new AtomicIntegerArray(quantities);
+    }
+
+    /**
+     * 獲取分槽數量
+     *
+     * @return 分槽數量
+     */
+    public int count() {
+        return quantities.length();
+    }
+
+    /**
+     * 獲取扣減時嘗試分槽的順序
+     *
+     * 從指定的分槽開始輪轉，估計庫存足夠的分槽排在前面，其餘分槽排在後面，
+     * 不同請求從不同的分槽開始，分散到不同的行鎖上。
+     *
+     * @param need 扣減數量
+     * @param start 起始分槽，通常為隨機值
+     * @return 分槽編號
+     */
+    public int[] order(int need, int start) {
+        int count = count();
+        int[] order = new int[count];
+        int head = 0;
+        int tail = count;
+        for (int i = 0; i < count; i++) {
+            int slot = Math.floorMod(start + i, count);
+            if (quantities.get(slot) >= need) {
+                order[head++] = slot;
+            } else {
+                order[--tail] = slot;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * 記錄分槽的庫存變動
+     *
+     * @param slot 分槽編號
+     * @param delta 變動數量
+     */
+    public void adjusted(int slot, int delta) {
+        quantities.addAndGet(slot, delta);
+    }
+
+    /**
+     * 將總庫存平均分配到各分槽
+     *
+     * @param total 總庫存
+     * @param count 分槽數量
+     * @return 各分槽的庫存，餘數分配給編號較小的分槽
+     */
+    public static int[] split(int total, int count) {
+        int[] quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            quantities[i] = total / count + (i < total % count ? 1 : 0);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,323 @@
+package com.ecommerce.productservice.view;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.config.CacheConfig;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductViewRebuildReport;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.event.StockChangedEvent;
+import com.ecommerce.productservice.event.StockSyncedEvent;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.model.ProductView;
+import com.ecommerce.productservice.outbox.ProductChange;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.ProductExportService;
+import com.ecommerce.productservice.stock.HotStockManager;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 產品讀取模型投影器
+ *
+ * 維護 MongoDB 中的 product_view 集合，寫入端的交易不會等待讀取模型更新：
+ * <ul>
+ *   <li>產品的創建、更新與刪除由發件箱轉送程序送達，在轉送執行緒中以條件更新套用，
+ *       文檔記錄最後套用的變更序號，重複或較舊的變更不會覆蓋較新的文檔</li>
+ *   <li>庫存變更與類別變更只記錄受影響的產品與類別，由排程合併後批量寫入，
+ *       同一產品在一個週期內的多次庫存變更只寫入一次</li>
+ * </ul>
+ * 套用產品變更時的延遲記錄在 product.view.lag 計時器中。讀取模型更新後清除該產品的快取，
+ * 從讀取模型讀取時快取不會保留較舊的文檔。
+ */
+@Component
+public class ProductViewProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductViewProjector.class);
+
+    // 每次查詢庫存與每次批量寫入的產品數量
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockManager hotStockManager;
+
+    @Autowired
+    private CategoryIndexManager categoryIndexManager;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 等待刷新庫存的產品與等待刷新類別名稱的類別
+    private final Set<Long> staleStocks = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> staleCategories = ConcurrentHashMap.newKeySet();
+
+    // 最後套用的變更序號
+    private final AtomicLong appliedSequence = new AtomicLong();
+
+    private Timer lagTimer;
+
+    /**
+     * 註冊讀取模型的延遲指標
+     */
+    @PostConstruct
+    public void init() {
+        lagTimer = Timer.builder("product.view.lag")
+                .description("Delay between a product change and its projection into product_view")
+                .register(meterRegistry);
+        Gauge.builder("product.view.sequence", appliedSequence, AtomicLong::get)
+                .description("Sequence of the last product change applied to product_view")
+                .register(meterRegistry);
+        Gauge.builder("product.view.pending", this, projector -> projector.staleStocks.size())
+                .description("Products waiting for a stock refresh in product_view")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 套用發件箱送達的產品變更
+     *
+     * 與重建互斥，重建期間轉送程序會等待，重建完成後再套用這段期間的變更
+     *
+     * @param change 產品變更訊息
+     */
+    @EventListener
+    public synchronized void onProductChange(ProductChange change) {
+        Long productId = change.productId();
+        if (change.type() == ProductOutboxEvent.Type.DELETED) {
+            mongoTemplate.remove(Query.query(Criteria.where("id").is(productId)), ProductView.class);
+        } else {
+            ProductDTO product = readPayload(change);
+            if (product == null) {
+                return;
+            }
+            // 變更發生後類別可能已改名，以目前的類別名稱為準
+            product.setCategoryName(categoryIndexManager.current().nameOf(product.getCategoryId()));
+            Query newer = Query.query(Criteria.where("id").is(productId).and("sequence").lt(change.sequence()));
+            Update update = new Update()
+                    .set("product", product)
+                    .set("categoryId", product.getCategoryId())
+                    .set("sequence", change.sequence())
+                    .set("updatedAt", LocalDateTime.now());
+            try {
+                mongoTemplate.upsert(newer, update, ProductView.class);
+            } catch (DuplicateKeyException e) {
+                // 文檔已套用序號更大的變更，這是重複送達的舊變更
+                logger.debug("Skipped stale change {} of product {}", change.sequence(), productId);
+                return;
+            }
+            // 變更中的庫存是寫入當時的庫存，之後的庫存變更可能已先寫入，由下次刷新重新讀取
+            staleStocks.add(productId);
+        }
+        evict(productId);
+        appliedSequence.accumulateAndGet(change.sequence(), Math::max);
+        if (change.occurredAt() != null) {
+            lagTimer.record(Duration.between(change.occurredAt(), LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * 庫存調整的交易提交後標記該產品的庫存需要刷新
+     *
+     * @param event 庫存變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        staleStocks.add(event.getProductId());
+    }
+
+    /**
+     * 背景程序寫回庫存後標記該產品的庫存需要刷新
+     *
+     * @param event 庫存同步事件
+     */
+    @EventListener
+    public void onStockSynced(StockSyncedEvent event) {
+        staleStocks.add(event.getProductId());
+    }
+
+    /**
+     * 類別變更的交易提交後標記該類別的產品需要刷新類別名稱
+     *
+     * @param event 類別變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        staleCategories.add(event.getCategoryId());
+    }
+
+    /**
+     * 將累積的類別名稱與庫存變更寫入讀取模型
+     */
+    @Scheduled(fixedDelayString = "${product.view.refresh-interval-ms:500}")
+    public void refresh() {
+        refreshCategories();
+        refreshStocks();
+    }
+
+    /**
+     * 從產品表與產品詳情重建整個讀取模型
+     *
+     * 以匯出的合併連接串流所有產品並批量覆寫文檔，再移除重建期間沒有寫入的文檔，也就是已刪除的產品。
+     * 重建期間發件箱的變更暫停套用，完成後依序補上。
+     * 重建的文檔以最後套用的序號標記，重複送達的舊變更不會覆寫重建的內容。
+     *
+     * @return 重建報告
+     */
+    public synchronized ProductViewRebuildReport rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        // 在與套用變更相同的鎖內讀取，重建讀到的產品已包含序號不大於此值的所有變更
+        long sequence = appliedSequence.get();
+        List<ProductView> batch = new ArrayList<>(BATCH_SIZE);
+
+        long count = productExportService.forEachProduct(product -> {
+            batch.add(new ProductView(product.getId(), product, product.getCategoryId(), sequence, LocalDateTime.now()));
+            if (batch.size() == BATCH_SIZE) {
+                replaceAll(batch);
+                batch.clear();
+            }
+        });
+        replaceAll(batch);
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("updatedAt").lt(startedAt)), ProductView.class)
+                .getDeletedCount();
+
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Product view rebuilt: products={}, removed={}, elapsed={}ms", count, removed, elapsedMillis);
+        return new ProductViewRebuildReport(count, removed, elapsedMillis);
+    }
+
+    private void refreshCategories() {
+        List<Long> categoryIds = drain(staleCategories, Integer.MAX_VALUE);
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        // 類別索引已在類別變更的交易提交後重建
+        CategoryIndex index = categoryIndexManager.current();
+        for (Long categoryId : categoryIds) {
+            try {
+                mongoTemplate.updateMulti(Query.query(Criteria.where("categoryId").is(categoryId)),
+                        new Update().set("product.categoryName", index.nameOf(categoryId)), ProductView.class);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to refresh category {} in product view, will retry", categoryId, e);
+                staleCategories.add(categoryId);
+                return;
+            }
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void refreshStocks() {
+        List<Long> productIds;
+        while (!(productIds = drain(staleStocks, BATCH_SIZE)).isEmpty()) {
+            try {
+                // 熱門模式的產品讀取分槽總和，其餘產品讀取產品表
+                Map<Long, Integer> stocks = new HashMap<>(productRepository.findStocksByIds(productIds));
+                productIds.forEach(id -> hotStockManager.stockOf(id).ifPresent(stock -> stocks.put(id, stock)));
+                if (!stocks.isEmpty()) {
+                    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductView.class);
+                    stocks.forEach((id, stock) ->
+                            bulk.updateOne(Query.query(Criteria.where("id").is(id)), new Update().set("product.stock", stock)));
+                    bulk.execute();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to refresh stock of {} products in product view, will retry", productIds.size(), e);
+                staleStocks.addAll(productIds);
+                return;
+            }
+            productIds.forEach(this::evict);
+        }
+    }
+
+    private void replaceAll(List<ProductView> views) {
+        if (views.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductView.class);
+        for (ProductView view : views) {
+            bulk.replaceOne(Query.query(Criteria.where("id").is(view.getId())), view, FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    // 無法解析的變更只記錄錯誤並略過，不拋出異常，以免轉送程序不斷重送同一批
+    private ProductDTO readPayload(ProductChange change) {
+        try {
+            return objectMapper.readValue(change.payload(), ProductDTO.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.error("Skipped malformed change {} of product {}", change.sequence(), change.productId(), e);
+            return null;
+        }
+    }
+
+    private void evict(Long productId) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_CACHE);
+        if (cache != null) {
+            cache.evict(productId);
+        }
+    }
+
+    // 取出並移除最多 limit 個元素
+    private static List<Long> drain(Set<Long> set, int limit) {
+        List<Long> drained = new ArrayList<>();
+        for (Iterator<Long> iterator = set.iterator(); iterator.hasNext() && drained.size() < limit; ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,155 @@
+package com.ecommerce.productservice.benchmark;
+
+import com.ecommerce.productservice.ProductServiceApplication;
+import com.ecommerce.productservice.dto.StockDTO;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.productservice.stock.HotStockManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 熱門產品庫存更新基準測試
+ *
+ * 以完整的 {@link ProductService#updateProductStock} 路徑扣減庫存，包含保留帳本的暫扣、熱門分槽的扣減與交易提交。
+ * 爭用情境下所有執行緒扣減同一產品，無爭用情境下每個執行緒扣減各自的產品。
+ * 分槽數量為 1 時不啟用熱門模式，直接更新 products 表中的同一行，作為比較的基準。
+ * 內存資料庫沒有網路往返，每個語句送出前暫停一段時間模擬與 MySQL 之間的往返延遲，使行鎖的持有時間接近實際部署。
+ * 應用程式以內存資料庫啟動，不連接 MongoDB 與 Eureka，並停用發件箱轉送與讀取模型刷新。
+ *
+ * 執行方式：
+ * mvn -pl product-service test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main HotStockBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+public class HotStockBenchmark {
+
+    private static final int STOCK = 1_000_000_000;
+
+    // 模擬的每個語句往返延遲（納秒），由共用狀態在啟動應用程式前設定
+    private static volatile long roundTripNanos;
+
+    /**
+     * 所有執行緒共用的應用程式與爭用的產品
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"1", "4", "16"})
+        public int slots;
+
+        // 模擬的每個語句往返延遲（微秒）
+        @Param({"200"})
+        public long roundTripMicros;
+
+        private ConfigurableApplicationContext context;
+
+        private ProductService productService;
+
+        private Long productId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+            // 命令列參數的優先順序高於 application.yml
+            context = new SpringApplicationBuilder(ProductServiceApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:mem:hot_stock_benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                            // 每個熱門扣減另外借用連線執行分槽交易，連線池需大於執行緒數量的兩倍
+                            "--spring.datasource.hikari.maximum-pool-size=64",
+                            "--spring.jpa.show-sql=false",
+                            "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                    + RoundTrip.class.getName(),
+                            "--spring.data.mongodb.auto-index-creation=false",
+                            "--eureka.client.enabled=false",
+                            "--product.outbox.relay.enabled=false",
+                            "--product.view.refresh-interval-ms=3600000",
+                            "--logging.level.root=WARN",
+                            "--logging.level.com.ecommerce.productservice=WARN");
+            productService = context.getBean(ProductService.class);
+            productId = createProduct(this);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    /**
+     * 每個執行緒各自扣減的產品
+     */
+    @State(Scope.Thread)
+    public static class Sku {
+
+        private Long productId;
+
+        // 依賴共用狀態，確保應用程式啟動後才建立產品
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) {
+            productId = createProduct(shared);
+        }
+    }
+
+    /**
+     * 每個語句送出前暫停，模擬資料庫往返延遲
+     */
+    public static class RoundTrip implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            LockSupport.parkNanos(roundTripNanos);
+            return sql;
+        }
+    }
+
+    @Benchmark
+    public StockDTO contended(Shared shared) {
+        return shared.productService.updateProductStock(shared.productId, -1);
+    }
+
+    @Benchmark
+    public StockDTO uncontended(Shared shared, Sku sku) {
+        return shared.productService.updateProductStock(sku.productId, -1);
+    }
+
+    private static Long createProduct(Shared shared) {
+        Product product = new Product();
+        product.setName("熱門產品");
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(STOCK);
+        product.setCategoryId(1L);
+        product.setIsActive(true);
+        Long id = shared.context.getBean(ProductRepository.class).save(product).getId();
+        if (shared.slots > 1) {
+            shared.context.getBean(HotStockManager.class).enable(id, shared.slots);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.productservice.benchmark;
+
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.cache.ProductResponseCache.SerializedProduct;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 產品回應序列化基準測試
+ *
+ * 比較每次請求以 Jackson 序列化產品DTO、每次請求序列化後再 gzip 壓縮，
+ * 與從 {@link ProductResponseCache} 取出已序列化或已壓縮的位元組寫入輸出流的吞吐量。
+ * 產品的規格與附加信息數量由參數控制，接近詳情較多的熱門產品。
+ * 寫入目標為可重複使用的記憶體緩衝區，排除網路與 Servlet 容器的成本。
+ *
+ * 執行方式：
+ * mvn -pl product-service test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ProductSerializationBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    private static final String ETAG = "\"v1\"";
+
+    // 規格與附加信息的項目數量
+    @Param({"10", "50"})
+    public int entries;
+
+    private ObjectMapper objectMapper;
+
+    private ProductResponseCache responseCache;
+
+    private ProductDTO product;
+
+    /**
+     * 每個執行緒各自的輸出緩衝區，模擬回應的輸出流
+     */
+    @State(Scope.Thread)
+    public static class Output {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+        OutputStream reset() {
+            buffer.reset();
+            return buffer;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        responseCache = new ProductResponseCache();
+        ReflectionTestUtils.setField(responseCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(responseCache, "maxBytes", 64L * 1024 * 1024);
+        ReflectionTestUtils.setField(responseCache, "gzipMinBytes", 1024);
+        responseCache.init();
+
+        product = new ProductDTO();
+        product.setId(1L);
+        product.setName("基準測試產品");
+        product.setShortDescription("用於比較序列化成本的產品");
+        product.setFullDescription("完整描述".repeat(50));
+        product.setPrice(new BigDecimal("1299.00"));
+        product.setStock(100);
+        product.setCategoryId(1L);
+        product.setCategoryName("電子產品");
+        product.setSku("BENCH-001");
+        product.setBrand("測試品牌");
+        product.setIsActive(true);
+        product.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 12, 0));
+        product.setImageUrls(List.of("https://example.com/1.jpg", "https://example.com/2.jpg"));
+        product.setFeatures(List.of("防水", "快速充電", "雙卡雙待"));
+        product.setTags(List.of("熱門", "新品"));
+        Map<String, String> specifications = new HashMap<>();
+        Map<String, Object> additionalInfo = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            specifications.put("規格" + i, "數值" + i);
+            additionalInfo.put("info" + i, Map.of("value", i, "label", "附加信息" + i));
+        }
+        product.setSpecifications(specifications);
+        product.setAdditionalInfo(additionalInfo);
+
+        responseCache.put(product, ETAG);
+    }
+
+    @Benchmark
+    public int serializePerRequest(Output output) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(product);
+        output.reset().write(json);
+        return json.length;
+    }
+
+    @Benchmark
+    public int serializeAndGzipPerRequest(Output output) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(product);
+        try (OutputStream out = new GZIPOutputStream(output.reset())) {
+            out.write(json);
+        }
+        return json.length;
+    }
+
+    @Benchmark
+    public int cachedBytes(Output output) throws IOException {
+        SerializedProduct cached = responseCache.get(1L, ETAG);
+        output.reset().write(cached.json());
+        return cached.json().length;
+    }
+
+    @Benchmark
+    public int cachedGzipBytes(Output output) throws IOException {
+        SerializedProduct cached = responseCache.get(1L, ETAG);
+        output.reset().write(cached.gzip());
+        return cached.gzip().length;
+    }
+}
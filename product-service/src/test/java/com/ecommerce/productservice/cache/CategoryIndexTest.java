@@ -0,0 +1,92 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.model.Category;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 類別索引快照單元測試
+ */
+public class CategoryIndexTest {
+
+    /**
+     * 測試層級結構：
+     * 1 電子產品
+     * ├── 2 手機
+     * │   └── 4 智慧型手機
+     * └── 3 筆記型電腦
+     * 5 服裝
+     */
+    private final CategoryIndex index = CategoryIndex.of(List.of(
+            createCategory(4L, "智慧型手機", 2L),
+            createCategory(3L, "筆記型電腦", 1L),
+            createCategory(1L, "電子產品", null),
+            createCategory(5L, "服裝", null),
+            createCategory(2L, "手機", 1L)), 7L);
+
+    @Test
+    @DisplayName("測試頂級類別與子類別")
+    void testRootsAndChildren() {
+        assertEquals(List.of(1L, 5L), ids(index.roots()));
+        assertEquals(List.of(2L, 3L), ids(index.children(1L)));
+        assertEquals(List.of(4L), ids(index.children(2L)));
+        assertTrue(index.children(4L).isEmpty());
+        assertArrayEquals(new long[]{2L, 3L}, index.childIds(1L));
+    }
+
+    @Test
+    @DisplayName("測試祖先路徑")
+    void testPathOf() {
+        assertEquals(List.of(1L, 2L, 4L), ids(index.pathOf(4L)));
+        assertEquals(List.of(5L), ids(index.pathOf(5L)));
+        assertTrue(index.pathOf(99L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試根據ID查找類別")
+    void testFind() {
+        assertEquals("手機", index.nameOf(2L));
+        assertNull(index.nameOf(99L));
+        assertNull(index.nameOf(null));
+        assertTrue(index.contains(3L));
+        assertFalse(index.find(99L).isPresent());
+        assertEquals(5, index.size());
+        assertEquals(7L, index.version());
+    }
+
+    @Test
+    @DisplayName("測試根據名稱搜尋類別")
+    void testSearchByName() {
+        assertEquals(List.of(2L, 4L), ids(index.searchByName("手機")));
+        assertTrue(index.searchByName("不存在").isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試循環引用不會導致無限迴圈")
+    void testCyclicParents() {
+        CategoryIndex cyclic = CategoryIndex.of(List.of(
+                createCategory(1L, "A", 2L),
+                createCategory(2L, "B", 1L)), 1L);
+
+        assertTrue(cyclic.roots().isEmpty());
+        assertEquals(2, cyclic.pathOf(1L).size());
+    }
+
+    private List<Long> ids(List<CategoryIndex.Node> nodes) {
+        return nodes.stream().map(CategoryIndex.Node::id).collect(Collectors.toList());
+    }
+
+    private Category createCategory(Long id, String name, Long parentId) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setParentId(parentId);
+        category.setIsActive(true);
+        return category;
+    }
+}
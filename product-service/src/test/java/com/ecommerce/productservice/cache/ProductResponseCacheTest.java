@@ -0,0 +1,101 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.cache.ProductResponseCache.SerializedProduct;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品回應快取單元測試
+ */
+public class ProductResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ProductResponseCache responseCache;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new ProductResponseCache();
+        ReflectionTestUtils.setField(responseCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(responseCache, "maxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(responseCache, "gzipMinBytes", 1024);
+        responseCache.init();
+
+        product = new ProductDTO();
+        product.setId(1L);
+        product.setName("測試產品");
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(100);
+    }
+
+    @Test
+    @DisplayName("測試相同 ETag 命中快取")
+    void testGet_SameETag() throws IOException {
+        SerializedProduct stored = responseCache.put(product, "\"v1\"");
+
+        SerializedProduct cached = responseCache.get(1L, "\"v1\"");
+
+        assertSame(stored, cached);
+        assertEquals("測試產品", objectMapper.readValue(cached.json(), ProductDTO.class).getName());
+        // 未達壓縮門檻時不保留壓縮後的位元組
+        assertNull(cached.gzip());
+    }
+
+    @Test
+    @DisplayName("測試 ETag 不符時視為未命中")
+    void testGet_StaleETag() {
+        responseCache.put(product, "\"v1\"");
+
+        assertNull(responseCache.get(1L, "\"v2\""));
+        assertNull(responseCache.get(2L, "\"v1\""));
+    }
+
+    @Test
+    @DisplayName("測試達到壓縮門檻時保留 gzip 位元組")
+    void testPut_Gzip() throws IOException {
+        Map<String, String> specifications = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            specifications.put("規格" + i, "數值" + i);
+        }
+        product.setSpecifications(specifications);
+
+        SerializedProduct cached = responseCache.put(product, "\"v1\"");
+
+        assertNotNull(cached.gzip());
+        assertTrue(cached.gzip().length < cached.json().length);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(cached.gzip()))) {
+            assertArrayEquals(cached.json(), in.readAllBytes());
+        }
+        assertEquals("\"v1-gzip\"", cached.gzipETag());
+    }
+
+    @Test
+    @DisplayName("測試產品與類別變更後清除快取")
+    void testEvictOnChange() {
+        responseCache.put(product, "\"v1\"");
+        responseCache.onProductChanged(new ProductChangedEvent(1L));
+        assertNull(responseCache.get(1L, "\"v1\""));
+
+        responseCache.put(product, "\"v1\"");
+        responseCache.onCategoryChanged(new CategoryChangedEvent(1L));
+        assertNull(responseCache.get(1L, "\"v1\""));
+    }
+}
@@ -16,13 +16,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
 
-import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -316,7 +318,8 @@ public class CategoryControllerTest {
         categoryTree.add(category);
 
         // 設置模擬行為
-        when(categoryService.getCategoryTree()).thenReturn(categoryTree);
+        when(categoryService.getSerializedCategoryTree()).thenReturn(new CategoryService.SerializedTree(
+                objectMapper.writeValueAsBytes(categoryTree), "\"tree1\""));
 
         // 執行測試
         mockMvc.perform(get("/api/categories/tree"))
@@ -328,7 +331,26 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$[0].children", hasSize(0)));
 
         // 驗證方法調用
-        verify(categoryService).getCategoryTree();
+        verify(categoryService).getSerializedCategoryTree();
+    }
+
+    /**
+     * 測試獲取類別樹 - ETag 相符時返回 304
+     */
+    @Test
+    @DisplayName("測試獲取類別樹 - ETag 相符時返回 304")
+    void testGetCategoryTree_NotModified() throws Exception {
+        // 設置模擬行為
+        when(categoryService.getSerializedCategoryTree()).thenReturn(new CategoryService.SerializedTree(
+                "[]".getBytes(StandardCharsets.UTF_8), "\"abc123\""));
+
+        // 執行測試
+        mockMvc.perform(get("/api/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""));
+        mockMvc.perform(get("/api/categories/tree").header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
     }
 
     /**
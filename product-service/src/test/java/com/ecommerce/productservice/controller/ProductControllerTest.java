@@ -1,10 +1,32 @@
 package com.ecommerce.productservice.controller;
 
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.dto.AvailabilityDTO;
+import com.ecommerce.productservice.dto.CursorPage;
+import com.ecommerce.productservice.dto.FacetCount;
+import com.ecommerce.productservice.dto.FacetedPage;
 import com.ecommerce.productservice.dto.ProductCreateRequest;
+import com.ecommerce.productservice.dto.ProductCursor;
 import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductFacets;
+import com.ecommerce.productservice.dto.ProductFieldSet;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.dto.ProductSummaryDTO;
 import com.ecommerce.productservice.dto.ProductUpdateRequest;
+import com.ecommerce.productservice.dto.ProductViewRebuildReport;
+import com.ecommerce.productservice.dto.StockAdjustment;
+import com.ecommerce.productservice.dto.StockBatchRequest;
+import com.ecommerce.productservice.dto.StockBatchResult;
+import com.ecommerce.productservice.dto.StockDTO;
+import com.ecommerce.productservice.exception.InsufficientStockException;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.exception.StockBatchException;
+import com.ecommerce.productservice.popularity.PopularityTracker;
+import com.ecommerce.productservice.service.ProductExportService;
 import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.productservice.service.ReservationService;
+import com.ecommerce.productservice.stock.HotStockManager;
+import com.ecommerce.productservice.view.ProductViewProjector;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,18 +34,31 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
-import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,6 +70,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 測試產品控制器的各個端點，確保HTTP請求處理正確
  */
 @WebMvcTest(ProductController.class)
+@Import(ProductResponseCache.class)
 public class ProductControllerTest {
 
     @Autowired
@@ -46,6 +82,21 @@ public class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductExportService productExportService;
+
+    @MockBean
+    private PopularityTracker popularityTracker;
+
+    @MockBean
+    private HotStockManager hotStockManager;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    @MockBean
+    private ProductViewProjector productViewProjector;
+
     private ProductDTO testProductDTO;
     private ProductCreateRequest testCreateRequest;
     private ProductUpdateRequest testUpdateRequest;
@@ -111,6 +162,116 @@ public class ProductControllerTest {
 
         // 驗證方法調用
         verify(productService).getProductById(1L);
+        verify(popularityTracker).recordView(1L);
+    }
+
+    /**
+     * 測試根據ID獲取產品 - 回應帶有 ETag
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - 回應帶有 ETag")
+    void testGetProductById_ETag() throws Exception {
+        // 設置模擬行為
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductDTO));
+        when(productService.getProductETag(testProductDTO)).thenReturn("\"v1\"");
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""));
+    }
+
+    /**
+     * 測試根據ID獲取產品 - ETag 相符時不組裝產品
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - ETag 相符時不組裝產品")
+    void testGetProductById_NotModified() throws Exception {
+        // 設置模擬行為
+        when(productService.getProductETag(1L)).thenReturn(Optional.of("\"v1\""));
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"v0\", W/\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""))
+                .andExpect(content().string(""));
+
+        // 驗證方法調用
+        verify(productService, never()).getProductById(anyLong());
+        verify(popularityTracker).recordView(1L);
+    }
+
+    /**
+     * 測試根據ID獲取產品 - ETag 不符時返回產品
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - ETag 不符時返回產品")
+    void testGetProductById_Modified() throws Exception {
+        // 設置模擬行為
+        when(productService.getProductETag(1L)).thenReturn(Optional.of("\"v2\""));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductDTO));
+        when(productService.getProductETag(testProductDTO)).thenReturn("\"v2\"");
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v2\""))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    /**
+     * 測試根據ID獲取產品 - 回應快取命中時不組裝產品
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - 回應快取命中時不組裝產品")
+    void testGetProductById_ResponseCacheHit() throws Exception {
+        // 設置模擬行為
+        when(productService.getProductETag(1L)).thenReturn(Optional.of("\"v1\""));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductDTO));
+        when(productService.getProductETag(testProductDTO)).thenReturn("\"v1\"");
+
+        // 執行測試，第一次請求序列化並寫入快取，第二次直接寫入快取中的位元組
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("測試產品")));
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.name", is("測試產品")));
+
+        // 驗證方法調用
+        verify(productService, times(1)).getProductById(1L);
+        verify(popularityTracker, times(2)).recordView(1L);
+    }
+
+    /**
+     * 測試根據ID獲取產品 - 客戶端接受 gzip 時返回預先壓縮的回應
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - 客戶端接受 gzip 時返回預先壓縮的回應")
+    void testGetProductById_Gzip() throws Exception {
+        // 設置模擬行為，規格足夠多使回應達到壓縮門檻
+        Map<String, String> specifications = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            specifications.put("規格" + i, "數值" + i);
+        }
+        testProductDTO.setSpecifications(specifications);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductDTO));
+        when(productService.getProductETag(testProductDTO)).thenReturn("\"v1\"");
+
+        // 執行測試
+        byte[] body = mockMvc.perform(get("/api/products/1").header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", "\"v1-gzip\""))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // 驗證結果
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("測試產品", objectMapper.readValue(in, ProductDTO.class).getName());
+        }
     }
 
     /**
@@ -128,6 +289,7 @@ public class ProductControllerTest {
 
         // 驗證方法調用
         verify(productService).getProductById(99L);
+        verifyNoInteractions(popularityTracker);
     }
 
     /**
@@ -160,6 +322,54 @@ public class ProductControllerTest {
         verify(productService).getAllProducts(any(Pageable.class));
     }
 
+    /**
+     * 測試以游標分頁獲取所有產品
+     */
+    @Test
+    @DisplayName("測試以游標分頁獲取所有產品")
+    void testGetAllProducts_Cursor() throws Exception {
+        // 準備測試數據
+        CursorPage<ProductDTO> cursorPage = new CursorPage<>(List.of(testProductDTO), "next-cursor", true, 10);
+
+        // 設置模擬行為
+        when(productService.scrollProducts(any(ProductFilter.class), any(ProductCursor.class), eq(10)))
+                .thenReturn(cursorPage);
+
+        // 執行測試
+        mockMvc.perform(get("/api/products")
+                .param("size", "10")
+                .param("sort", "price")
+                .param("direction", "desc")
+                .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is("next-cursor")))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        // 驗證方法調用
+        verify(productService).scrollProducts(any(ProductFilter.class),
+                argThat(cursor -> cursor.isFirst() && cursor.getSortKey() == ProductCursor.SortKey.PRICE), eq(10));
+        verify(productService, never()).getAllProducts(any(Pageable.class));
+    }
+
+    /**
+     * 測試以無效游標獲取產品
+     */
+    @Test
+    @DisplayName("測試以無效游標獲取產品")
+    void testGetAllProducts_InvalidCursor() throws Exception {
+        // 執行測試
+        mockMvc.perform(get("/api/products")
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        // 驗證方法調用
+        verify(productService, never()).scrollProducts(any(), any(), anyInt());
+    }
+
     /**
      * 測試創建產品
      */
@@ -258,6 +468,49 @@ public class ProductControllerTest {
         verify(productService).deleteProduct(99L);
     }
 
+    /**
+     * 測試匯出產品目錄
+     */
+    @Test
+    @DisplayName("測試匯出產品目錄")
+    void testExportProducts() throws Exception {
+        // 設置模擬行為
+        when(productExportService.exportProducts(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(0);
+            output.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // 執行測試，回應以非同步方式寫出
+        MvcResult result = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.ndjson\""))
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    /**
+     * 測試重建產品讀取模型
+     */
+    @Test
+    @DisplayName("測試重建產品讀取模型")
+    void testRebuildProductView() throws Exception {
+        // 設置模擬行為
+        when(productViewProjector.rebuild()).thenReturn(new ProductViewRebuildReport(120, 3, 45));
+
+        // 執行測試
+        mockMvc.perform(post("/api/products/view:rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products").value(120))
+                .andExpect(jsonPath("$.removed").value(3));
+
+        // 驗證方法調用
+        verify(productViewProjector).rebuild();
+    }
+
     /**
      * 測試更新產品庫存
      */
@@ -265,15 +518,16 @@ public class ProductControllerTest {
     @DisplayName("測試更新產品庫存")
     void testUpdateProductStock() throws Exception {
         // 設置模擬行為
-        when(productService.updateProductStock(eq(1L), anyInt())).thenReturn(testProductDTO);
+        when(productService.updateProductStock(eq(1L), anyInt())).thenReturn(new StockDTO(1L, 150));
 
         // 執行測試
         mockMvc.perform(patch("/api/products/1/stock")
                 .param("quantity", "50"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.name", is("測試產品")));
+                .andExpect(jsonPath("$.productId", is(1)))
+                .andExpect(jsonPath("$.stock", is(150)))
+                .andExpect(jsonPath("$", not(hasKey("name"))));
 
         // 驗證方法調用
         verify(productService).updateProductStock(eq(1L), eq(50));
@@ -297,4 +551,254 @@ public class ProductControllerTest {
         // 驗證方法調用
         verify(productService).updateProductStock(eq(99L), eq(50));
     }
-}
\ No newline at end of file
+
+    /**
+     * 測試啟用熱門模式
+     */
+    @Test
+    @DisplayName("測試啟用熱門模式")
+    void testEnableHotStock() throws Exception {
+        // 設置模擬行為
+        when(hotStockManager.enable(1L, 16)).thenReturn(100);
+
+        // 執行測試
+        mockMvc.perform(put("/api/products/1/stock/slots")
+                .param("slots", "16"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId", is(1)))
+                .andExpect(jsonPath("$.stock", is(100)));
+
+        // 驗證方法調用
+        verify(hotStockManager).enable(1L, 16);
+    }
+
+    /**
+     * 測試停用熱門模式 - 未啟用
+     */
+    @Test
+    @DisplayName("測試停用熱門模式 - 未啟用")
+    void testDisableHotStock_NotEnabled() throws Exception {
+        // 設置模擬行為
+        when(hotStockManager.disable(1L)).thenThrow(new ResourceNotFoundException("未啟用熱門模式"));
+
+        // 執行測試
+        mockMvc.perform(delete("/api/products/1/stock/slots"))
+                .andExpect(status().isNotFound());
+
+        // 驗證方法調用
+        verify(hotStockManager).disable(1L);
+    }
+
+    /**
+     * 測試獲取產品可售數量
+     */
+    @Test
+    @DisplayName("測試獲取產品可售數量")
+    void testGetProductAvailability() throws Exception {
+        // 設置模擬行為
+        when(reservationService.getAvailability(1L)).thenReturn(new AvailabilityDTO(1L, 100, 30, 70));
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/1/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId", is(1)))
+                .andExpect(jsonPath("$.reserved", is(30)))
+                .andExpect(jsonPath("$.available", is(70)));
+
+        // 驗證方法調用
+        verify(reservationService).getAvailability(1L);
+        verifyNoInteractions(productService);
+    }
+
+    /**
+     * 測試更新產品庫存 - 庫存不足
+     */
+    @Test
+    @DisplayName("測試更新產品庫存 - 庫存不足")
+    void testUpdateProductStock_InsufficientStock() throws Exception {
+        // 設置模擬行為
+        when(productService.updateProductStock(eq(1L), anyInt()))
+                .thenThrow(new InsufficientStockException("庫存不足"));
+
+        // 執行測試
+        mockMvc.perform(patch("/api/products/1/stock")
+                .param("quantity", "-500"))
+                .andExpect(status().isConflict());
+
+        // 驗證方法調用
+        verify(productService).updateProductStock(eq(1L), eq(-500));
+    }
+
+    /**
+     * 測試批量調整庫存
+     */
+    @Test
+    @DisplayName("測試批量調整庫存")
+    void testAdjustProductStocks() throws Exception {
+        // 設置模擬行為
+        StockBatchRequest request = new StockBatchRequest();
+        request.setAdjustments(List.of(new StockAdjustment(2L, -1), new StockAdjustment(1L, -2)));
+        when(productService.adjustStocks(request.getAdjustments())).thenReturn(new StockBatchResult(true, List.of(
+                new StockBatchResult.Line(2L, -1, StockBatchResult.Status.APPLIED, 9),
+                new StockBatchResult.Line(1L, -2, StockBatchResult.Status.APPLIED, 98))));
+
+        // 執行測試
+        mockMvc.perform(patch("/api/products/stock:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied", is(true)))
+                .andExpect(jsonPath("$.lines", hasSize(2)))
+                .andExpect(jsonPath("$.lines[1].stock", is(98)));
+    }
+
+    /**
+     * 測試批量調整庫存 - 任一行失敗時返回每一行的結果
+     */
+    @Test
+    @DisplayName("測試批量調整庫存 - 任一行失敗")
+    void testAdjustProductStocks_Conflict() throws Exception {
+        // 設置模擬行為
+        StockBatchRequest request = new StockBatchRequest();
+        request.setAdjustments(List.of(new StockAdjustment(1L, -2), new StockAdjustment(2L, -50)));
+        when(productService.adjustStocks(anyList())).thenThrow(new StockBatchException(new StockBatchResult(false, List.of(
+                new StockBatchResult.Line(1L, -2, StockBatchResult.Status.NOT_APPLIED, null),
+                new StockBatchResult.Line(2L, -50, StockBatchResult.Status.INSUFFICIENT_STOCK, 10)))));
+
+        // 執行測試
+        mockMvc.perform(patch("/api/products/stock:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.applied", is(false)))
+                .andExpect(jsonPath("$.lines[0]", not(hasKey("stock"))))
+                .andExpect(jsonPath("$.lines[1].status", is("INSUFFICIENT_STOCK")));
+    }
+
+    /**
+     * 測試批量調整庫存 - 空的請求
+     */
+    @Test
+    @DisplayName("測試批量調整庫存 - 空的請求")
+    void testAdjustProductStocks_EmptyRequest() throws Exception {
+        // 執行測試
+        mockMvc.perform(patch("/api/products/stock:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"adjustments\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        // 驗證方法調用
+        verify(productService, never()).adjustStocks(anyList());
+    }
+
+    /**
+     * 測試摘要檢視 - 只返回請求的欄位
+     */
+    @Test
+    @DisplayName("測試摘要檢視 - 只返回請求的欄位")
+    void testGetProductsByBrand_SummaryFields() throws Exception {
+        // 設置模擬行為
+        ProductSummaryDTO summary = new ProductSummaryDTO();
+        summary.setId(1L);
+        summary.setName("測試產品");
+        summary.setPrice(new BigDecimal("99.99"));
+        Page<ProductSummaryDTO> summaryPage = new PageImpl<>(List.of(summary));
+        when(productService.getProductSummaries(any(ProductFilter.class), any(Pageable.class), any(ProductFieldSet.class)))
+                .thenReturn(summaryPage);
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/brand/測試品牌")
+                .param("fields", "name,price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("測試產品")))
+                .andExpect(jsonPath("$.content[0]", not(hasKey("stock"))))
+                .andExpect(jsonPath("$.content[0]", not(hasKey("fullDescription"))));
+
+        // 驗證方法調用
+        verify(productService).getProductSummaries(
+                argThat(filter -> "測試品牌".equals(filter.getBrand())),
+                any(Pageable.class),
+                argThat(fields -> fields.includes(ProductFieldSet.NAME)
+                        && fields.includes(ProductFieldSet.PRICE)
+                        && !fields.includes(ProductFieldSet.IMAGE_URL)));
+        verify(productService, never()).getProductsByBrand(anyString(), any(Pageable.class));
+    }
+
+    /**
+     * 測試摘要檢視 - 游標分頁
+     */
+    @Test
+    @DisplayName("測試摘要檢視 - 游標分頁")
+    void testFilterProducts_SummaryViewWithCursor() throws Exception {
+        // 設置模擬行為
+        ProductSummaryDTO summary = new ProductSummaryDTO();
+        summary.setId(1L);
+        summary.setImageUrl("https://example.com/1.jpg");
+        when(productService.scrollProductSummaries(any(ProductFilter.class), any(ProductCursor.class), anyInt(), any(ProductFieldSet.class)))
+                .thenReturn(new CursorPage<>(List.of(summary), null, false, 10));
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/filter")
+                .param("cursor", "")
+                .param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].imageUrl", is("https://example.com/1.jpg")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+
+        // 驗證方法調用
+        verify(productService).scrollProductSummaries(
+                argThat(ProductFilter::isActiveOnly), any(ProductCursor.class), eq(10),
+                argThat(fields -> fields.includes(ProductFieldSet.IMAGE_URL)));
+        verify(productService, never()).scrollProducts(any(ProductFilter.class), any(ProductCursor.class), anyInt());
+    }
+
+    /**
+     * 測試摘要檢視 - 不支援的欄位
+     */
+    @Test
+    @DisplayName("測試摘要檢視 - 不支援的欄位")
+    void testGetAllProducts_UnsupportedField() throws Exception {
+        // 執行測試
+        mockMvc.perform(get("/api/products")
+                .param("fields", "name,fullDescription"))
+                .andExpect(status().isBadRequest());
+
+        // 驗證方法調用
+        verifyNoInteractions(productService);
+    }
+
+    /**
+     * 測試過濾產品 - 返回分面計數
+     */
+    @Test
+    @DisplayName("測試過濾產品 - 返回分面計數")
+    void testFilterProducts_WithFacets() throws Exception {
+        // 設置模擬行為
+        ProductFacets facets = new ProductFacets();
+        facets.getBrands().add(new FacetCount("測試品牌", null, 1));
+        facets.getCategories().add(new FacetCount("1", "電子產品", 1));
+        facets.getPriceRanges().add(new FacetCount("0-100", null, 1));
+        FacetedPage<ProductDTO> facetedPage = new FacetedPage<>(List.of(testProductDTO), 1, 1, 0, 10, facets);
+        when(productService.filterProductsWithFacets(any(ProductFilter.class), any(Pageable.class)))
+                .thenReturn(facetedPage);
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/filter")
+                .param("brand", "測試品牌")
+                .param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.facets.brands[0].value", is("測試品牌")))
+                .andExpect(jsonPath("$.facets.brands[0]", not(hasKey("label"))))
+                .andExpect(jsonPath("$.facets.categories[0].label", is("電子產品")))
+                .andExpect(jsonPath("$.facets.priceRanges[0].count", is(1)));
+
+        // 驗證方法調用
+        verify(productService).filterProductsWithFacets(
+                argThat(filter -> "測試品牌".equals(filter.getBrand()) && filter.isActiveOnly()), any(Pageable.class));
+        verify(productService, never()).filterProducts(any(), any(), any(), any(), any(), any(Pageable.class));
+    }
+}
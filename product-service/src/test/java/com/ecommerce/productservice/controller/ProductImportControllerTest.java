@@ -0,0 +1,110 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.ProductImportReport;
+import com.ecommerce.productservice.importer.ImportFormat;
+import com.ecommerce.productservice.service.ProductImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 產品匯入控制器單元測試
+ * 
+ * 測試匯入端點依內容類型選擇格式，以及被拒絕的列的下載
+ */
+@WebMvcTest(ProductImportController.class)
+public class ProductImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductImportService productImportService;
+
+    @TempDir
+    private Path tempDir;
+
+    /**
+     * 測試匯入 CSV
+     */
+    @Test
+    @DisplayName("測試匯入 CSV")
+    void testImportProducts() throws Exception {
+        // 設置模擬行為
+        when(productImportService.importProducts(any(), eq(ImportFormat.CSV)))
+                .thenReturn(new ProductImportReport("import-1", "CSV", 2, 1, 1, 5, 400));
+
+        // 執行測試
+        mockMvc.perform(post("/api/products/import")
+                .contentType("text/csv;charset=UTF-8")
+                .content("name,price,categoryId\n產品一,10,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importId", is("import-1")))
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)));
+
+        // 驗證方法調用
+        verify(productImportService).importProducts(any(), eq(ImportFormat.CSV));
+    }
+
+    /**
+     * 測試匯入不支援的內容類型
+     */
+    @Test
+    @DisplayName("測試匯入不支援的內容類型")
+    void testImportProducts_UnsupportedMediaType() throws Exception {
+        // 執行測試
+        mockMvc.perform(post("/api/products/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        // 驗證方法調用
+        verify(productImportService, never()).importProducts(any(), any());
+    }
+
+    /**
+     * 測試下載被拒絕的列
+     */
+    @Test
+    @DisplayName("測試下載被拒絕的列")
+    void testGetRejects() throws Exception {
+        // 設置模擬行為
+        Path rejects = Files.writeString(tempDir.resolve("rejects.ndjson"), "{\"line\":2}\n");
+        when(productImportService.findRejects("import-1")).thenReturn(Optional.of(rejects));
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/import/import-1/rejects"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"line\":2}\n"));
+    }
+
+    /**
+     * 測試下載被拒絕的列 - 沒有被拒絕的列
+     */
+    @Test
+    @DisplayName("測試下載被拒絕的列 - 沒有被拒絕的列")
+    void testGetRejects_NotFound() throws Exception {
+        // 設置模擬行為
+        when(productImportService.findRejects("import-2")).thenReturn(Optional.empty());
+
+        // 執行測試
+        mockMvc.perform(get("/api/products/import/import-2/rejects"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.ReservationDTO;
+import com.ecommerce.productservice.dto.ReservationRequest;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 庫存保留控制器單元測試
+ * 
+ * 測試庫存保留的保留、確認與釋放端點，確保HTTP請求處理正確
+ */
+@WebMvcTest(ReservationController.class)
+public class ReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    /**
+     * 測試保留產品庫存
+     */
+    @Test
+    @DisplayName("測試保留產品庫存")
+    void testReserve() throws Exception {
+        // 準備測試數據
+        ReservationRequest request = new ReservationRequest();
+        request.setProductId(1L);
+        request.setQuantity(2);
+        ReservationDTO reservation = new ReservationDTO("r-1", 1L, 2, ReservationDTO.Status.HELD,
+                Instant.parse("2026-01-01T00:10:00Z"));
+
+        // 設置模擬行為
+        when(reservationService.reserve(1L, 2, null)).thenReturn(reservation);
+
+        // 執行測試
+        mockMvc.perform(post("/api/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is("r-1")))
+                .andExpect(jsonPath("$.status", is("HELD")))
+                .andExpect(jsonPath("$.expiresAt", is("2026-01-01T00:10:00Z")));
+
+        // 驗證方法調用
+        verify(reservationService).reserve(1L, 2, null);
+    }
+
+    /**
+     * 測試保留產品庫存 - 數量無效
+     */
+    @Test
+    @DisplayName("測試保留產品庫存 - 數量無效")
+    void testReserve_InvalidQuantity() throws Exception {
+        // 準備測試數據
+        ReservationRequest request = new ReservationRequest();
+        request.setProductId(1L);
+        request.setQuantity(0);
+
+        // 執行測試
+        mockMvc.perform(post("/api/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        // 驗證方法調用
+        verifyNoInteractions(reservationService);
+    }
+
+    /**
+     * 測試保留產品庫存 - 可售數量不足
+     */
+    @Test
+    @DisplayName("測試保留產品庫存 - 可售數量不足")
+    void testReserve_InsufficientStock() throws Exception {
+        // 準備測試數據
+        ReservationRequest request = new ReservationRequest();
+        request.setProductId(1L);
+        request.setQuantity(500);
+
+        // 設置模擬行為
+        when(reservationService.reserve(eq(1L), eq(500), any()))
+                .thenThrow(new InsufficientStockException("庫存不足"));
+
+        // 執行測試
+        mockMvc.perform(post("/api/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    /**
+     * 測試確認庫存保留
+     */
+    @Test
+    @DisplayName("測試確認庫存保留")
+    void testConfirm() throws Exception {
+        // 設置模擬行為
+        when(reservationService.confirm("r-1")).thenReturn(new ReservationDTO("r-1", 1L, 2,
+                ReservationDTO.Status.CONFIRMED, Instant.parse("2026-01-01T00:10:00Z")));
+
+        // 執行測試
+        mockMvc.perform(post("/api/reservations/r-1/confirm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CONFIRMED")));
+
+        // 驗證方法調用
+        verify(reservationService).confirm("r-1");
+    }
+
+    /**
+     * 測試釋放庫存保留 - 保留已到期
+     */
+    @Test
+    @DisplayName("測試釋放庫存保留 - 保留已到期")
+    void testRelease_Expired() throws Exception {
+        // 設置模擬行為
+        doThrow(new ResourceNotFoundException("保留不存在")).when(reservationService).release("r-1");
+
+        // 執行測試
+        mockMvc.perform(delete("/api/reservations/r-1"))
+                .andExpect(status().isNotFound());
+
+        // 驗證方法調用
+        verify(reservationService).release("r-1");
+    }
+
+    /**
+     * 測試釋放庫存保留
+     */
+    @Test
+    @DisplayName("測試釋放庫存保留")
+    void testRelease() throws Exception {
+        // 執行測試
+        mockMvc.perform(delete("/api/reservations/r-2"))
+                .andExpect(status().isNoContent());
+
+        // 驗證方法調用
+        verify(reservationService).release("r-2");
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.productservice.importer;
+
+import com.ecommerce.productservice.exception.InvalidImportException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 匯入檔案逐列讀取器測試
+ * 
+ * 驗證 NDJSON 與 CSV 的解析、行號，以及單一列錯誤不影響後續的列
+ */
+public class ProductRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("測試 NDJSON 逐行解析並略過空白行")
+    void testNdjson() throws IOException {
+        List<ImportRow> rows = readAll(ImportFormat.NDJSON,
+                "{\"name\":\"產品一\",\"price\":10,\"categoryId\":1}\n" +
+                "\n" +
+                "{\"name\":\"產品二\",\"price\":\n" +
+                "{\"name\":\"產品三\",\"price\":30,\"categoryId\":2,\"tags\":[\"新品\"]}");
+
+        assertEquals(3, rows.size());
+        assertEquals(1, rows.get(0).line());
+        assertEquals("產品一", rows.get(0).request().getName());
+        assertEquals(3, rows.get(1).line());
+        assertNull(rows.get(1).request());
+        assertTrue(rows.get(1).error().startsWith("Malformed JSON"));
+        assertEquals(4, rows.get(2).line());
+        assertEquals(List.of("新品"), rows.get(2).request().getTags());
+    }
+
+    @Test
+    @DisplayName("測試 CSV 依標題列對應欄位")
+    void testCsv() throws IOException {
+        List<ImportRow> rows = readAll(ImportFormat.CSV,
+                "categoryId,name,price,tags,isActive\r\n" +
+                "1,產品一,99.5,新品|特價,\r\n" +
+                "2,\"產品,二\",10,,false");
+
+        assertEquals(2, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertEquals("產品一", rows.get(0).request().getName());
+        assertEquals(new BigDecimal("99.5"), rows.get(0).request().getPrice());
+        assertEquals(List.of("新品", "特價"), rows.get(0).request().getTags());
+        assertTrue(rows.get(0).request().getIsActive());
+        assertEquals("產品,二", rows.get(1).request().getName());
+        assertFalse(rows.get(1).request().getIsActive());
+    }
+
+    @Test
+    @DisplayName("測試 CSV 引號內的換行與雙引號")
+    void testCsv_QuotedFields() throws IOException {
+        List<ImportRow> rows = readAll(ImportFormat.CSV,
+                "name,price,categoryId,fullDescription\n" +
+                "產品一,1,1,\"第一行\n第二行 \"\"引號\"\"\"\n" +
+                "產品二,2,1,\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("第一行\n第二行 \"引號\"", rows.get(0).request().getFullDescription());
+        assertEquals("產品一,1,1,\"第一行\n第二行 \"\"引號\"\"\"", rows.get(0).raw());
+        assertEquals(2, rows.get(0).line());
+        assertEquals(4, rows.get(1).line());
+    }
+
+    @Test
+    @DisplayName("測試 CSV 無效的值與欄位數量")
+    void testCsv_MalformedRows() throws IOException {
+        List<ImportRow> rows = readAll(ImportFormat.CSV,
+                "name,price,categoryId\n" +
+                "產品一,abc,1\n" +
+                "產品二,1\n" +
+                "產品三,3,1\n");
+
+        assertEquals(3, rows.size());
+        assertTrue(rows.get(0).error().startsWith("Invalid value"));
+        assertEquals("Expected 3 columns but found 2", rows.get(1).error());
+        assertEquals("產品三", rows.get(2).request().getName());
+    }
+
+    @Test
+    @DisplayName("測試 CSV 不支援的欄位")
+    void testCsv_UnsupportedColumn() {
+        assertThrows(InvalidImportException.class, () -> readAll(ImportFormat.CSV, "name,specifications\n"));
+        assertThrows(InvalidImportException.class, () -> readAll(ImportFormat.CSV, ""));
+    }
+
+    private List<ImportRow> readAll(ImportFormat format, String content) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (ProductRowReader reader = ProductRowReader.open(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), objectMapper)) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
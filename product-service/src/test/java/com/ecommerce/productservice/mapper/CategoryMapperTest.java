@@ -0,0 +1,88 @@
+package com.ecommerce.productservice.mapper;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.model.Category;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 類別映射器單元測試
+ */
+public class CategoryMapperTest {
+
+    private final CategoryMapper categoryMapper = new CategoryMapper();
+
+    /**
+     * 測試從遞迴查詢結果構建類別樹
+     */
+    @Test
+    @DisplayName("測試從查詢結果構建類別樹")
+    void testBuildCategoryTreeFromRows() {
+        // 查詢結果依 level、name 排序，ID 類型依資料庫驅動而異
+        List<Object[]> rows = List.of(
+                new Object[]{BigInteger.valueOf(5), "服裝", null, null, 0},
+                new Object[]{1L, "電子產品", "電子類", null, 0},
+                new Object[]{2, "手機", null, 1L, 1},
+                new Object[]{3L, "筆記型電腦", null, 1L, 1},
+                new Object[]{4L, "智慧型手機", null, 2L, 2});
+
+        List<Map<String, Object>> tree = categoryMapper.buildCategoryTree(rows);
+
+        assertEquals(2, tree.size());
+        assertEquals(5L, tree.get(0).get("id"));
+        assertEquals("電子類", tree.get(1).get("description"));
+        List<Map<String, Object>> electronics = children(tree.get(1));
+        assertEquals(List.of(2L, 3L), List.of(electronics.get(0).get("id"), electronics.get(1).get("id")));
+        assertEquals(4L, children(electronics.get(0)).get(0).get("id"));
+        assertTrue(children(electronics.get(1)).isEmpty());
+    }
+
+    /**
+     * 測試從類別索引構建的類別樹與查詢結果一致
+     */
+    @Test
+    @DisplayName("測試從類別索引構建類別樹")
+    void testBuildCategoryTreeFromIndex() {
+        CategoryIndex index = CategoryIndex.of(List.of(
+                createCategory(1L, "電子產品", null),
+                createCategory(2L, "手機", 1L),
+                createCategory(3L, "筆記型電腦", 1L),
+                createCategory(4L, "智慧型手機", 2L),
+                createCategory(5L, "服裝", null)), 1L);
+        List<Object[]> rows = List.of(
+                new Object[]{5L, "服裝", null, null, 0},
+                new Object[]{1L, "電子產品", null, null, 0},
+                new Object[]{2L, "手機", null, 1L, 1},
+                new Object[]{3L, "筆記型電腦", null, 1L, 1},
+                new Object[]{4L, "智慧型手機", null, 2L, 2});
+
+        assertEquals(categoryMapper.buildCategoryTree(rows), categoryMapper.buildCategoryTree(index));
+    }
+
+    @Test
+    @DisplayName("測試空查詢結果")
+    void testBuildCategoryTreeEmpty() {
+        assertTrue(categoryMapper.buildCategoryTree(List.<Object[]>of()).isEmpty());
+        assertTrue(categoryMapper.buildCategoryTree(CategoryIndex.empty()).isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> children(Map<String, Object> node) {
+        return (List<Map<String, Object>>) node.get("children");
+    }
+
+    private Category createCategory(Long id, String name, Long parentId) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setParentId(parentId);
+        category.setIsActive(true);
+        return category;
+    }
+}
@@ -0,0 +1,160 @@
+package com.ecommerce.productservice.outbox;
+
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.repository.ProductOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品變更發件箱測試
+ * 
+ * 在 H2 上驗證發件箱只能在交易中寫入，以及轉送程序依序號分批送出、失敗時保留變更
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductOutbox.class, ProductOutboxRelay.class, ProductOutboxRelayTest.TestConfig.class})
+@TestPropertySource(properties = {"product.outbox.relay.batch-size=2", "product.outbox.relay.max-batches=2"})
+public class ProductOutboxRelayTest {
+
+    @TestConfiguration
+    static class TestConfig {
+
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        public CapturingSink capturingSink() {
+            return new CapturingSink();
+        }
+    }
+
+    // 記錄收到的每一批變更，可模擬送出失敗
+    static class CapturingSink implements ProductChangeSink {
+
+        private final List<List<ProductChange>> batches = new ArrayList<>();
+
+        private boolean failing;
+
+        @Override
+        public void send(List<ProductChange> changes) {
+            if (failing) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            batches.add(changes);
+        }
+    }
+
+    @Autowired
+    private ProductOutbox productOutbox;
+
+    @Autowired
+    private ProductOutboxRelay productOutboxRelay;
+
+    @Autowired
+    private ProductOutboxRepository productOutboxRepository;
+
+    @Autowired
+    private CapturingSink sink;
+
+    @BeforeEach
+    void setUp() {
+        sink.batches.clear();
+        sink.failing = false;
+    }
+
+    @Test
+    @DisplayName("測試依序號分批轉送並清空發件箱")
+    void testRelay() {
+        ProductDTO product = new ProductDTO();
+        product.setId(1L);
+        product.setName("測試產品");
+        product.setPrice(new BigDecimal("99.99"));
+        productOutbox.record(1L, ProductOutboxEvent.Type.CREATED, product);
+        productOutbox.record(2L, ProductOutboxEvent.Type.CREATED, product);
+        productOutbox.record(1L, ProductOutboxEvent.Type.UPDATED, product);
+        productOutbox.record(1L, ProductOutboxEvent.Type.DELETED, null);
+        productOutbox.record(2L, ProductOutboxEvent.Type.UPDATED, product);
+
+        // 每次轉送最多兩批，剩餘的變更在下次轉送
+        assertEquals(4, productOutboxRelay.relay());
+        assertEquals(1, productOutboxRepository.count());
+        assertEquals(1, productOutboxRelay.relay());
+
+        assertEquals(List.of(2, 2, 1), sink.batches.stream().map(List::size).toList());
+        List<ProductChange> changes = sink.batches.stream().flatMap(List::stream).toList();
+        for (int i = 1; i < changes.size(); i++) {
+            assertTrue(changes.get(i - 1).sequence() < changes.get(i).sequence());
+        }
+        assertEquals(ProductOutboxEvent.Type.CREATED, changes.get(0).type());
+        assertTrue(changes.get(0).payload().contains("\"name\":\"測試產品\""));
+        assertEquals(ProductOutboxEvent.Type.DELETED, changes.get(3).type());
+        assertNull(changes.get(3).payload());
+        assertEquals(0, productOutboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("測試批次記錄的變更依列表順序轉送")
+    void testRecordAll() {
+        List<ProductDTO> products = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            ProductDTO product = new ProductDTO();
+            product.setId(id);
+            product.setName("匯入產品" + id);
+            products.add(product);
+        }
+        productOutbox.record(9L, ProductOutboxEvent.Type.DELETED, null);
+        productOutbox.recordAll(ProductOutboxEvent.Type.CREATED, products);
+
+        assertEquals(4, productOutboxRelay.relay());
+
+        List<ProductChange> changes = sink.batches.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(9L, 1L, 2L, 3L), changes.stream().map(ProductChange::productId).toList());
+        assertEquals(ProductOutboxEvent.Type.CREATED, changes.get(1).type());
+        assertTrue(changes.get(3).payload().contains("\"name\":\"匯入產品3\""));
+        assertEquals(0, productOutboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("測試送出失敗時保留變更並在下次重送")
+    void testRelay_SinkFailure() {
+        productOutbox.record(1L, ProductOutboxEvent.Type.DELETED, null);
+        sink.failing = true;
+
+        assertEquals(0, productOutboxRelay.relay());
+        assertEquals(1, productOutboxRepository.count());
+
+        sink.failing = false;
+        assertEquals(1, productOutboxRelay.relay());
+        assertEquals(1L, sink.batches.get(0).get(0).productId());
+        assertEquals(0, productOutboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("測試在交易之外記錄變更")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testRecord_RequiresTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> productOutbox.record(1L, ProductOutboxEvent.Type.DELETED, null));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.productservice.popularity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 熱門項目追蹤單元測試
+ *
+ * 測試 Count-Min Sketch 的估計值、熱門產品的排序、候選數量上限以及衰減
+ */
+public class HeavyHittersTest {
+
+    @Test
+    @DisplayName("測試 Count-Min Sketch 的估計值不低於實際次數")
+    void testSketchNeverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (long id = 1; id <= 1000; id++) {
+            sketch.add(id, id % 7 + 1);
+        }
+
+        for (long id = 1; id <= 1000; id++) {
+            assertTrue(sketch.estimate(id) >= id % 7 + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("測試熱門產品依次數降序排列")
+    void testTopOrdersByCount() {
+        HeavyHitters hitters = new HeavyHitters(1024, 4, 10);
+        hitters.add(1L, 5);
+        hitters.add(2L, 50);
+        hitters.add(3L, 20);
+        hitters.add(4L, 20);
+
+        assertEquals(List.of(2L, 3L, 4L, 1L), hitters.top(10));
+        assertEquals(List.of(2L, 3L), hitters.top(2));
+    }
+
+    @Test
+    @DisplayName("測試候選數量不超過上限，且大量出現的產品會取代冷門產品")
+    void testCapacityBound() {
+        HeavyHitters hitters = new HeavyHitters(4096, 4, 5);
+        for (long id = 1; id <= 100; id++) {
+            hitters.add(id, 1);
+        }
+        hitters.add(500L, 100);
+        hitters.add(600L, 80);
+
+        assertTrue(hitters.snapshot().size() <= 5);
+        assertEquals(List.of(500L, 600L), hitters.top(2));
+    }
+
+    @Test
+    @DisplayName("測試衰減將次數減半並移除歸零的候選")
+    void testDecay() {
+        HeavyHitters hitters = new HeavyHitters(1024, 4, 10);
+        hitters.add(1L, 40);
+        hitters.add(2L, 1);
+
+        hitters.decay();
+
+        Map<Long, Long> snapshot = hitters.snapshot();
+        assertEquals(20L, snapshot.get(1L));
+        assertFalse(snapshot.containsKey(2L));
+    }
+}
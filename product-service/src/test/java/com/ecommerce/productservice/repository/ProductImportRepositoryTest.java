@@ -0,0 +1,59 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品批量匯入測試
+ * 
+ * 在 H2 上驗證 JDBC 批次插入返回依輸入順序的主鍵
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class ProductImportRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @DisplayName("測試批次插入產品")
+    void testInsertAll() {
+        List<Product> products = List.of(createProduct("產品一", 10), createProduct("產品二", 20),
+                createProduct("產品三", 30));
+
+        List<Long> ids = productRepository.insertAll(products);
+
+        assertEquals(3, ids.size());
+        assertTrue(ids.get(0) < ids.get(1) && ids.get(1) < ids.get(2));
+        assertEquals(ids.get(0), products.get(0).getId());
+        Product saved = productRepository.findById(ids.get(1)).orElseThrow();
+        assertEquals("產品二", saved.getName());
+        assertEquals(20, saved.getStock());
+        assertNotNull(saved.getCreatedAt());
+        assertTrue(saved.getIsActive());
+    }
+
+    @Test
+    @DisplayName("測試插入空的產品列表")
+    void testInsertAll_Empty() {
+        assertTrue(productRepository.insertAll(List.of()).isEmpty());
+    }
+
+    private Product createProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(stock);
+        product.setCategoryId(1L);
+        return product;
+    }
+}
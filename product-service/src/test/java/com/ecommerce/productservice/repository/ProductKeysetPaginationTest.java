@@ -0,0 +1,120 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.dto.ProductCursor;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.exception.InvalidCursorException;
+import com.ecommerce.productservice.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品游標分頁測試
+ * 
+ * 在 H2 上驗證 (排序欄位, id) 定位條件可以不重複、不遺漏地走完所有產品
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class ProductKeysetPaginationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        // 價格只有三種，大量相同的排序值用來驗證以ID決定先後
+        for (int i = 0; i < 25; i++) {
+            Product product = new Product();
+            product.setName("產品 " + (char) ('A' + i % 5));
+            product.setPrice(new BigDecimal(10 * (i % 3 + 1)));
+            product.setStock(10);
+            product.setCategoryId(i % 2 == 0 ? 1L : 2L);
+            product.setBrand(i % 4 == 0 ? "品牌A" : "品牌B");
+            product.setIsActive(i % 5 != 0);
+            productRepository.save(product);
+        }
+    }
+
+    @Test
+    @DisplayName("測試按ID升序走完所有產品")
+    void testScrollById() {
+        assertScrollMatchesFullQuery(new ProductFilter(), ProductCursor.first(ProductCursor.SortKey.ID, Sort.Direction.ASC), 7);
+    }
+
+    @Test
+    @DisplayName("測試按價格降序走完所有產品")
+    void testScrollByPriceDescending() {
+        assertScrollMatchesFullQuery(new ProductFilter(), ProductCursor.first(ProductCursor.SortKey.PRICE, Sort.Direction.DESC), 4);
+    }
+
+    @Test
+    @DisplayName("測試按名稱升序並帶過濾條件走完產品")
+    void testScrollByNameWithFilter() {
+        ProductFilter filter = new ProductFilter(null, 1L, null, null, null, true);
+        assertScrollMatchesFullQuery(filter, ProductCursor.first(ProductCursor.SortKey.NAME, Sort.Direction.ASC), 3);
+    }
+
+    @Test
+    @DisplayName("測試游標編碼與解碼")
+    void testCursorRoundTrip() {
+        Product product = productRepository.findAll().get(0);
+        ProductCursor cursor = ProductCursor.first(ProductCursor.SortKey.PRICE, Sort.Direction.DESC).after(product);
+
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        assertEquals(ProductCursor.SortKey.PRICE, decoded.getSortKey());
+        assertEquals(Sort.Direction.DESC, decoded.getDirection());
+        assertEquals(product.getId(), decoded.getLastId());
+        assertEquals(0, product.getPrice().compareTo(decoded.getLastPrice()));
+    }
+
+    @Test
+    @DisplayName("測試無效游標與不支援的排序欄位")
+    void testInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode("not-a-cursor"));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.resolve("", "stock", "asc"));
+    }
+
+    /**
+     * 逐頁翻到底，結果應與一次完整排序查詢的結果完全相同
+     */
+    private void assertScrollMatchesFullQuery(ProductFilter filter, ProductCursor first, int pageSize) {
+        Specification<Product> matches = ProductSpecifications.matches(filter);
+        List<Long> expected = productRepository.findAll(matches, first.toSort()).stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+
+        List<Long> scrolled = new ArrayList<>();
+        ProductCursor cursor = first;
+        int pages = 0;
+        while (true) {
+            ProductCursor position = cursor;
+            List<Product> page = productRepository.findBy(matches.and(ProductSpecifications.after(position)),
+                    query -> query.sortBy(position.toSort()).limit(pageSize).all());
+            page.forEach(product -> scrolled.add(product.getId()));
+            pages++;
+            if (page.size() < pageSize) {
+                break;
+            }
+            // 經過編碼與解碼，模擬客戶端帶回不透明游標
+            cursor = ProductCursor.decode(cursor.after(page.get(page.size() - 1)).encode());
+        }
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, scrolled);
+        assertEquals(expected.size() / pageSize + 1, pages);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * 產品庫存批量更新測試
+ * 
+ * 在 H2 上驗證 JDBC 批次條件更新的各行結果與批量庫存查詢
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class ProductStockBatchTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstId;
+
+    private Long secondId;
+
+    @BeforeEach
+    void setUp() {
+        firstId = productRepository.save(createProduct("產品一", 10)).getId();
+        secondId = productRepository.save(createProduct("產品二", 5)).getId();
+    }
+
+    @Test
+    @DisplayName("測試批量調整庫存")
+    void testAdjustStocks() {
+        TreeMap<Long, Integer> adjustments = new TreeMap<>();
+        adjustments.put(secondId, 3);
+        adjustments.put(firstId, -10);
+
+        int[] counts = productRepository.adjustStocks(adjustments);
+
+        assertArrayEquals(new int[] {1, 1}, counts);
+        assertEquals(Map.of(firstId, 0, secondId, 8), productRepository.findStocksByIds(List.of(firstId, secondId)));
+    }
+
+    @Test
+    @DisplayName("測試庫存不足或產品不存在的行不更新")
+    void testAdjustStocks_FailedLines() {
+        TreeMap<Long, Integer> adjustments = new TreeMap<>();
+        adjustments.put(firstId, -1);
+        adjustments.put(secondId, -6);
+        adjustments.put(secondId + 1, 1);
+
+        int[] counts = productRepository.adjustStocks(adjustments);
+
+        assertArrayEquals(new int[] {1, 0, 0}, counts);
+        assertEquals(Map.of(firstId, 9, secondId, 5), productRepository.findStocksByIds(adjustments.keySet()));
+    }
+
+    @Test
+    @DisplayName("測試驅動程式不返回各行更新行數時仍返回各行實際的結果")
+    void testAdjustStocks_SuccessNoInfo() {
+        // 模擬合併批次的驅動程式，所有行都返回 SUCCESS_NO_INFO
+        doAnswer(invocation -> {
+            int[] counts = (int[]) invocation.callRealMethod();
+            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            return counts;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        TreeMap<Long, Integer> adjustments = new TreeMap<>();
+        adjustments.put(firstId, -1);
+        adjustments.put(secondId, -6);
+        adjustments.put(secondId + 1, 1);
+
+        int[] counts = productRepository.adjustStocks(adjustments);
+
+        assertArrayEquals(new int[] {1, 0, 0}, counts);
+        assertEquals(Map.of(firstId, 9, secondId, 5), productRepository.findStocksByIds(adjustments.keySet()));
+    }
+
+    @Test
+    @DisplayName("測試批量查詢空集合")
+    void testFindStocksByIds_Empty() {
+        assertTrue(productRepository.findStocksByIds(List.of()).isEmpty());
+    }
+
+    private Product createProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(stock);
+        product.setCategoryId(1L);
+        product.setIsActive(true);
+        return product;
+    }
+}
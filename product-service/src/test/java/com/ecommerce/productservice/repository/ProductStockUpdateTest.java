@@ -0,0 +1,222 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.config.ProductLookupExecutor;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.outbox.ProductOutbox;
+import com.ecommerce.productservice.popularity.PopularityTracker;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
+import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.productservice.service.impl.ProductServiceImpl;
+import com.ecommerce.productservice.service.impl.ReservationServiceImpl;
+import com.ecommerce.productservice.stock.HotStockManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品庫存條件更新測試
+ * 
+ * 在 H2 上驗證條件更新的庫存檢查，以及大量併發扣減同一產品時不會遺失更新或超賣。
+ * 併發扣減分別直接呼叫條件更新，以及經過包含庫存保留帳本暫扣的 {@link ProductService#updateProductStock}。
+ * 服務層的扣減只在交易提交後計入熱門度。
+ * 併發測試需要每次更新各自提交，因此不使用測試預設的交易。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductServiceImpl.class, ReservationServiceImpl.class, HotStockManager.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductStockUpdateTest {
+
+    private static final int INITIAL_STOCK = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ProductDetailRepository productDetailRepository;
+
+    @MockBean
+    private ProductViewRepository productViewRepository;
+
+    @MockBean
+    private ProductMapper productMapper;
+
+    @MockBean
+    private CategoryIndexManager categoryIndexManager;
+
+    @MockBean
+    private ProductLookupExecutor productLookupExecutor;
+
+    @MockBean
+    private ProductSearchEngine productSearchEngine;
+
+    @MockBean
+    private ProductFacetEngine productFacetEngine;
+
+    @MockBean
+    private ProductOutbox productOutbox;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setName("限時搶購產品");
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(INITIAL_STOCK);
+        product.setCategoryId(1L);
+        product.setIsActive(true);
+        productId = productRepository.save(product).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("測試增加與減少庫存")
+    void testAdjustStock() {
+        assertEquals(1, productRepository.adjustStock(productId, 50));
+        assertEquals(1, productRepository.adjustStock(productId, -1050));
+
+        assertEquals(0, productRepository.findStockById(productId).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("測試庫存不足時不修改庫存")
+    void testAdjustStock_InsufficientStock() {
+        assertEquals(0, productRepository.adjustStock(productId, -(INITIAL_STOCK + 1)));
+
+        assertEquals(INITIAL_STOCK, productRepository.findStockById(productId).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("測試產品不存在時不更新任何行")
+    void testAdjustStock_ProductNotFound() {
+        assertEquals(0, productRepository.adjustStock(productId + 1, 1));
+        assertTrue(productRepository.findStockById(productId + 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試併發扣減同一產品不會超賣")
+    void testConcurrentDecrements_NoOversell() throws Exception {
+        assertNoOversell(() -> productRepository.adjustStock(productId, -1) == 1);
+    }
+
+    @Test
+    @DisplayName("測試經過服務層併發扣減同一產品不會超賣")
+    void testConcurrentStockUpdates_NoOversell() throws Exception {
+        assertNoOversell(() -> {
+            try {
+                productService.updateProductStock(productId, -1);
+                return true;
+            } catch (InsufficientStockException e) {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("測試回滾的扣減不計入熱門度")
+    void testRolledBackDecrement_NotCountedAsSale() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // 執行測試，外層交易回滾
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.updateProductStock(productId, -5);
+            status.setRollbackOnly();
+        });
+
+        // 驗證結果，追蹤器在測試之間共用，只檢查本次建立的產品
+        assertEquals(INITIAL_STOCK, productRepository.findStockById(productId).orElseThrow());
+        assertFalse(popularityTracker.topProductIds(10).contains(productId));
+
+        // 執行測試，外層交易提交
+        transactionTemplate.executeWithoutResult(status -> productService.updateProductStock(productId, -5));
+
+        // 驗證結果
+        assertEquals(INITIAL_STOCK - 5, productRepository.findStockById(productId).orElseThrow());
+        assertTrue(popularityTracker.topProductIds(10).contains(productId));
+    }
+
+    /**
+     * 以 32 個執行緒同時扣減初始庫存四倍的次數，驗證恰好售出初始庫存的數量
+     *
+     * @param decrement 扣減一件庫存，成功時返回 true，庫存不足時返回 false
+     */
+    private void assertNoOversell(Callable<Boolean> decrement) throws Exception {
+        int threads = 32;
+        int attempts = 4 * INITIAL_STOCK;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (decrement.call()) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 恰好售出初始庫存的數量，其餘請求全部被拒絕，庫存不會變為負數
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertEquals(attempts - INITIAL_STOCK, rejected.get());
+        assertEquals(0, productRepository.findStockById(productId).orElseThrow());
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品摘要投影查詢測試
+ * 
+ * 在 H2 上驗證摘要查詢的動態過濾條件、排序與分頁計數
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class ProductSummaryQueryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product();
+            product.setName("產品 " + i);
+            product.setPrice(new BigDecimal(10 * (i + 1)));
+            product.setStock(i);
+            product.setCategoryId(i % 2 == 0 ? 1L : 2L);
+            product.setBrand(i < 5 ? "品牌A" : "品牌B");
+            product.setIsActive(i != 0);
+            productRepository.save(product);
+        }
+    }
+
+    @Test
+    @DisplayName("測試無條件查詢包含已下架產品並按價格降序排列")
+    void testFindAllSummariesSortedByPrice() {
+        Page<ProductSummaryView> page = productRepository.findSummaries(
+                new ProductFilter(), PageRequest.of(0, 3, Sort.Direction.DESC, "price"));
+
+        assertEquals(10, page.getTotalElements());
+        assertEquals(3, page.getContent().size());
+        ProductSummaryView first = page.getContent().get(0);
+        assertEquals("產品 9", first.getName());
+        assertEquals(0, new BigDecimal("100").compareTo(first.getPrice()));
+        assertEquals(9, first.getStock());
+        assertEquals("品牌B", first.getBrand());
+        assertEquals(2L, first.getCategoryId());
+    }
+
+    @Test
+    @DisplayName("測試多條件查詢只返回上架產品")
+    void testFindSummariesByFilters() {
+        Page<ProductSummaryView> page = productRepository.findSummaries(
+                new ProductFilter("產品", 1L, null, new BigDecimal("50"), "品牌A", true), PageRequest.of(0, 10));
+
+        // 符合條件的為產品 0、2、4，產品 0 已下架
+        assertEquals(2, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(summary -> summary.getCategoryId() == 1L));
+    }
+
+    @Test
+    @DisplayName("測試未滿一頁時由內容推算總數，之後的頁執行計數查詢")
+    void testFindSummariesPaging() {
+        ProductFilter filter = new ProductFilter();
+        filter.setBrand("品牌B");
+
+        Page<ProductSummaryView> first = productRepository.findSummaries(filter, PageRequest.of(0, 10, Sort.by("id")));
+        Page<ProductSummaryView> second = productRepository.findSummaries(filter, PageRequest.of(1, 3, Sort.by("id")));
+
+        assertEquals(5, first.getTotalElements());
+        assertEquals(5, second.getTotalElements());
+        assertEquals(2, second.getContent().size());
+        assertEquals("產品 8", second.getContent().get(0).getName());
+    }
+}
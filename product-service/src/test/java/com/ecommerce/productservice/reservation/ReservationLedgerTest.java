@@ -0,0 +1,370 @@
+package com.ecommerce.productservice.reservation;
+
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.reservation.ReservationLedger.PendingWrite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 庫存保留帳本單元測試
+ *
+ * 測試保留、確認、釋放與到期對可售數量的影響、寫回流程，以及併發保留時不會超賣
+ */
+public class ReservationLedgerTest {
+
+    private static final long NOW = 1_000_000L;
+
+    // 模擬資料庫中的庫存
+    private Map<Long, Integer> stocks;
+
+    private AtomicInteger loads;
+
+    // 模擬確認紀錄的自增ID
+    private final AtomicLong confirmations = new AtomicLong();
+
+    private ReservationLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        stocks = new HashMap<>(Map.of(1L, 10, 2L, 5));
+        loads = new AtomicInteger();
+        ledger = new ReservationLedger(16, new ExpiryWheel(64, 100, NOW), productId -> {
+            loads.incrementAndGet();
+            return stocks.get(productId);
+        });
+    }
+
+    @Test
+    @DisplayName("測試保留後可售數量減少，查詢不再讀取資料庫")
+    void testReserve() {
+        ledger.reserve(1L, 3, NOW + 1000);
+        ledger.reserve(1L, 2, NOW + 1000);
+
+        ReservationLedger.Availability availability = ledger.availability(1L);
+        assertEquals(10, availability.stock());
+        assertEquals(5, availability.reserved());
+        assertEquals(5, availability.available());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("測試可售數量不足或產品不存在時拒絕保留")
+    void testReserve_Rejected() {
+        ledger.reserve(2L, 4, NOW + 1000);
+
+        assertThrows(InsufficientStockException.class, () -> ledger.reserve(2L, 2, NOW + 1000));
+        assertThrows(ResourceNotFoundException.class, () -> ledger.reserve(99L, 1, NOW + 1000));
+        assertEquals(1, ledger.availability(2L).available());
+    }
+
+    @Test
+    @DisplayName("測試釋放保留後恢復可售數量，重複釋放視為不存在")
+    void testRelease() {
+        Reservation reservation = ledger.reserve(1L, 4, NOW + 1000);
+
+        ledger.release(reservation.id());
+
+        assertEquals(10, ledger.availability(1L).available());
+        assertThrows(ResourceNotFoundException.class, () -> ledger.release(reservation.id()));
+        assertThrows(ResourceNotFoundException.class, () -> ledger.claim(reservation.id()));
+    }
+
+    @Test
+    @DisplayName("測試到期的保留自動釋放，已確認的保留不受影響")
+    void testExpire() {
+        Reservation expiring = ledger.reserve(1L, 3, NOW + 500);
+        Reservation confirmed = ledger.reserve(1L, 2, NOW + 500);
+        ledger.reserve(1L, 1, NOW + 5000);
+        confirm(confirmed.id());
+
+        assertEquals(0, ledger.expire(NOW + 400));
+        assertEquals(1, ledger.expire(NOW + 600));
+
+        ReservationLedger.Availability availability = ledger.availability(1L);
+        assertEquals(8, availability.stock());
+        assertEquals(1, availability.reserved());
+        assertEquals(7, availability.available());
+        assertThrows(ResourceNotFoundException.class, () -> ledger.claim(expiring.id()));
+    }
+
+    @Test
+    @DisplayName("測試確認的扣減在寫回完成前仍從可售數量中扣除")
+    void testConfirmAndWriteBack() {
+        confirm(ledger.reserve(1L, 3, NOW + 1000).id());
+        confirm(ledger.reserve(1L, 2, NOW + 1000).id());
+
+        List<PendingWrite> writes = ledger.drainPending();
+        assertEquals(1, writes.size());
+        assertEquals(5, writes.get(0).quantity());
+        assertEquals(List.of(1L, 2L), writes.get(0).confirmationIds());
+        assertEquals(5, ledger.availability(1L).available());
+        assertTrue(ledger.drainPending().isEmpty());
+
+        // 模擬寫回資料庫，保留中的產品不被移除，帳本直接扣除寫回的數量
+        ledger.reserve(1L, 1, NOW + 1000);
+        stocks.put(1L, 5);
+        ledger.completeWrite(writes.get(0));
+
+        assertEquals(4, ledger.availability(1L).available());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("測試寫回失敗時保留扣減並在下次寫回時重試")
+    void testWriteBackRetry() {
+        confirm(ledger.reserve(1L, 3, NOW + 1000).id());
+        PendingWrite write = ledger.drainPending().get(0);
+
+        ledger.failWrite(write, false);
+
+        assertEquals(7, ledger.availability(1L).available());
+        PendingWrite retry = ledger.drainPending().get(0);
+        assertEquals(3, retry.quantity());
+        assertEquals(write.confirmationIds(), retry.confirmationIds());
+    }
+
+    @Test
+    @DisplayName("測試資料庫庫存低於已確認數量時不捨棄扣減，重新載入庫存後繼續重試")
+    void testWriteBackRetry_StaleStock() {
+        confirm(ledger.reserve(1L, 3, NOW + 1000).id());
+        PendingWrite write = ledger.drainPending().get(0);
+
+        // 庫存在帳本之外被減少到低於已確認的數量
+        stocks.put(1L, 2);
+        ledger.failWrite(write, true);
+
+        assertEquals(-1, ledger.availability(1L).available());
+        assertThrows(InsufficientStockException.class, () -> ledger.reserve(1L, 1, NOW + 1000));
+        assertEquals(List.of(3L), ledger.drainPending().stream().map(PendingWrite::quantity).toList());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("測試沒有保留與未寫回數量的產品從記憶體中移除，下次使用時重新載入")
+    void testEvictIdle() {
+        Reservation reservation = ledger.reserve(1L, 3, NOW + 1000);
+        ledger.release(reservation.id());
+
+        stocks.put(1L, 20);
+        assertEquals(20, ledger.availability(1L).available());
+        stocks.put(1L, 15);
+        assertEquals(15, ledger.availability(1L).available());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("測試捨棄無法寫回的扣減，不再重試")
+    void testDiscardWrite() {
+        confirm(ledger.reserve(1L, 3, NOW + 1000).id());
+        PendingWrite write = ledger.drainPending().get(0);
+
+        // 產品在寫回前被刪除
+        stocks.remove(1L);
+        ledger.discardWrite(write);
+
+        assertTrue(ledger.drainPending().isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> ledger.availability(1L));
+    }
+
+    @Test
+    @DisplayName("測試未能確認的保留放回帳本後可再次確認，到期時仍會釋放")
+    void testUnclaim() {
+        Reservation reservation = ledger.reserve(1L, 4, NOW + 500);
+
+        // 取出期間到期項目已被時間輪取出，放回後重新排程
+        Reservation claimed = ledger.claim(reservation.id());
+        assertEquals(0, ledger.expire(NOW + 600));
+        ledger.unclaim(claimed);
+        assertEquals(6, ledger.availability(1L).available());
+        assertEquals(1, ledger.expire(NOW + 700));
+        assertEquals(10, ledger.availability(1L).available());
+        assertThrows(ResourceNotFoundException.class, () -> ledger.claim(reservation.id()));
+    }
+
+    @Test
+    @DisplayName("測試恢復重新啟動前已確認未寫回的數量")
+    void testRecover() {
+        ledger.recover(1L, 3, 7L);
+        ledger.recover(1L, 2, 8L);
+
+        assertEquals(5, ledger.availability(1L).available());
+        PendingWrite write = ledger.drainPending().get(0);
+        assertEquals(5, write.quantity());
+        assertEquals(List.of(7L, 8L), write.confirmationIds());
+    }
+
+    @Test
+    @DisplayName("測試庫存失效後重新載入，保留中的數量保持不變")
+    void testInvalidate() {
+        ledger.reserve(1L, 3, NOW + 1000);
+
+        stocks.put(1L, 20);
+        ledger.invalidate(1L);
+
+        assertEquals(17, ledger.availability(1L).available());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("測試寫回期間庫存被修改時，以重新載入的資料庫庫存為準")
+    void testInvalidateDuringWriteBack() {
+        confirm(ledger.reserve(1L, 3, NOW + 1000).id());
+        PendingWrite write = ledger.drainPending().get(0);
+
+        // 寫回期間庫存被直接增加
+        ledger.invalidate(1L);
+        stocks.put(1L, 17);
+        ledger.completeWrite(write);
+
+        assertEquals(17, ledger.availability(1L).available());
+    }
+
+    @Test
+    @DisplayName("測試直接扣減提交後從帳本庫存中扣除，不重新載入")
+    void testCommit() {
+        Reservation first = ledger.reserve(1L, 3, NOW + 1000);
+        Reservation second = ledger.reserve(1L, 2, NOW + 1000);
+        ledger.reserve(1L, 1, NOW + 1000);
+
+        // 模擬兩個直接扣減的交易依序提交
+        stocks.put(1L, 7);
+        ledger.commit(first.id());
+        stocks.put(1L, 5);
+        ledger.commit(second.id());
+
+        assertEquals(4, ledger.availability(1L).available());
+        assertEquals(1, ledger.availability(1L).reserved());
+        assertEquals(1, loads.get());
+        assertThrows(ResourceNotFoundException.class, () -> ledger.release(first.id()));
+    }
+
+    @Test
+    @DisplayName("測試保留後庫存被重新載入時，提交改為重新載入而不重複扣除")
+    void testCommit_Reloaded() {
+        Reservation hold = ledger.reserve(1L, 3, NOW + 1000);
+
+        // 保留期間庫存被增加並重新載入，載入的庫存已包含提交的扣減
+        ledger.invalidate(1L);
+        stocks.put(1L, 17);
+        assertEquals(14, ledger.availability(1L).available());
+        ledger.commit(hold.id());
+
+        assertEquals(17, ledger.availability(1L).available());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("測試載入庫存時不持有分段鎖，載入期間庫存失效時重新載入")
+    void testLoadOutsideStripe() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        stocks.put(3L, 10);
+        // 只有一個分段，所有產品共用同一個鎖
+        ReservationLedger single = new ReservationLedger(1, new ExpiryWheel(64, 100, NOW), productId -> {
+            if (productId == 1L && loading.getCount() > 0) {
+                loading.countDown();
+                try {
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return 10;
+            }
+            return stocks.get(productId);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Reservation> blocked = executor.submit(() -> single.reserve(1L, 4, NOW + 1000));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // 同一分段的其他產品不被載入阻塞
+            single.reserve(3L, 2, NOW + 1000);
+            assertEquals(8, single.availability(3L).available());
+
+            // 載入期間庫存失效，讀取到的庫存不寫入帳本
+            stocks.put(1L, 6);
+            single.invalidate(1L);
+            release.countDown();
+            blocked.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, single.availability(1L).available());
+    }
+
+    @Test
+    @DisplayName("測試時間輪取出到期項目，超過一圈的項目在下一圈取出")
+    void testExpiryWheel() {
+        ExpiryWheel wheel = new ExpiryWheel(4, 100, 0);
+        wheel.schedule("a", 150);
+        wheel.schedule("b", 250);
+        wheel.schedule("c", 650);
+
+        assertEquals(List.of(), wheel.advance(100));
+        assertEquals(List.of("a"), wheel.advance(200));
+        assertEquals(List.of("b"), wheel.advance(399));
+        assertEquals(List.of(), wheel.advance(600));
+        assertEquals(List.of("c"), wheel.advance(5000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("測試併發保留同一產品不會超賣")
+    void testConcurrentReserve_NoOversell() throws Exception {
+        stocks.put(3L, 1000);
+        int attempts = 4000;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        Reservation reservation = ledger.reserve(3L, 1, NOW + 1000);
+                        succeeded.incrementAndGet();
+                        confirm(reservation.id());
+                    } catch (InsufficientStockException e) {
+                        // 可售數量不足，預期中的拒絕
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, succeeded.get());
+        assertEquals(0, ledger.availability(3L).available());
+        assertEquals(1000, ledger.drainPending().get(0).quantity());
+    }
+
+    // 與 ReservationServiceImpl 相同：取出保留，保存確認紀錄後確認
+    private void confirm(String reservationId) {
+        ledger.confirm(ledger.claim(reservationId), confirmations.incrementAndGet());
+    }
+}
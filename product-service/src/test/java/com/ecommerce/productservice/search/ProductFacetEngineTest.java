@@ -0,0 +1,109 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品分面引擎單元測試
+ *
+ * 測試重建索引期間增量更新不被阻塞，且期間的變更在替換前套用到新索引上
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductFacetEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+
+    @InjectMocks
+    private ProductFacetEngine productFacetEngine;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productFacetEngine, "priceBounds",
+                new BigDecimal[] {new BigDecimal("100"), new BigDecimal("1000")});
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("測試重建期間的變更不被阻塞並套用到新索引")
+    void testChangeDuringRebuild() throws Exception {
+        // 設置模擬行為，重建在載入產品時等待
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new PageImpl<>(List.of(product(1L, "Apple"), product(2L, "Apple")), PageRequest.of(0, 1000), 2);
+        });
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product(2L, "Sony")));
+
+        // 執行測試
+        Future<?> rebuild = executor.submit(() -> productFacetEngine.rebuild());
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        productFacetEngine.onProductChanged(new ProductChangedEvent(2L));
+        assertFalse(productFacetEngine.isReady());
+
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        // 驗證結果，新索引包含重建期間的變更
+        ProductFilter filter = new ProductFilter();
+        filter.setBrand("Sony");
+        ProductFacetEngine.Result result = productFacetEngine.search(filter, PageRequest.of(0, 10), false);
+        assertEquals(List.of(2L), result.productIds().getContent());
+        filter.setBrand("Apple");
+        assertEquals(List.of(1L), productFacetEngine.search(filter, PageRequest.of(0, 10), false)
+                .productIds().getContent());
+    }
+
+    private static Product product(Long id, String brand) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("產品" + id);
+        product.setBrand(brand);
+        product.setCategoryId(1L);
+        product.setPrice(new BigDecimal("199.00"));
+        product.setIsActive(true);
+        return product;
+    }
+}
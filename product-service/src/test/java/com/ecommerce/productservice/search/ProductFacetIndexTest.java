@@ -0,0 +1,163 @@
+package com.ecommerce.productservice.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品分面索引單元測試
+ *
+ * 測試點陣圖交集的篩選結果、細分價格區間的範圍篩選、排除自身條件的分面計數、分頁以及增量更新
+ */
+public class ProductFacetIndexTest {
+
+    private static final BigDecimal[] PRICE_BOUNDS = {new BigDecimal("100"), new BigDecimal("1000")};
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex(PRICE_BOUNDS);
+        index.put(1L, entry("Apple", 1L, "999.00", true));
+        index.put(2L, entry("Apple", 1L, "1999.00", true));
+        index.put(3L, entry("Samsung", 1L, "899.00", true));
+        index.put(4L, entry("Samsung", 2L, "59.00", true));
+        index.put(5L, entry("Sony", 2L, "1000", false));
+        index.put(6L, entry("Apple", 2L, "99.99", true));
+    }
+
+    @Test
+    @DisplayName("測試多個條件求交集")
+    void testSearchIntersectsFilters() {
+        ProductFacetIndex.Result result = index.search(query(null, "Apple", 1L, null, null, true), 0, 10, false);
+
+        assertEquals(List.of(1L, 2L), result.productIds());
+        assertEquals(2, result.total());
+        assertNull(result.brandCounts());
+    }
+
+    @Test
+    @DisplayName("測試價格範圍包含上下限")
+    void testSearchPriceRangeInclusive() {
+        ProductFacetIndex.Result result = index.search(
+                query(null, null, null, new BigDecimal("99.99"), new BigDecimal("1000.00"), false), 0, 10, false);
+
+        assertEquals(List.of(1L, 3L, 5L, 6L), result.productIds());
+    }
+
+    @Test
+    @DisplayName("測試限定產品ID並只包含上架產品")
+    void testSearchWithProductIds() {
+        RoaringBitmap productIds = RoaringBitmap.bitmapOf(2, 5, 42);
+
+        ProductFacetIndex.Result result = index.search(query(productIds, null, null, null, null, true), 0, 10, false);
+
+        assertEquals(List.of(2L), result.productIds());
+    }
+
+    @Test
+    @DisplayName("測試分面計數排除自身條件")
+    void testFacetCounts() {
+        ProductFacetIndex.Result result = index.search(query(null, "Apple", 1L, null, null, true), 0, 10, true);
+
+        // 品牌計數只套用類別與上架條件
+        assertEquals(Map.of("Apple", 2L, "Samsung", 1L), result.brandCounts());
+        // 類別計數只套用品牌與上架條件
+        assertEquals(Map.of(1L, 2L, 2L, 1L), result.categoryCounts());
+        // 價格區間 [0,100)、[100,1000)、[1000,)
+        assertArrayEquals(new long[] {0, 1, 1}, result.priceBucketCounts());
+    }
+
+    @Test
+    @DisplayName("測試分頁")
+    void testSearchPaging() {
+        ProductFacetIndex.Result result = index.search(query(null, null, null, null, null, false), 2, 3, false);
+
+        assertEquals(List.of(3L, 4L, 5L), result.productIds());
+        assertEquals(6, result.total());
+        assertTrue(index.search(query(null, null, null, null, null, false), 6, 3, false).productIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試更新與刪除產品")
+    void testUpdateAndRemove() {
+        index.put(3L, entry("Apple", 2L, "50", true));
+        index.remove(1L);
+
+        ProductFacetIndex.Result result = index.search(query(null, "Apple", null, null, null, true), 0, 10, true);
+
+        assertEquals(List.of(2L, 3L, 6L), result.productIds());
+        assertEquals(Map.of("Apple", 3L, "Samsung", 1L), result.brandCounts());
+        assertEquals(5, index.size());
+        assertEquals(0, index.search(query(null, null, 1L, null, new BigDecimal("1000"), false), 0, 10, false).total());
+    }
+
+    @Test
+    @DisplayName("測試產品ID超出範圍")
+    void testProductIdOutOfRange() {
+        assertThrows(ArithmeticException.class,
+                () -> index.put((long) Integer.MAX_VALUE + 1, entry("Apple", 1L, "1", true)));
+        assertThrows(ArithmeticException.class, () -> index.put(-1L, entry("Apple", 1L, "1", true)));
+        // 超出範圍的ID不會截斷後刪除其他產品
+        index.remove((long) Integer.MAX_VALUE + 2);
+        index.remove(1L << 32 | 1);
+        assertEquals(6, index.size());
+        assertTrue(ProductFacetIndex.isIndexable((long) Integer.MAX_VALUE));
+        assertFalse(ProductFacetIndex.isIndexable(-1L));
+    }
+
+    @Test
+    @DisplayName("測試大量不同價格時價格範圍與逐筆比對的結果一致")
+    void testSearchPriceRangeManyPrices() {
+        // 準備測試數據，價格分布在多個數量級
+        index = new ProductFacetIndex(PRICE_BOUNDS);
+        Random random = new Random(42);
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (long id = 1; id <= 2000; id++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            prices.put(id, price);
+            index.put(id, new ProductFacetIndex.Entry("Brand", 1L, price, true));
+        }
+        index.put(2001L, new ProductFacetIndex.Entry("Brand", 1L, null, true));
+
+        BigDecimal[][] ranges = {
+                {new BigDecimal("99.99"), new BigDecimal("100.00")},
+                {new BigDecimal("0.5"), new BigDecimal("1234.56")},
+                {new BigDecimal("1201"), new BigDecimal("1299")},
+                {null, new BigDecimal("12.3")},
+                {new BigDecimal("98765.4"), null},
+                {new BigDecimal("500"), new BigDecimal("499")},
+        };
+        for (BigDecimal[] range : ranges) {
+            List<Long> expected = prices.entrySet().stream()
+                    .filter(e -> range[0] == null || e.getValue().compareTo(range[0]) >= 0)
+                    .filter(e -> range[1] == null || e.getValue().compareTo(range[1]) <= 0)
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList();
+
+            ProductFacetIndex.Result result = index.search(
+                    query(null, null, null, range[0], range[1], false), 0, Integer.MAX_VALUE, false);
+
+            assertEquals(expected, result.productIds());
+        }
+    }
+
+    private static ProductFacetIndex.Entry entry(String brand, Long categoryId, String price, boolean active) {
+        return new ProductFacetIndex.Entry(brand, categoryId, new BigDecimal(price), active);
+    }
+
+    private static ProductFacetIndex.Query query(RoaringBitmap productIds, String brand, Long categoryId,
+                                                 BigDecimal minPrice, BigDecimal maxPrice, boolean activeOnly) {
+        return new ProductFacetIndex.Query(productIds, brand, categoryId, minPrice, maxPrice, activeOnly);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.productservice.search;
+
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品搜尋引擎單元測試
+ *
+ * 測試重建索引期間增量更新不被阻塞，且期間的變更在替換前套用到新索引上
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchEngine productSearchEngine;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() {
+        // 準備測試數據，建立初始索引
+        when(productRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(product(1L, "智能手機"), product(2L, "筆記型電腦"))));
+        productSearchEngine.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("測試重建期間的變更不被阻塞並套用到新索引")
+    void testChangeDuringRebuild() throws Exception {
+        // 設置模擬行為，重建在載入產品時等待
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new PageImpl<>(List.of(product(1L, "智能手機"), product(2L, "筆記型電腦")),
+                    PageRequest.of(0, 1000), 2);
+        });
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product(2L, "平板電腦")));
+        when(productRepository.findById(3L)).thenReturn(Optional.of(product(3L, "手機殼")));
+
+        // 執行測試
+        Future<?> rebuild = executor.submit(() -> productSearchEngine.rebuild());
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        productSearchEngine.onProductChanged(new ProductChangedEvent(2L));
+        productSearchEngine.onProductChanged(new ProductChangedEvent(3L));
+
+        // 驗證結果，重建期間舊索引已更新
+        assertEquals(List.of(2L), productSearchEngine.matching("平板"));
+
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        // 驗證結果，新索引包含重建期間的變更
+        assertEquals(List.of(2L), productSearchEngine.matching("平板"));
+        assertTrue(productSearchEngine.matching("筆記").isEmpty());
+        assertEquals(List.of(1L, 3L), productSearchEngine.matching("手機").stream().sorted().toList());
+        verify(productRepository, times(2)).findById(2L);
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
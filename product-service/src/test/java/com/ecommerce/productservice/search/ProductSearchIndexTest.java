@@ -0,0 +1,141 @@
+package com.ecommerce.productservice.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 產品倒排索引單元測試
+ *
+ * 測試中文雙字詞與拉丁詞的分詞、拉丁詞的子字串匹配、AND 語義的查詢、BM25 排序以及增量更新
+ */
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.put(1L, "智能手機 X1");
+        index.put(2L, "筆記型電腦 Pro");
+        index.put(3L, "手機殼");
+        index.put(4L, "iPhone 15 Pro 手機");
+        index.put(5L, "手提包");
+    }
+
+    @Test
+    @DisplayName("測試中文以雙字詞分詞")
+    void testTokenizeCjk() {
+        assertEquals(List.of("手", "機", "殼", "手機", "機殼"), ProductTokenizer.tokenize("手機殼"));
+        assertEquals(List.of("手機", "機殼"), ProductTokenizer.queryTerms("手機殼"));
+        assertEquals(List.of("手"), ProductTokenizer.queryTerms("手"));
+    }
+
+    @Test
+    @DisplayName("測試拉丁字母轉小寫並正規化全形字元")
+    void testTokenizeLatin() {
+        assertEquals(List.of("iphone", "15", "pro"), ProductTokenizer.queryTerms("ｉＰｈｏｎｅ 15-Pro"));
+        assertEquals(List.of("x1", "智能"), ProductTokenizer.queryTerms("X1 智能"));
+    }
+
+    @Test
+    @DisplayName("測試拉丁詞以子字串匹配")
+    void testSearchLatinSubstring() {
+        index.put(6L, "MacBook Air 筆記型電腦");
+        index.put(7L, "Book 書架");
+
+        assertEquals(List.of(4L), index.search("phone", 0, 10).productIds());
+        assertEquals(List.of(4L), index.search("PHON", 0, 10).productIds());
+        assertEquals(2, index.search("book", 0, 10).total());
+        assertTrue(index.search("book", 0, 10).productIds().containsAll(List.of(6L, 7L)));
+        assertEquals(List.of(6L), index.search("acbo", 0, 10).productIds());
+        assertEquals(List.of(2L, 4L), index.search("ro", 0, 10).productIds().stream().sorted().toList());
+        assertEquals(List.of(1L), index.search("x", 0, 10).productIds());
+        assertEquals(0, index.search("books", 0, 10).total());
+    }
+
+    @Test
+    @DisplayName("測試拉丁子字串與中文詞同時匹配")
+    void testSearchLatinSubstringWithCjk() {
+        index.put(6L, "MacBook Air 筆記型電腦");
+
+        assertEquals(List.of(6L), index.search("book 電腦", 0, 10).productIds());
+        assertEquals(List.of(4L), index.search("phone 手機", 0, 10).productIds());
+        assertEquals(List.of(4L), index.matching("hone 15"));
+    }
+
+    @Test
+    @DisplayName("測試移除產品後不再以子字串匹配其拉丁詞")
+    void testRemoveLatinWord() {
+        index.put(6L, "MacBook Air");
+        index.put(6L, "Chromebook");
+
+        assertEquals(List.of(6L), index.search("chrome", 0, 10).productIds());
+        assertEquals(0, index.search("mac", 0, 10).total());
+        assertEquals(0, index.search("air", 0, 10).total());
+
+        index.remove(6L);
+        assertEquals(0, index.search("chrome", 0, 10).total());
+        assertEquals(0, index.search("book", 0, 10).total());
+    }
+
+    @Test
+    @DisplayName("測試中文查詢只匹配相鄰的字")
+    void testSearchCjkBigram() {
+        ProductSearchIndex.Hits hits = index.search("手機", 0, 10);
+
+        assertEquals(3, hits.total());
+        assertTrue(hits.productIds().containsAll(List.of(1L, 3L, 4L)));
+        assertFalse(hits.productIds().contains(5L));
+    }
+
+    @Test
+    @DisplayName("測試單字查詢")
+    void testSearchSingleCharacter() {
+        assertEquals(4, index.search("手", 0, 10).total());
+    }
+
+    @Test
+    @DisplayName("測試多個詞必須全部匹配")
+    void testSearchRequiresAllTerms() {
+        assertEquals(List.of(4L), index.search("pro 手機", 0, 10).productIds());
+        assertEquals(0, index.search("手機 電腦", 0, 10).total());
+        assertEquals(0, index.search("平板", 0, 10).total());
+        assertEquals(0, index.search("  ", 0, 10).total());
+    }
+
+    @Test
+    @DisplayName("測試較短的名稱相關度較高")
+    void testSearchRanksShorterNamesFirst() {
+        // 「手機殼」比「iPhone 15 Pro 手機」短，在 BM25 的長度正規化下分數較高
+        List<Long> productIds = index.search("手機", 0, 10).productIds();
+
+        assertTrue(productIds.indexOf(3L) < productIds.indexOf(4L));
+    }
+
+    @Test
+    @DisplayName("測試分頁")
+    void testSearchPaging() {
+        List<Long> all = index.search("手", 0, 10).productIds();
+
+        ProductSearchIndex.Hits second = index.search("手", 2, 2);
+
+        assertEquals(4, second.total());
+        assertEquals(all.subList(2, 4), second.productIds());
+    }
+
+    @Test
+    @DisplayName("測試更新與刪除產品")
+    void testUpdateAndRemove() {
+        index.put(3L, "平板保護套");
+        index.remove(1L);
+
+        assertEquals(List.of(4L), index.search("手機", 0, 10).productIds());
+        assertEquals(List.of(3L), index.search("平板", 0, 10).productIds());
+        assertEquals(4, index.size());
+    }
+}
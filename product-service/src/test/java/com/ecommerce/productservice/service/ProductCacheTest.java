@@ -0,0 +1,186 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.cache.ProductCacheInvalidator;
+import com.ecommerce.productservice.config.CacheConfig;
+import com.ecommerce.productservice.config.ProductLookupExecutor;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.outbox.ProductOutbox;
+import com.ecommerce.productservice.popularity.PopularityTracker;
+import com.ecommerce.productservice.repository.CategoryRepository;
+import com.ecommerce.productservice.repository.ProductDetailRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductViewRepository;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
+import com.ecommerce.productservice.service.impl.ProductServiceImpl;
+import com.ecommerce.productservice.stock.HotStockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品快取測試
+ * 
+ * 驗證 getProductById 的讀取快取，以及寫入操作與類別變更對快取的清除
+ */
+@SpringJUnitConfig
+public class ProductCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, ProductServiceImpl.class, ProductMapper.class, ProductCacheInvalidator.class,
+            ProductLookupExecutor.class})
+    static class TestConfig {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.PRODUCT_CACHE);
+        }
+    }
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @MockBean
+    private ProductDetailRepository productDetailRepository;
+
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    @MockBean
+    private CategoryIndexManager categoryIndexManager;
+
+    @MockBean
+    private ProductSearchEngine productSearchEngine;
+
+    @MockBean
+    private ProductFacetEngine productFacetEngine;
+
+    @MockBean
+    private PopularityTracker popularityTracker;
+
+    @MockBean
+    private HotStockManager hotStockManager;
+
+    @MockBean
+    private ProductOutbox productOutbox;
+
+    @MockBean
+    private ProductViewRepository productViewRepository;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PRODUCT_CACHE).clear();
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("測試產品");
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(100);
+        product.setCategoryId(1L);
+        product.setIsActive(true);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productDetailRepository.findByProductId(anyLong())).thenReturn(Optional.empty());
+        when(categoryIndexManager.current()).thenReturn(CategoryIndex.empty());
+    }
+
+    @Test
+    @DisplayName("測試重複讀取命中快取")
+    void testGetProductById_CachesResult() {
+        Optional<ProductDTO> first = productService.getProductById(1L);
+        Optional<ProductDTO> second = productService.getProductById(1L);
+
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        verify(productRepository, times(1)).findById(1L);
+        verify(productDetailRepository, times(1)).findByProductId(1L);
+    }
+
+    @Test
+    @DisplayName("測試快取中的產品直接計算 ETag")
+    void testGetProductETag_UsesCachedProduct() {
+        Optional<ProductDTO> product = productService.getProductById(1L);
+        Optional<String> eTag = productService.getProductETag(1L);
+
+        assertEquals(productService.getProductETag(product.get()), eTag.get());
+        verify(productRepository, never()).findVersionById(anyLong());
+    }
+
+    @Test
+    @DisplayName("測試不存在的產品不會被快取")
+    void testGetProductById_DoesNotCacheMissingProduct() {
+        assertFalse(productService.getProductById(99L).isPresent());
+        assertFalse(productService.getProductById(99L).isPresent());
+
+        verify(productRepository, times(2)).findById(99L);
+    }
+
+    @Test
+    @DisplayName("測試更新庫存後清除快取")
+    void testUpdateProductStock_EvictsCache() {
+        when(productRepository.adjustStock(1L, 5)).thenReturn(1);
+        when(productRepository.findStockById(1L)).thenReturn(Optional.of(105));
+
+        productService.getProductById(1L);
+        productService.updateProductStock(1L, 5);
+        productService.getProductById(1L);
+
+        // 首次讀取、清除後重新讀取
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("測試刪除產品後清除快取")
+    void testDeleteProduct_EvictsCache() {
+        productService.getProductById(1L);
+        productService.deleteProduct(1L);
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(1L));
+    }
+
+    @Test
+    @DisplayName("測試類別變更後清空快取")
+    void testCategoryChanged_ClearsCache() {
+        productService.getProductById(1L);
+        eventPublisher.publishEvent(new CategoryChangedEvent(1L));
+        productService.getProductById(1L);
+
+        verify(productRepository, times(2)).findById(1L);
+    }
+}
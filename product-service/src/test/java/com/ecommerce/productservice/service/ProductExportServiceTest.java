@@ -0,0 +1,141 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Category;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.impl.ProductExportServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品目錄匯出服務測試
+ * 
+ * 驗證產品與詳情的合併連接、NDJSON 輸出，以及串流在匯出後關閉
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductExportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ProductExportServiceImpl productExportService;
+
+    /**
+     * 測試匯出產品 - 合併產品與詳情
+     */
+    @Test
+    @DisplayName("測試匯出產品 - 合併產品與詳情")
+    void testExportProducts() throws IOException {
+        // 設置模擬行為，產品2沒有詳情，產品0的詳情為已刪除產品遺留
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("電子產品");
+        when(categoryIndexManager.current()).thenReturn(CategoryIndex.of(List.of(category), 1L));
+        AtomicBoolean productsClosed = new AtomicBoolean();
+        AtomicBoolean detailsClosed = new AtomicBoolean();
+        when(productRepository.streamAllOrderById()).thenReturn(
+                Stream.of(createProduct(1L), createProduct(2L), createProduct(3L)).onClose(() -> productsClosed.set(true)));
+        when(mongoTemplate.stream(any(Query.class), eq(ProductDetail.class))).thenReturn(
+                Stream.of(createDetail(0L), createDetail(1L), createDetail(3L)).onClose(() -> detailsClosed.set(true)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // 執行測試
+        long count = productExportService.exportProducts(output);
+
+        // 驗證結果
+        assertEquals(3, count);
+        String content = output.toString(StandardCharsets.UTF_8);
+        assertTrue(content.endsWith("\n"));
+        List<String> lines = content.lines().toList();
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1, first.get("id").asInt());
+        assertEquals("產品 1 詳細描述", first.get("fullDescription").asText());
+        assertEquals("電子產品", first.get("categoryName").asText());
+        assertTrue(objectMapper.readTree(lines.get(1)).get("fullDescription").isNull());
+        assertEquals("產品 3 詳細描述", objectMapper.readTree(lines.get(2)).get("fullDescription").asText());
+
+        // 驗證方法調用
+        assertTrue(productsClosed.get());
+        assertTrue(detailsClosed.get());
+        verify(entityManager, times(3)).detach(any(Product.class));
+    }
+
+    /**
+     * 測試匯出產品 - 沒有產品
+     */
+    @Test
+    @DisplayName("測試匯出產品 - 沒有產品")
+    void testExportProducts_Empty() throws IOException {
+        // 設置模擬行為
+        when(categoryIndexManager.current()).thenReturn(CategoryIndex.empty());
+        when(productRepository.streamAllOrderById()).thenReturn(Stream.empty());
+        when(mongoTemplate.stream(any(Query.class), eq(ProductDetail.class))).thenReturn(Stream.empty());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // 執行測試
+        assertEquals(0, productExportService.exportProducts(output));
+
+        // 驗證結果
+        assertEquals(0, output.size());
+    }
+
+    private Product createProduct(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("產品 " + id);
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(10);
+        product.setCategoryId(1L);
+        return product;
+    }
+
+    private ProductDetail createDetail(Long productId) {
+        ProductDetail detail = new ProductDetail();
+        detail.setProductId(productId);
+        detail.setFullDescription("產品 " + productId + " 詳細描述");
+        return detail;
+    }
+}
@@ -0,0 +1,205 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductImportReport;
+import com.ecommerce.productservice.importer.ImportFormat;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Category;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.outbox.ProductOutbox;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
+import com.ecommerce.productservice.service.impl.ProductImportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品批量匯入服務測試
+ * 
+ * 驗證逐列驗證、分批寫入 MySQL 與 MongoDB，以及被拒絕的列檔案
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private ProductFacetEngine productFacetEngine;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ProductImportServiceImpl productImportService;
+
+    @TempDir
+    private Path rejectDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productImportService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(productImportService, "rejectDir", rejectDir.toString());
+        productImportService.init();
+    }
+
+    /**
+     * 測試匯入產品 - 分批寫入並拒絕無效的列
+     */
+    @Test
+    @DisplayName("測試匯入產品 - 分批寫入並拒絕無效的列")
+    void testImportProducts() throws IOException {
+        // 設置模擬行為，依序分配產品ID
+        givenCategory(1L);
+        AtomicLong nextId = new AtomicLong(100);
+        when(productRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            return products.stream().map(product -> nextId.getAndIncrement()).toList();
+        });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDetail.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+
+        // 執行測試
+        ProductImportReport report = productImportService.importProducts(ndjson(
+                "{\"name\":\"產品一\",\"price\":10,\"categoryId\":1}",
+                "{\"name\":\"產品二\",\"price\":20,\"categoryId\":9}",
+                "{\"name\":\"\",\"price\":30,\"categoryId\":1}",
+                "{\"name\":\"產品四\",\"price\":40,\"categoryId\":1,\"fullDescription\":\"詳細描述\"}",
+                "not json",
+                "{\"name\":\"產品六\",\"price\":60,\"categoryId\":1}"), ImportFormat.NDJSON);
+
+        // 驗證結果
+        assertEquals(6, report.getRows());
+        assertEquals(3, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertEquals("NDJSON", report.getFormat());
+
+        // 驗證方法調用，兩批各一次 JDBC 批次與一次 bulkWrite
+        verify(productRepository, times(2)).insertAll(anyList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductDetail>> details = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(2)).insert(details.capture());
+        assertEquals(List.of(100L, 101L), details.getAllValues().get(0).stream().map(ProductDetail::getProductId).toList());
+        assertEquals("詳細描述", details.getAllValues().get(0).get(1).getFullDescription());
+        verify(bulkOperations, times(2)).execute();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductDTO>> created = ArgumentCaptor.forClass(List.class);
+        verify(productOutbox, times(2)).recordAll(eq(ProductOutboxEvent.Type.CREATED), created.capture());
+        assertEquals(List.of(100L, 101L), created.getAllValues().get(0).stream().map(ProductDTO::getId).toList());
+        assertEquals("產品四", created.getAllValues().get(0).get(1).getName());
+        assertEquals(List.of(102L), created.getAllValues().get(1).stream().map(ProductDTO::getId).toList());
+        verify(productSearchEngine).rebuild();
+        verify(productFacetEngine).rebuild();
+
+        // 驗證被拒絕的列檔案
+        Path rejects = productImportService.findRejects(report.getImportId()).orElseThrow();
+        List<String> lines = Files.readAllLines(rejects);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"line\":2"));
+        assertTrue(lines.get(0).contains("Category not found with id: 9"));
+        assertTrue(lines.get(1).contains("Product name is required"));
+        assertTrue(lines.get(2).contains("Malformed JSON"));
+    }
+
+    /**
+     * 測試匯入產品 - 寫入失敗時整批拒絕
+     */
+    @Test
+    @DisplayName("測試匯入產品 - 寫入失敗時整批拒絕")
+    void testImportProducts_WriteFailed() {
+        // 設置模擬行為
+        givenCategory(1L);
+        when(productRepository.insertAll(anyList())).thenReturn(List.of(1L));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDetail.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("MongoDB unavailable"));
+
+        // 執行測試
+        ProductImportReport report = productImportService.importProducts(
+                ndjson("{\"name\":\"產品一\",\"price\":10,\"categoryId\":1}"), ImportFormat.NDJSON);
+
+        // 驗證結果
+        assertEquals(0, report.getImported());
+        assertEquals(1, report.getRejected());
+
+        // 驗證方法調用，MySQL 的插入回滾且不重建索引
+        verify(transactionManager).rollback(any());
+        verify(productSearchEngine, never()).rebuild();
+    }
+
+    /**
+     * 測試查詢被拒絕的列 - 無效的匯入ID
+     */
+    @Test
+    @DisplayName("測試查詢被拒絕的列 - 無效的匯入ID")
+    void testFindRejects_InvalidImportId() {
+        assertTrue(productImportService.findRejects("../../etc/passwd").isEmpty());
+        assertTrue(productImportService.findRejects("3f0e1d2c-1111-4222-8333-444455556666").isEmpty());
+    }
+
+    private void givenCategory(Long categoryId) {
+        Category category = new Category();
+        category.setId(categoryId);
+        category.setName("電子產品");
+        when(categoryIndexManager.current()).thenReturn(CategoryIndex.of(List.of(category), 1L));
+    }
+
+    private InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,325 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Category;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.model.ProductView;
+import com.ecommerce.productservice.outbox.ProductOutbox;
+import com.ecommerce.productservice.popularity.PopularityTracker;
+import com.ecommerce.productservice.repository.CategoryRepository;
+import com.ecommerce.productservice.repository.ProductDetailRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductViewRepository;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
+import com.ecommerce.productservice.service.impl.ProductServiceImpl;
+import com.ecommerce.productservice.stock.HotStockManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品列表查詢次數測試
+ *
+ * 驗證各個列表方法對 MySQL 與 MongoDB 的往返次數為常數，不隨分頁大小增長，
+ * 且類別名稱全部由類別索引提供，不查詢類別資料表
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductListQueryCountTest {
+
+    private static final int EXPECTED_ROUND_TRIPS = 2;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductDetailRepository productDetailRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private ProductFacetEngine productFacetEngine;
+
+    @Mock
+    private PopularityTracker popularityTracker;
+
+
+    @Mock
+    private HotStockManager hotStockManager;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private ProductViewRepository productViewRepository;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("獲取所有產品 - 往返次數與分頁大小無關")
+    void testGetAllProducts(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        when(productRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(products));
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.getAllProducts(PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("根據名稱搜尋產品 - 往返次數與分頁大小無關")
+    void testSearchProductsByName(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        when(productRepository.findByNameContainingIgnoreCase(eq("產品"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(products));
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.searchProductsByName("產品", PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("根據名稱搜尋產品（搜尋索引） - 往返次數與分頁大小無關")
+    void testSearchProductsByNameFromIndex(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        List<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toList());
+        when(productSearchEngine.isReady()).thenReturn(true);
+        when(productSearchEngine.search(eq("產品"), any(Pageable.class))).thenReturn(new PageImpl<>(productIds));
+        when(productRepository.findAllById(anyIterable())).thenReturn(products);
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.searchProductsByName("產品", PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+        verify(productRepository, never()).findByNameContainingIgnoreCase(anyString(), any(Pageable.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("根據類別獲取產品 - 往返次數與分頁大小無關")
+    void testGetProductsByCategory(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        products.forEach(product -> product.setCategoryId(1L));
+        when(productRepository.findByCategoryId(eq(1L), any(Pageable.class))).thenReturn(new PageImpl<>(products));
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.getProductsByCategory(1L, PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("根據價格範圍獲取產品 - 往返次數與分頁大小無關")
+    void testGetProductsByPriceRange(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        when(productRepository.findByPriceBetween(any(BigDecimal.class), any(BigDecimal.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(products));
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.getProductsByPriceRange(
+                BigDecimal.ZERO, new BigDecimal("1000"), PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("根據品牌獲取產品 - 往返次數與分頁大小無關")
+    void testGetProductsByBrand(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        when(productRepository.findByBrand(eq("測試品牌"), any(Pageable.class))).thenReturn(new PageImpl<>(products));
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.getProductsByBrand("測試品牌", PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("過濾產品 - 往返次數與分頁大小無關")
+    void testFilterProducts(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        when(productRepository.findProductsByFilters(any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(products));
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.filterProducts(
+                "產品", null, null, null, null, PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("過濾產品（分面索引） - 往返次數與分頁大小無關")
+    void testFilterProductsFromFacetIndex(int pageSize) {
+        List<Product> products = createProducts(pageSize);
+        List<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toList());
+        when(productFacetEngine.search(any(ProductFilter.class), any(Pageable.class), eq(false)))
+                .thenReturn(new ProductFacetEngine.Result(new PageImpl<>(productIds), null));
+        when(productRepository.findAllById(anyIterable())).thenReturn(products);
+        stubEnrichment(products);
+
+        Page<ProductDTO> result = productService.filterProducts(
+                "產品", null, null, null, null, PageRequest.of(0, pageSize));
+
+        assertEnriched(result.getContent(), pageSize);
+        assertConstantRoundTrips();
+        verify(productRepository, never()).findProductsByFilters(any(), any(), any(), any(), any(), any(Pageable.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("獲取熱門產品 - 往返次數與數量無關")
+    void testGetTopProducts(int limit) {
+        List<Product> products = createProducts(limit);
+        when(popularityTracker.topProductIds(limit))
+                .thenReturn(products.stream().map(Product::getId).collect(Collectors.toList()));
+        when(productRepository.findAllById(anyIterable())).thenReturn(products);
+        stubEnrichment(products);
+
+        List<ProductDTO> result = productService.getTopProducts(limit);
+
+        assertEnriched(result, limit);
+        assertConstantRoundTrips();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @DisplayName("根據名稱搜尋產品（讀取模型） - 只查詢一次讀取模型")
+    void testSearchProductsByNameFromView(int pageSize) {
+        ReflectionTestUtils.setField(productService, "readFromView", true);
+        List<ProductView> views = createProducts(pageSize).stream()
+                .map(product -> new ProductView(product.getId(), productMapper.toDTO(product, null, null),
+                        product.getCategoryId(), 1L, null))
+                .collect(Collectors.toList());
+        List<Long> productIds = views.stream().map(ProductView::getId).collect(Collectors.toList());
+        when(productSearchEngine.isReady()).thenReturn(true);
+        when(productSearchEngine.search(eq("產品"), any(Pageable.class))).thenReturn(new PageImpl<>(productIds));
+        when(productViewRepository.findAllById(anyIterable())).thenReturn(views);
+
+        Page<ProductDTO> result = productService.searchProductsByName("產品", PageRequest.of(0, pageSize));
+
+        assertEquals(productIds, result.getContent().stream().map(ProductDTO::getId).collect(Collectors.toList()));
+        verify(productViewRepository, times(1)).findAllById(anyIterable());
+        verifyNoInteractions(productRepository, productDetailRepository, categoryRepository);
+    }
+
+    /**
+     * 設置批量查詢產品詳情與類別索引的模擬行為，並清除準備階段的調用記錄
+     */
+    private void stubEnrichment(List<Product> products) {
+        List<ProductDetail> details = products.stream()
+                .map(product -> {
+                    ProductDetail detail = new ProductDetail();
+                    detail.setProductId(product.getId());
+                    detail.setFullDescription("詳細描述 " + product.getId());
+                    return detail;
+                })
+                .collect(Collectors.toList());
+
+        lenient().when(productDetailRepository.findByProductIdIn(anyCollection())).thenReturn(details);
+        lenient().when(categoryIndexManager.current())
+                .thenReturn(CategoryIndex.of(List.of(createCategory(1L), createCategory(2L)), 1L));
+
+        clearInvocations(productRepository, productDetailRepository, categoryRepository);
+    }
+
+    /**
+     * 驗證對所有儲存庫的調用次數為常數，沒有逐筆查詢，也沒有查詢類別資料表
+     */
+    private void assertConstantRoundTrips() {
+        int roundTrips = mockingDetails(productRepository).getInvocations().size()
+                + mockingDetails(productDetailRepository).getInvocations().size()
+                + mockingDetails(categoryRepository).getInvocations().size();
+
+        assertEquals(EXPECTED_ROUND_TRIPS, roundTrips);
+        verify(productDetailRepository, never()).findByProductId(anyLong());
+        verify(productDetailRepository, atMostOnce()).findByProductIdIn(anyCollection());
+        verifyNoInteractions(categoryRepository);
+    }
+
+    /**
+     * 驗證每個產品都已組裝詳情與類別名稱
+     */
+    private void assertEnriched(List<ProductDTO> dtos, int expectedSize) {
+        assertEquals(expectedSize, dtos.size());
+        for (ProductDTO dto : dtos) {
+            assertEquals("詳細描述 " + dto.getId(), dto.getFullDescription());
+            assertEquals("類別 " + dto.getCategoryId(), dto.getCategoryName());
+        }
+    }
+
+    private List<Product> createProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("產品 " + id);
+            product.setPrice(new BigDecimal("99.99"));
+            product.setStock(10);
+            product.setCategoryId(id % 2 == 0 ? 2L : 1L);
+            product.setBrand("測試品牌");
+            product.setIsActive(true);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private Category createCategory(Long id) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName("類別 " + id);
+        category.setIsActive(true);
+        return category;
+    }
+}
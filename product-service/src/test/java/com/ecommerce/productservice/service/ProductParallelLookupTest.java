@@ -0,0 +1,176 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.config.ProductLookupExecutor;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.exception.StoreTimeoutException;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.repository.ProductDetailRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
+import com.ecommerce.productservice.service.impl.ProductServiceImpl;
+import com.ecommerce.productservice.stock.HotStockManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品並行查詢測試
+ * 
+ * 驗證 MySQL 與 MongoDB 查詢並行發出，以及各儲存期限到期時的處理方式
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductParallelLookupTest {
+
+    private static final long STORE_LATENCY_MILLIS = 200;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductDetailRepository productDetailRepository;
+
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private ProductFacetEngine productFacetEngine;
+
+    @Mock
+    private HotStockManager hotStockManager;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    private final ProductLookupExecutor productLookupExecutor = new ProductLookupExecutor();
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    private Product testProduct;
+    private ProductDetail testProductDetail;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productLookupExecutor, "poolSize", 4);
+        ReflectionTestUtils.setField(productLookupExecutor, "queueCapacity", 16);
+        productLookupExecutor.init();
+
+        ReflectionTestUtils.setField(productService, "productLookupExecutor", productLookupExecutor);
+        ReflectionTestUtils.setField(productService, "parallelLookup", true);
+        ReflectionTestUtils.setField(productService, "mysqlTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(productService, "mongoTimeoutMillis", 1000L);
+
+        testProduct = new Product();
+        testProduct.setId(1L);
+        testProduct.setName("測試產品");
+        testProduct.setPrice(new BigDecimal("99.99"));
+        testProduct.setStock(100);
+        testProduct.setCategoryId(1L);
+        testProduct.setIsActive(true);
+
+        testProductDetail = new ProductDetail();
+        testProductDetail.setProductId(1L);
+        testProductDetail.setFullDescription("詳細描述");
+
+        lenient().when(categoryIndexManager.current()).thenReturn(CategoryIndex.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productLookupExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("測試兩個儲存並行查詢，延遲不為總和")
+    void testGetProductById_QueriesStoresConcurrently() {
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(STORE_LATENCY_MILLIS);
+            return Optional.of(testProduct);
+        });
+        when(productDetailRepository.findByProductId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(STORE_LATENCY_MILLIS);
+            return Optional.of(testProductDetail);
+        });
+
+        long start = System.nanoTime();
+        Optional<ProductDTO> result = productService.getProductById(1L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(result.isPresent());
+        assertEquals("詳細描述", result.get().getFullDescription());
+        assertFalse(result.get().isDegraded());
+        assertTrue(elapsedMillis < 2 * STORE_LATENCY_MILLIS, "elapsed " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("測試MongoDB逾時時降級為不含詳情的產品")
+    void testGetProductById_MongoTimeoutDegrades() {
+        ReflectionTestUtils.setField(productService, "mongoTimeoutMillis", 50L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productDetailRepository.findByProductId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(STORE_LATENCY_MILLIS);
+            return Optional.of(testProductDetail);
+        });
+
+        Optional<ProductDTO> result = productService.getProductById(1L);
+
+        assertTrue(result.isPresent());
+        assertEquals(testProduct.getName(), result.get().getName());
+        assertNull(result.get().getFullDescription());
+        assertTrue(result.get().isDegraded());
+    }
+
+    @Test
+    @DisplayName("測試MySQL逾時時拋出儲存逾時異常")
+    void testGetProductById_MysqlTimeoutThrows() {
+        ReflectionTestUtils.setField(productService, "mysqlTimeoutMillis", 50L);
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(STORE_LATENCY_MILLIS);
+            return Optional.of(testProduct);
+        });
+        lenient().when(productDetailRepository.findByProductId(1L)).thenReturn(Optional.of(testProductDetail));
+
+        assertThrows(StoreTimeoutException.class, () -> productService.getProductById(1L));
+    }
+
+    @Test
+    @DisplayName("測試產品不存在時返回空結果")
+    void testGetProductById_NotFound() {
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        lenient().when(productDetailRepository.findByProductId(99L)).thenReturn(Optional.empty());
+
+        assertFalse(productService.getProductById(99L).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試MySQL查詢異常原樣拋出")
+    void testGetProductById_MysqlFailurePropagates() {
+        when(productRepository.findById(1L)).thenThrow(new IllegalStateException("connection refused"));
+        lenient().when(productDetailRepository.findByProductId(1L)).thenReturn(Optional.of(testProductDetail));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> productService.getProductById(1L));
+        assertEquals("connection refused", exception.getMessage());
+    }
+}
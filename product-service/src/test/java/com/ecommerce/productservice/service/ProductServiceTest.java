@@ -1,31 +1,63 @@
 package com.ecommerce.productservice.service;
 
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.AvailabilityDTO;
 import com.ecommerce.productservice.dto.ProductCreateRequest;
 import com.ecommerce.productservice.dto.ProductDTO;
 import com.ecommerce.productservice.dto.ProductUpdateRequest;
+import com.ecommerce.productservice.dto.StockAdjustment;
+import com.ecommerce.productservice.dto.StockBatchResult;
+import com.ecommerce.productservice.dto.StockDTO;
+import com.ecommerce.productservice.event.ProductChangedEvent;
+import com.ecommerce.productservice.event.StockChangedEvent;
+import com.ecommerce.productservice.exception.InsufficientStockException;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.exception.StockBatchException;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Category;
 import com.ecommerce.productservice.model.Product;
 import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.model.ProductView;
+import com.ecommerce.productservice.outbox.ProductOutbox;
+import com.ecommerce.productservice.popularity.PopularityTracker;
 import com.ecommerce.productservice.repository.CategoryRepository;
 import com.ecommerce.productservice.repository.ProductDetailRepository;
 import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductVersionView;
+import com.ecommerce.productservice.repository.ProductViewRepository;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
 import com.ecommerce.productservice.service.impl.ProductServiceImpl;
+import com.ecommerce.productservice.stock.HotStockManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,11 +80,46 @@ public class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
     
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+    
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+    
+    @Mock
+    private ProductFacetEngine productFacetEngine;
+    
+    @Mock
+    private PopularityTracker popularityTracker;
+    
+
+    @Mock
+    private HotStockManager hotStockManager;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private ProductOutbox productOutbox;
+    
+    @Mock
+    private ProductViewRepository productViewRepository;
+    
+    @Mock
+    private CacheManager cacheManager;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+    
     @InjectMocks
     private ProductServiceImpl productService;
     
     private Product testProduct;
     private ProductDetail testProductDetail;
+    private Category testCategory;
     private ProductDTO testProductDTO;
     private ProductCreateRequest testCreateRequest;
     private ProductUpdateRequest testUpdateRequest;
@@ -76,6 +143,16 @@ public class ProductServiceTest {
         testProduct.setDimensions("10 x 10 x 5 cm");
         testProduct.setIsActive(true);
         
+        // 初始化測試類別
+        testCategory = new Category();
+        testCategory.setId(1L);
+        testCategory.setName("測試類別");
+        testCategory.setIsActive(true);
+        
+        // 類別索引中只包含測試類別
+        lenient().when(categoryIndexManager.current())
+                .thenReturn(CategoryIndex.of(List.of(testCategory), 1L));
+        
         // 初始化測試產品詳情
         testProductDetail = new ProductDetail();
         testProductDetail.setId("1");
@@ -166,6 +243,138 @@ public class ProductServiceTest {
         verify(productDetailRepository, never()).findByProductId(anyLong());
     }
     
+    /**
+     * 測試根據ID獲取產品 - 從讀取模型讀取
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - 從讀取模型讀取")
+    void testGetProductById_FromView() {
+        // 設置模擬行為
+        ReflectionTestUtils.setField(productService, "readFromView", true);
+        ProductDTO viewed = new ProductDTO();
+        viewed.setId(1L);
+        viewed.setName("測試產品");
+        when(productViewRepository.findById(1L))
+                .thenReturn(Optional.of(new ProductView(1L, viewed, 1L, 5L, null)));
+        
+        // 執行測試
+        Optional<ProductDTO> result = productService.getProductById(1L);
+        
+        // 驗證結果
+        assertTrue(result.isPresent());
+        assertSame(viewed, result.get());
+        
+        // 驗證方法調用，只讀取一個文檔
+        verifyNoInteractions(productRepository, productDetailRepository);
+    }
+    
+    /**
+     * 測試根據ID獲取產品 - 讀取模型中還沒有該產品
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - 讀取模型中還沒有該產品")
+    void testGetProductById_FromViewMissing() {
+        // 設置模擬行為
+        ReflectionTestUtils.setField(productService, "readFromView", true);
+        when(productViewRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productDetailRepository.findByProductId(1L)).thenReturn(Optional.of(testProductDetail));
+        
+        // 執行測試
+        Optional<ProductDTO> result = productService.getProductById(1L);
+        
+        // 驗證結果
+        assertTrue(result.isPresent());
+        assertEquals(testProduct.getName(), result.get().getName());
+        assertEquals("測試類別", result.get().getCategoryName());
+        
+        // 驗證方法調用
+        verify(productRepository).findById(1L);
+    }
+    
+    /**
+     * 測試獲取產品 ETag - 只查詢版本欄位
+     */
+    @Test
+    @DisplayName("測試獲取產品 ETag - 只查詢版本欄位")
+    void testGetProductETag_FromVersion() {
+        // 設置模擬行為
+        testProduct.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_789));
+        when(cacheManager.getCache(anyString())).thenReturn(new ConcurrentMapCache("products"));
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(versionOf(testProduct)));
+        
+        // 執行測試
+        Optional<String> eTag = productService.getProductETag(1L);
+        
+        // 驗證結果，與組裝完成的產品計算出相同的值
+        assertTrue(eTag.isPresent());
+        assertTrue(eTag.get().startsWith("\"") && eTag.get().endsWith("\""));
+        assertEquals(productService.getProductETag(productMapper.toDTO(testProduct, testProductDetail, "測試類別")),
+                eTag.get());
+        
+        // 驗證方法調用，不載入產品也不查詢詳情
+        verify(productRepository, never()).findById(anyLong());
+        verifyNoInteractions(productDetailRepository);
+    }
+    
+    /**
+     * 測試獲取產品 ETag - 庫存或更新時間改變時 ETag 改變
+     */
+    @Test
+    @DisplayName("測試獲取產品 ETag - 庫存或更新時間改變時 ETag 改變")
+    void testGetProductETag_ChangesWithVersion() {
+        // 設置模擬行為
+        testProduct.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 12, 0, 0));
+        ProductDTO product = productMapper.toDTO(testProduct, testProductDetail, "測試類別");
+        String original = productService.getProductETag(product);
+        
+        // 執行測試，只更新庫存的語句以秒為精度更新時間
+        product.setStock(99);
+        String stockChanged = productService.getProductETag(product);
+        product.setUpdatedAt(product.getUpdatedAt().plusNanos(5_000_000));
+        String updated = productService.getProductETag(product);
+        
+        // 驗證結果
+        assertNotEquals(original, stockChanged);
+        assertNotEquals(stockChanged, updated);
+    }
+    
+    /**
+     * 測試獲取產品 ETag - 產品不存在
+     */
+    @Test
+    @DisplayName("測試獲取產品 ETag - 產品不存在")
+    void testGetProductETag_NotFound() {
+        // 設置模擬行為
+        when(productRepository.findVersionById(99L)).thenReturn(Optional.empty());
+        
+        // 執行測試並驗證結果
+        assertTrue(productService.getProductETag(99L).isEmpty());
+    }
+    
+    /**
+     * 測試根據ID獲取產品 - 熱門模式的產品以分槽總和作為庫存
+     */
+    @Test
+    @DisplayName("測試根據ID獲取產品 - 熱門模式的產品以分槽總和作為庫存")
+    void testGetProductById_HotStock() {
+        // 設置模擬行為，產品表中的庫存落後於分槽總和
+        when(cacheManager.getCache(anyString())).thenReturn(new ConcurrentMapCache("products"));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productDetailRepository.findByProductId(1L)).thenReturn(Optional.of(testProductDetail));
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(versionOf(testProduct)));
+        when(hotStockManager.stockOf(1L)).thenReturn(OptionalInt.of(42));
+        
+        // 執行測試
+        Optional<ProductDTO> result = productService.getProductById(1L);
+        Optional<String> eTag = productService.getProductETag(1L);
+        
+        // 驗證結果，ETag 與返回的產品一致
+        assertTrue(result.isPresent());
+        assertEquals(42, result.get().getStock());
+        assertEquals(productService.getProductETag(result.get()), eTag.orElseThrow());
+    }
+    
     /**
      * 測試獲取所有產品（分頁）
      */
@@ -179,7 +388,7 @@ public class ProductServiceTest {
         
         // 設置模擬行為
         when(productRepository.findAll(any(Pageable.class))).thenReturn(productPage);
-        when(productDetailRepository.findByProductId(anyLong())).thenReturn(Optional.of(testProductDetail));
+        when(productDetailRepository.findByProductIdIn(anyCollection())).thenReturn(List.of(testProductDetail));
         
         // 執行測試
         Pageable pageable = PageRequest.of(0, 10);
@@ -193,7 +402,8 @@ public class ProductServiceTest {
         
         // 驗證方法調用
         verify(productRepository).findAll(pageable);
-        verify(productDetailRepository).findByProductId(testProduct.getId());
+        verify(productDetailRepository).findByProductIdIn(anyCollection());
+        verify(productDetailRepository, never()).findByProductId(anyLong());
     }
     
     /**
@@ -221,8 +431,7 @@ public class ProductServiceTest {
         newProductDetail.setProductId(2L);
         newProductDetail.setFullDescription(testCreateRequest.getFullDescription());
         
-        // 設置模擬行為
-        when(categoryRepository.existsById(anyLong())).thenReturn(true);
+        // 設置模擬行為（類別已在類別索引中）
         when(productRepository.save(any(Product.class))).thenReturn(newProduct);
         when(productDetailRepository.save(any(ProductDetail.class))).thenReturn(newProductDetail);
         
@@ -234,11 +443,13 @@ public class ProductServiceTest {
         assertEquals(newProduct.getId(), result.getId());
         assertEquals(newProduct.getName(), result.getName());
         assertEquals(newProduct.getPrice(), result.getPrice());
+        assertEquals(testCategory.getName(), result.getCategoryName());
         
         // 驗證方法調用
-        verify(categoryRepository).existsById(testCreateRequest.getCategoryId());
+        verify(categoryRepository, never()).findById(anyLong());
         verify(productRepository).save(any(Product.class));
         verify(productDetailRepository).save(any(ProductDetail.class));
+        verify(productOutbox).record(newProduct.getId(), ProductOutboxEvent.Type.CREATED, result);
     }
     
     /**
@@ -247,8 +458,9 @@ public class ProductServiceTest {
     @Test
     @DisplayName("測試創建產品 - 類別不存在")
     void testCreateProduct_CategoryNotFound() {
-        // 設置模擬行為
-        when(categoryRepository.existsById(anyLong())).thenReturn(false);
+        // 類別不在類別索引中，且資料庫中也不存在
+        testCreateRequest.setCategoryId(99L);
+        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
         
         // 執行測試並驗證異常
         assertThrows(ResourceNotFoundException.class, () -> {
@@ -256,7 +468,7 @@ public class ProductServiceTest {
         });
         
         // 驗證方法調用
-        verify(categoryRepository).existsById(testCreateRequest.getCategoryId());
+        verify(categoryRepository).findById(testCreateRequest.getCategoryId());
         verify(productRepository, never()).save(any(Product.class));
         verify(productDetailRepository, never()).save(any(ProductDetail.class));
     }
@@ -289,8 +501,8 @@ public class ProductServiceTest {
         // 設置模擬行為
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(productDetailRepository.findByProductId(1L)).thenReturn(Optional.of(testProductDetail));
-        when(categoryRepository.existsById(anyLong())).thenReturn(true);
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(testCategory));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
         when(productDetailRepository.save(any(ProductDetail.class))).thenReturn(updatedProductDetail);
         
         // 執行測試
@@ -305,9 +517,11 @@ public class ProductServiceTest {
         // 驗證方法調用
         verify(productRepository).findById(1L);
         verify(productDetailRepository).findByProductId(1L);
-        verify(categoryRepository).existsById(testUpdateRequest.getCategoryId());
-        verify(productRepository).save(any(Product.class));
+        verify(categoryRepository).findById(testUpdateRequest.getCategoryId());
+        // 詳情變更也要產生新的 ETag，無論產品欄位是否改變都更新產品的更新時間
+        verify(productRepository).saveAndFlush(argThat(product -> product.getUpdatedAt() != null));
         verify(productDetailRepository).save(any(ProductDetail.class));
+        verify(productOutbox).record(1L, ProductOutboxEvent.Type.UPDATED, result);
     }
     
     /**
@@ -327,7 +541,7 @@ public class ProductServiceTest {
         // 驗證方法調用
         verify(productRepository).findById(99L);
         verify(productDetailRepository, never()).findByProductId(anyLong());
-        verify(categoryRepository, never()).existsById(anyLong());
+        verify(categoryRepository, never()).findById(anyLong());
         verify(productRepository, never()).save(any(Product.class));
         verify(productDetailRepository, never()).save(any(ProductDetail.class));
     }
@@ -348,8 +562,12 @@ public class ProductServiceTest {
         
         // 驗證方法調用
         verify(productRepository).existsById(1L);
+        verify(hotStockManager).remove(1L);
         verify(productRepository).deleteById(1L);
         verify(productDetailRepository).deleteByProductId(1L);
+        verify(productOutbox).record(1L, ProductOutboxEvent.Type.DELETED, null);
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof ProductChangedEvent changed && changed.getProductId().equals(1L)));
     }
     
     /**
@@ -370,6 +588,7 @@ public class ProductServiceTest {
         verify(productRepository).existsById(99L);
         verify(productRepository, never()).deleteById(anyLong());
         verify(productDetailRepository, never()).deleteByProductId(anyLong());
+        verifyNoInteractions(productOutbox);
     }
     
     /**
@@ -378,37 +597,24 @@ public class ProductServiceTest {
     @Test
     @DisplayName("測試更新產品庫存")
     void testUpdateProductStock() {
-        // 準備測試數據
-        Product updatedProduct = new Product();
-        updatedProduct.setId(1L);
-        updatedProduct.setName(testProduct.getName());
-        updatedProduct.setShortDescription(testProduct.getShortDescription());
-        updatedProduct.setPrice(testProduct.getPrice());
-        updatedProduct.setStock(150); // 增加50庫存
-        updatedProduct.setCategoryId(testProduct.getCategoryId());
-        updatedProduct.setSku(testProduct.getSku());
-        updatedProduct.setBrand(testProduct.getBrand());
-        updatedProduct.setWeight(testProduct.getWeight());
-        updatedProduct.setDimensions(testProduct.getDimensions());
-        updatedProduct.setIsActive(testProduct.getIsActive());
-        
         // 設置模擬行為
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
-        when(productDetailRepository.findByProductId(1L)).thenReturn(Optional.of(testProductDetail));
+        when(productRepository.adjustStock(1L, 50)).thenReturn(1);
+        when(productRepository.findStockById(1L)).thenReturn(Optional.of(150));
         
         // 執行測試
-        ProductDTO result = productService.updateProductStock(1L, 50);
+        StockDTO result = productService.updateProductStock(1L, 50);
         
         // 驗證結果
         assertNotNull(result);
-        assertEquals(updatedProduct.getId(), result.getId());
-        assertEquals(updatedProduct.getStock(), result.getStock());
+        assertEquals(1L, result.getProductId());
+        assertEquals(150, result.getStock());
         
-        // 驗證方法調用
-        verify(productRepository).findById(1L);
-        verify(productRepository).save(any(Product.class));
-        verify(productDetailRepository).findByProductId(1L);
+        // 驗證方法調用，不讀取完整產品、產品詳情或類別
+        verify(productRepository).adjustStock(1L, 50);
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(productDetailRepository);
+        verifyNoInteractions(popularityTracker);
     }
     
     /**
@@ -418,7 +624,8 @@ public class ProductServiceTest {
     @DisplayName("測試更新產品庫存 - 產品不存在")
     void testUpdateProductStock_ProductNotFound() {
         // 設置模擬行為
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.adjustStock(99L, 50)).thenReturn(0);
+        when(productRepository.findStockById(99L)).thenReturn(Optional.empty());
         
         // 執行測試並驗證異常
         assertThrows(ResourceNotFoundException.class, () -> {
@@ -426,7 +633,7 @@ public class ProductServiceTest {
         });
         
         // 驗證方法調用
-        verify(productRepository).findById(99L);
+        verify(productRepository).adjustStock(99L, 50);
         verify(productRepository, never()).save(any(Product.class));
     }
     
@@ -437,15 +644,266 @@ public class ProductServiceTest {
     @DisplayName("測試更新產品庫存 - 庫存不足")
     void testUpdateProductStock_InsufficientStock() {
         // 設置模擬行為
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.adjustStock(1L, -150)).thenReturn(0);
+        when(productRepository.findStockById(1L)).thenReturn(Optional.of(100));
         
         // 執行測試並驗證異常
-        assertThrows(IllegalArgumentException.class, () -> {
+        assertThrows(InsufficientStockException.class, () -> {
             productService.updateProductStock(1L, -150); // 嘗試減少150庫存，但只有100庫存
         });
         
         // 驗證方法調用
-        verify(productRepository).findById(1L);
+        verify(productRepository).adjustStock(1L, -150);
         verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(popularityTracker);
+    }
+    
+    /**
+     * 測試更新產品庫存 - 庫存已被保留
+     */
+    @Test
+    @DisplayName("測試更新產品庫存 - 庫存已被保留")
+    void testUpdateProductStock_ReservedStock() {
+        // 設置模擬行為，帳本中的可售數量不足
+        doThrow(new InsufficientStockException("Insufficient stock for product with id: 1"))
+                .when(reservationService).holdForUpdate(1L, 5);
+        
+        // 執行測試並驗證異常
+        assertThrows(InsufficientStockException.class, () -> productService.updateProductStock(1L, -5));
+        
+        // 驗證方法調用，不更新產品表或庫存分槽
+        verify(productRepository, never()).adjustStock(anyLong(), anyInt());
+        verify(hotStockManager, never()).adjust(anyLong(), anyInt());
+        verifyNoInteractions(popularityTracker);
+    }
+    
+    /**
+     * 測試更新產品庫存 - 熱門模式
+     */
+    @Test
+    @DisplayName("測試更新產品庫存 - 熱門模式")
+    void testUpdateProductStock_HotStock() {
+        // 設置模擬行為
+        when(hotStockManager.adjust(1L, -2)).thenReturn(OptionalInt.of(98));
+        
+        // 執行測試
+        StockDTO result = productService.updateProductStock(1L, -2);
+        
+        // 驗證結果
+        assertEquals(98, result.getStock());
+        
+        // 驗證方法調用，不更新產品表
+        verify(productRepository, never()).adjustStock(anyLong(), anyInt());
+        verify(eventPublisher).publishEvent(any(StockChangedEvent.class));
+    }
+    
+    /**
+     * 測試批量調整庫存
+     */
+    @Test
+    @DisplayName("測試批量調整庫存")
+    void testAdjustStocks() {
+        // 設置模擬行為，同一產品的多行合併後依產品ID順序更新
+        when(productRepository.adjustStocks(new TreeMap<>(Map.of(1L, -3, 2L, 2)))).thenReturn(new int[] {1, 1});
+        when(productRepository.findStocksByIds(Set.of(1L, 2L))).thenReturn(Map.of(1L, 97, 2L, 12));
+        List<StockAdjustment> adjustments = List.of(
+                new StockAdjustment(2L, 2), new StockAdjustment(1L, -1), new StockAdjustment(1L, -2));
+        
+        // 執行測試
+        StockBatchResult result = productService.adjustStocks(adjustments);
+        
+        // 驗證結果，依請求順序返回每一行
+        assertTrue(result.isApplied());
+        assertEquals(3, result.getLines().size());
+        assertEquals(2L, result.getLines().get(0).getProductId());
+        assertEquals(12, result.getLines().get(0).getStock());
+        assertEquals(97, result.getLines().get(2).getStock());
+        assertTrue(result.getLines().stream().allMatch(line -> line.getStatus() == StockBatchResult.Status.APPLIED));
+        
+        // 驗證方法調用
+        verify(productRepository, never()).adjustStock(anyLong(), anyInt());
+        ArgumentCaptor<StockChangedEvent> events = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(-3, 2), events.getAllValues().stream().map(StockChangedEvent::getQuantity).toList());
+        verifyNoInteractions(popularityTracker);
+    }
+    
+    /**
+     * 測試批量調整庫存 - 任一行失敗時整批不套用
+     */
+    @Test
+    @DisplayName("測試批量調整庫存 - 任一行失敗時整批不套用")
+    void testAdjustStocks_AllOrNothing() {
+        // 設置模擬行為，產品2庫存不足、產品3不存在
+        when(productRepository.adjustStocks(any())).thenReturn(new int[] {1, 0, 0});
+        when(productRepository.findStocksByIds(Set.of(1L, 2L, 3L))).thenReturn(Map.of(1L, 99, 2L, 4));
+        List<StockAdjustment> adjustments = List.of(
+                new StockAdjustment(1L, -1), new StockAdjustment(2L, -5), new StockAdjustment(3L, 1));
+        
+        // 執行測試
+        StockBatchException exception = assertThrows(StockBatchException.class, 
+                () -> productService.adjustStocks(adjustments));
+        
+        // 驗證結果
+        StockBatchResult result = exception.getResult();
+        assertFalse(result.isApplied());
+        assertEquals(StockBatchResult.Status.NOT_APPLIED, result.getLines().get(0).getStatus());
+        assertNull(result.getLines().get(0).getStock());
+        assertEquals(StockBatchResult.Status.INSUFFICIENT_STOCK, result.getLines().get(1).getStatus());
+        assertEquals(4, result.getLines().get(1).getStock());
+        assertEquals(StockBatchResult.Status.NOT_FOUND, result.getLines().get(2).getStatus());
+        
+        // 驗證方法調用
+        verify(popularityTracker, never()).recordSale(anyLong(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    /**
+     * 測試批量調整庫存 - 庫存已被保留的產品不更新
+     */
+    @Test
+    @DisplayName("測試批量調整庫存 - 庫存已被保留的產品不更新")
+    void testAdjustStocks_ReservedStock() {
+        // 設置模擬行為，產品1的庫存已被保留
+        doThrow(new InsufficientStockException("Insufficient stock for product with id: 1"))
+                .when(reservationService).holdForUpdate(1L, 3);
+        when(reservationService.getAvailability(1L)).thenReturn(new AvailabilityDTO(1L, 10, 8, 2));
+        when(productRepository.adjustStocks(new TreeMap<>(Map.of(2L, 2)))).thenReturn(new int[] {1});
+        when(productRepository.findStocksByIds(Set.of(2L))).thenReturn(Map.of(2L, 7));
+        List<StockAdjustment> adjustments = List.of(new StockAdjustment(1L, -3), new StockAdjustment(2L, 2));
+        
+        // 執行測試
+        StockBatchException exception = assertThrows(StockBatchException.class,
+                () -> productService.adjustStocks(adjustments));
+        
+        // 驗證結果，回報帳本中的可售數量
+        StockBatchResult result = exception.getResult();
+        assertEquals(StockBatchResult.Status.INSUFFICIENT_STOCK, result.getLines().get(0).getStatus());
+        assertEquals(2, result.getLines().get(0).getStock());
+        assertEquals(StockBatchResult.Status.NOT_APPLIED, result.getLines().get(1).getStatus());
+        
+        // 驗證方法調用，只保留減少庫存的產品
+        verify(reservationService, never()).holdForUpdate(eq(2L), anyInt());
+        verify(productRepository).adjustStocks(new TreeMap<>(Map.of(2L, 2)));
+    }
+    
+    /**
+     * 測試批量調整庫存 - 熱門模式的產品更新庫存分槽
+     */
+    @Test
+    @DisplayName("測試批量調整庫存 - 熱門模式")
+    void testAdjustStocks_HotStock() {
+        // 設置模擬行為
+        when(hotStockManager.isHot(1L)).thenReturn(true);
+        when(hotStockManager.adjust(1L, -2)).thenReturn(OptionalInt.of(98));
+        when(productRepository.adjustStocks(new TreeMap<>(Map.of(2L, -1)))).thenReturn(new int[] {1});
+        when(productRepository.findStocksByIds(Set.of(2L))).thenReturn(Map.of(2L, 9));
+        
+        // 執行測試
+        StockBatchResult result = productService.adjustStocks(
+                List.of(new StockAdjustment(1L, -2), new StockAdjustment(2L, -1)));
+        
+        // 驗證結果
+        assertTrue(result.isApplied());
+        assertEquals(98, result.getLines().get(0).getStock());
+        assertEquals(9, result.getLines().get(1).getStock());
+    }
+    
+    /**
+     * 測試根據名稱搜尋產品 - 使用搜尋索引
+     */
+    @Test
+    @DisplayName("測試根據名稱搜尋產品 - 使用搜尋索引")
+    void testSearchProductsByName_FromIndex() {
+        // 設置模擬行為
+        Product second = new Product();
+        second.setId(2L);
+        second.setName("測試產品 第二代");
+        second.setCategoryId(1L);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productSearchEngine.isReady()).thenReturn(true);
+        when(productSearchEngine.search("測試", pageable)).thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 2));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testProduct, second));
+        when(productDetailRepository.findByProductIdIn(anyCollection())).thenReturn(List.of(testProductDetail));
+        when(categoryIndexManager.current()).thenReturn(CategoryIndex.of(List.of(testCategory), 1L));
+        
+        // 執行測試
+        Page<ProductDTO> result = productService.searchProductsByName("測試", pageable);
+        
+        // 驗證結果，順序與搜尋索引的相關度排序一致
+        assertEquals(2, result.getTotalElements());
+        assertEquals(2L, result.getContent().get(0).getId());
+        assertEquals(1L, result.getContent().get(1).getId());
+        
+        // 驗證方法調用
+        verify(productRepository, never()).findByNameContainingIgnoreCase(anyString(), any(Pageable.class));
+    }
+    
+    /**
+     * 測試減少庫存 - 發布含調整數量的庫存變更事件，提交後才計入熱門度
+     */
+    @Test
+    @DisplayName("測試減少庫存 - 發布含調整數量的庫存變更事件")
+    void testUpdateProductStock_PublishesQuantity() {
+        // 設置模擬行為
+        when(productRepository.adjustStock(1L, -3)).thenReturn(1);
+        when(productRepository.findStockById(1L)).thenReturn(Optional.of(97));
+        
+        // 執行測試
+        StockDTO result = productService.updateProductStock(1L, -3);
+        
+        // 驗證結果
+        assertEquals(97, result.getStock());
+        
+        // 驗證方法調用，交易內不直接計入熱門度
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().getProductId());
+        assertEquals(-3, event.getValue().getQuantity());
+        verifyNoInteractions(popularityTracker);
+    }
+    
+    /**
+     * 測試獲取熱門產品 - 略過已下架的產品
+     */
+    @Test
+    @DisplayName("測試獲取熱門產品 - 略過已下架的產品")
+    void testGetTopProducts_SkipsInactive() {
+        // 設置模擬行為
+        Product inactive = new Product();
+        inactive.setId(2L);
+        inactive.setName("已下架產品");
+        inactive.setCategoryId(1L);
+        inactive.setIsActive(false);
+        when(popularityTracker.topProductIds(5)).thenReturn(List.of(2L, 1L));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testProduct, inactive));
+        when(productDetailRepository.findByProductIdIn(anyCollection())).thenReturn(List.of(testProductDetail));
+        when(categoryIndexManager.current()).thenReturn(CategoryIndex.of(List.of(testCategory), 1L));
+        
+        // 執行測試
+        List<ProductDTO> result = productService.getTopProducts(5);
+        
+        // 驗證結果
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+    }
+    
+    private ProductVersionView versionOf(Product product) {
+        return new ProductVersionView() {
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return product.getUpdatedAt();
+            }
+            
+            @Override
+            public Integer getStock() {
+                return product.getStock();
+            }
+            
+            @Override
+            public Long getCategoryId() {
+                return product.getCategoryId();
+            }
+        };
     }
-}
\ No newline at end of file
+}
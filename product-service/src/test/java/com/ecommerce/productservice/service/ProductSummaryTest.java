@@ -0,0 +1,221 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.dto.CursorPage;
+import com.ecommerce.productservice.dto.ProductCursor;
+import com.ecommerce.productservice.dto.ProductFieldSet;
+import com.ecommerce.productservice.dto.ProductFilter;
+import com.ecommerce.productservice.dto.ProductSummaryDTO;
+import com.ecommerce.productservice.exception.InvalidFieldsException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.model.Category;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductDetail;
+import com.ecommerce.productservice.repository.CategoryRepository;
+import com.ecommerce.productservice.repository.ProductDetailRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductSummaryView;
+import com.ecommerce.productservice.search.ProductFacetEngine;
+import com.ecommerce.productservice.search.ProductSearchEngine;
+import com.ecommerce.productservice.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品摘要檢視測試
+ *
+ * 驗證摘要檢視只使用 MySQL 投影查詢，未請求圖片時不查詢 MongoDB，
+ * 請求圖片時只發出一次帶欄位投影的查詢，且從不載入完整的產品詳情
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductSummaryTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductDetailRepository productDetailRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private ProductFacetEngine productFacetEngine;
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("電子產品");
+        category.setIsActive(true);
+        lenient().when(categoryIndexManager.current()).thenReturn(CategoryIndex.of(List.of(category), 1L));
+    }
+
+    @Test
+    @DisplayName("摘要檢視 - 未請求圖片時不查詢 MongoDB")
+    void testGetProductSummaries_WithoutImage() {
+        // 設置模擬行為
+        Page<ProductSummaryView> page = new PageImpl<>(toViews(createProducts(3)));
+        when(productRepository.findSummaries(any(ProductFilter.class), any(Pageable.class)))
+                .thenReturn(page);
+
+        // 執行測試
+        Page<ProductSummaryDTO> result = productService.getProductSummaries(
+                new ProductFilter(), PageRequest.of(0, 3), ProductFieldSet.parse(null, "name,categoryName"));
+
+        // 驗證結果
+        assertEquals(3, result.getContent().size());
+        ProductSummaryDTO first = result.getContent().get(0);
+        assertEquals(1L, first.getId());
+        assertEquals("產品 1", first.getName());
+        assertEquals("電子產品", first.getCategoryName());
+        assertNull(first.getPrice());
+        assertNull(first.getImageUrl());
+
+        // 驗證方法調用
+        verifyNoInteractions(productDetailRepository);
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("摘要檢視 - 請求圖片時只查詢第一張圖片")
+    void testGetProductSummaries_WithImage() {
+        // 設置模擬行為
+        Page<ProductSummaryView> page = new PageImpl<>(toViews(createProducts(2)));
+        when(productRepository.findSummaries(any(ProductFilter.class), any(Pageable.class)))
+                .thenReturn(page);
+        ProductDetail detail = new ProductDetail();
+        detail.setProductId(1L);
+        detail.setImageUrls(List.of("https://example.com/1.jpg"));
+        when(productDetailRepository.findImagesByProductIdIn(anyCollection())).thenReturn(List.of(detail));
+
+        // 執行測試
+        Page<ProductSummaryDTO> result = productService.getProductSummaries(
+                new ProductFilter(), PageRequest.of(0, 2), ProductFieldSet.summary());
+
+        // 驗證結果
+        assertEquals("https://example.com/1.jpg", result.getContent().get(0).getImageUrl());
+        assertNull(result.getContent().get(1).getImageUrl());
+        assertEquals(new BigDecimal("99.99"), result.getContent().get(1).getPrice());
+
+        // 驗證方法調用
+        verify(productDetailRepository, times(1)).findImagesByProductIdIn(anyCollection());
+        verify(productDetailRepository, never()).findByProductIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("摘要檢視 - 類別不存在")
+    void testGetProductSummaries_CategoryNotFound() {
+        // 設置模擬行為
+        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
+        ProductFilter filter = new ProductFilter();
+        filter.setCategoryId(99L);
+
+        // 執行測試並驗證異常
+        assertThrows(ResourceNotFoundException.class,
+                () -> productService.getProductSummaries(filter, PageRequest.of(0, 10), ProductFieldSet.summary()));
+
+        // 驗證方法調用
+        verify(productRepository, never())
+                .findSummaries(any(ProductFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("摘要檢視 - 游標分頁不載入完整產品詳情")
+    @SuppressWarnings("unchecked")
+    void testScrollProductSummaries() {
+        // 設置模擬行為
+        when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(createProducts(3));
+
+        // 執行測試
+        CursorPage<ProductSummaryDTO> result = productService.scrollProductSummaries(
+                new ProductFilter(), ProductCursor.resolve("", "id", "asc"), 2,
+                ProductFieldSet.parse("summary", "price"));
+
+        // 驗證結果
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertNotNull(result.getNextCursor());
+        assertEquals(new BigDecimal("99.99"), result.getContent().get(0).getPrice());
+        assertNull(result.getContent().get(0).getName());
+
+        // 驗證方法調用
+        verifyNoInteractions(productDetailRepository);
+    }
+
+    @Test
+    @DisplayName("解析欄位 - 完整檢視與無效參數")
+    void testParseFieldSet() {
+        assertNull(ProductFieldSet.parse(null, null));
+        assertNull(ProductFieldSet.parse("full", ""));
+        assertTrue(ProductFieldSet.parse(null, "price").includes(ProductFieldSet.ID));
+        assertThrows(InvalidFieldsException.class, () -> ProductFieldSet.parse("compact", null));
+        assertThrows(InvalidFieldsException.class, () -> ProductFieldSet.parse(null, "fullDescription"));
+        assertThrows(InvalidFieldsException.class, () -> ProductFieldSet.parse("full", "name"));
+    }
+
+    /**
+     * 以產品實體建立與 JPA 投影查詢相同的摘要投影
+     */
+    private List<ProductSummaryView> toViews(List<Product> products) {
+        return products.stream()
+                .map(product -> projectionFactory.createProjection(ProductSummaryView.class, product))
+                .collect(Collectors.toList());
+    }
+
+    private List<Product> createProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("產品 " + id);
+            product.setPrice(new BigDecimal("99.99"));
+            product.setStock(10);
+            product.setCategoryId(1L);
+            product.setBrand("測試品牌");
+            product.setIsActive(true);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,364 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ReservationDTO;
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.model.ReservationConfirmation;
+import com.ecommerce.productservice.popularity.PopularityTracker;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ReservationConfirmationRepository;
+import com.ecommerce.productservice.service.impl.ReservationServiceImpl;
+import com.ecommerce.productservice.stock.HotStockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReservationServiceImpl 的單元測試類
+ *
+ * 以記憶體中的庫存模擬產品表的條件更新，測試直接扣減與已確認的保留競爭同一產品的庫存時
+ * 不會超賣，以及已確認的扣減不會被捨棄，服務重新啟動後依確認紀錄繼續寫回。
+ */
+public class ReservationServiceTest {
+
+    // 模擬產品表中的庫存
+    private final AtomicInteger stock = new AtomicInteger();
+
+    // 模擬確認紀錄表
+    private final Map<Long, ReservationConfirmation> confirmations = new ConcurrentHashMap<>();
+
+    private final AtomicLong confirmationIds = new AtomicLong();
+
+    private ProductRepository productRepository;
+
+    private ReservationConfirmationRepository reservationConfirmationRepository;
+
+    private NoOpTransactionManager transactionManager;
+
+    private ReservationServiceImpl reservationService;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 不連接資源的交易管理器，只驅動交易同步的回呼
+     */
+    static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        // 開始過的交易定義
+        private final List<TransactionDefinition> definitions = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            definitions.add(definition);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 設置模擬行為，條件更新只在庫存足夠時扣減
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findStockById(1L)).thenAnswer(invocation -> Optional.of(stock.get()));
+        when(productRepository.adjustStock(eq(1L), anyInt())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            while (true) {
+                int current = stock.get();
+                if (current + quantity < 0) {
+                    return 0;
+                }
+                if (stock.compareAndSet(current, current + quantity)) {
+                    return 1;
+                }
+            }
+        });
+
+        // 設置模擬行為，保存與刪除確認紀錄
+        reservationConfirmationRepository = mock(ReservationConfirmationRepository.class);
+        when(reservationConfirmationRepository.save(any(ReservationConfirmation.class))).thenAnswer(invocation -> {
+            ReservationConfirmation confirmation = invocation.getArgument(0);
+            confirmation.setId(confirmationIds.incrementAndGet());
+            confirmations.put(confirmation.getId(), confirmation);
+            return confirmation;
+        });
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            ids.forEach(confirmations::remove);
+            return null;
+        }).when(reservationConfirmationRepository).deleteAllByIdInBatch(anyCollection());
+        when(reservationConfirmationRepository.findAll())
+                .thenAnswer(invocation -> new ArrayList<>(confirmations.values()));
+
+        transactionManager = new NoOpTransactionManager();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        reservationService = newReservationService();
+    }
+
+    // 建立服務實例，相當於服務重新啟動
+    private ReservationServiceImpl newReservationService() {
+        ReservationServiceImpl reservationService = new ReservationServiceImpl();
+        ReflectionTestUtils.setField(reservationService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(reservationService, "reservationConfirmationRepository",
+                reservationConfirmationRepository);
+        ReflectionTestUtils.setField(reservationService, "popularityTracker", mock(PopularityTracker.class));
+        ReflectionTestUtils.setField(reservationService, "hotStockManager", mock(HotStockManager.class));
+        ReflectionTestUtils.setField(reservationService, "cacheManager", mock(CacheManager.class));
+        ReflectionTestUtils.setField(reservationService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(reservationService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(reservationService, "stripes", 16);
+        ReflectionTestUtils.setField(reservationService, "wheelSlots", 64);
+        ReflectionTestUtils.setField(reservationService, "tickMillis", 1000L);
+        ReflectionTestUtils.setField(reservationService, "defaultTtlSeconds", 600);
+        ReflectionTestUtils.setField(reservationService, "maxTtlSeconds", 1800);
+        ReflectionTestUtils.setField(reservationService, "flushBatchSize", 100);
+        reservationService.init();
+        return reservationService;
+    }
+
+    @Test
+    @DisplayName("測試直接扣減不會扣減已確認未寫回的庫存")
+    void testDirectDecrement_ConfirmedHold() {
+        // 準備測試數據
+        stock.set(10);
+        ReservationDTO reservation = reservationService.reserve(1L, 6, null);
+        reservationService.confirm(reservation.getId());
+
+        // 執行測試，只剩 4 件可售
+        assertThrows(InsufficientStockException.class, () -> decrement(5));
+        decrement(4);
+
+        // 驗證結果，提交後帳本直接扣除扣減數量，不重新讀取資料庫，已確認的扣減仍能寫回
+        assertEquals(6, stock.get());
+        assertEquals(0, reservationService.getAvailability(1L).getAvailable());
+        verify(productRepository, times(1)).findStockById(1L);
+        reservationService.flushConfirmed();
+        assertEquals(0, stock.get());
+        assertEquals(0, reservationService.getAvailability(1L).getAvailable());
+    }
+
+    @Test
+    @DisplayName("測試直接扣減的交易回滾時釋放帳本中的保留")
+    void testDirectDecrement_Rollback() {
+        // 準備測試數據
+        stock.set(10);
+
+        // 執行測試
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            reservationService.holdForUpdate(1L, 7);
+            assertEquals(3, reservationService.getAvailability(1L).getAvailable());
+            throw new IllegalStateException("Rolled back");
+        }));
+
+        // 驗證結果
+        assertEquals(10, reservationService.getAvailability(1L).getAvailable());
+        assertThrows(IllegalTransactionStateException.class, () -> reservationService.holdForUpdate(1L, 1));
+    }
+
+    @Test
+    @DisplayName("測試資料庫庫存不足以寫回時保留已確認的扣減並在補貨後寫回")
+    void testFlushConfirmed_RetriesUntilRestocked() {
+        // 準備測試數據
+        stock.set(10);
+        reservationService.confirm(reservationService.reserve(1L, 8, null).getId());
+
+        // 庫存在帳本之外被減少
+        stock.set(5);
+        reservationService.flushConfirmed();
+
+        // 驗證結果，扣減仍從可售數量中扣除
+        assertEquals(5, stock.get());
+        assertEquals(-3, reservationService.getAvailability(1L).getAvailable());
+
+        // 補貨後寫回
+        stock.set(20);
+        reservationService.refreshStock(1L);
+        reservationService.flushConfirmed();
+        assertEquals(12, stock.get());
+        assertEquals(12, reservationService.getAvailability(1L).getAvailable());
+    }
+
+    @Test
+    @DisplayName("測試在新的讀已提交交易中載入庫存，不使用呼叫者交易的快照")
+    void testLoadStock_OutsideCallerTransaction() {
+        // 準備測試數據
+        stock.set(10);
+
+        // 執行測試
+        decrement(3);
+
+        // 驗證結果
+        assertTrue(transactionManager.definitions.stream().anyMatch(definition -> definition.isReadOnly()
+                && definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_READ_COMMITTED));
+        assertEquals(7, stock.get());
+    }
+
+    @Test
+    @DisplayName("測試產品被刪除時捨棄已確認的扣減與確認紀錄，不再重試")
+    void testFlushConfirmed_ProductDeleted() {
+        // 準備測試數據
+        stock.set(10);
+        reservationService.confirm(reservationService.reserve(1L, 4, null).getId());
+
+        // 產品在寫回前被刪除
+        when(productRepository.adjustStock(eq(1L), anyInt())).thenReturn(0);
+        when(productRepository.findStockById(1L)).thenReturn(Optional.empty());
+
+        // 執行測試
+        reservationService.flushConfirmed();
+        reservationService.flushConfirmed();
+
+        // 驗證結果
+        assertTrue(confirmations.isEmpty());
+        verify(productRepository, times(1)).adjustStock(1L, -4);
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.getAvailability(1L));
+    }
+
+    @Test
+    @DisplayName("測試確認紀錄在確認時保存，服務在寫回前停止時重新啟動後繼續寫回")
+    void testConfirm_RecoveredAfterRestart() {
+        // 準備測試數據
+        stock.set(10);
+        reservationService.confirm(reservationService.reserve(1L, 6, null).getId());
+        assertEquals(1, confirmations.size());
+
+        // 執行測試，服務在寫回前停止，重新啟動的服務依確認紀錄恢復
+        ReservationServiceImpl restarted = newReservationService();
+
+        // 驗證結果，恢復的扣減從可售數量中扣除，寫回後刪除確認紀錄
+        assertEquals(4, restarted.getAvailability(1L).getAvailable());
+        restarted.flushConfirmed();
+        assertEquals(4, stock.get());
+        assertEquals(4, restarted.getAvailability(1L).getAvailable());
+        assertTrue(confirmations.isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試確認紀錄未能保存時確認失敗，保留仍可再次確認")
+    void testConfirm_SaveFailed() {
+        // 準備測試數據
+        stock.set(10);
+        ReservationDTO reservation = reservationService.reserve(1L, 6, null);
+        when(reservationConfirmationRepository.save(any(ReservationConfirmation.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // 執行測試
+        assertThrows(DataAccessResourceFailureException.class, () -> reservationService.confirm(reservation.getId()));
+
+        // 驗證結果，保留仍在帳本中，可以釋放
+        assertEquals(4, reservationService.getAvailability(1L).getAvailable());
+        reservationService.release(reservation.getId());
+        assertEquals(10, reservationService.getAvailability(1L).getAvailable());
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.release(reservation.getId()));
+    }
+
+    @Test
+    @DisplayName("測試併發的直接扣減、確認保留與寫回不會超賣")
+    void testConcurrentDirectDecrementAndConfirm_NoOversell() throws Exception {
+        // 準備測試數據
+        stock.set(1000);
+        int attempts = 4000;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger decremented = new AtomicInteger();
+
+        try {
+            // 寫回排程與請求並行
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (!done.get()) {
+                    reservationService.flushConfirmed();
+                }
+                return null;
+            });
+
+            // 執行測試，一半的請求保留並確認，另一半直接扣減
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                boolean direct = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        if (direct) {
+                            decrement(1);
+                            decremented.incrementAndGet();
+                        } else {
+                            reservationService.confirm(reservationService.reserve(1L, 1, null).getId());
+                            confirmed.incrementAndGet();
+                        }
+                    } catch (InsufficientStockException e) {
+                        // 可售數量不足，預期中的拒絕
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        reservationService.flushConfirmed();
+
+        // 驗證結果，所有已確認的扣減都寫回，且售出數量不超過庫存
+        assertEquals(1000, confirmed.get() + decremented.get());
+        assertEquals(0, stock.get());
+        assertEquals(0, reservationService.getAvailability(1L).getAvailable());
+        assertTrue(confirmations.isEmpty());
+    }
+
+    // 與 ProductServiceImpl 相同：在交易中先於帳本保留，再以條件更新扣減
+    private void decrement(int quantity) {
+        transactionTemplate.executeWithoutResult(status -> {
+            reservationService.holdForUpdate(1L, quantity);
+            if (productRepository.adjustStock(1L, -quantity) == 0) {
+                throw new InsufficientStockException("Insufficient stock for product with id: 1");
+            }
+        });
+    }
+}
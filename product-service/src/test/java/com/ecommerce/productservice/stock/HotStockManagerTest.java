@@ -0,0 +1,246 @@
+package com.ecommerce.productservice.stock;
+
+import com.ecommerce.productservice.exception.InsufficientStockException;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.model.Product;
+import com.ecommerce.productservice.model.ProductStockSlot;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductStockSlotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 熱門產品庫存管理器測試
+ *
+ * 在 H2 上驗證庫存分槽的啟用、停用、扣減、合併扣減與重新分配，以及併發扣減時不會超賣、
+ * 在同一交易中多次扣減的併發交易不會死鎖。併發測試需要每次更新各自提交，因此不使用測試預設的交易。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(HotStockManager.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class HotStockManagerTest {
+
+    @Autowired
+    private HotStockManager hotStockManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockSlotRepository productStockSlotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = createProduct(1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long hot : productStockSlotRepository.findProductIds()) {
+            hotStockManager.disable(hot);
+        }
+        productStockSlotRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("測試啟用熱門模式將庫存平均分配到分槽")
+    void testEnable() {
+        assertEquals(1000, hotStockManager.enable(productId, 3));
+
+        List<ProductStockSlot> slots = productStockSlotRepository.findByProductIdOrderBySlot(productId);
+        assertEquals(List.of(334, 333, 333), slots.stream().map(ProductStockSlot::getQuantity).toList());
+        assertTrue(hotStockManager.isHot(productId));
+        assertEquals(OptionalInt.of(1000), hotStockManager.stockOf(productId));
+    }
+
+    @Test
+    @DisplayName("測試未啟用熱門模式時不處理庫存調整")
+    void testAdjust_NotHot() {
+        assertTrue(hotStockManager.adjust(productId, -1).isEmpty());
+        assertTrue(hotStockManager.stockOf(productId).isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> hotStockManager.disable(productId));
+        assertThrows(ResourceNotFoundException.class, () -> hotStockManager.enable(productId + 1, 4));
+    }
+
+    @Test
+    @DisplayName("測試單一分槽不足時合併扣減，總和不足時拒絕")
+    void testAdjust_AcrossSlots() {
+        hotStockManager.enable(productId, 4);
+
+        assertEquals(OptionalInt.of(1100), hotStockManager.adjust(productId, 100));
+        assertEquals(OptionalInt.of(200), hotStockManager.adjust(productId, -900));
+        assertThrows(InsufficientStockException.class, () -> hotStockManager.adjust(productId, -201));
+        assertEquals(OptionalInt.of(200), hotStockManager.stockOf(productId));
+    }
+
+    @Test
+    @DisplayName("測試呼叫方的交易回滾時歸還已扣減的庫存")
+    void testDecrement_RestoredOnRollback() {
+        hotStockManager.enable(productId, 4);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            hotStockManager.adjust(productId, -10);
+            hotStockManager.adjust(productId, -600);
+            throw new IllegalStateException("Rolled back");
+        }));
+
+        assertEquals(OptionalInt.of(1000), hotStockManager.stockOf(productId));
+    }
+
+    @Test
+    @DisplayName("測試重新分配分槽並將總和同步回產品表")
+    void testRebalance() {
+        hotStockManager.enable(productId, 4);
+        productStockSlotRepository.adjustSlot(productId, 0, -250);
+        productStockSlotRepository.adjustSlot(productId, 1, -50);
+
+        hotStockManager.rebalance();
+
+        List<ProductStockSlot> slots = productStockSlotRepository.findByProductIdOrderBySlot(productId);
+        assertEquals(List.of(175, 175, 175, 175), slots.stream().map(ProductStockSlot::getQuantity).toList());
+        assertEquals(700, productRepository.findStockById(productId).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("測試停用熱門模式將分槽總和寫回產品表")
+    void testDisable() {
+        hotStockManager.enable(productId, 4);
+        hotStockManager.adjust(productId, -10);
+
+        assertEquals(990, hotStockManager.disable(productId));
+
+        assertFalse(hotStockManager.isHot(productId));
+        assertTrue(productStockSlotRepository.findByProductIdOrderBySlot(productId).isEmpty());
+        assertEquals(990, productRepository.findStockById(productId).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("測試併發扣減熱門產品不會超賣")
+    void testConcurrentDecrements_NoOversell() throws Exception {
+        hotStockManager.enable(productId, 8);
+        int attempts = 3000;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        hotStockManager.adjust(productId, -1);
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        // 總和不足，預期中的拒絕
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, succeeded.get());
+        assertEquals(OptionalInt.of(0), hotStockManager.stockOf(productId));
+    }
+
+    @Test
+    @DisplayName("測試在同一交易中以不同順序多次扣減的併發交易不會死鎖或超賣")
+    void testConcurrentMultiDecrementTransactions_NoDeadlock() throws Exception {
+        Long otherId = createProduct(300);
+        hotStockManager.enable(productId, 4);
+        hotStockManager.enable(otherId, 4);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int attempts = 600;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger committed = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                boolean reversed = i % 2 == 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        // 每個交易扣減兩個產品各兩次，一半的交易以相反的順序扣減
+                        transactionTemplate.executeWithoutResult(status -> {
+                            Long first = reversed ? otherId : productId;
+                            Long second = reversed ? productId : otherId;
+                            hotStockManager.adjust(first, -1);
+                            hotStockManager.adjust(second, -1);
+                            hotStockManager.adjust(first, -1);
+                            hotStockManager.adjust(second, -1);
+                        });
+                        committed.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        // 總和不足，整個交易回滾，預期中的拒絕
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 第二個產品只夠 150 個交易，回滾的交易已扣減的數量都被歸還
+        assertEquals(150, committed.get());
+        assertEquals(OptionalInt.of(700), hotStockManager.stockOf(productId));
+        assertEquals(OptionalInt.of(0), hotStockManager.stockOf(otherId));
+    }
+
+    private Long createProduct(int stock) {
+        Product product = new Product();
+        product.setName("熱門產品");
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(stock);
+        product.setCategoryId(1L);
+        product.setIsActive(true);
+        return productRepository.save(product).getId();
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.productservice.stock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分槽庫存估計單元測試
+ */
+public class StockSlotsTest {
+
+    @Test
+    @DisplayName("測試平均分配總庫存，餘數分配給編號較小的分槽")
+    void testSplit() {
+        assertArrayEquals(new int[] {4, 3, 3}, StockSlots.split(10, 3));
+        assertArrayEquals(new int[] {1, 1, 0, 0}, StockSlots.split(2, 4));
+    }
+
+    @Test
+    @DisplayName("測試從起始分槽輪轉，估計庫存足夠的分槽排在前面")
+    void testOrder() {
+        StockSlots slots = new StockSlots(new int[] {5, 0, 5, 1});
+
+        assertArrayEquals(new int[] {2, 0, 1, 3}, slots.order(2, 2));
+
+        slots.adjusted(1, 10);
+        assertArrayEquals(new int[] {1, 2, 0, 3}, slots.order(2, 1));
+    }
+}
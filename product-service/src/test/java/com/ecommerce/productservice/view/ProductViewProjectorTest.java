@@ -0,0 +1,283 @@
+package com.ecommerce.productservice.view;
+
+import com.ecommerce.productservice.cache.CategoryIndex;
+import com.ecommerce.productservice.cache.CategoryIndexManager;
+import com.ecommerce.productservice.config.CacheConfig;
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.dto.ProductViewRebuildReport;
+import com.ecommerce.productservice.event.CategoryChangedEvent;
+import com.ecommerce.productservice.event.StockChangedEvent;
+import com.ecommerce.productservice.event.StockSyncedEvent;
+import com.ecommerce.productservice.model.Category;
+import com.ecommerce.productservice.model.ProductOutboxEvent;
+import com.ecommerce.productservice.model.ProductView;
+import com.ecommerce.productservice.outbox.ProductChange;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.ProductExportService;
+import com.ecommerce.productservice.stock.HotStockManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 產品讀取模型投影器測試
+ *
+ * 驗證發件箱變更的條件更新、庫存與類別變更的合併刷新、重建，以及延遲指標
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductViewProjectorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private HotStockManager hotStockManager;
+
+    @Mock
+    private CategoryIndexManager categoryIndexManager;
+
+    @Mock
+    private ProductExportService productExportService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private ProductViewProjector productViewProjector;
+
+    private final CacheManager cacheManager = new CaffeineCacheManager(CacheConfig.PRODUCT_CACHE);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productViewProjector, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(productViewProjector, "meterRegistry", meterRegistry);
+        productViewProjector.init();
+    }
+
+    /**
+     * 測試套用產品變更 - 以序號條件更新文檔並記錄延遲
+     */
+    @Test
+    @DisplayName("測試套用產品變更 - 以序號條件更新文檔並記錄延遲")
+    void testOnProductChange_Upserts() throws Exception {
+        // 設置模擬行為，類別在變更之後改名
+        givenCategory(1L, "新類別名稱");
+        cacheManager.getCache(CacheConfig.PRODUCT_CACHE).put(1L, new ProductDTO());
+
+        // 執行測試
+        productViewProjector.onProductChange(change(7L, ProductOutboxEvent.Type.UPDATED, createProduct()));
+
+        // 驗證方法調用
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(ProductView.class));
+        assertEquals(1L, query.getValue().getQueryObject().get("id"));
+        assertEquals(7L, query.getValue().getQueryObject().get("sequence", Document.class).get("$lt"));
+        ProductDTO projected = (ProductDTO) update.getValue().getUpdateObject().get("$set", Map.class).get("product");
+        assertEquals("新類別名稱", projected.getCategoryName());
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(1L));
+        assertEquals(1, meterRegistry.get("product.view.lag").timer().count());
+        assertEquals(7.0, meterRegistry.get("product.view.sequence").gauge().value());
+        // 變更中的庫存可能較舊，排入下次刷新
+        assertEquals(1.0, meterRegistry.get("product.view.pending").gauge().value());
+    }
+
+    /**
+     * 測試套用產品變更 - 較舊的變更不覆蓋文檔
+     */
+    @Test
+    @DisplayName("測試套用產品變更 - 較舊的變更不覆蓋文檔")
+    void testOnProductChange_StaleChangeIgnored() throws Exception {
+        // 設置模擬行為，文檔已有較大的序號，條件不符而嘗試插入相同ID
+        givenCategory(1L, "電子產品");
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ProductView.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        // 執行測試
+        productViewProjector.onProductChange(change(3L, ProductOutboxEvent.Type.UPDATED, createProduct()));
+
+        // 驗證方法調用
+        assertEquals(0.0, meterRegistry.get("product.view.sequence").gauge().value());
+        assertEquals(0, meterRegistry.get("product.view.lag").timer().count());
+    }
+
+    /**
+     * 測試套用產品變更 - 刪除文檔
+     */
+    @Test
+    @DisplayName("測試套用產品變更 - 刪除文檔")
+    void testOnProductChange_Deleted() {
+        // 執行測試
+        productViewProjector.onProductChange(
+                new ProductChange(9L, 1L, ProductOutboxEvent.Type.DELETED, null, LocalDateTime.now()));
+
+        // 驗證方法調用
+        verify(mongoTemplate).remove(any(Query.class), eq(ProductView.class));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(ProductView.class));
+    }
+
+    /**
+     * 測試刷新庫存 - 同一產品的多次變更只寫入一次
+     */
+    @Test
+    @DisplayName("測試刷新庫存 - 同一產品的多次變更只寫入一次")
+    void testRefresh_CoalescesStockChanges() {
+        // 設置模擬行為，產品2為熱門模式
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductView.class)).thenReturn(bulk);
+        when(productRepository.findStocksByIds(anyCollection())).thenReturn(Map.of(1L, 10, 2L, 5));
+        when(hotStockManager.stockOf(1L)).thenReturn(OptionalInt.empty());
+        when(hotStockManager.stockOf(2L)).thenReturn(OptionalInt.of(40));
+
+        // 執行測試
+        productViewProjector.onStockChanged(new StockChangedEvent(1L, -1));
+        productViewProjector.onStockChanged(new StockChangedEvent(1L, -1));
+        productViewProjector.onStockSynced(new StockSyncedEvent(2L));
+        productViewProjector.refresh();
+        productViewProjector.refresh();
+
+        // 驗證方法調用
+        verify(productRepository, times(1)).findStocksByIds(anyCollection());
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), updates.capture());
+        assertTrue(updates.getAllValues().stream()
+                .anyMatch(update -> Integer.valueOf(40).equals(update.getUpdateObject().get("$set", Map.class).get("product.stock"))));
+        verify(bulk, times(1)).execute();
+    }
+
+    /**
+     * 測試刷新庫存 - 寫入失敗時下次重試
+     */
+    @Test
+    @DisplayName("測試刷新庫存 - 寫入失敗時下次重試")
+    void testRefresh_RetriesFailedStockRefresh() {
+        // 設置模擬行為，第一次查詢庫存失敗
+        when(productRepository.findStocksByIds(anyCollection()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(Map.of());
+        when(hotStockManager.stockOf(1L)).thenReturn(OptionalInt.empty());
+
+        // 執行測試
+        productViewProjector.onStockChanged(new StockChangedEvent(1L, -1));
+        productViewProjector.refresh();
+        assertEquals(1.0, meterRegistry.get("product.view.pending").gauge().value());
+        productViewProjector.refresh();
+
+        // 驗證方法調用
+        verify(productRepository, times(2)).findStocksByIds(anyCollection());
+        assertEquals(0.0, meterRegistry.get("product.view.pending").gauge().value());
+    }
+
+    /**
+     * 測試刷新類別 - 批量更新該類別所有產品的類別名稱
+     */
+    @Test
+    @DisplayName("測試刷新類別 - 批量更新該類別所有產品的類別名稱")
+    void testRefresh_UpdatesCategoryName() {
+        // 設置模擬行為
+        givenCategory(1L, "新類別名稱");
+
+        // 執行測試
+        productViewProjector.onCategoryChanged(new CategoryChangedEvent(1L));
+        productViewProjector.refresh();
+
+        // 驗證方法調用
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(ProductView.class));
+        assertEquals("新類別名稱", update.getValue().getUpdateObject().get("$set", Map.class).get("product.categoryName"));
+    }
+
+    /**
+     * 測試重建讀取模型 - 覆寫所有產品並移除已刪除產品的文檔
+     */
+    @Test
+    @DisplayName("測試重建讀取模型 - 覆寫所有產品並移除已刪除產品的文檔")
+    @SuppressWarnings("unchecked")
+    void testRebuild() throws Exception {
+        // 準備測試數據，重建前已套用序號 7 的變更
+        productViewProjector.onProductChange(change(7L, ProductOutboxEvent.Type.DELETED, createProduct()));
+
+        // 設置模擬行為
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductView.class)).thenReturn(bulk);
+        when(productExportService.forEachProduct(any())).thenAnswer(invocation -> {
+            Consumer<ProductDTO> action = invocation.getArgument(0);
+            action.accept(createProduct());
+            return 1L;
+        });
+        when(mongoTemplate.remove(any(Query.class), eq(ProductView.class))).thenReturn(DeleteResult.acknowledged(2));
+
+        // 執行測試
+        ProductViewRebuildReport report = productViewProjector.rebuild();
+
+        // 驗證方法調用
+        assertEquals(1, report.getProducts());
+        assertEquals(2, report.getRemoved());
+        ArgumentCaptor<Object> view = ArgumentCaptor.forClass(Object.class);
+        verify(bulk).replaceOne(any(Query.class), view.capture(), any(FindAndReplaceOptions.class));
+        assertEquals(1L, ((ProductView) view.getValue()).getId());
+        // 以最後套用的序號標記，重複送達的序號 7 以前的變更不會覆寫重建的文檔
+        assertEquals(7L, ((ProductView) view.getValue()).getSequence());
+        verify(bulk).execute();
+    }
+
+    private void givenCategory(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        when(categoryIndexManager.current()).thenReturn(CategoryIndex.of(List.of(category), 1L));
+    }
+
+    private ProductChange change(long sequence, ProductOutboxEvent.Type type, ProductDTO product) throws Exception {
+        return new ProductChange(sequence, product.getId(), type, objectMapper.writeValueAsString(product),
+                LocalDateTime.now().minusSeconds(1));
+    }
+
+    private ProductDTO createProduct() {
+        ProductDTO product = new ProductDTO();
+        product.setId(1L);
+        product.setName("測試產品");
+        product.setPrice(new BigDecimal("99.99"));
+        product.setStock(100);
+        product.setCategoryId(1L);
+        product.setCategoryName("電子產品");
+        product.setIsActive(true);
+        return product;
+    }
+}
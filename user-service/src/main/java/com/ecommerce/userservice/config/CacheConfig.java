@@ -0,0 +1,21 @@
+package com.ecommerce.userservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 快取配置類
+ * 
+ * 啟用宣告式快取，快取實現與容量由 application.yml 中的 spring.cache 配置決定。
+ * 快取攔截器的順序排在交易攔截器之外，快取的讀取與寫入不會被包含在用戶查詢的交易中。
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    
+    /**
+     * 用戶詳情快取名稱，以用戶名為鍵存放 UserDetailsImpl
+     */
+    public static final String USER_DETAILS_CACHE = "userDetails";
+}
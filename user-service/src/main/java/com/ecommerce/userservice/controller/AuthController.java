@@ -4,13 +4,20 @@ import com.ecommerce.userservice.dto.JwtResponse;
 import com.ecommerce.userservice.dto.LoginRequest;
 import com.ecommerce.userservice.dto.MessageResponse;
 import com.ecommerce.userservice.dto.SignupRequest;
+import com.ecommerce.userservice.exception.LoginThrottledException;
+import com.ecommerce.userservice.exception.PasswordHashingRejectedException;
+import com.ecommerce.userservice.security.LoginAttemptThrottle;
 import com.ecommerce.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -27,19 +34,41 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private LoginAttemptThrottle loginAttemptThrottle;
+    
     /**
      * 用戶登入
      * 
+     * 用戶名或客戶端 IP 最近的登入失敗次數已達上限時，不進行密碼驗證直接返回 429。
+     * 認證失敗時記錄失敗次數，成功時清除該用戶名的失敗次數。
+     * 
      * @param loginRequest 登入請求數據
+     * @param request HTTP 請求，用於取得客戶端 IP
      * @return JWT 響應
      */
     @PostMapping("/signin")
     @Operation(summary = "用戶登入", description = "使用用戶名和密碼登入系統，返回 JWT 令牌")
     public ResponseEntity<?> authenticateUser(
             @Parameter(description = "登入請求數據，包含用戶名和密碼", required = true)
-            @Valid @RequestBody LoginRequest loginRequest) {
+            @Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
+        
+        String username = loginRequest.getUsername();
+        String clientIp = request.getRemoteAddr();
+        if (loginAttemptThrottle.isThrottled(username, clientIp)) {
+            throw new LoginThrottledException("Too many failed login attempts", 
+                    loginAttemptThrottle.getRetryAfterSeconds());
+        }
         
-        JwtResponse jwtResponse = userService.authenticateUser(loginRequest);
+        JwtResponse jwtResponse;
+        try {
+            jwtResponse = userService.authenticateUser(loginRequest);
+        } catch (AuthenticationException e) {
+            loginAttemptThrottle.recordFailure(username, clientIp);
+            throw e;
+        }
+        loginAttemptThrottle.reset(username);
         return ResponseEntity.ok(jwtResponse);
     }
     
@@ -57,4 +86,30 @@ public class AuthController {
         MessageResponse response = userService.registerUser(signupRequest);
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * 密碼哈希容量已滿時返回 429，並提示客戶端稍後重試
+     * 
+     * @param e 密碼哈希請求被拒絕異常
+     * @return 錯誤消息和HTTP狀態碼
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<MessageResponse> handlePasswordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Too many authentication requests, please retry later"));
+    }
+    
+    /**
+     * 登入失敗次數過多時返回 429，並提示客戶端等待滑動視窗經過後重試
+     * 
+     * @param e 登入嘗試過多異常
+     * @return 錯誤消息和HTTP狀態碼
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<MessageResponse> handleLoginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new MessageResponse("Error: Too many failed login attempts, please retry later"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.ecommerce.userservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 用戶變更事件
+ * 
+ * 在用戶被更新、刪除或角色變更時由用戶服務發布，
+ * 監聽者可在交易提交後據此清除記憶體中的用戶資料（例如用戶詳情快取與令牌版本登記表）。
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    
+    // 發生變更的用戶ID
+    private final Long userId;
+    
+    // 發生變更的用戶名
+    private final String username;
+    
+    // 變更後的令牌版本，用戶已刪除時為 TokenVersionRegistry.REVOKED
+    private final long tokenVersion;
+}
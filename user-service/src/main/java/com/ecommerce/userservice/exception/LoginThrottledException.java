@@ -0,0 +1,40 @@
+package com.ecommerce.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 登入嘗試過多異常
+ *
+ * 當用戶名或客戶端 IP 在滑動視窗內的登入失敗次數已達上限時拋出此異常，不進行密碼驗證。
+ * 異常攜帶建議的重試等待時間，由控制器返回給客戶端。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 429 (TOO_MANY_REQUESTS) 響應。
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    // 建議的重試等待時間（秒）
+    private final long retryAfterSeconds;
+
+    /**
+     * 使用指定的錯誤消息和重試等待時間構造異常
+     *
+     * @param message 錯誤消息
+     * @param retryAfterSeconds 建議的重試等待時間（秒）
+     */
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * 獲取建議的重試等待時間
+     *
+     * @return 重試等待時間（秒）
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
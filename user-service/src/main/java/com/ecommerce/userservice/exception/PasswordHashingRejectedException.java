@@ -0,0 +1,35 @@
+package com.ecommerce.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 密碼哈希請求被拒絕異常
+ *
+ * 當密碼哈希執行緒池與等待佇列都已滿時拋出此異常，請求立即失敗而不佔用請求執行緒等待。
+ * 使用 @ResponseStatus 註解將此異常映射為 HTTP 429 (TOO_MANY_REQUESTS) 響應。
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 使用指定的錯誤消息構造異常
+     *
+     * @param message 錯誤消息
+     */
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * 使用指定的錯誤消息和原因構造異常
+     *
+     * @param message 錯誤消息
+     * @param cause 原因
+     */
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
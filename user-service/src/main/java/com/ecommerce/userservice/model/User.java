@@ -1,5 +1,6 @@
 package com.ecommerce.userservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -44,6 +45,11 @@ public class User {
     
     private boolean enabled = true;  // 默認啟用
     
+    // 令牌版本，寫入 JWT 的 ver 聲明；遞增後先前簽發的令牌全部失效
+    @JsonIgnore  // 只在服務內部使用，不輸出也不接受客戶端提供
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+    
     @Column(name = "created_at")  // 指定列名
     private LocalDateTime createdAt;
     
@@ -2,6 +2,8 @@ package com.ecommerce.userservice.repository;
 
 import com.ecommerce.userservice.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -31,6 +33,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
     
+    /**
+     * 根據用戶 ID 查詢令牌版本
+     * 
+     * 只查詢單一欄位，不載入角色關聯
+     * 
+     * @param id 用戶 ID
+     * @return 包含令牌版本的 Optional 對象，如果用戶不存在則為空
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+    
     /**
      * 檢查用戶名是否已存在
      * 
@@ -0,0 +1,194 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 有界的密碼編碼器
+ *
+ * 將 BCrypt 的哈希與驗證交給固定大小的專用執行緒池，執行緒數量預設為 CPU 核心數，
+ * 等待佇列有固定容量。佇列已滿時立即拋出 {@link PasswordHashingRejectedException}，
+ * 大量登入時只有執行緒池與佇列容量內的請求執行緒在等待哈希結果，其餘請求執行緒
+ * 仍可處理其他端點。
+ *
+ * 記錄每次哈希在佇列中的等待時間、哈希時間與被拒絕的次數。已儲存哈希的 cost
+ * 與設定的 strength 不同時 {@link #upgradeEncoding(String)} 返回 true，
+ * 認證提供者會在登入成功後以新的 cost 重新哈希。
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    // BCrypt 哈希的格式，例如 $2a$10$...，第一個群組為 cost
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final String ENCODE = "encode";
+
+    private static final String MATCHES = "matches";
+
+    // 實際執行哈希的編碼器
+    private final PasswordEncoder delegate;
+
+    // 設定的 BCrypt cost
+    private final int strength;
+
+    // 專用的密碼哈希執行緒池
+    private final ThreadPoolExecutor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 建立使用 BCrypt 的有界密碼編碼器
+     *
+     * @param strength BCrypt cost
+     * @param threads 執行緒數量
+     * @param queueCapacity 等待佇列容量
+     * @param meterRegistry 指標註冊表
+     */
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this(new BCryptPasswordEncoder(strength), strength, threads, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * 建立有界密碼編碼器
+     *
+     * @param delegate 實際執行哈希的編碼器
+     * @param strength 設定的 BCrypt cost
+     * @param threads 執行緒數量
+     * @param queueCapacity 等待佇列容量
+     * @param meterRegistry 指標註冊表
+     */
+    BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueCapacity,
+                           MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.strength = strength;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+        logger.info("Password hashing executor started with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 判斷已儲存的哈希是否需要以設定的 cost 重新哈希
+     *
+     * @param encodedPassword 已儲存的哈希
+     * @return 哈希的 cost 與設定的 strength 不同時返回 true
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * 停止執行緒池，由 Spring 在關閉時調用
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 在執行緒池中執行哈希並等待結果
+     *
+     * @param operation 操作名稱，用於指標標籤
+     * @param task 哈希操作
+     * @return 哈希操作的結果
+     * @throws PasswordHashingRejectedException 如果執行緒池與等待佇列都已滿
+     */
+    private <T> T execute(String operation, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer(operation).record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    hashTimer(operation).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter(operation).increment();
+            throw new PasswordHashingRejectedException("Password hashing capacity exceeded, please retry later", e);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private Timer queueWaitTimer(String operation) {
+        return Timer.builder("password.hashing.queue.wait")
+                .description("Time a password hashing task waits for a hashing thread")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("password.hashing.time")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String operation) {
+        return Counter.builder("password.hashing.rejected")
+                .description("Password hashing tasks rejected because the executor was saturated")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,192 @@
+package com.ecommerce.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 登入嘗試節流器
+ *
+ * 以滑動視窗統計每個用戶名與每個客戶端 IP 最近的登入失敗次數，超過上限的登入請求
+ * 在進行密碼驗證前即被拒絕，不再消耗 BCrypt 的 CPU 時間。
+ *
+ * 滑動視窗以前一個與目前的固定視窗近似：估計值為前一視窗的失敗次數乘以其仍在滑動視窗內的比例，
+ * 加上目前視窗的失敗次數。每個鍵的兩個計數與視窗編號壓縮在一個 AtomicLong 中以 CAS 更新，
+ * 鍵之間沒有共用的鎖；鍵保存在有容量上限的 Caffeine 快取中，閒置兩個視窗後移除。
+ *
+ * 登入成功時清除該用戶名的計數；IP 的計數不清除，避免以一個有效帳號重置整批撞庫嘗試。
+ */
+@Component  // 標記為 Spring 組件
+public class LoginAttemptThrottle {
+
+    private static final String USERNAME_PREFIX = "u:";
+
+    private static final String IP_PREFIX = "ip:";
+
+    // 滑動視窗長度（秒）
+    @Value("${security.login-throttle.window-seconds:300}")
+    private long windowSeconds;
+
+    // 每個用戶名在滑動視窗內允許的登入失敗次數
+    @Value("${security.login-throttle.max-failures-per-username:5}")
+    private int maxFailuresPerUsername;
+
+    // 每個客戶端 IP 在滑動視窗內允許的登入失敗次數
+    @Value("${security.login-throttle.max-failures-per-ip:50}")
+    private int maxFailuresPerIp;
+
+    // 最多保存的鍵數量
+    @Value("${security.login-throttle.max-keys:100000}")
+    private long maxKeys;
+
+    // 目前時間（毫秒），測試時可替換
+    private LongSupplier clock = System::currentTimeMillis;
+
+    private long windowMillis;
+
+    // 用戶名或 IP 到失敗計數的對應
+    private Cache<String, SlidingWindowCounter> counters;
+
+    /**
+     * 建立失敗計數的儲存
+     */
+    @PostConstruct
+    public void init() {
+        windowMillis = Duration.ofSeconds(windowSeconds).toMillis();
+        counters = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(windowMillis * 2))
+                .build();
+    }
+
+    /**
+     * 檢查登入請求是否應該被拒絕
+     *
+     * @param username 用戶名
+     * @param clientIp 客戶端 IP
+     * @return 用戶名或 IP 的失敗次數已達上限時返回 true
+     */
+    public boolean isThrottled(String username, String clientIp) {
+        long now = clock.getAsLong();
+        return exceeds(usernameKey(username), maxFailuresPerUsername, now)
+                || exceeds(IP_PREFIX + clientIp, maxFailuresPerIp, now);
+    }
+
+    /**
+     * 記錄一次登入失敗
+     *
+     * @param username 用戶名
+     * @param clientIp 客戶端 IP
+     */
+    public void recordFailure(String username, String clientIp) {
+        long now = clock.getAsLong();
+        counters.get(usernameKey(username), key -> new SlidingWindowCounter()).increment(now, windowMillis);
+        counters.get(IP_PREFIX + clientIp, key -> new SlidingWindowCounter()).increment(now, windowMillis);
+    }
+
+    /**
+     * 登入成功後清除用戶名的失敗計數
+     *
+     * @param username 用戶名
+     */
+    public void reset(String username) {
+        counters.invalidate(usernameKey(username));
+    }
+
+    /**
+     * 獲取被拒絕的客戶端建議的重試等待時間
+     *
+     * @return 滑動視窗長度（秒）
+     */
+    public long getRetryAfterSeconds() {
+        return windowSeconds;
+    }
+
+    private boolean exceeds(String key, int maxFailures, long now) {
+        SlidingWindowCounter counter = counters.getIfPresent(key);
+        return counter != null && counter.estimate(now, windowMillis) >= maxFailures;
+    }
+
+    // 用戶名不區分大小寫，避免以大小寫變化繞過限制
+    private static String usernameKey(String username) {
+        return USERNAME_PREFIX + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 單一鍵的滑動視窗計數
+     *
+     * 狀態的高 32 位為目前視窗編號，其後 16 位為前一視窗的次數，低 16 位為目前視窗的次數，
+     * 次數達到 0xFFFF 後不再增加
+     */
+    static final class SlidingWindowCounter {
+
+        private static final long COUNT_MASK = 0xFFFFL;
+
+        private static final long WINDOW_MASK = 0xFFFFFFFFL;
+
+        private final AtomicLong state = new AtomicLong();
+
+        /**
+         * 估計滑動視窗內的次數
+         *
+         * @param now 目前時間（毫秒）
+         * @param windowMillis 視窗長度（毫秒）
+         * @return 估計的次數
+         */
+        double estimate(long now, long windowMillis) {
+            long window = (now / windowMillis) & WINDOW_MASK;
+            long rolled = roll(state.get(), window);
+            double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+            return previous(rolled) * previousWeight + current(rolled);
+        }
+
+        /**
+         * 增加目前視窗的次數
+         *
+         * @param now 目前時間（毫秒）
+         * @param windowMillis 視窗長度（毫秒）
+         */
+        void increment(long now, long windowMillis) {
+            long window = (now / windowMillis) & WINDOW_MASK;
+            while (true) {
+                long observed = state.get();
+                long rolled = roll(observed, window);
+                long next = pack(window, previous(rolled), Math.min(current(rolled) + 1, COUNT_MASK));
+                if (state.compareAndSet(observed, next)) {
+                    return;
+                }
+            }
+        }
+
+        // 將狀態推進到指定視窗，跨過的視窗次數移入前一視窗或歸零
+        private static long roll(long state, long window) {
+            long stateWindow = state >>> 32;
+            if (stateWindow == window) {
+                return state;
+            }
+            if (((stateWindow + 1) & WINDOW_MASK) == window) {
+                return pack(window, current(state), 0);
+            }
+            return pack(window, 0, 0);
+        }
+
+        private static long pack(long window, long previous, long current) {
+            return (window << 32) | (previous << 16) | current;
+        }
+
+        private static long previous(long state) {
+            return (state >>> 16) & COUNT_MASK;
+        }
+
+        private static long current(long state) {
+            return state & COUNT_MASK;
+        }
+    }
+}
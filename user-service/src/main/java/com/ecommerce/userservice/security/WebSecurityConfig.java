@@ -3,7 +3,11 @@ package com.ecommerce.userservice.security;
 import com.ecommerce.userservice.security.jwt.AuthEntryPointJwt;
 import com.ecommerce.userservice.security.jwt.AuthTokenFilter;
 import com.ecommerce.userservice.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,7 +17,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -36,6 +39,21 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;  // 未授權處理器，處理認證失敗的情況
 
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;  // 指標註冊表，用於記錄密碼哈希指標
+
+    // BCrypt cost，調整後已註冊用戶在下次登入時以新的 cost 重新哈希
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    // 密碼哈希執行緒數量，0 表示使用 CPU 核心數
+    @Value("${security.password.hashing.threads:0}")
+    private int hashingThreads;
+
+    // 密碼哈希等待佇列容量，佇列已滿時請求返回 429
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
     /**
      * 創建 JWT 認證過濾器 Bean
      * 
@@ -51,6 +69,7 @@ public class WebSecurityConfig {
      * 
      * 此認證提供者使用 UserDetailsService 加載用戶信息，
      * 並使用 PasswordEncoder 驗證密碼。
+     * 已儲存哈希的 cost 與設定不同時，登入成功後透過 UserDetailsPasswordService 重新哈希。
      * 
      * @return DAO 認證提供者實例
      */
@@ -60,6 +79,7 @@ public class WebSecurityConfig {
         
         authProvider.setUserDetailsService(userDetailsService);  // 設置用戶詳情服務
         authProvider.setPasswordEncoder(passwordEncoder());      // 設置密碼編碼器
+        authProvider.setUserDetailsPasswordService(userDetailsService);  // 設置密碼重新哈希服務
         
         return authProvider;
     }
@@ -82,12 +102,15 @@ public class WebSecurityConfig {
      * 創建密碼編碼器 Bean
      * 
      * 使用 BCrypt 算法對密碼進行單向哈希，提高安全性。
+     * 哈希在專用的有界執行緒池中執行，避免大量登入佔滿請求執行緒。
      * 
      * @return 密碼編碼器實例
      */
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(bcryptStrength, threads, hashingQueueCapacity,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 
     /**
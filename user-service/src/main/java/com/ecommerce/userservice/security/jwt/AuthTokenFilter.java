@@ -1,5 +1,7 @@
 package com.ecommerce.userservice.security.jwt;
 
+import com.ecommerce.userservice.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * JWT 認證過濾器
@@ -32,7 +35,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;  // JWT 工具類，用於解析和驗證令牌
 
     @Autowired
-    private UserDetailsService userDetailsService;  // 用戶詳情服務，用於加載用戶信息
+    private UserDetailsService userDetailsService;  // 用戶詳情服務，用於加載舊令牌的用戶信息
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;  // 令牌版本登記表，用於檢查令牌是否已撤銷
 
     // 日誌記錄器
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
@@ -53,14 +59,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             // 從請求中解析 JWT 令牌
             String jwt = parseJwt(request);
             
+            // 驗證令牌一次並取得聲明，令牌不存在或無效時為空
+            Optional<Claims> claims = jwt != null ? jwtUtils.verifyJwtToken(jwt) : Optional.empty();
+            
+            // 由令牌的聲明建立用戶詳情，令牌無效或已撤銷時為 null
+            UserDetails userDetails = claims.map(this::userDetailsFromClaims).orElse(null);
+            
             // 如果令牌存在且有效
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                // 從令牌中獲取用戶名
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                // 加載用戶詳情
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
+            if (userDetails != null) {
                 // 創建身份驗證令牌
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
@@ -79,6 +85,29 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 由令牌的聲明取得用戶詳情
+     * 
+     * 令牌攜帶用戶 ID 與令牌版本時直接由聲明建立，並以記憶體中的令牌版本檢查是否已撤銷；
+     * 缺少這些聲明的舊令牌改為依用戶名從資料庫載入。
+     * 
+     * @param claims 已驗證的令牌聲明
+     * @return 用戶詳情，令牌已撤銷時返回 null
+     */
+    private UserDetails userDetailsFromClaims(Claims claims) {
+        Optional<UserDetailsImpl> fromClaims = jwtUtils.getUserDetailsFromClaims(claims);
+        if (fromClaims.isEmpty()) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        
+        UserDetailsImpl userDetails = fromClaims.get();
+        if (!tokenVersionRegistry.isCurrent(userDetails.getId(), userDetails.getTokenVersion())) {
+            logger.error("JWT token is revoked for user: {}", userDetails.getUsername());
+            return null;
+        }
+        return userDetails;
+    }
+
     /**
      * 從 HTTP 請求中解析 JWT 令牌
      * 
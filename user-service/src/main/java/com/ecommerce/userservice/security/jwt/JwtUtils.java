@@ -1,23 +1,44 @@
 package com.ecommerce.userservice.security.jwt;
 
+import com.ecommerce.userservice.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * JWT 工具類
  * 
  * 此類提供 JWT (JSON Web Token) 相關的工具方法，包括生成令牌、解析令牌和驗證令牌。
  * JWT 用於實現無狀態的身份驗證機制，避免在服務器端存儲會話狀態。
+ * 
+ * 簽名密鑰與解析器在啟動時建立一次並重複使用。驗證成功的令牌以其 SHA-256 摘要為鍵快取聲明，
+ * 同一令牌的後續請求不再重複解析與驗證簽名；快取項目在令牌的 exp 到期時失效，
+ * 命中時仍會再次檢查過期時間。快取容量由 jwt.cache.max-size 限制，設為 0 時停用快取。
+ * 
+ * 令牌攜帶用戶 ID、角色與令牌版本，認證過濾器直接由聲明建立用戶詳情，不必在每個請求查詢資料庫。
  */
 @Component  // 標記為 Spring 組件
 public class JwtUtils {
@@ -25,6 +46,15 @@ public class JwtUtils {
     // 日誌記錄器
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    // 用戶 ID 聲明
+    public static final String CLAIM_USER_ID = "uid";
+
+    // 角色聲明，內容為權限名稱列表
+    public static final String CLAIM_ROLES = "roles";
+
+    // 令牌版本聲明，與用戶目前的令牌版本不符時令牌視為已撤銷
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     // 從配置文件中注入 JWT 密鑰
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -33,10 +63,57 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    // 已驗證令牌快取的最大項目數量
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    // 簽名密鑰，啟動時建立一次
+    private Key signingKey;
+
+    // 令牌解析器，執行緒安全，可在請求之間共用
+    private JwtParser jwtParser;
+
+    // 已驗證令牌的聲明，以令牌摘要為鍵，停用快取時為 null
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+
+    /**
+     * 建立簽名密鑰、令牌解析器與已驗證令牌快取
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        if (cacheMaxSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                        @Override
+                        public long expireAfterCreate(ByteBuffer digest, Claims claims, long currentTime) {
+                            return TimeUnit.MILLISECONDS.toNanos(
+                                    Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(ByteBuffer digest, Claims claims, long currentTime,
+                                                      long currentDuration) {
+                            return expireAfterCreate(digest, claims, currentTime);
+                        }
+
+                        @Override
+                        public long expireAfterRead(ByteBuffer digest, Claims claims, long currentTime,
+                                                    long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+    }
+
     /**
      * 生成 JWT 令牌
      * 
-     * 根據用戶的身份驗證信息生成 JWT 令牌
+     * 根據用戶的身份驗證信息生成 JWT 令牌。用戶詳情為 {@link UserDetailsImpl} 時，
+     * 同時寫入用戶 ID、角色與令牌版本聲明
      * 
      * @param authentication 身份驗證對象，包含用戶信息
      * @return 生成的 JWT 令牌字符串
@@ -44,48 +121,89 @@ public class JwtUtils {
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder();
+        if (userPrincipal instanceof UserDetailsImpl userDetails) {
+            builder.claim(CLAIM_USER_ID, userDetails.getId())
+                    .claim(CLAIM_ROLES, userDetails.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .collect(Collectors.toList()))
+                    .claim(CLAIM_TOKEN_VERSION, userDetails.getTokenVersion());
+        }
+        return builder
                 .setSubject((userPrincipal.getUsername()))  // 設置令牌主題為用戶名
                 .setIssuedAt(new Date())                   // 設置令牌簽發時間
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))  // 設置令牌過期時間
-                .signWith(key(), SignatureAlgorithm.HS256)  // 使用 HS256 算法和密鑰簽名
+                .signWith(signingKey, SignatureAlgorithm.HS256)  // 使用 HS256 算法和密鑰簽名
                 .compact();  // 生成最終的令牌字符串
     }
 
     /**
-     * 生成用於簽名的密鑰
+     * 驗證 JWT 令牌並返回其中的聲明
      * 
-     * 將配置的 JWT 密鑰字符串轉換為 HMAC-SHA 密鑰
+     * 令牌只解析與驗證簽名一次。快取中有相同令牌且尚未過期時直接返回快取的聲明；
+     * 沒有 exp 的令牌不寫入快取。
      * 
-     * @return 用於簽名的密鑰對象
+     * @param token JWT 令牌字符串
+     * @return 令牌有效時返回聲明，否則返回空
      */
-    private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public Optional<Claims> verifyJwtToken(String token) {
+        if (token == null || token.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return Optional.empty();
+        }
+        if (verifiedTokens == null) {
+            return parseClaims(token);
+        }
+
+        ByteBuffer digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (cached.getExpiration().after(new Date())) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(digest);
+            logger.error("JWT token is expired: {}", cached.getExpiration());
+            return Optional.empty();
+        }
+
+        Optional<Claims> claims = parseClaims(token);
+        claims.filter(verified -> verified.getExpiration() != null)
+                .ifPresent(verified -> verifiedTokens.put(digest, verified));
+        return claims;
     }
 
     /**
-     * 從 JWT 令牌中獲取用戶名
+     * 由令牌的聲明建立用戶詳情
      * 
-     * @param token JWT 令牌字符串
-     * @return 令牌中包含的用戶名
+     * 用戶詳情不包含郵箱與密碼，只用於請求的授權判斷
+     * 
+     * @param claims 已驗證的令牌聲明
+     * @return 用戶詳情，令牌缺少用戶 ID 或令牌版本聲明時返回空
      */
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    public Optional<UserDetailsImpl> getUserDetailsFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || tokenVersion == null) {
+            return Optional.empty();
+        }
+
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
+        return Optional.of(new UserDetailsImpl(
+                userId.longValue(), claims.getSubject(), null, null, authorities, tokenVersion.longValue()));
     }
 
     /**
-     * 驗證 JWT 令牌的有效性
-     * 
-     * 檢查令牌是否有效、是否過期等
+     * 解析令牌並驗證簽名與過期時間
      * 
-     * @param authToken JWT 令牌字符串
-     * @return 如果令牌有效則返回 true，否則返回 false
+     * @param token JWT 令牌字符串
+     * @return 令牌有效時返回聲明，否則返回空
      */
-    public boolean validateJwtToken(String authToken) {
+    private Optional<Claims> parseClaims(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
         } catch (MalformedJwtException e) {
             // 令牌格式不正確
             logger.error("Invalid JWT token: {}", e.getMessage());
@@ -95,11 +213,54 @@ public class JwtUtils {
         } catch (UnsupportedJwtException e) {
             // 不支持的令牌類型
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            // 簽名與密鑰不符
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             // 令牌為空
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
+        return Optional.empty();
+    }
+
+    /**
+     * 計算令牌的 SHA-256 摘要作為快取鍵
+     * 
+     * 摘要涵蓋簽名部分，偽造或竄改的令牌不會命中其他令牌的快取項目
+     * 
+     * @param token JWT 令牌字符串
+     * @return 令牌摘要
+     */
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * 從 JWT 令牌中獲取用戶名
+     * 
+     * @param token JWT 令牌字符串
+     * @return 令牌中包含的用戶名
+     * @throws JwtException 如果令牌無效或已過期
+     */
+    public String getUserNameFromJwtToken(String token) {
+        return verifyJwtToken(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
+    }
 
-        return false;
+    /**
+     * 驗證 JWT 令牌的有效性
+     * 
+     * 檢查令牌是否有效、是否過期等
+     * 
+     * @param authToken JWT 令牌字符串
+     * @return 如果令牌有效則返回 true，否則返回 false
+     */
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken).isPresent();
     }
 }
\ No newline at end of file
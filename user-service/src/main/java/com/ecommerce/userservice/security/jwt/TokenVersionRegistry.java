@@ -0,0 +1,112 @@
+package com.ecommerce.userservice.security.jwt;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * 令牌版本登記表
+ *
+ * 在記憶體中保存每個用戶目前的令牌版本，認證過濾器以此判斷 JWT 的 ver 聲明是否已被撤銷，
+ * 不必在每個請求載入用戶實體與角色。未登記的用戶只查詢 users 表的 token_version 欄位。
+ *
+ * 本實例的用戶更新與刪除在交易提交後刷新登記表，交易回滾時登記表不變；
+ * 其他實例的變更在項目過期後重新查詢時生效，
+ * 過期時間由 jwt.token-version.refresh-seconds 設定。已刪除的用戶登記為 {@link #REVOKED}，
+ * 其令牌一律視為已撤銷。
+ */
+@Component  // 標記為 Spring 組件
+public class TokenVersionRegistry {
+
+    /**
+     * 已刪除或不存在的用戶的令牌版本，不會與任何令牌的 ver 聲明相符
+     */
+    public static final long REVOKED = -1L;
+
+    @Autowired
+    private UserRepository userRepository;  // 用戶儲存庫，用於查詢令牌版本
+
+    // 登記表項目的有效時間（秒），過期後重新查詢資料庫
+    @Value("${jwt.token-version.refresh-seconds:60}")
+    private long refreshSeconds;
+
+    // 登記表最多保存的用戶數量
+    @Value("${jwt.token-version.max-size:100000}")
+    private long maxSize;
+
+    // 用戶 ID 到令牌版本的對應
+    private Cache<Long, Long> versions;
+
+    /**
+     * 建立登記表
+     */
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .build();
+    }
+
+    /**
+     * 檢查令牌版本是否為用戶目前的版本
+     *
+     * @param userId 用戶 ID
+     * @param tokenVersion 令牌的 ver 聲明
+     * @return 令牌版本有效時返回 true，已撤銷時返回 false
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return tokenVersion != REVOKED && currentVersion(userId) == tokenVersion;
+    }
+
+    /**
+     * 獲取用戶目前的令牌版本
+     *
+     * @param userId 用戶 ID
+     * @return 令牌版本，用戶不存在時返回 {@link #REVOKED}
+     */
+    public long currentVersion(Long userId) {
+        return versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(REVOKED));
+    }
+
+    /**
+     * 用戶更新後刷新令牌版本
+     *
+     * @param userId 用戶 ID
+     * @param tokenVersion 更新後的令牌版本
+     */
+    public void update(Long userId, long tokenVersion) {
+        versions.put(userId, tokenVersion);
+    }
+
+    /**
+     * 用戶刪除後撤銷其全部令牌
+     *
+     * @param userId 用戶 ID
+     */
+    public void revoke(Long userId) {
+        versions.put(userId, REVOKED);
+    }
+
+    /**
+     * 用戶變更的交易提交後刷新令牌版本
+     *
+     * 若在提交前刷新而交易回滾，登記表會保存資料庫沒有的版本，
+     * 直到項目過期前該用戶的所有令牌都會被拒絕
+     *
+     * @param event 用戶變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        update(event.getUserId(), event.getTokenVersion());
+    }
+}
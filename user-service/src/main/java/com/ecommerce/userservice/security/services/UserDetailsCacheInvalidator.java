@@ -0,0 +1,36 @@
+package com.ecommerce.userservice.security.services;
+
+import com.ecommerce.userservice.config.CacheConfig;
+import com.ecommerce.userservice.event.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 用戶詳情快取失效處理器
+ * 
+ * 在用戶變更的交易提交後清除該用戶的快取。若在提交前清除，
+ * 其他請求可能在提交前重新載入舊數據並寫回快取，直到過期前都讀到舊的角色。
+ */
+@Component  // 標記為 Spring 組件
+public class UserDetailsCacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;  // 快取管理器，用於取得用戶詳情快取
+
+    /**
+     * 用戶變更的交易提交後清除該用戶的快取
+     * 
+     * @param event 用戶變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE);
+        if (cache != null) {
+            cache.evict(event.getUsername());
+        }
+    }
+}
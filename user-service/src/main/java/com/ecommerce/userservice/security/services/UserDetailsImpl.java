@@ -31,6 +31,9 @@ public class UserDetailsImpl implements UserDetails {
     // 用戶的權限集合
     private Collection<? extends GrantedAuthority> authorities;
 
+    // 令牌版本，簽發 JWT 時寫入 ver 聲明
+    private long tokenVersion;
+
     /**
      * 構造函數
      * 
@@ -49,6 +52,22 @@ public class UserDetailsImpl implements UserDetails {
         this.authorities = authorities;
     }
 
+    /**
+     * 構造函數
+     * 
+     * @param id 用戶 ID
+     * @param username 用戶名
+     * @param email 郵箱
+     * @param password 密碼
+     * @param authorities 權限集合
+     * @param tokenVersion 令牌版本
+     */
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities, long tokenVersion) {
+        this(id, username, email, password, authorities);
+        this.tokenVersion = tokenVersion;
+    }
+
     /**
      * 從 User 實體構建 UserDetailsImpl 對象
      * 
@@ -70,7 +89,8 @@ public class UserDetailsImpl implements UserDetails {
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getTokenVersion());
     }
 
     /**
@@ -92,6 +112,15 @@ public class UserDetailsImpl implements UserDetails {
         return id;
     }
 
+    /**
+     * 獲取令牌版本
+     * 
+     * @return 令牌版本
+     */
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
     /**
      * 獲取用戶郵箱
      * 
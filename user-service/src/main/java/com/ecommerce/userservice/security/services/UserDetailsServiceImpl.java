@@ -1,9 +1,14 @@
 package com.ecommerce.userservice.security.services;
 
+import com.ecommerce.userservice.config.CacheConfig;
+import com.ecommerce.userservice.event.UserChangedEvent;
 import com.ecommerce.userservice.model.User;
 import com.ecommerce.userservice.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,13 +20,23 @@ import org.springframework.transaction.annotation.Transactional;
  * 此類實現 Spring Security 的 UserDetailsService 介面，
  * 負責從資料庫加載用戶信息，並將其轉換為 Spring Security 可用的 UserDetails 對象。
  * 這是 Spring Security 認證機制的核心組件之一。
+ * 
+ * 載入結果以用戶名為鍵快取，容量與過期時間由 spring.cache.caffeine.spec 設定。
+ * 同一用戶的並發載入只查詢一次資料庫，其他請求等待同一結果。
+ * 用戶更新或刪除後由 {@link UserDetailsCacheInvalidator} 清除。
+ * 
+ * 同時實現 UserDetailsPasswordService，登入時若密碼哈希的 cost 與設定不同，
+ * 認證提供者以新的哈希調用 {@link #updatePassword(UserDetails, String)} 保存。
  */
 @Service  // 標記為服務組件
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UserRepository userRepository;  // 用戶儲存庫，用於訪問用戶資料
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;  // 事件發布器，用於通知用戶詳情快取失效
+
     /**
      * 根據用戶名加載用戶詳情
      * 
@@ -33,6 +48,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @throws UsernameNotFoundException 如果用戶不存在
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#username", sync = true)
     @Transactional  // 確保方法在事務中執行
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // 從資料庫查詢用戶
@@ -42,4 +58,27 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         // 將 User 實體轉換為 UserDetailsImpl 對象
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * 保存以新 cost 重新哈希的密碼
+     * 
+     * 由認證提供者在登入成功後調用，交易提交後清除該用戶的快取。
+     * 
+     * @param user 已通過認證的用戶詳情
+     * @param newPassword 新的密碼哈希
+     * @return 包含新密碼哈希的用戶詳情
+     * @throws UsernameNotFoundException 如果用戶已不存在
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + user.getUsername()));
+
+        entity.setPassword(newPassword);
+        User savedUser = userRepository.save(entity);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getUsername(),
+                savedUser.getTokenVersion()));
+        return UserDetailsImpl.build(savedUser);
+    }
+}
@@ -4,6 +4,7 @@ import com.ecommerce.userservice.dto.JwtResponse;
 import com.ecommerce.userservice.dto.LoginRequest;
 import com.ecommerce.userservice.dto.MessageResponse;
 import com.ecommerce.userservice.dto.SignupRequest;
+import com.ecommerce.userservice.event.UserChangedEvent;
 import com.ecommerce.userservice.mapper.RoleMapper;
 import com.ecommerce.userservice.mapper.UserMapper;
 import com.ecommerce.userservice.model.Role;
@@ -11,9 +12,11 @@ import com.ecommerce.userservice.model.User;
 import com.ecommerce.userservice.repository.RoleRepository;
 import com.ecommerce.userservice.repository.UserRepository;
 import com.ecommerce.userservice.security.jwt.JwtUtils;
+import com.ecommerce.userservice.security.jwt.TokenVersionRegistry;
 import com.ecommerce.userservice.security.services.UserDetailsImpl;
 import com.ecommerce.userservice.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -55,6 +58,9 @@ public class UserServiceImpl implements UserService {
     
     @Autowired
     private RoleMapper roleMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * 用戶註冊
@@ -172,6 +178,9 @@ public class UserServiceImpl implements UserService {
     /**
      * 更新用戶信息
      *
+     * 啟用狀態改變時遞增令牌版本，先前簽發的令牌隨即失效；交易提交後刷新令牌版本登記表，
+     * 並清除用戶詳情快取
+     *
      * @param id 用戶 ID
      * @param userDetails 更新後的用戶數據
      * @return 更新後的用戶對象
@@ -183,25 +192,36 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
         // 使用映射器更新用戶實體
+        boolean enabled = user.isEnabled();
         userMapper.updateEntity(user, userDetails);
+        if (user.isEnabled() != enabled) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
         
-        return userMapper.toDTO(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getUsername(),
+                savedUser.getTokenVersion()));
+        return userMapper.toDTO(savedUser);
     }
 
     /**
      * 刪除用戶
      *
+     * 交易提交後撤銷該用戶的全部令牌，並清除用戶詳情快取
+     *
      * @param id 用戶 ID
      * @return 包含操作結果信息的響應
      */
     @Override
     @Transactional
     public MessageResponse deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        Optional<User> user = userRepository.findById(id);
+        if (user.isEmpty()) {
             return new MessageResponse("User not found with id: " + id);
         }
         
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id, user.get().getUsername(), TokenVersionRegistry.REVOKED));
         return new MessageResponse("User deleted successfully");
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.ecommerce.userservice.benchmark;
+
+import com.ecommerce.userservice.security.jwt.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 驗證基準測試
+ *
+ * 比較認證過濾器每個請求「驗證令牌並取得用戶名」的吞吐量：
+ * <ul>
+ *   <li>twoParsesPerRequest：原本的做法，驗證與取得用戶名各自建立密鑰與解析器，令牌解析並驗證簽名兩次</li>
+ *   <li>singleParse：密鑰與解析器只建立一次，每個請求解析並驗證一次，停用快取</li>
+ *   <li>cachedClaims：同一令牌重複出現時以令牌摘要命中已驗證令牌快取</li>
+ * </ul>
+ *
+ * 執行方式：
+ * mvn -pl user-service test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtVerificationBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private JwtUtils uncached;
+
+    private JwtUtils cached;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        uncached = createJwtUtils(0);
+        cached = createJwtUtils(10000);
+        token = cached.generateJwtToken(new UsernamePasswordAuthenticationToken(
+                User.withUsername("benchmark").password("password").roles("USER").build(), null));
+    }
+
+    @Benchmark
+    public String twoParsesPerRequest() {
+        // 與調整前的 validateJwtToken 與 getUserNameFromJwtToken 相同
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return uncached.verifyJwtToken(token).map(Claims::getSubject).orElse(null);
+    }
+
+    @Benchmark
+    public String cachedClaims() {
+        return cached.verifyJwtToken(token).map(Claims::getSubject).orElse(null);
+    }
+
+    private static JwtUtils createJwtUtils(long cacheMaxSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", cacheMaxSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.userservice.benchmark;
+
+import com.ecommerce.userservice.security.LoginAttemptThrottle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登入節流基準測試
+ *
+ * 測量登入請求在密碼驗證前後經過節流器的額外耗時：
+ * <ul>
+ *   <li>happyPath：無失敗記錄的用戶登入成功，檢查用戶名與 IP 後清除用戶名的計數</li>
+ *   <li>throttledAttempt：失敗次數已達上限的用戶名被直接拒絕</li>
+ *   <li>failedAttempt：登入失敗時記錄用戶名與 IP 的失敗次數</li>
+ * </ul>
+ * 作為對照，cost 10 的 BCrypt 驗證一次約需數十毫秒。
+ *
+ * 執行方式：
+ * mvn -pl user-service test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main LoginThrottleBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoginThrottleBenchmark {
+
+    private static final int USERS = 10000;
+
+    private LoginAttemptThrottle throttle;
+
+    private String[] usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        throttle = new LoginAttemptThrottle();
+        ReflectionTestUtils.setField(throttle, "windowSeconds", 300L);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerUsername", 5);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 100000L);
+        throttle.init();
+
+        usernames = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            usernames[i] = "user" + i;
+        }
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("blocked", "10.0.0.1");
+        }
+    }
+
+    @Benchmark
+    public boolean happyPath() {
+        String username = usernames[ThreadLocalRandom.current().nextInt(USERS)];
+        boolean throttled = throttle.isThrottled(username, "10.0.0.2");
+        throttle.reset(username);
+        return throttled;
+    }
+
+    @Benchmark
+    public boolean throttledAttempt() {
+        return throttle.isThrottled("blocked", "10.0.0.2");
+    }
+
+    @Benchmark
+    public void failedAttempt() {
+        throttle.recordFailure(usernames[ThreadLocalRandom.current().nextInt(USERS)], "10.0.0.3");
+    }
+}
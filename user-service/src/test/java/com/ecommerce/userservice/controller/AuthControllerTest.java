@@ -4,7 +4,10 @@ import com.ecommerce.userservice.dto.JwtResponse;
 import com.ecommerce.userservice.dto.LoginRequest;
 import com.ecommerce.userservice.dto.MessageResponse;
 import com.ecommerce.userservice.dto.SignupRequest;
+import com.ecommerce.userservice.exception.PasswordHashingRejectedException;
+import com.ecommerce.userservice.security.LoginAttemptThrottle;
 import com.ecommerce.userservice.security.jwt.JwtUtils;
+import com.ecommerce.userservice.security.jwt.TokenVersionRegistry;
 import com.ecommerce.userservice.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -23,9 +26,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -57,6 +64,12 @@ public class AuthControllerTest {
     
     @MockBean
     private UserDetailsService userDetailsService;
+    
+    @MockBean
+    private TokenVersionRegistry tokenVersionRegistry;
+    
+    @MockBean
+    private LoginAttemptThrottle loginAttemptThrottle;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -145,5 +158,65 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.username").value("testuser"))
                 .andExpect(jsonPath("$.email").value("test@example.com"))
                 .andExpect(jsonPath("$.roles[0]").value("ROLE_USER"));
+        
+        // 驗證登入成功後清除失敗次數
+        verify(loginAttemptThrottle).reset("testuser");
+    }
+
+    /**
+     * 測試用戶登入端點
+     * 
+     * 測試場景：密碼哈希容量已滿
+     */
+    @Test
+    @DisplayName("密碼哈希容量已滿時，應該返回 429 並提示稍後重試")
+    void testAuthenticateUserWhenHashingSaturated() throws Exception {
+        // 準備測試數據
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password123");
+
+        // 模擬服務行為
+        when(userService.authenticateUser(any(LoginRequest.class)))
+                .thenThrow(new PasswordHashingRejectedException("Password hashing capacity exceeded"));
+
+        // 執行測試並驗證結果
+        mockMvc.perform(post("/api/auth/signin")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andDo(print())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Error: Too many authentication requests, please retry later"));
+    }
+
+    /**
+     * 測試用戶登入端點
+     * 
+     * 測試場景：登入失敗次數過多
+     */
+    @Test
+    @DisplayName("登入失敗次數過多時，應該不驗證密碼直接返回 429")
+    void testAuthenticateUserWhenThrottled() throws Exception {
+        // 準備測試數據
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password123");
+
+        // 模擬服務行為
+        when(loginAttemptThrottle.isThrottled(anyString(), anyString())).thenReturn(true);
+        when(loginAttemptThrottle.getRetryAfterSeconds()).thenReturn(300L);
+
+        // 執行測試並驗證結果
+        mockMvc.perform(post("/api/auth/signin")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andDo(print())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "300"))
+                .andExpect(jsonPath("$.message").value("Error: Too many failed login attempts, please retry later"));
+        
+        // 驗證未進行認證
+        verify(userService, never()).authenticateUser(any(LoginRequest.class));
     }
-}
\ No newline at end of file
+}
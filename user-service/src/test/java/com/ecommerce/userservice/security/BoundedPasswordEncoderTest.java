@@ -0,0 +1,142 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.exception.PasswordHashingRejectedException;
+import com.ecommerce.userservice.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BoundedPasswordEncoder 的單元測試類
+ *
+ * 測試在專用執行緒池中的哈希與驗證、容量已滿時的拒絕，以及 cost 改變後的重新哈希。
+ */
+public class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("應該在專用執行緒池中哈希與驗證密碼並記錄指標")
+    void testEncodeAndMatches() {
+        // 準備測試數據
+        encoder = new BoundedPasswordEncoder(4, 2, 4, meterRegistry);
+
+        // 執行測試
+        String encoded = encoder.encode("password123");
+
+        // 驗證結果
+        assertTrue(encoder.matches("password123", encoded));
+        assertFalse(encoder.matches("wrong", encoded));
+        assertEquals(1, meterRegistry.get("password.hashing.time").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing.time").tag("operation", "matches").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing.queue.wait").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("執行緒池與等待佇列已滿時應該立即拒絕")
+    void testRejectWhenSaturated() throws Exception {
+        // 模擬行為，哈希在放行前保持阻塞
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        encoder = new BoundedPasswordEncoder(delegate, 4, 1, 1, meterRegistry);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // 執行測試，第一個請求佔用執行緒，第二個請求進入佇列
+            Future<String> running = callers.submit(() -> encoder.encode("first"));
+            assertTrue(hashing.await(5, TimeUnit.SECONDS));
+            Future<String> queued = callers.submit(() -> encoder.encode("second"));
+            while (meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value() < 1) {
+                Thread.sleep(10);
+            }
+
+            // 驗證結果
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("third"));
+            assertEquals(1, meterRegistry.get("password.hashing.rejected").tag("operation", "encode").counter().count());
+
+            release.countDown();
+            assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("哈希的 cost 與設定不同時應該需要重新哈希")
+    void testUpgradeEncoding() {
+        // 準備測試數據
+        encoder = new BoundedPasswordEncoder(5, 1, 1, meterRegistry);
+
+        // 執行測試並驗證結果
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password123")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password123")));
+        assertFalse(encoder.upgradeEncoding("plain-text"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    @DisplayName("登入成功時應該以新的 cost 重新哈希密碼")
+    void testRehashOnLogin() {
+        // 準備測試數據
+        encoder = new BoundedPasswordEncoder(5, 1, 1, meterRegistry);
+        UserDetails user = new UserDetailsImpl(1L, "testuser", "test@example.com",
+                new BCryptPasswordEncoder(4).encode("password123"),
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+
+        // 模擬行為
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+        when(passwordService.updatePassword(eq(user), anyString())).thenReturn(user);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwordService);
+
+        // 執行測試
+        provider.authenticate(new UsernamePasswordAuthenticationToken("testuser", "password123"));
+
+        // 驗證結果
+        verify(passwordService).updatePassword(eq(user), argThat(hash ->
+                hash.startsWith("$2a$05$") && encoder.matches("password123", hash)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.userservice.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LoginAttemptThrottle 的單元測試類
+ *
+ * 以可控制的時間測試滑動視窗的失敗計數、按用戶名與 IP 的限制，以及登入成功後的重置。
+ */
+public class LoginAttemptThrottleTest {
+
+    private static final long WINDOW_MILLIS = 60_000L;
+
+    // 從視窗起點開始的測試時間
+    private final AtomicLong now = new AtomicLong(WINDOW_MILLIS * 1000);
+
+    private LoginAttemptThrottle throttle;
+
+    /**
+     * 每個測試方法執行前建立每個用戶名 3 次、每個 IP 10 次的節流器
+     */
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginAttemptThrottle();
+        ReflectionTestUtils.setField(throttle, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerUsername", 3);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", 10);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 1000L);
+        ReflectionTestUtils.setField(throttle, "clock", (LongSupplier) now::get);
+        throttle.init();
+    }
+
+    @Test
+    @DisplayName("用戶名的失敗次數達到上限後應該被拒絕，用戶名不區分大小寫")
+    void testThrottleByUsername() {
+        // 執行測試
+        throttle.recordFailure("testuser", "10.0.0.1");
+        throttle.recordFailure("TestUser", "10.0.0.2");
+        assertFalse(throttle.isThrottled("testuser", "10.0.0.3"));
+        throttle.recordFailure("TESTUSER", "10.0.0.3");
+
+        // 驗證結果
+        assertTrue(throttle.isThrottled("testuser", "10.0.0.4"));
+        assertFalse(throttle.isThrottled("otheruser", "10.0.0.4"));
+    }
+
+    @Test
+    @DisplayName("同一 IP 對不同用戶名的失敗次數達到上限後應該被拒絕")
+    void testThrottleByClientIp() {
+        // 執行測試
+        for (int i = 0; i < 10; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        // 驗證結果
+        assertTrue(throttle.isThrottled("newuser", "10.0.0.1"));
+        assertFalse(throttle.isThrottled("newuser", "10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("前一視窗的失敗次數應該隨時間按比例滑出")
+    void testSlidingWindow() {
+        // 準備測試數據，在視窗後半段失敗 3 次
+        now.addAndGet(WINDOW_MILLIS / 2);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("testuser", "10.0.0.1");
+        }
+        assertTrue(throttle.isThrottled("testuser", "10.0.0.1"));
+
+        // 下一視窗的前段仍計入大部分前一視窗的次數
+        now.addAndGet(WINDOW_MILLIS / 2 + WINDOW_MILLIS / 10);
+        assertFalse(throttle.isThrottled("testuser", "10.0.0.1"));
+        throttle.recordFailure("testuser", "10.0.0.1");
+        assertTrue(throttle.isThrottled("testuser", "10.0.0.1"));
+
+        // 超過兩個視窗後全部失效
+        now.addAndGet(WINDOW_MILLIS * 2);
+        assertFalse(throttle.isThrottled("testuser", "10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("登入成功後應該清除用戶名的失敗次數，但保留 IP 的失敗次數")
+    void testResetOnSuccess() {
+        // 準備測試數據
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", 3);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("testuser", "10.0.0.1");
+        }
+
+        // 執行測試
+        throttle.reset("testuser");
+
+        // 驗證結果
+        assertFalse(throttle.isThrottled("testuser", "10.0.0.2"));
+        assertTrue(throttle.isThrottled("testuser", "10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("並發記錄失敗時不應該遺失次數")
+    void testConcurrentFailures() throws Exception {
+        // 準備測試數據
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerUsername", 8000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // 執行測試，8 個執行緒各記錄 1000 次，視窗起點時前一視窗權重為 1
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    throttle.recordFailure("testuser", "10.0.0.1");
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // 驗證結果
+        assertTrue(throttle.isThrottled("testuser", "10.0.0.2"));
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerUsername", 8001);
+        assertFalse(throttle.isThrottled("testuser", "10.0.0.2"));
+    }
+}
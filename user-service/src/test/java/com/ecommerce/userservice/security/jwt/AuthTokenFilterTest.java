@@ -0,0 +1,163 @@
+package com.ecommerce.userservice.security.jwt;
+
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AuthTokenFilter 的單元測試類
+ *
+ * 測試由令牌聲明建立認證信息，以及以令牌版本撤銷令牌。
+ */
+@ExtendWith(MockitoExtension.class)
+public class AuthTokenFilterTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AuthTokenFilter authTokenFilter;
+
+    private JwtUtils jwtUtils;
+
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    /**
+     * 每個測試方法執行前建立過濾器與其依賴
+     */
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+        jwtUtils.init();
+
+        tokenVersionRegistry = new TokenVersionRegistry();
+        ReflectionTestUtils.setField(tokenVersionRegistry, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenVersionRegistry, "refreshSeconds", 60L);
+        ReflectionTestUtils.setField(tokenVersionRegistry, "maxSize", 100L);
+        tokenVersionRegistry.init();
+
+        authTokenFilter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authTokenFilter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(authTokenFilter, "tokenVersionRegistry", tokenVersionRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("應該由令牌聲明建立認證信息而不載入用戶")
+    void testAuthenticateFromClaims() throws Exception {
+        // 模擬服務行為
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L));
+
+        // 執行測試，同一用戶的兩個請求
+        filter(tokenFor(0L));
+        Authentication first = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        filter(tokenFor(0L));
+
+        // 驗證結果
+        assertNotNull(first);
+        UserDetailsImpl principal = (UserDetailsImpl) first.getPrincipal();
+        assertEquals(1L, principal.getId());
+        assertEquals("testuser", principal.getUsername());
+        assertTrue(first.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_USER")));
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        // 驗證方法調用，令牌版本只查詢一次，不載入用戶實體
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("令牌版本過期的令牌不應該通過認證")
+    void testRevokedTokenVersion() throws Exception {
+        // 模擬用戶更新後令牌版本遞增
+        tokenVersionRegistry.update(1L, 1L);
+
+        // 執行測試
+        filter(tokenFor(0L));
+
+        // 驗證結果
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userRepository, userDetailsService);
+    }
+
+    @Test
+    @DisplayName("已刪除用戶的令牌不應該通過認證")
+    void testDeletedUser() throws Exception {
+        // 模擬用戶刪除
+        tokenVersionRegistry.revoke(1L);
+
+        // 執行測試
+        filter(tokenFor(0L));
+
+        // 驗證結果
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("缺少用戶 ID 聲明的舊令牌應該依用戶名載入用戶")
+    void testLegacyTokenLoadsUser() throws Exception {
+        // 準備測試數據
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(
+                User.withUsername("testuser").password("password").roles("USER").build(), null));
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "testuser", "test@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
+
+        // 執行測試
+        filter(token);
+
+        // 驗證結果
+        assertSame(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verifyNoInteractions(userRepository);
+    }
+
+    private String tokenFor(long tokenVersion) {
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "testuser", "test@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), tokenVersion);
+        return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+    }
+
+    private void filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
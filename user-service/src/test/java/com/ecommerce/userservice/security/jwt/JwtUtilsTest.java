@@ -0,0 +1,172 @@
+package com.ecommerce.userservice.security.jwt;
+
+import com.ecommerce.userservice.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtUtils 的單元測試類
+ *
+ * 測試令牌的單次驗證、已驗證令牌快取，以及無效令牌的處理。
+ */
+public class JwtUtilsTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private JwtUtils jwtUtils;
+
+    private Authentication authentication;
+
+    /**
+     * 每個測試方法執行前建立啟用快取的 JwtUtils
+     */
+    @BeforeEach
+    void setUp() {
+        jwtUtils = createJwtUtils(SECRET, 86400000, 100);
+        authentication = new UsernamePasswordAuthenticationToken(
+                User.withUsername("testuser").password("password").roles("USER").build(), null);
+    }
+
+    @Test
+    @DisplayName("應該驗證有效令牌並返回聲明")
+    void testVerifyJwtToken() {
+        // 準備測試數據
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // 執行測試
+        Optional<Claims> claims = jwtUtils.verifyJwtToken(token);
+
+        // 驗證結果
+        assertTrue(claims.isPresent());
+        assertEquals("testuser", claims.get().getSubject());
+        assertTrue(jwtUtils.validateJwtToken(token));
+        assertEquals("testuser", jwtUtils.getUserNameFromJwtToken(token));
+    }
+
+    @Test
+    @DisplayName("同一令牌的再次驗證應該返回快取的聲明")
+    void testVerifyJwtTokenCached() {
+        // 準備測試數據
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // 執行測試
+        Claims first = jwtUtils.verifyJwtToken(token).orElseThrow();
+        Claims second = jwtUtils.verifyJwtToken(token).orElseThrow();
+
+        // 驗證結果
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("簽名被竄改的令牌應該驗證失敗")
+    void testVerifyTamperedToken() {
+        // 準備測試數據，先驗證原令牌使其進入快取
+        String token = jwtUtils.generateJwtToken(authentication);
+        jwtUtils.verifyJwtToken(token);
+        int position = token.length() - 5;
+        char original = token.charAt(position);
+        String tampered = token.substring(0, position) + (original == 'A' ? 'B' : 'A') + token.substring(position + 1);
+
+        // 執行測試並驗證結果
+        assertFalse(jwtUtils.verifyJwtToken(tampered).isPresent());
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+        assertThrows(JwtException.class, () -> jwtUtils.getUserNameFromJwtToken(tampered));
+    }
+
+    @Test
+    @DisplayName("其他密鑰簽發的令牌應該驗證失敗")
+    void testVerifyTokenWithOtherKey() {
+        // 準備測試數據
+        JwtUtils other = createJwtUtils(SECRET.replace('5', '6'), 86400000, 100);
+        String token = other.generateJwtToken(authentication);
+
+        // 執行測試並驗證結果
+        assertFalse(jwtUtils.verifyJwtToken(token).isPresent());
+    }
+
+    @Test
+    @DisplayName("過期或空白的令牌應該驗證失敗")
+    void testVerifyExpiredAndEmptyToken() {
+        // 準備測試數據
+        JwtUtils expired = createJwtUtils(SECRET, -1000, 100);
+        String token = expired.generateJwtToken(authentication);
+
+        // 執行測試並驗證結果
+        assertFalse(jwtUtils.verifyJwtToken(token).isPresent());
+        assertFalse(jwtUtils.verifyJwtToken("").isPresent());
+        assertFalse(jwtUtils.verifyJwtToken("not-a-jwt").isPresent());
+    }
+
+    @Test
+    @DisplayName("停用快取時每次都重新驗證令牌")
+    void testVerifyWithoutCache() {
+        // 準備測試數據
+        JwtUtils uncached = createJwtUtils(SECRET, 86400000, 0);
+        String token = uncached.generateJwtToken(authentication);
+
+        // 執行測試
+        Claims first = uncached.verifyJwtToken(token).orElseThrow();
+        Claims second = uncached.verifyJwtToken(token).orElseThrow();
+
+        // 驗證結果
+        assertNotSame(first, second);
+        assertEquals(first.getSubject(), second.getSubject());
+    }
+
+    @Test
+    @DisplayName("令牌應該攜帶用戶 ID、角色與令牌版本並可還原用戶詳情")
+    void testUserDetailsFromClaims() {
+        // 準備測試數據
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "testuser", "test@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), 3L);
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+
+        // 執行測試
+        Claims claims = jwtUtils.verifyJwtToken(token).orElseThrow();
+        UserDetailsImpl restored = jwtUtils.getUserDetailsFromClaims(claims).orElseThrow();
+
+        // 驗證結果
+        assertEquals(1L, restored.getId());
+        assertEquals("testuser", restored.getUsername());
+        assertEquals(3L, restored.getTokenVersion());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), restored.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        assertNull(restored.getPassword());
+    }
+
+    @Test
+    @DisplayName("缺少用戶 ID 聲明的舊令牌不應該還原用戶詳情")
+    void testUserDetailsFromLegacyClaims() {
+        // 準備測試數據
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // 執行測試並驗證結果
+        Claims claims = jwtUtils.verifyJwtToken(token).orElseThrow();
+        assertFalse(jwtUtils.getUserDetailsFromClaims(claims).isPresent());
+    }
+
+    private static JwtUtils createJwtUtils(String secret, int expirationMs, long cacheMaxSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", cacheMaxSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.userservice.security.jwt;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TokenVersionRegistry 的單元測試類
+ *
+ * 測試用戶變更只在交易提交後刷新令牌版本登記表。
+ */
+@SpringJUnitConfig
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class TokenVersionRegistryTest {
+
+    @Configuration
+    @EnableTransactionManagement
+    @Import(TokenVersionRegistry.class)
+    static class TestConfig {
+
+        @Bean
+        public PlatformTransactionManager transactionManager() {
+            return new NoOpTransactionManager();
+        }
+    }
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("用戶變更的交易提交後應該刷新令牌版本")
+    void testUpdateAfterCommit() {
+        // 執行測試
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                eventPublisher.publishEvent(new UserChangedEvent(1L, "testuser", 2L)));
+
+        // 驗證結果
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 2L));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("用戶變更的交易回滾時不應該改變令牌版本")
+    void testRollbackKeepsVersion() {
+        // 模擬行為
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L));
+
+        // 執行測試
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new UserChangedEvent(1L, "testuser", TokenVersionRegistry.REVOKED));
+            status.setRollbackOnly();
+        });
+
+        // 驗證結果
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 0L));
+    }
+
+    /**
+     * 不操作任何資源的交易管理器，只用於觸發交易同步回調
+     */
+    static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.ecommerce.userservice.security.services;
+
+import com.ecommerce.userservice.config.CacheConfig;
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.model.Role;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用戶詳情快取測試
+ *
+ * 驗證 loadUserByUsername 的讀取快取、同一用戶並發載入只查詢一次，以及用戶變更後的快取清除
+ */
+@SpringJUnitConfig
+public class UserDetailsCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, UserDetailsServiceImpl.class, UserDetailsCacheInvalidator.class})
+    static class TestConfig {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.USER_DETAILS_CACHE);
+        }
+    }
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE).clear();
+
+        Role role = new Role();
+        role.setName(Role.ERole.ROLE_USER);
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+        user.setRoles(Set.of(role));
+    }
+
+    @Test
+    @DisplayName("重複載入同一用戶應該命中快取")
+    void testLoadUserByUsername_CachesResult() {
+        // 模擬行為
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        // 執行測試
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        // 驗證結果
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("同一用戶的並發載入應該只查詢一次資料庫")
+    void testLoadUserByUsername_SingleFlight() throws Exception {
+        // 模擬行為，第一個查詢在放行前保持阻塞
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByUsername("testuser")).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
+
+        // 執行測試
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> userDetailsService.loadUserByUsername("testuser")));
+            }
+            assertTrue(querying.await(5, TimeUnit.SECONDS));
+            // 等待其他請求都進入快取載入後再完成查詢
+            Thread.sleep(200);
+            release.countDown();
+
+            UserDetails first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<UserDetails> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 驗證結果
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("不存在的用戶不應該被快取")
+    void testLoadUserByUsername_DoesNotCacheMissingUser() {
+        // 模擬行為
+        when(userRepository.findByUsername("missing")).thenReturn(Optional.empty());
+
+        // 執行測試並驗證結果
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("missing"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("missing"));
+
+        verify(userRepository, times(2)).findByUsername("missing");
+    }
+
+    @Test
+    @DisplayName("用戶變更後應該清除快取")
+    void testUserChanged_EvictsCache() {
+        // 模擬行為
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        // 執行測試
+        userDetailsService.loadUserByUsername("testuser");
+        eventPublisher.publishEvent(new UserChangedEvent(1L, "testuser", 0L));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // 驗證結果
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+}
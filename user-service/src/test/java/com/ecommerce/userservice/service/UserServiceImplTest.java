@@ -18,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -57,6 +58,9 @@ public class UserServiceImplTest {
     @Mock
     private JwtUtils jwtUtils;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -305,7 +309,7 @@ public class UserServiceImplTest {
     @DisplayName("應該成功刪除用戶")
     void testDeleteUserSuccess() {
         // 模擬行為
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
         // 執行測試
         MessageResponse response = userService.deleteUser(1L);
@@ -324,7 +328,7 @@ public class UserServiceImplTest {
     @DisplayName("當用戶不存在時，應該返回錯誤訊息")
     void testDeleteUserWhenUserDoesNotExist() {
         // 模擬行為
-        when(userRepository.existsById(99L)).thenReturn(false);
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         // 執行測試
         MessageResponse response = userService.deleteUser(99L);